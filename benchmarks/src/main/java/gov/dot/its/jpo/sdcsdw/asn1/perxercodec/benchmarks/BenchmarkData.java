@@ -0,0 +1,79 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.TestData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.TestData.PerTestDatum;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.TestData.XerTestDatum;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.UnformattingFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+
+/** Sample messages for benchmarks, taken from the unit test corpus and looked up by type name
+ *
+ * <p>
+ *
+ * Lookups are done by name rather than by Asn1Type so that benchmarks which do not touch the
+ * codec itself can run without the native library.
+ *
+ * @author andrew
+ *
+ */
+abstract class BenchmarkData
+{
+    /** Get the sample PER message for a type
+     *
+     * @param typeName Name of the type
+     * @return The sample message as raw bytes
+     * @throws UnformattingFailedException If the sample could not be read
+     */
+    static byte[] getPer(String typeName) throws UnformattingFailedException
+    {
+        PerTestDatum<String, HexPerData> datum = perData.get(typeName);
+        if (datum == null) {
+            throw new IllegalArgumentException("No PER sample for type " + typeName);
+        }
+        return datum.getUnformatter().unformatPerData(datum.getTestInput()).getPerData();
+    }
+
+    /** Get the sample XER message for a type
+     *
+     * @param typeName Name of the type
+     * @return The sample message, or null if the corpus has no XER sample for the type
+     */
+    static String getXer(String typeName)
+    {
+        XerTestDatum<String, RawXerData> datum = xerData.get(typeName);
+        return datum == null ? null : datum.getTestInput();
+    }
+
+    /** PER samples by type name */
+    private static final Map<String, PerTestDatum<String, HexPerData>> perData = new HashMap<>();
+
+    /** XER samples by type name */
+    private static final Map<String, XerTestDatum<String, RawXerData>> xerData = new HashMap<>();
+
+    static
+    {
+        perData.put("AdvisorySituationData", TestData.HexPerTestAdvisorySituationData);
+        perData.put("ServiceRequest", TestData.HexPerTestServiceRequest);
+        perData.put("ServiceResponse", TestData.HexPerTestServiceResponse);
+        perData.put("DataRequest", TestData.HexPerTestDataRequest);
+        perData.put("AdvisorySituationDataDistribution", TestData.HexPerTestAdvisoryDataDistribution);
+        perData.put("DataAcceptance", TestData.HexPerTestDataAcceptance);
+        perData.put("DataReceipt", TestData.HexPerTestDataReceipt);
+
+        xerData.put("AdvisorySituationData", TestData.RawXerTestAdvisorySituationData);
+        xerData.put("ServiceRequest", TestData.RawXerTestServiceRequest);
+        xerData.put("ServiceResponse", TestData.RawXerTestServiceResponse);
+        xerData.put("DataRequest", TestData.RawXerTestDataRequest);
+        xerData.put("DataAcceptance", TestData.RawXerTestDataAcceptance);
+        xerData.put("DataReceipt", TestData.RawXerTestDataReceipt);
+    }
+
+    /**
+     * Prevents this class from being instantiated
+     */
+    private BenchmarkData() { }
+}
@@ -0,0 +1,82 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.benchmarks;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/** Entry point for running the benchmarks
+ *
+ * <p>
+ *
+ * Every selected benchmark is run single threaded with the GC profiler attached, which reports
+ * allocation in bytes per operation alongside throughput. The codec benchmarks are then run again
+ * with more threads, to show how conversions scale across cores.
+ *
+ * <p>
+ *
+ * Any standard JMH command line options may be given, e.g. a regular expression to select benchmarks.
+ * The native library must be on java.library.path, which forked benchmark JVMs inherit, e.g.
+ *
+ * <pre>
+ * java -Djava.library.path=benchmarks/target -jar benchmarks/target/benchmarks.jar
+ * </pre>
+ *
+ * @author andrew
+ *
+ */
+public class BenchmarkRunner
+{
+    /** Run the benchmarks
+     *
+     * @param args JMH command line options
+     * @throws CommandLineOptionException If the command line options could not be parsed
+     * @throws RunnerException If a benchmark could not be run
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException
+    {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+        Options singleThreaded = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class)
+                .threads(1)
+                .build();
+        new Runner(singleThreaded).run();
+
+        for (int threads : getScalingThreadCounts()) {
+            Options scaling = new OptionsBuilder()
+                    .parent(commandLineOptions)
+                    .include(CodecBenchmark.class.getSimpleName())
+                    .addProfiler(GCProfiler.class)
+                    .threads(threads)
+                    .build();
+            new Runner(scaling).run();
+        }
+    }
+
+    /** Get the thread counts to run the scaling benchmarks with
+     *
+     * @return Powers of two up to the number of processors, and the number of processors itself
+     */
+    private static Set<Integer> getScalingThreadCounts()
+    {
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        Set<Integer> threadCounts = new LinkedHashSet<>();
+        for (int threads = 2; threads < processors; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        if (processors > 1) {
+            threadCounts.add(processors);
+        }
+
+        return threadCounts;
+    }
+}
@@ -0,0 +1,108 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.Asn1Type;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.Asn1Types;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec.TypeGuessResult;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.RawPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+
+/** Benchmarks for converting each type of message in both directions
+ *
+ * <p>
+ *
+ * Raw formatters are used on both sides, so these measure the conversion itself, along with the JNI crossing for
+ * the native backend, not the cost of any particular PER or XER representation. Each type is converted by both the
+ * native and the pure Java backend, to compare them.
+ *
+ * @author andrew
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark
+{
+    /** Name of the type to convert */
+    @Param({ "AdvisorySituationData",
+             "ServiceRequest",
+             "ServiceResponse",
+             "DataRequest",
+             "AdvisorySituationDataDistribution",
+             "DataAcceptance",
+             "DataReceipt" })
+    public String typeName;
+
+    /** Name of the codec backend to convert with */
+    @Param({ "native", "java" })
+    public String backend;
+
+    /** Type to convert */
+    private Asn1Type type;
+
+    /** Sample PER message */
+    private byte[] per;
+
+    /** Sample XER message */
+    private String xer;
+
+    /** Pick the backend, and load the sample messages for the type
+     *
+     * @throws CodecException If the samples could not be loaded
+     */
+    @Setup
+    public void setup() throws CodecException
+    {
+        PerXerCodec.setBackend(backend);
+        type = Asn1Types.getAsn1TypeByName(typeName);
+        per = BenchmarkData.getPer(typeName);
+
+        // Not every type has an XER sample, so make one from the PER sample when needed
+        xer = BenchmarkData.getXer(typeName);
+        if (xer == null) {
+            xer = PerXerCodec.perToXer(type, per, RawPerData.unformatter, RawXerData.formatter);
+        }
+    }
+
+    @Benchmark
+    public String perToXer() throws CodecException
+    {
+        return PerXerCodec.perToXer(type, per, RawPerData.unformatter, RawXerData.formatter);
+    }
+
+    @Benchmark
+    public byte[] xerToPer() throws CodecException
+    {
+        return PerXerCodec.xerToPer(type, xer, RawXerData.unformatter, RawPerData.formatter);
+    }
+
+    @Benchmark
+    public TypeGuessResult<String> guessPerToXer() throws CodecException
+    {
+        return PerXerCodec.guessPerToXer(Asn1Types.getAllTypes(), per, RawPerData.unformatter, RawXerData.formatter);
+    }
+
+    @Benchmark
+    public TypeGuessResult<byte[]> guessXerToPer() throws CodecException
+    {
+        return PerXerCodec.guessXerToPer(Asn1Types.getAllTypes(), xer, RawXerData.unformatter, RawPerData.formatter);
+    }
+}
@@ -0,0 +1,142 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.benchmarks;
+
+import java.net.DatagramPacket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.Base64PerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.ByteBufferPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.DatagramPacketPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.RawPerData;
+
+/** Benchmarks for each PER representation, without the codec itself
+ *
+ * <p>
+ *
+ * Formatting turns raw PER bytes into the representation, unformatting turns the representation back into raw bytes,
+ * as the codec does on either side of a conversion. None of these need the native library.
+ *
+ * @author andrew
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PerDataBenchmark
+{
+    /** Name of the type of the sample message */
+    @Param({ "AdvisorySituationData",
+             "ServiceRequest",
+             "ServiceResponse",
+             "DataRequest",
+             "AdvisorySituationDataDistribution",
+             "DataAcceptance",
+             "DataReceipt" })
+    public String typeName;
+
+    /** Sample message as raw bytes */
+    private byte[] per;
+
+    /** Sample message as hex */
+    private String hex;
+
+    /** Sample message as base64 */
+    private String base64;
+
+    /** Sample message in a byte buffer */
+    private ByteBuffer buffer;
+
+    /** Sample message in a datagram */
+    private DatagramPacket packet;
+
+    /** Build each representation of the sample message
+     *
+     * @throws CodecException If the sample could not be loaded
+     */
+    @Setup
+    public void setup() throws CodecException
+    {
+        per = BenchmarkData.getPer(typeName);
+        hex = HexPerData.formatter.formatPerData(per).getFormattedPerData();
+        base64 = Base64PerData.formatter.formatPerData(per).getFormattedPerData();
+        buffer = ByteBufferPerData.formatter.formatPerData(per).getFormattedPerData();
+        packet = DatagramPacketPerData.formatter.formatPerData(per).getFormattedPerData();
+    }
+
+    @Benchmark
+    public String formatHex() throws CodecException
+    {
+        return HexPerData.formatter.formatPerData(per).getFormattedPerData();
+    }
+
+    @Benchmark
+    public byte[] unformatHex() throws CodecException
+    {
+        return HexPerData.unformatter.unformatPerData(hex).getPerData();
+    }
+
+    @Benchmark
+    public String formatBase64() throws CodecException
+    {
+        return Base64PerData.formatter.formatPerData(per).getFormattedPerData();
+    }
+
+    @Benchmark
+    public byte[] unformatBase64() throws CodecException
+    {
+        return Base64PerData.unformatter.unformatPerData(base64).getPerData();
+    }
+
+    @Benchmark
+    public ByteBuffer formatByteBuffer() throws CodecException
+    {
+        return ByteBufferPerData.formatter.formatPerData(per).getFormattedPerData();
+    }
+
+    @Benchmark
+    public byte[] unformatByteBuffer() throws CodecException
+    {
+        return ByteBufferPerData.unformatter.unformatPerData(buffer).getPerData();
+    }
+
+    @Benchmark
+    public DatagramPacket formatDatagramPacket() throws CodecException
+    {
+        return DatagramPacketPerData.formatter.formatPerData(per).getFormattedPerData();
+    }
+
+    @Benchmark
+    public byte[] unformatDatagramPacket() throws CodecException
+    {
+        return DatagramPacketPerData.unformatter.unformatPerData(packet).getPerData();
+    }
+
+    @Benchmark
+    public byte[] formatRaw() throws CodecException
+    {
+        return RawPerData.formatter.formatPerData(per).getFormattedPerData();
+    }
+
+    @Benchmark
+    public byte[] unformatRaw() throws CodecException
+    {
+        return RawPerData.unformatter.unformatPerData(per).getPerData();
+    }
+}
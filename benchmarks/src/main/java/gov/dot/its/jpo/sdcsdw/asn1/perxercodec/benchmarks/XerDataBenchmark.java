@@ -0,0 +1,115 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.xml.sax.XMLReader;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.DocumentXerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.SaxXmlReaderXerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XmlStreamReaderXerData;
+
+/** Benchmarks for each XER representation, without the codec itself
+ *
+ * <p>
+ *
+ * Formatting turns the XML string produced by the codec into the representation,
+ * unformatting turns the representation back into the XML string the codec consumes.
+ * None of these need the native library.
+ *
+ * @author andrew
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XerDataBenchmark
+{
+    /** Name of the type of the sample message, limited to the types the corpus has XER samples for */
+    @Param({ "AdvisorySituationData",
+             "ServiceRequest",
+             "ServiceResponse",
+             "DataRequest",
+             "DataAcceptance",
+             "DataReceipt" })
+    public String typeName;
+
+    /** Sample message */
+    private String xer;
+
+    /** Sample message as a document */
+    private Document document;
+
+    /** Load the sample message
+     *
+     * @throws CodecException If the sample could not be parsed
+     */
+    @Setup
+    public void setup() throws CodecException
+    {
+        xer = BenchmarkData.getXer(typeName);
+        document = new DocumentXerData(xer).getFormattedXerData();
+    }
+
+    @Benchmark
+    public String formatRaw() throws CodecException
+    {
+        return RawXerData.formatter.formatXerData(xer).getFormattedXerData();
+    }
+
+    @Benchmark
+    public String unformatRaw() throws CodecException
+    {
+        return RawXerData.unformatter.unformatXerData(xer).getXerData();
+    }
+
+    @Benchmark
+    public Document formatDocument() throws CodecException
+    {
+        return DocumentXerData.formatter.formatXerData(xer).getFormattedXerData();
+    }
+
+    @Benchmark
+    public String unformatDocument() throws CodecException
+    {
+        return DocumentXerData.unformatter.unformatXerData(document).getXerData();
+    }
+
+    @Benchmark
+    public XMLReader formatSaxXmlReader() throws CodecException
+    {
+        return new SaxXmlReaderXerData(xer).getFormattedXerData();
+    }
+
+    @Benchmark
+    public int formatXmlStreamReader() throws CodecException, XMLStreamException
+    {
+        // The reader parses lazily, so pull every event as a consumer reading the whole document would
+        XMLStreamReader reader = XmlStreamReaderXerData.formatter.formatXerData(xer).getFormattedXerData();
+        int events = 0;
+        while (reader.hasNext()) {
+            reader.next();
+            ++events;
+        }
+        return events;
+    }
+}
@@ -5,6 +5,11 @@ import java.util.HashMap;
 
 /**
  * Known types for converting
+ * 
+ * <p>
+ * 
+ * The native enum value of each type mirrors enum asn1Type in the native library, and is checked against the
+ * library's type table when it is loaded, so that the types can be used without loading the library
  * @author andrew
  *
  */
@@ -12,31 +17,31 @@ public abstract class Asn1Types {
 	/** Type for Advisory Situation Data messages
 	 * 
 	 */
-	public static final Asn1Type AdvisorySituationDataType = new Asn1Type("AdvisorySituationData", Native.getAdvisorySituationDataType());
+	public static final Asn1Type AdvisorySituationDataType = new Asn1Type("AdvisorySituationData", 0);
 	/** Type for Service Request messages
 	 * 
 	 */
-	public static final Asn1Type ServiceRequestType = new Asn1Type("ServiceRequest", Native.getServiceRequestType());
+	public static final Asn1Type ServiceRequestType = new Asn1Type("ServiceRequest", 1);
 	/** Type for Service Response messages
 	 * 
 	 */
-	public static final Asn1Type ServiceResponseType = new Asn1Type("ServiceResponse", Native.getServiceResponseType());
+	public static final Asn1Type ServiceResponseType = new Asn1Type("ServiceResponse", 2);
 	/** Type for Data Request messages
 	 * 
 	 */
-	public static final Asn1Type DataRequestType = new Asn1Type("DataRequest", Native.getDataRequestType());
+	public static final Asn1Type DataRequestType = new Asn1Type("DataRequest", 3);
 	/** Type for Advisory Situation Data Distribution messages
 	 * 
 	 */
-	public static final Asn1Type AdvisorySituationDataDistributionType = new Asn1Type("AdvisorySituationDataDistribution", Native.getAdvisorySituationDataDistributionType());
+	public static final Asn1Type AdvisorySituationDataDistributionType = new Asn1Type("AdvisorySituationDataDistribution", 4);
 	/** Type for Data Acceptance messages
 	 * 
 	 */
-	public static final Asn1Type DataAcceptanceType = new Asn1Type("DataAcceptance", Native.getDataAcceptanceType());
+	public static final Asn1Type DataAcceptanceType = new Asn1Type("DataAcceptance", 5);
 	/** Type for Data Receipt messages
 	 * 
 	 */
-	public static final Asn1Type DataReceiptType = new Asn1Type("DataReceipt", Native.getDataReceiptType());
+	public static final Asn1Type DataReceiptType = new Asn1Type("DataReceipt", 6);
 
 	/** Get the ASN.1 type object based on the type's name
 	 * 
@@ -0,0 +1,864 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec.ConversionResult;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec.TypeGuessResult;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodecMetrics.Direction;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.Base64PerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerDataFormatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerDataUnformatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.ByteBufferXerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.Utf8XerData;
+
+/** Converts whole files of records, for reprocessing archives in a single run
+ *
+ * <p>
+ *
+ * PER input holds one hex or base64 encoded record per line, and blank lines are skipped. XER input holds XER
+ * documents one after another, with anything outside of them, such as whitespace, XML declarations, and comments,
+ * ignored. Input files are memory mapped, and XER records are handed to the native codec straight from the mapping.
+ *
+ * <p>
+ *
+ * Output is in the same order as the input, with the records of each input file following those of the file before
+ * it, and is in the same form the other direction reads. Each PER record is written on its own line, and a record
+ * which fails to convert leaves an empty line, so that output lines still line up with input records. Each XER
+ * record is written as a document followed by a newline, which may itself span several lines.
+ *
+ * <p>
+ *
+ * Records are converted in parallel on a fork join pool, a chunk at a time, with each chunk written out while the next
+ * is converted.
+ *
+ * @author andrew
+ *
+ */
+public class BulkConverter
+{
+    /** Totals for a run of the converter
+     *
+     * @author andrew
+     *
+     */
+    public static class Summary
+    {
+        /** Get the number of records read
+         *
+         * @return The number of records
+         */
+        public long getRecordCount()
+        {
+            return recordCount;
+        }
+
+        /** Get the number of records converted
+         *
+         * @return The number of records converted
+         */
+        public long getConvertedCount()
+        {
+            return recordCount - failedCount;
+        }
+
+        /** Get the number of records which failed to convert
+         *
+         * @return The number of records which failed
+         */
+        public long getFailedCount()
+        {
+            return failedCount;
+        }
+
+        /** Get the number of bytes read from the input files
+         *
+         * @return The size of the input
+         */
+        public long getInputBytes()
+        {
+            return inputBytes;
+        }
+
+        /** Get the number of bytes written to the output file
+         *
+         * @return The size of the output
+         */
+        public long getOutputBytes()
+        {
+            return outputBytes;
+        }
+
+        /** Get how long the run took
+         *
+         * @return Length of the run, in nanoseconds
+         */
+        public long getElapsedNanos()
+        {
+            return elapsedNanos;
+        }
+
+        /** Get the number of failures of each kind
+         *
+         * @return Counts keyed by the simple name of the exception each record failed with
+         */
+        public Map<String, Long> getFailureCounts()
+        {
+            return Collections.unmodifiableMap(failureCounts);
+        }
+
+        /** Get descriptions of the first few failures
+         *
+         * @return Where and why each of the first failures happened
+         */
+        public List<String> getFirstFailures()
+        {
+            return Collections.unmodifiableList(firstFailures);
+        }
+
+        /** Print the throughput and failures
+         *
+         * @param out Where to print
+         */
+        public void print(PrintStream out)
+        {
+            final double seconds = elapsedNanos / 1e9;
+            out.printf("Converted %d of %d records (%d bytes in, %d bytes out) in %.3f s%n",
+                       getConvertedCount(), recordCount, inputBytes, outputBytes, seconds);
+            if (seconds > 0) {
+                out.printf("Throughput: %.0f records/s, %.2f MB/s%n", recordCount / seconds, inputBytes / seconds / (1024 * 1024));
+            }
+            if (failedCount > 0) {
+                out.println("Failures: " + failedCount);
+                for (Map.Entry<String, Long> entry : failureCounts.entrySet()) {
+                    out.println("  " + entry.getKey() + ": " + entry.getValue());
+                }
+                for (String failure : firstFailures) {
+                    out.println("  " + failure);
+                }
+                if (failedCount > firstFailures.size()) {
+                    out.println("  ...");
+                }
+            }
+        }
+
+        /** Count a failed record
+         *
+         * @param record The record
+         * @param failure Why it failed
+         */
+        private void failed(Record record, CodecException failure)
+        {
+            ++failedCount;
+            failureCounts.merge(failure.getClass().getSimpleName(), 1L, Long::sum);
+            if (firstFailures.size() < MAX_REPORTED_FAILURES) {
+                firstFailures.add(record.file + ": record " + record.number + ": " + failure.getMessage());
+            }
+        }
+
+        /** Number of records read */
+        private long recordCount;
+
+        /** Number of records which failed */
+        private long failedCount;
+
+        /** Bytes read */
+        private long inputBytes;
+
+        /** Bytes written */
+        private long outputBytes;
+
+        /** Length of the run */
+        private long elapsedNanos;
+
+        /** Failures by kind */
+        private final Map<String, Long> failureCounts = new TreeMap<>();
+
+        /** Descriptions of the first failures */
+        private final List<String> firstFailures = new ArrayList<>();
+    }
+
+    /** Create a converter which uses every available processor
+     *
+     * @param direction Which way to convert
+     * @param perFormatter How PER records are encoded as text, either {@link HexPerData#formatter} or {@link Base64PerData#formatter}
+     * @param perUnformatter How PER records are encoded as text, matching perFormatter
+     * @param type The type every record contains, or null to guess each record's type
+     */
+    public BulkConverter(Direction direction,
+                         PerDataFormatter<String, ? extends PerData<String>> perFormatter,
+                         PerDataUnformatter<String, ? extends PerData<String>> perUnformatter,
+                         Asn1Type type)
+    {
+        this(direction, perFormatter, perUnformatter, type, Runtime.getRuntime().availableProcessors(), MAX_REGION_SIZE);
+    }
+
+    /** Create a converter
+     *
+     * @param direction Which way to convert
+     * @param perFormatter How PER records are encoded as text
+     * @param perUnformatter How PER records are encoded as text, matching perFormatter
+     * @param type The type every record contains, or null to guess each record's type
+     * @param parallelism Number of threads to convert on
+     * @param regionSize Most bytes of a file to map at once, which bounds the size of a single record
+     */
+    BulkConverter(Direction direction,
+                  PerDataFormatter<String, ? extends PerData<String>> perFormatter,
+                  PerDataUnformatter<String, ? extends PerData<String>> perUnformatter,
+                  Asn1Type type,
+                  int parallelism,
+                  int regionSize)
+    {
+        if (direction == null) {
+            throw new IllegalArgumentException("Direction cannot be null");
+        } else if (perFormatter == null) {
+            throw new IllegalArgumentException("PER Formatter cannot be null");
+        } else if (perUnformatter == null) {
+            throw new IllegalArgumentException("PER Unformatter cannot be null");
+        } else if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        } else if (regionSize < 1) {
+            throw new IllegalArgumentException("Region size must be at least 1");
+        }
+
+        this.direction = direction;
+        this.perFormatter = perFormatter;
+        this.perUnformatter = perUnformatter;
+        this.type = type;
+        this.parallelism = parallelism;
+        this.regionSize = regionSize;
+    }
+
+    /** Convert every record in a list of files
+     *
+     * @param inputs Files to read, in order
+     * @param output File to write, which is replaced if it exists
+     * @return Totals for the run
+     * @throws IOException If a file could not be read or written, or input is not made up of whole records
+     */
+    public Summary convert(List<Path> inputs, Path output) throws IOException
+    {
+        if (inputs == null) {
+            throw new IllegalArgumentException("Inputs cannot be null");
+        } else if (output == null) {
+            throw new IllegalArgumentException("Output cannot be null");
+        }
+
+        final Summary summary = new Summary();
+        final long start = System.nanoTime();
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer outBuffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+            for (Path input : inputs) {
+                convertFile(pool, input, out, outBuffer, summary);
+            }
+            flush(out, outBuffer);
+            summary.outputBytes = out.position();
+        } finally {
+            pool.shutdown();
+        }
+
+        summary.elapsedNanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    /** Convert every record in a file
+     *
+     * @param pool Pool to convert on
+     * @param input File to read
+     * @param out Channel to write to
+     * @param outBuffer Buffer for writing
+     * @param summary Totals to add to
+     * @throws IOException If a file could not be read or written
+     */
+    private void convertFile(ForkJoinPool pool, Path input, FileChannel out, ByteBuffer outBuffer, Summary summary) throws IOException
+    {
+        final Record[] records = readRecords(input);
+        summary.recordCount += records.length;
+        summary.inputBytes += input.toFile().length();
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        final ConversionResult<byte[]>[] results = new ConversionResult[records.length];
+
+        // Convert the next chunk while writing out the one before it
+        ForkJoinTask<Void> pending = chunkTask(pool, records, results, 0);
+        for (int chunkStart = 0; chunkStart < records.length; chunkStart += CHUNK_SIZE) {
+            pending.join();
+            pending = chunkTask(pool, records, results, chunkStart + CHUNK_SIZE);
+
+            final int chunkEnd = Math.min(chunkStart + CHUNK_SIZE, records.length);
+            for (int i = chunkStart; i < chunkEnd; ++i) {
+                if (results[i].isSuccessful()) {
+                    write(out, outBuffer, results[i].getData());
+                } else {
+                    summary.failed(records[i], results[i].getFailure());
+                }
+                write(out, outBuffer, NEWLINE);
+
+                // Let the output and mapping go as soon as they are written
+                results[i] = null;
+                records[i] = null;
+            }
+        }
+    }
+
+    /** Start converting a chunk of records
+     *
+     * @param pool Pool to convert on
+     * @param records Every record of the file
+     * @param results Where to put the result of each record
+     * @param chunkStart Index of the first record of the chunk
+     * @return The task converting the chunk
+     */
+    private ForkJoinTask<Void> chunkTask(ForkJoinPool pool, Record[] records, ConversionResult<byte[]>[] results, int chunkStart)
+    {
+        final int chunkEnd = Math.min(chunkStart + CHUNK_SIZE, records.length);
+        return pool.submit(new ConvertTask(records, results, Math.min(chunkStart, chunkEnd), chunkEnd));
+    }
+
+    /** Split a file into records
+     *
+     * @param input File to read
+     * @return The records in the file
+     * @throws IOException If the file could not be read, or is not made up of whole records
+     */
+    private Record[] readRecords(Path input) throws IOException
+    {
+        final List<Record> records = new ArrayList<>();
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            final long size = in.size();
+
+            // Map as much as allowed at a time, starting each mapping at the first record the last one did not finish
+            long regionStart = 0;
+            while (regionStart < size) {
+                final int regionLength = (int) Math.min(regionSize, size - regionStart);
+                final boolean last = regionStart + regionLength == size;
+                final ByteBuffer region = in.map(FileChannel.MapMode.READ_ONLY, regionStart, regionLength);
+
+                final int consumed;
+                try {
+                    consumed = direction == Direction.PER_TO_XER ? splitLines(region, last, input, records)
+                                                                 : splitXer(region, last, input, records);
+                } catch (IOException ex) {
+                    throw new IOException(input + ": " + ex.getMessage(), ex);
+                }
+
+                if (consumed == 0 && !last) {
+                    throw new IOException(input + ": record at byte " + regionStart + " is larger than " + regionSize + " bytes");
+                }
+                regionStart += consumed;
+                if (last) {
+                    break;
+                }
+            }
+        }
+
+        return records.toArray(new Record[0]);
+    }
+
+    /** Split a region of a file into records, one per line
+     *
+     * @param region The region
+     * @param last If the region runs to the end of the file, in which case a final line without a newline is a record
+     * @param file The file, for reporting failures
+     * @param records List to add the records to
+     * @return Number of bytes at the start of the region which hold whole records
+     */
+    static int splitLines(ByteBuffer region, boolean last, Path file, List<Record> records)
+    {
+        final int limit = region.limit();
+
+        int lineStart = 0;
+        for (int i = 0; i < limit; ++i) {
+            if (region.get(i) == '\n') {
+                addLine(region, lineStart, i, file, records);
+                lineStart = i + 1;
+            }
+        }
+
+        if (last && lineStart < limit) {
+            addLine(region, lineStart, limit, file, records);
+            lineStart = limit;
+        }
+
+        return lineStart;
+    }
+
+    /** Add a line as a record, unless it is blank
+     *
+     * @param region Region holding the line
+     * @param start Index of the first character of the line
+     * @param end Index just past the last character of the line, not counting the newline
+     * @param file The file, for reporting failures
+     * @param records List to add the record to
+     */
+    private static void addLine(ByteBuffer region, int start, int end, Path file, List<Record> records)
+    {
+        while (start < end && isWhitespace(region.get(start))) {
+            ++start;
+        }
+        while (end > start && isWhitespace(region.get(end - 1))) {
+            --end;
+        }
+
+        if (start < end) {
+            records.add(new Record(region, start, end - start, file, records.size() + 1));
+        }
+    }
+
+    /** Split a region of a file into records, one per top level XER element
+     *
+     * @param region The region
+     * @param last If the region runs to the end of the file, in which case it must not end inside a record
+     * @param file The file, for reporting failures
+     * @param records List to add the records to
+     * @return Number of bytes at the start of the region which hold whole records
+     * @throws IOException If the elements are not balanced
+     */
+    static int splitXer(ByteBuffer region, boolean last, Path file, List<Record> records) throws IOException
+    {
+        final int limit = region.limit();
+
+        int consumed = 0;
+        int recordStart = 0;
+        int depth = 0;
+        int i = 0;
+        while (i < limit) {
+            if (region.get(i) != '<') {
+                ++i;
+                continue;
+            }
+
+            final byte next = i + 1 < limit ? region.get(i + 1) : 0;
+            final int tagEnd = next == '!' && startsWith(region, i, COMMENT_START) ? indexOf(region, i, COMMENT_END) + COMMENT_END.length - 1
+                                                                                  : indexOf(region, i, TAG_END);
+            if (tagEnd < 0) {
+                break;
+            }
+
+            if (next == '?' || next == '!') {
+                // Declarations and comments are not elements, and are skipped with whatever surrounds them
+            } else if (next == '/') {
+                if (--depth < 0) {
+                    throw new IOException("unexpected end tag at byte " + i);
+                } else if (depth == 0) {
+                    records.add(new Record(region, recordStart, tagEnd + 1 - recordStart, file, records.size() + 1));
+                    consumed = tagEnd + 1;
+                }
+            } else if (region.get(tagEnd - 1) == '/') {
+                if (depth == 0) {
+                    records.add(new Record(region, i, tagEnd + 1 - i, file, records.size() + 1));
+                    consumed = tagEnd + 1;
+                }
+            } else {
+                if (depth++ == 0) {
+                    recordStart = i;
+                }
+            }
+
+            i = tagEnd + 1;
+        }
+
+        if (last) {
+            if (depth != 0 || i < limit) {
+                throw new IOException("incomplete XER at byte " + (depth != 0 ? recordStart : i));
+            }
+            return limit;
+        }
+
+        return consumed;
+    }
+
+    /** Check if bytes of a region match a sequence of characters
+     *
+     * @param region The region
+     * @param offset Where to start matching
+     * @param expected The characters to match
+     * @return If the region holds every expected character from offset
+     */
+    private static boolean startsWith(ByteBuffer region, int offset, byte[] expected)
+    {
+        if (offset + expected.length > region.limit()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; ++i) {
+            if (region.get(offset + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Find a sequence of characters in a region
+     *
+     * @param region The region
+     * @param from Where to start searching
+     * @param target The characters to find
+     * @return Index of the first character of the first match, or -1 if there is none
+     */
+    private static int indexOf(ByteBuffer region, int from, byte[] target)
+    {
+        for (int i = from; i + target.length <= region.limit(); ++i) {
+            if (startsWith(region, i, target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Check if a byte is ASCII whitespace
+     *
+     * @param b The byte
+     * @return If it is a space, tab, carriage return, or newline
+     */
+    private static boolean isWhitespace(byte b)
+    {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    /** Convert a single record
+     *
+     * @param record The record
+     * @return The output for the record, without a trailing newline
+     */
+    private ConversionResult<byte[]> convert(Record record)
+    {
+        try {
+            if (direction == Direction.PER_TO_XER) {
+                final byte[] text = new byte[record.length];
+                record.slice().get(text);
+                final String per = new String(text, StandardCharsets.US_ASCII);
+
+                if (type != null) {
+                    return new ConversionResult<>(PerXerCodec.perToXer(type, per, perUnformatter, Utf8XerData.formatter));
+                } else {
+                    final TypeGuessResult<byte[]> guess = PerXerCodec.guessPerToXer(Asn1Types.getAllTypes(), per, perUnformatter, Utf8XerData.formatter);
+                    return guessed(guess);
+                }
+            } else {
+                final String per;
+                if (type != null) {
+                    per = PerXerCodec.xerToPer(type, record.slice(), ByteBufferXerData.unformatter, perFormatter);
+                } else {
+                    per = guessed(PerXerCodec.guessXerToPer(Asn1Types.getAllTypes(), record.slice(), ByteBufferXerData.unformatter, perFormatter)).getData();
+                }
+                return new ConversionResult<>(per == null ? null : per.getBytes(StandardCharsets.US_ASCII));
+            }
+        } catch (CodecException ex) {
+            return new ConversionResult<>(ex);
+        }
+    }
+
+    /** Turn the result of guessing into the result of a conversion
+     *
+     * @param <T> Type of the converted data
+     * @param guess The result of guessing
+     * @return The data, if a type was found
+     * @throws CodecFailedException If no type was found
+     */
+    private static <T> ConversionResult<T> guessed(TypeGuessResult<T> guess) throws CodecFailedException
+    {
+        if (!guess.isSuccesful()) {
+            throw new CodecFailedException("Could not guess the type of the record");
+        }
+        return new ConversionResult<>(guess.getData());
+    }
+
+    /** Write bytes through a buffer
+     *
+     * @param out Channel to write to
+     * @param outBuffer Buffer for writing
+     * @param bytes Bytes to write
+     * @throws IOException If the bytes could not be written
+     */
+    private static void write(FileChannel out, ByteBuffer outBuffer, byte[] bytes) throws IOException
+    {
+        if (bytes.length > outBuffer.remaining()) {
+            flush(out, outBuffer);
+            if (bytes.length > outBuffer.capacity()) {
+                final ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    out.write(wrapped);
+                }
+                return;
+            }
+        }
+        outBuffer.put(bytes);
+    }
+
+    /** Write out everything in a buffer
+     *
+     * @param out Channel to write to
+     * @param outBuffer Buffer to empty
+     * @throws IOException If the bytes could not be written
+     */
+    private static void flush(FileChannel out, ByteBuffer outBuffer) throws IOException
+    {
+        outBuffer.flip();
+        while (outBuffer.hasRemaining()) {
+            out.write(outBuffer);
+        }
+        outBuffer.clear();
+    }
+
+    /** Entry point
+     *
+     * <p>
+     *
+     * Takes at least 5 arguments on the command line:
+     * <ul>
+     * <li>The format of the input data, XER or PER</li>
+     * <li>If PER data is hexadecimal (16) or base64 (64)</li>
+     * <li>The name of the ASN.1 type every record contains, or GUESS to guess each record's type</li>
+     * <li>The file to write</li>
+     * <li>The files to read</li>
+     * </ul>
+     *
+     * Exits with 1 if any record failed to convert, or -1 if the files could not be read or written.
+     *
+     * @param args Command line arguments
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 5) {
+            usage();
+            return;
+        }
+
+        final Direction direction;
+        switch (args[0]) {
+        case "XER":
+            direction = Direction.XER_TO_PER;
+            break;
+        case "PER":
+            direction = Direction.PER_TO_XER;
+            break;
+        default:
+            usage();
+            return;
+        }
+
+        final PerDataFormatter<String, ? extends PerData<String>> perFormatter;
+        final PerDataUnformatter<String, ? extends PerData<String>> perUnformatter;
+        switch (args[1]) {
+        case "16":
+            perFormatter = HexPerData.formatter;
+            perUnformatter = HexPerData.unformatter;
+            break;
+        case "64":
+            perFormatter = Base64PerData.formatter;
+            perUnformatter = Base64PerData.unformatter;
+            break;
+        default:
+            usage();
+            return;
+        }
+
+        Asn1Type type = null;
+        if (!GUESS_TYPE.equals(args[2])) {
+            type = Asn1Types.getAsn1TypeByName(args[2]);
+            if (type == null) {
+                usage();
+                return;
+            }
+        }
+
+        final Path output = Paths.get(args[3]);
+        final List<Path> inputs = new ArrayList<>();
+        for (String input : Arrays.asList(args).subList(4, args.length)) {
+            inputs.add(Paths.get(input));
+        }
+
+        final Summary summary;
+        try {
+            summary = new BulkConverter(direction, perFormatter, perUnformatter, type).convert(inputs, output);
+        } catch (IOException ex) {
+            System.out.println("Could not convert: " + ex.getMessage());
+            System.exit(-1);
+            return;
+        }
+
+        summary.print(System.out);
+        if (summary.getFailedCount() > 0) {
+            System.exit(1);
+        }
+    }
+
+    /** Print how to run the converter, and exit */
+    private static void usage()
+    {
+        System.out.println("Usage: ");
+        System.out.println("PerXerCodec BULK (XER|PER) (16|64) (TYPE|" + GUESS_TYPE + ") OUTPUT INPUT...");
+        System.exit(-1);
+    }
+
+    /** A record in a mapped region of an input file
+     *
+     * @author andrew
+     *
+     */
+    static final class Record
+    {
+        /** Create a record
+         *
+         * @param region Region holding the record
+         * @param offset Index of the record's first byte in region
+         * @param length Number of bytes in the record
+         * @param file File the record was read from
+         * @param number Position of the record in its file, counting from 1
+         */
+        Record(ByteBuffer region, int offset, int length, Path file, long number)
+        {
+            this.region = region;
+            this.offset = offset;
+            this.length = length;
+            this.file = file;
+            this.number = number;
+        }
+
+        /** Get a view of just the record's bytes
+         *
+         * @return A buffer whose position and limit surround the record
+         */
+        ByteBuffer slice()
+        {
+            final ByteBuffer slice = region.duplicate();
+            slice.limit(offset + length).position(offset);
+            return slice;
+        }
+
+        /** Region holding the record */
+        final ByteBuffer region;
+
+        /** Index of the record's first byte in region */
+        final int offset;
+
+        /** Number of bytes in the record */
+        final int length;
+
+        /** File the record was read from */
+        final Path file;
+
+        /** Position of the record in its file */
+        final long number;
+    }
+
+    /** Converts a range of records, splitting it between threads
+     *
+     * @author andrew
+     *
+     */
+    private class ConvertTask extends RecursiveAction
+    {
+        /** Create a task
+         *
+         * @param records Records to convert from
+         * @param results Where to put the result of each record
+         * @param start Index of the first record to convert
+         * @param end Index just past the last record to convert
+         */
+        ConvertTask(Record[] records, ConversionResult<byte[]>[] results, int start, int end)
+        {
+            this.records = records;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (end - start <= LEAF_SIZE) {
+                for (int i = start; i < end; ++i) {
+                    results[i] = convert(records[i]);
+                }
+            } else {
+                final int middle = (start + end) >>> 1;
+                invokeAll(new ConvertTask(records, results, start, middle), new ConvertTask(records, results, middle, end));
+            }
+        }
+
+        /** Records to convert from */
+        private final Record[] records;
+
+        /** Where to put the result of each record */
+        private final ConversionResult<byte[]>[] results;
+
+        /** Index of the first record to convert */
+        private final int start;
+
+        /** Index just past the last record to convert */
+        private final int end;
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /** Type name which asks for each record's type to be guessed */
+    public static final String GUESS_TYPE = "GUESS";
+
+    /** Most bytes of a file mapped at once */
+    private static final int MAX_REGION_SIZE = 1 << 30;
+
+    /** Number of records converted before being written out */
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    /** Number of records a single task converts without splitting */
+    private static final int LEAF_SIZE = 64;
+
+    /** Size of the buffer output is written through */
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+
+    /** Most failures described in a summary */
+    private static final int MAX_REPORTED_FAILURES = 10;
+
+    /** Written after every record */
+    private static final byte[] NEWLINE = { '\n' };
+
+    /** Starts an XML comment */
+    private static final byte[] COMMENT_START = "<!--".getBytes(StandardCharsets.US_ASCII);
+
+    /** Ends an XML comment */
+    private static final byte[] COMMENT_END = "-->".getBytes(StandardCharsets.US_ASCII);
+
+    /** Ends an XML tag */
+    private static final byte[] TAG_END = { '>' };
+
+    /** Which way to convert */
+    private final Direction direction;
+
+    /** How PER records are written as text */
+    private final PerDataFormatter<String, ? extends PerData<String>> perFormatter;
+
+    /** How PER records are read from text */
+    private final PerDataUnformatter<String, ? extends PerData<String>> perUnformatter;
+
+    /** The type every record contains, or null to guess */
+    private final Asn1Type type;
+
+    /** Number of threads to convert on */
+    private final int parallelism;
+
+    /** Most bytes of a file mapped at once */
+    private final int regionSize;
+}
@@ -0,0 +1,191 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/** The engine {@link PerXerCodec} hands PER and XER data to for conversion
+ *
+ * <p>
+ *
+ * Two backends are built in: "native", the default, which converts with the asn1c generated code over JNI, and
+ * "java", which converts in pure Java, without the native library. The backend is picked by the system property
+ * named by {@link #BACKEND_PROPERTY}, or by {@link PerXerCodec#setBackend(CodecBackend)}. Other backends can be listed
+ * in META-INF/services/gov.dot.its.jpo.sdcsdw.asn1.perxercodec.CodecBackend, and picked by their name.
+ *
+ * <p>
+ *
+ * The "java" backend does not yet convert every message the native library does, such as those with Position3D
+ * regional extensions, so it is never picked by the system property, only by {@link PerXerCodec#setBackend(String)}.
+ *
+ * <p>
+ *
+ * Backends report failure by returning null or -1 rather than by throwing, as the native library does, and must be
+ * safe to call from many threads at once. Only {@link #getName()}, {@link #perToXer(Asn1Type, byte[])},
+ * {@link #xerToPer(Asn1Type, String)}, {@link #detectTypes(byte[])}, and
+ * {@link #extractSemiIds(Asn1Type, byte[])} must be implemented; the other methods fall back on those.
+ *
+ * @author andrew
+ *
+ */
+public interface CodecBackend
+{
+    /** Get the name the backend is picked by
+     *
+     * @return Name of the backend
+     */
+    String getName();
+
+    /** Prepare the backend, so that the first conversion does not have to
+     *
+     * @throws RuntimeException If the backend cannot be used, such as
+     *         {@link gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.NativeLibraryException}
+     */
+    default void load()
+    {
+    }
+
+    /** Convert PER data to XER
+     *
+     * @param type The type the PER data contains
+     * @param per The PER data
+     * @return The XER data, or null if the conversion failed
+     */
+    String perToXer(Asn1Type type, byte[] per);
+
+    /** Convert PER data to UTF-8 encoded XER
+     *
+     * @param type The type the PER data contains
+     * @param per The PER data
+     * @return The UTF-8 encoded XER data, or null if the conversion failed
+     */
+    default byte[] perToXerUtf8(Asn1Type type, byte[] per)
+    {
+        final String xer = perToXer(type, per);
+        return xer == null ? null : xer.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Convert PER data held in a byte buffer to XER
+     *
+     * @param type The type the PER data contains
+     * @param per Buffer holding the PER data between its position and limit, which must be left untouched
+     * @return The XER data, or null if the conversion failed
+     */
+    default String perToXer(Asn1Type type, ByteBuffer per)
+    {
+        final byte[] copy = new byte[per.remaining()];
+        per.duplicate().get(copy);
+        return perToXer(type, copy);
+    }
+
+    /** Convert XER data to PER
+     *
+     * @param type The type the XER data contains
+     * @param xer The XER data
+     * @return The PER data, or null if the conversion failed
+     */
+    byte[] xerToPer(Asn1Type type, String xer);
+
+    /** Convert UTF-8 encoded XER data to PER
+     *
+     * @param type The type the XER data contains
+     * @param xer Buffer holding the UTF-8 encoded XER data between its position and limit, which must be left untouched
+     * @return The PER data, or null if the conversion failed
+     */
+    default byte[] xerToPerUtf8(Asn1Type type, ByteBuffer xer)
+    {
+        return xerToPer(type, StandardCharsets.UTF_8.decode(xer.duplicate()).toString());
+    }
+
+    /** Convert XER data to PER, writing the PER data into a byte buffer
+     *
+     * @param type The type the XER data contains
+     * @param xer The XER data
+     * @param per Buffer to write the PER data into, starting at its position, which must be left untouched
+     * @return The number of bytes of PER data, which were only written if they fit before the buffer's limit,
+     *         or -1 if the conversion failed
+     */
+    default int xerToPer(Asn1Type type, String xer, ByteBuffer per)
+    {
+        final byte[] rawPer = xerToPer(type, xer);
+        if (rawPer == null) {
+            return -1;
+        } else if (rawPer.length <= per.remaining()) {
+            per.duplicate().put(rawPer);
+        }
+        return rawPer.length;
+    }
+
+    /** Convert a batch of PER data to XER
+     *
+     * @param type The type every item contains
+     * @param per Every item, packed end to end
+     * @param offsets Offset of each item in per, followed by the total length
+     * @return The XER data of each item, with null for each item which failed
+     */
+    default String[] perToXerBatch(Asn1Type type, byte[] per, int[] offsets)
+    {
+        final String[] xers = new String[offsets.length - 1];
+        for (int i = 0; i < xers.length; ++i) {
+            xers[i] = perToXer(type, ByteBuffer.wrap(per, offsets[i], offsets[i + 1] - offsets[i]));
+        }
+        return xers;
+    }
+
+    /** Convert a batch of UTF-8 encoded XER data to PER
+     *
+     * @param type The type every item contains
+     * @param xer Every item, packed end to end
+     * @param offsets Offset of each item in xer, followed by the total length
+     * @return The PER data of each item, with null for each item which failed
+     */
+    default byte[][] xerToPerBatch(Asn1Type type, byte[] xer, int[] offsets)
+    {
+        final byte[][] pers = new byte[offsets.length - 1][];
+        for (int i = 0; i < pers.length; ++i) {
+            pers[i] = xerToPerUtf8(type, ByteBuffer.wrap(xer, offsets[i], offsets[i + 1] - offsets[i]));
+        }
+        return pers;
+    }
+
+    /** Find which types the SEMI dialogID and seqID at the start of PER data match, without decoding the rest
+     *
+     * @param per The PER data, of which only the first few bytes need be read
+     * @return Bit mask with bit (1 &lt;&lt; n) set for the nth type of {@link Asn1Types#getAllTypes()} if it matches
+     */
+    int detectTypes(byte[] per);
+
+    /** Read the SEMI dialogID and seqID at the start of PER data
+     *
+     * @param type The type the PER data contains
+     * @param per The PER data
+     * @return The dialogID in bits 48 to 63, the seqID in bits 32 to 47, and the offset of the first bit after the
+     *         seqID in bits 0 to 31, or -1 if they could not be read or do not match the type
+     */
+    long extractSemiIds(Asn1Type type, byte[] per);
+
+    /** Find why the last conversion on the calling thread failed
+     *
+     * @return One of the FAILURE_ constants, with the asn1c decoder's return code in the low byte for
+     *         {@link #FAILURE_DECODE}
+     */
+    default int lastFailure()
+    {
+        return FAILURE_NONE;
+    }
+
+    /** System property naming the backend to use, "native" if it is not set, which cannot name "java" */
+    String BACKEND_PROPERTY = "gov.dot.its.jpo.sdcsdw.asn1.perxercodec.backend";
+
+    /** No failure is known */
+    int FAILURE_NONE = Native.FAILURE_NONE;
+
+    /** The data could not be decoded; the low byte is 1 if it ended early, as asn1c's RC_WMORE, or 2 if it is
+     *  invalid, as asn1c's RC_FAIL */
+    int FAILURE_DECODE = Native.FAILURE_DECODE;
+
+    /** The data decoded, but its SEMI dialogID and seqID did not match its type */
+    int FAILURE_IDS = Native.FAILURE_IDS;
+
+    /** The data decoded, but could not be encoded */
+    int FAILURE_ENCODE = Native.FAILURE_ENCODE;
+}
@@ -0,0 +1,102 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import java.util.ServiceLoader;
+
+/** Finds codec backends by name, and holds the one in use
+ *
+ * <p>
+ *
+ * The backend in use is read from the system property named by {@link CodecBackend#BACKEND_PROPERTY} the first time
+ * it is needed, so that a backend picked before then keeps the native library from ever being loaded. The property can
+ * name "native", or a backend listed as a service; the "java" backend does not yet convert every message the native
+ * library does, so it is only used when picked by name with {@link #forName(String)}.
+ *
+ * @author andrew
+ *
+ */
+final class CodecBackends
+{
+    /** Find a backend by name
+     *
+     * @param name "native", "java", or the name of a backend listed as a service
+     * @return The backend
+     * @throws IllegalArgumentException If there is no backend by that name
+     */
+    static CodecBackend forName(String name)
+    {
+        if (JavaCodecBackend.NAME.equals(name)) {
+            return JavaCodecBackend.INSTANCE;
+        }
+        return listed(name);
+    }
+
+    /** Find a backend which can be picked by the system property
+     *
+     * @param name "native", or the name of a backend listed as a service
+     * @return The backend
+     * @throws IllegalArgumentException If there is no backend by that name
+     */
+    private static CodecBackend listed(String name)
+    {
+        if (name == null) {
+            throw new IllegalArgumentException("Backend name cannot be null");
+        } else if (name.equals(NativeCodecBackend.NAME)) {
+            return NativeCodecBackend.INSTANCE;
+        }
+
+        for (CodecBackend provided : ServiceLoader.load(CodecBackend.class)) {
+            if (name.equals(provided.getName())) {
+                return provided;
+            }
+        }
+        throw new IllegalArgumentException("No codec backend named " + name);
+    }
+
+    /** Get the backend in use, picking the configured one if none has been picked yet
+     *
+     * @return The backend in use
+     * @throws IllegalStateException If the system property names no backend it can pick
+     */
+    static CodecBackend current()
+    {
+        final CodecBackend picked = current;
+        if (picked != null) {
+            return picked;
+        }
+
+        synchronized (CodecBackends.class) {
+            if (current == null) {
+                final String name = System.getProperty(CodecBackend.BACKEND_PROPERTY, NativeCodecBackend.NAME);
+                if (name.equals(JavaCodecBackend.NAME)) {
+                    throw new IllegalStateException(CodecBackend.BACKEND_PROPERTY + " cannot pick the java backend, pick it with PerXerCodec.setBackend instead");
+                }
+                try {
+                    current = listed(name);
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalStateException(CodecBackend.BACKEND_PROPERTY + " is set to " + name + ", which is not a known codec backend", ex);
+                }
+            }
+            return current;
+        }
+    }
+
+    /** Pick the backend to use
+     *
+     * @param backend The backend
+     */
+    static void set(CodecBackend backend)
+    {
+        if (backend == null) {
+            throw new IllegalArgumentException("Backend cannot be null");
+        }
+        current = backend;
+    }
+
+    /** Prevents this class from being instantiated */
+    private CodecBackends()
+    {
+    }
+
+    /** The backend in use, or null until one is picked */
+    private static volatile CodecBackend current;
+}
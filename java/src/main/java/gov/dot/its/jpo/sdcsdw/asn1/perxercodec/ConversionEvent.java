@@ -0,0 +1,255 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodecMetrics.Direction;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodecMetrics.Stage;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** Flight recorder event for a single conversion, which also times its stages for {@link PerXerCodecMetrics}
+ *
+ * <p>
+ *
+ * The event is disabled by default, and is turned on in a recording by name, for example with
+ * {@code -XX:StartFlightRecording:settings=profile,+gov.dot.its.jpo.sdcsdw.asn1.perxercodec.Conversion#enabled=true}
+ * or in a JFC file. While neither the event nor the metrics are enabled, nothing is timed, and the only cost of a
+ * conversion's event is creating it.
+ *
+ * <p>
+ *
+ * One event is started per call into {@link PerXerCodec}, and must be finished exactly once, however the call ends.
+ * Guessing calls count each type they try, and add up the time spent on every attempt.
+ *
+ * @author andrew
+ *
+ */
+@Name(ConversionEvent.NAME)
+@Label("PER XER Conversion")
+@Category("PER XER Codec")
+@Description("A conversion between PER and XER")
+@Enabled(false)
+@StackTrace(false)
+final class ConversionEvent extends Event
+{
+    /** Start an event for a conversion
+     *
+     * @param direction Which way the conversion goes
+     * @return The event, which must be finished with {@link #finish()}
+     */
+    static ConversionEvent start(Direction direction)
+    {
+        final ConversionEvent event = new ConversionEvent();
+        event.conversionDirection = direction;
+        event.timed = PerXerCodecMetrics.isRecording() || event.isEnabled();
+        if (event.timed) {
+            event.begin();
+            event.lastLap = System.nanoTime();
+        }
+        return event;
+    }
+
+    /** Finish timing a stage, and start timing the next one
+     *
+     * @param type The type converted, or null if it is not known yet
+     * @param stage The stage which has just finished
+     */
+    void lap(Asn1Type type, Stage stage)
+    {
+        if (!timed) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+        final long nanos = now - lastLap;
+        lastLap = now;
+
+        switch (stage) {
+        case UNFORMAT:
+            unformatDuration += nanos;
+            break;
+        case NATIVE:
+            nativeDuration += nanos;
+            break;
+        case FORMAT:
+            formatDuration += nanos;
+            break;
+        }
+        PerXerCodecMetrics.stage(type, conversionDirection, stage, nanos);
+    }
+
+    /** Restart timing without recording the time since the last lap, such as between guesses
+     */
+    void skip()
+    {
+        if (timed) {
+            lastLap = System.nanoTime();
+        }
+    }
+
+    /** Note an attempt to convert as a type
+     *
+     * @param type The type attempted
+     */
+    void attempt(Asn1Type type)
+    {
+        conversionType = type;
+        ++guessAttempts;
+    }
+
+    /** Note the size of the input handed to the native codec
+     *
+     * @param size Size of the input, in bytes, or in characters for XER held as a string
+     */
+    void input(int size)
+    {
+        inputSize = size;
+    }
+
+    /** Note that the conversion succeeded
+     *
+     * @param type The type converted
+     * @param size Size of the native codec's output, in bytes, or in characters for XER held as a string
+     */
+    void succeeded(Asn1Type type, int size)
+    {
+        conversionType = type;
+        outputSize = size;
+        outcome = SUCCESS;
+        PerXerCodecMetrics.success(type, conversionDirection);
+    }
+
+    /** Note that the native codec failed, finding out why if anyone is listening
+     *
+     * <p>
+     *
+     * This must be called on the thread which made the failed native call, before it makes any other.
+     *
+     * @param type The type converted
+     */
+    void nativeFailed(Asn1Type type)
+    {
+        conversionType = type;
+        if (!timed) {
+            return;
+        }
+
+        final int failure = CodecBackends.current().lastFailure();
+        switch (failure & ~0xFF) {
+        case Native.FAILURE_DECODE:
+            outcome = "DECODE_FAILURE";
+            break;
+        case Native.FAILURE_IDS:
+            outcome = "ID_VALIDATION_FAILURE";
+            break;
+        case Native.FAILURE_ENCODE:
+            outcome = "ENCODE_FAILURE";
+            break;
+        default:
+            outcome = "NATIVE_FAILURE";
+            break;
+        }
+        PerXerCodecMetrics.nativeFailure(type, conversionDirection, failure);
+    }
+
+    /** Note that the input could not be unformatted
+     *
+     * @param type The type converted, or null if it is not known
+     */
+    void unformattingFailed(Asn1Type type)
+    {
+        conversionType = type;
+        outcome = "UNFORMATTING_FAILURE";
+        PerXerCodecMetrics.unformattingFailure(type, conversionDirection);
+    }
+
+    /** Note that the output could not be formatted
+     *
+     * @param type The type converted
+     */
+    void formattingFailed(Asn1Type type)
+    {
+        conversionType = type;
+        outcome = "FORMATTING_FAILURE";
+        PerXerCodecMetrics.formattingFailure(type, conversionDirection);
+    }
+
+    /** Note that no type could be guessed */
+    void noMatch()
+    {
+        conversionType = null;
+        outcome = "NO_MATCH";
+    }
+
+    /** Commit the event, if a recording wants it */
+    void finish()
+    {
+        if (timed && shouldCommit()) {
+            type = conversionType == null ? null : conversionType.getName();
+            direction = conversionDirection.name();
+            commit();
+        }
+    }
+
+    /** Name of the event in recordings */
+    static final String NAME = "gov.dot.its.jpo.sdcsdw.asn1.perxercodec.Conversion";
+
+    /** Outcome of a conversion which succeeded */
+    private static final String SUCCESS = "SUCCESS";
+
+    @Label("Type")
+    @Description("ASN.1 type converted, or null if no type could be guessed")
+    String type;
+
+    @Label("Direction")
+    @Description("PER_TO_XER or XER_TO_PER")
+    String direction;
+
+    @Label("Input Size")
+    @Description("Size of the input handed to the native codec, in characters for XER held as a string")
+    @DataAmount
+    int inputSize;
+
+    @Label("Output Size")
+    @Description("Size of the native codec's output, in characters for XER held as a string")
+    @DataAmount
+    int outputSize;
+
+    @Label("Unformat Duration")
+    @Timespan
+    long unformatDuration;
+
+    @Label("Native Duration")
+    @Description("Time spent in the native codec, over every attempt when guessing")
+    @Timespan
+    long nativeDuration;
+
+    @Label("Format Duration")
+    @Timespan
+    long formatDuration;
+
+    @Label("Guess Attempts")
+    @Description("Number of types tried, 0 when the type was given")
+    int guessAttempts;
+
+    @Label("Outcome")
+    @Description("SUCCESS, or the reason the conversion failed")
+    String outcome;
+
+    /** Which way the conversion goes */
+    private transient Direction conversionDirection;
+
+    /** Type converted, or null if not known */
+    private transient Asn1Type conversionType;
+
+    /** If stages are being timed */
+    private transient boolean timed;
+
+    /** When the current stage started */
+    private transient long lastLap;
+}
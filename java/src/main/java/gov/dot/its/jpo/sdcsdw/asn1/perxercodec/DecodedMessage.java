@@ -0,0 +1,198 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import java.lang.ref.Cleaner;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.FormattingFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerDataFormatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerDataFormatter;
+
+/** A message which has been decoded once by the native codec, and can then be encoded any number of times
+ *
+ * <p>
+ *
+ * The decoded message lives in native memory, which is freed by {@link #close()}.
+ * Messages which are never closed are freed once they become unreachable, but as that is up to the garbage
+ * collector, messages should be closed, preferably with try-with-resources.
+ *
+ * <p>
+ *
+ * Encoding and closing are synchronized, so a message can be shared between threads.
+ *
+ * @author andrew
+ *
+ */
+public final class DecodedMessage implements AutoCloseable
+{
+    /** Wrap a handle to a natively decoded message
+     *
+     * @param type The type the message was decoded as
+     * @param handle Handle to the decoded message, which this object takes ownership of
+     */
+    DecodedMessage(Asn1Type type, long handle)
+    {
+        this.type = type;
+        this.state = new State(type.cInt, handle);
+        this.cleanable = cleaner.register(this, state);
+    }
+
+    /** Get the type the message was decoded as
+     *
+     * @return The type of the message
+     */
+    public Asn1Type getType()
+    {
+        return type;
+    }
+
+    /** Encode the message as XER
+     *
+     * @param <XER> Output type representing XER data
+     * @param <XerT> Wrapper around XER
+     * @param xerFormatter A hint as to how to represent output XER in memory
+     * @return The XER encoded data
+     * @throws CodecFailedException If the generated ASN.1 code could not encode the message
+     * @throws FormattingFailedException If the desired XER representation could not be built
+     * @throws IllegalStateException If the message has been closed
+     */
+    public <XER, XerT extends XerData<XER>>
+    XER toXer(XerDataFormatter<XER, XerT> xerFormatter) throws CodecFailedException, FormattingFailedException
+    {
+        if (xerFormatter == null) {
+            throw new IllegalArgumentException("XER Formatter cannot be null");
+        }
+
+        final String rawXer;
+        synchronized (state) {
+            rawXer = Native.encodeXer(state.cType, state.getHandle());
+        }
+
+        if (rawXer == null) {
+            throw new CodecFailedException("Could not encode " + type.getName() + " as XER");
+        } else {
+            return xerFormatter.formatXerData(rawXer).getFormattedXerData();
+        }
+    }
+
+    /** Encode the message as PER
+     *
+     * @param <PER> Output type representing PER data
+     * @param <PerT> Wrapper around PER
+     * @param perFormatter A hint as to how to represent output PER in memory
+     * @return The PER encoded data
+     * @throws CodecFailedException If the generated ASN.1 code could not encode the message
+     * @throws FormattingFailedException If the desired PER representation could not be built
+     * @throws IllegalStateException If the message has been closed
+     */
+    public <PER, PerT extends PerData<PER>>
+    PER toPer(PerDataFormatter<PER, PerT> perFormatter) throws CodecFailedException, FormattingFailedException
+    {
+        if (perFormatter == null) {
+            throw new IllegalArgumentException("PER Formatter cannot be null");
+        }
+
+        final byte[] rawPer;
+        synchronized (state) {
+            rawPer = Native.encodePer(state.cType, state.getHandle());
+        }
+
+        if (rawPer == null) {
+            throw new CodecFailedException("Could not encode " + type.getName() + " as PER");
+        } else {
+            return perFormatter.formatPerData(rawPer).getFormattedPerData();
+        }
+    }
+
+    /** Check if the message has been closed
+     *
+     * @return If the native memory holding the message has been freed
+     */
+    public boolean isClosed()
+    {
+        synchronized (state) {
+            return state.handle == 0;
+        }
+    }
+
+    /** Free the native memory holding the message
+     *
+     * <p>
+     *
+     * Closing a message more than once has no further effect.
+     */
+    @Override
+    public void close()
+    {
+        cleanable.clean();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "DecodedMessage [type=" + type.getName() + (isClosed() ? ", closed" : "") + "]";
+    }
+
+    /** Native side of a decoded message, kept apart from the message so that the cleaner does not keep it reachable
+     *
+     * @author andrew
+     *
+     */
+    private static class State implements Runnable
+    {
+        /** Create the state for a decoded message
+         *
+         * @param cType Native enum of the type the message was decoded as
+         * @param handle Handle to the decoded message
+         */
+        State(int cType, long handle)
+        {
+            this.cType = cType;
+            this.handle = handle;
+        }
+
+        /** Get the handle to the decoded message, must be called while synchronized on this
+         *
+         * @return The handle to the decoded message
+         * @throws IllegalStateException If the message has been closed
+         */
+        long getHandle()
+        {
+            if (handle == 0) {
+                throw new IllegalStateException("Decoded message has been closed");
+            }
+            return handle;
+        }
+
+        /** Free the decoded message, which the cleaner guarantees happens at most once */
+        @Override
+        public synchronized void run()
+        {
+            if (handle != 0) {
+                Native.freeDecoded(cType, handle);
+                handle = 0;
+            }
+        }
+
+        /** Native enum of the type the message was decoded as */
+        private final int cType;
+
+        /** Handle to the decoded message, or 0 once it has been freed */
+        private long handle;
+    }
+
+    /**
+     * Frees messages which were never closed
+     */
+    private static final Cleaner cleaner = Cleaner.create();
+
+    /** Type the message was decoded as */
+    private final Asn1Type type;
+
+    /** Native side of the message */
+    private final State state;
+
+    /** Registration with the cleaner, which frees the message when cleaned */
+    private final Cleaner.Cleanable cleanable;
+}
@@ -1,6 +1,7 @@
 package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -33,7 +34,8 @@ public class ExampleApplication
 	 * 
 	 * <p>
 	 * 
-	 * Takes 4 arguments on the command line:
+	 * Takes 4 arguments on the command line, BULK followed by the arguments of {@link BulkConverter#main(String[])},
+	 * or STREAM to answer requests with a {@link StreamingConverter}:
 	 * <ul>
 	 * <li>The first determines the format of the input data</li>
 	 * <li>The second indicates if you want PER data to be inputted/outputted as hexadecmial strings or base64</li>
@@ -47,9 +49,19 @@ public class ExampleApplication
 	 */
     public static void main(String[] args)
     {
+        if (args.length > 0 && args[0].equals("BULK")) {
+            BulkConverter.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        } else if (args.length > 0 && args[0].equals("STREAM")) {
+            StreamingConverter.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         if (args.length < 4) {
             System.out.println("Usage: ");
             System.out.println("PerXerCodec (XER|PER) (16|64) TYPE DATA");
+            System.out.println("PerXerCodec BULK (XER|PER) (16|64) (TYPE|" + BulkConverter.GUESS_TYPE + ") OUTPUT INPUT...");
+            System.out.println("PerXerCodec STREAM");
             System.exit(-1);
         }
         
@@ -0,0 +1,129 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import java.util.List;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.EngineFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.SemiMessage;
+
+/** Backend which converts in pure Java, with {@link SemiMessage}, never loading the native library
+ *
+ * <p>
+ *
+ * Failures are remembered per thread as the same codes the native library reports, so that
+ * {@link PerXerCodecMetrics} counts them the same whichever backend is in use.
+ *
+ * @author andrew
+ *
+ */
+final class JavaCodecBackend implements CodecBackend
+{
+    /** Only {@link #INSTANCE} is needed */
+    private JavaCodecBackend()
+    {
+        final List<SemiMessage> all = SemiMessage.all();
+        this.messages = new SemiMessage[all.size()];
+        for (Asn1Type type : Asn1Types.getAllTypes()) {
+            messages[type.cInt] = SemiMessage.forName(type.name);
+        }
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public String perToXer(Asn1Type type, byte[] per)
+    {
+        try {
+            final String xer = messages[type.cInt].perToXer(per);
+            lastFailure.set(FAILURE_NONE);
+            return xer;
+        } catch (EngineFailedException ex) {
+            lastFailure.set(failureCode(ex));
+            return null;
+        }
+    }
+
+    @Override
+    public byte[] xerToPer(Asn1Type type, String xer)
+    {
+        try {
+            final byte[] per = messages[type.cInt].xerToPer(xer);
+            lastFailure.set(FAILURE_NONE);
+            return per;
+        } catch (EngineFailedException ex) {
+            lastFailure.set(failureCode(ex));
+            return null;
+        }
+    }
+
+    @Override
+    public int detectTypes(byte[] per)
+    {
+        int candidates = 0;
+        for (int i = 0; i < messages.length; ++i) {
+            if (messages[i].idsMatch(per)) {
+                candidates |= 1 << i;
+            }
+        }
+        return candidates;
+    }
+
+    @Override
+    public long extractSemiIds(Asn1Type type, byte[] per)
+    {
+        return messages[type.cInt].extractIds(per);
+    }
+
+    @Override
+    public int lastFailure()
+    {
+        return lastFailure.get();
+    }
+
+    @Override
+    public String toString()
+    {
+        return NAME;
+    }
+
+    /** Get the native failure code matching why the engine failed
+     *
+     * @param ex Exception the engine threw
+     * @return One of the FAILURE_ constants, with asn1c's RC_WMORE or RC_FAIL in the low byte for decoding failures
+     */
+    private static int failureCode(EngineFailedException ex)
+    {
+        switch (ex.getReason()) {
+        case TRUNCATED:
+            return FAILURE_DECODE | RC_WMORE;
+        case IDS:
+            return FAILURE_IDS;
+        case UNENCODABLE:
+            return FAILURE_ENCODE;
+        case MALFORMED:
+        default:
+            return FAILURE_DECODE | RC_FAIL;
+        }
+    }
+
+    /** Name of the backend */
+    static final String NAME = "java";
+
+    /** The backend */
+    static final JavaCodecBackend INSTANCE = new JavaCodecBackend();
+
+    /** asn1c's return code for data which ended early */
+    private static final int RC_WMORE = 1;
+
+    /** asn1c's return code for data which is invalid */
+    private static final int RC_FAIL = 2;
+
+    /** Each message type, indexed by the native enum value of its {@link Asn1Type} */
+    private final SemiMessage[] messages;
+
+    /** Why the last conversion on each thread failed */
+    private final ThreadLocal<Integer> lastFailure = ThreadLocal.withInitial(() -> FAILURE_NONE);
+}
@@ -1,5 +1,7 @@
 package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
 
+import java.nio.ByteBuffer;
+
 /**
  * Native methods and data
  * @author andrew
@@ -7,75 +9,226 @@ package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
  */
 abstract class Native {
 	
-	/** The base name of the native library, which have prefixes and extensions added based on the OS
-     * 
-     */
-    private static String nativeLibraryName = "per-xer-codec";
-    
-    /* Static block to initialize the native library
-     * 
+    /* Load the native library the first time any native method is called, so that classes which only format or
+     * unformat data never load it
      */
     static {
-        try {
-            System.loadLibrary(nativeLibraryName);
-        } catch (UnsatisfiedLinkError ex) {
-            throw new RuntimeException( "Could not find native shared library for PER XER Codec on the following path: "
-                                      + System.getProperty("java.library.path")
-                                      + ", expecting a file named "
-                                      + System.mapLibraryName(nativeLibraryName), ex);
-        }
+        NativeLibrary.load();
     }
-	
+
 	/**
-	 * @return The native enum value for the Advisory Situation Data type
+	 * Get the names of every type the native library supports, in a single call
+	 * @return The name of each type's asn1c descriptor, indexed by the type's native enum value
 	 */
-	native static int getAdvisorySituationDataType();
+	native static String[] getTypeTable();
 
 	/**
-	 * @return The native enum value for the Service Request type
+	 * Natively convert PER data to XER
+	 * @param type Native enum representing type to convert
+	 * @param per PER data 
+	 * @return XER data (null if failed)
 	 */
-	native static int getServiceRequestType();
+	native static String perToXer(int type, byte[] per);
 
 	/**
-	 * @return The native enum value for the Service Response type
+	 * Natively convert XER data to PER
+	 * @param type Native enum representing type to convert
+	 * @param xer XER data
+	 * @return PER data (null if failed)
 	 */
-	native static int getServiceResponseType();
+	native static byte[] xerToPer(int type, String xer);
 
 	/**
-	 * @return The native enum value for the Data Request type
+	 * Natively convert PER data to XER, without going through a java string
+	 * @param type Native enum representing type to convert
+	 * @param per PER data
+	 * @return UTF-8 encoded XER data (null if failed)
 	 */
-	native static int getDataRequestType();
+	native static byte[] perToXerUtf8(int type, byte[] per);
 
 	/**
-	 * @return The native enum value for the Advisory Situation Data Distribution type
+	 * Natively convert XER data to PER, without going through a java string
+	 * @param type Native enum representing type to convert
+	 * @param xer Array containing UTF-8 encoded XER data
+	 * @param offset Offset of the first byte of XER data in xer
+	 * @param length Number of bytes of XER data
+	 * @return PER data (null if failed)
 	 */
-	native static int getAdvisorySituationDataDistributionType();
+	native static byte[] xerToPerUtf8(int type, byte[] xer, int offset, int length);
 
 	/**
-	 * @return The native enum value for the Data Acceptance type
+	 * Natively convert XER data held in a direct buffer to PER, reading it in place
+	 * @param type Native enum representing type to convert
+	 * @param xer Direct buffer containing UTF-8 encoded XER data
+	 * @param offset Offset of the first byte of XER data in xer
+	 * @param length Number of bytes of XER data
+	 * @return PER data (null if failed, or if xer is not a direct buffer)
 	 */
-	native static int getDataAcceptanceType();
+	native static byte[] xerToPerUtf8Direct(int type, ByteBuffer xer, int offset, int length);
 
 	/**
-	 * @return The native enum value for the Data Receipt type
+	 * Natively convert PER data held in a direct buffer to XER, reading it in place
+	 * @param type Native enum representing type to convert
+	 * @param per Direct buffer containing PER data
+	 * @param offset Offset of the first byte of PER data in per
+	 * @param length Number of bytes of PER data
+	 * @return XER data (null if failed, or if per is not a direct buffer)
 	 */
-	native static int getDataReceiptType();
+	native static String perToXerDirect(int type, ByteBuffer per, int offset, int length);
 
 	/**
-	 * Natively convert PER data to XER
+	 * Natively convert XER data to PER, writing the PER data straight into a direct buffer
 	 * @param type Native enum representing type to convert
-	 * @param per PER data 
-	 * @return XER data (null if failed)
+	 * @param xer XER data
+	 * @param per Direct buffer to write PER data into
+	 * @param offset Offset in per to start writing at
+	 * @param length Number of bytes available for writing in per
+	 * @return Number of bytes of PER data, which did not fit and were not fully written if larger than length
+	 * 	(-1 if failed, or if per is not a direct buffer)
 	 */
-	native static String perToXer(int type, byte[] per);
+	native static int xerToPerDirect(int type, String xer, ByteBuffer per, int offset, int length);
 
 	/**
-	 * Natively convert XER data to PER
+	 * Natively convert a batch of PER data to XER, crossing into native code once for the whole batch
 	 * @param type Native enum representing type to convert
+	 * @param per PER data for every item of the batch, packed end to end
+	 * @param offsets Offset of each item in per, followed by the offset of the end of the last item
+	 * @return XER data for each item, with a null entry for each item that failed
+	 */
+	native static String[] perToXerBatch(int type, byte[] per, int[] offsets);
+
+	/**
+	 * Natively convert a batch of XER data to PER, crossing into native code once for the whole batch
+	 * @param type Native enum representing type to convert
+	 * @param xer UTF-8 encoded XER data for every item of the batch, packed end to end
+	 * @param offsets Offset of each item in xer, followed by the offset of the end of the last item
+	 * @return PER data for each item, with a null entry for each item that failed
+	 */
+	native static byte[][] xerToPerBatch(int type, byte[] xer, int[] offsets);
+
+	/**
+	 * Natively detect which types PER data could be, by peeking at the SEMI dialogID and seqID
+	 * at the start of the data, without decoding the rest of it
+	 * @param per PER data
+	 * @return Bit mask with bit (1 &lt;&lt; type) set for each native enum type whose expected ids match
+	 */
+	native static int detectTypes(byte[] per);
+
+	/**
+	 * Natively decode the SEMI dialogID and seqID at the start of PER data, without decoding the rest of it
+	 * @param type Native enum representing the type the data should contain
+	 * @param per PER data
+	 * @return The dialogID in bits 48 to 63, the seqID in bits 32 to 47, and the offset of the first bit after
+	 * 	the seqID in bits 0 to 31 (-1 if the ids could not be decoded, or do not match the type)
+	 */
+	native static long extractSemiIds(int type, byte[] per);
+
+	/**
+	 * Natively decode PER data, keeping the decoded structure alive until it is freed
+	 * @param type Native enum representing type to decode
+	 * @param per PER data
+	 * @return Handle to the decoded structure (0 if failed), which must be passed to freeDecoded exactly once
+	 */
+	native static long decodePer(int type, byte[] per);
+
+	/**
+	 * Natively decode XER data, keeping the decoded structure alive until it is freed
+	 * @param type Native enum representing type to decode
 	 * @param xer XER data
+	 * @return Handle to the decoded structure (0 if failed), which must be passed to freeDecoded exactly once
+	 */
+	native static long decodeXer(int type, String xer);
+
+	/**
+	 * Natively encode a decoded structure as XER
+	 * @param type Native enum representing the type the structure was decoded as
+	 * @param handle Handle from decodePer or decodeXer
+	 * @return XER data (null if failed)
+	 */
+	native static String encodeXer(int type, long handle);
+
+	/**
+	 * Natively encode a decoded structure as PER
+	 * @param type Native enum representing the type the structure was decoded as
+	 * @param handle Handle from decodePer or decodeXer
 	 * @return PER data (null if failed)
 	 */
-	native static byte[] xerToPer(int type, String xer);
+	native static byte[] encodePer(int type, long handle);
+
+	/**
+	 * Natively free a decoded structure
+	 * @param type Native enum representing the type the structure was decoded as
+	 * @param handle Handle from decodePer or decodeXer, which must not be used again
+	 */
+	native static void freeDecoded(int type, long handle);
+
+	/**
+	 * Natively decode PER data and check it, without encoding anything
+	 * @param type Native enum representing type to validate
+	 * @param per PER data
+	 * @param checkConstraints If the decoded structure should also be checked against the type's constraints
+	 * @return One of the FAILURE_ constants in the high 32 bits, and the number of bits the decoder consumed
+	 * 	in the low 32 bits
+	 */
+	native static long validatePer(int type, byte[] per, boolean checkConstraints);
+
+	/**
+	 * Natively decode XER data and check it, without encoding anything
+	 * @param type Native enum representing type to validate
+	 * @param xer XER data
+	 * @param checkConstraints If the decoded structure should also be checked against the type's constraints
+	 * @return One of the FAILURE_ constants in the high 32 bits, and the number of bits the decoder consumed
+	 * 	in the low 32 bits
+	 */
+	native static long validateXer(int type, String xer, boolean checkConstraints);
+
+	/**
+	 * Natively decode XER data and check it, without going through a java string or encoding anything
+	 * @param type Native enum representing type to validate
+	 * @param xer Array containing UTF-8 encoded XER data
+	 * @param offset Offset of the first byte of XER data in xer
+	 * @param length Number of bytes of XER data
+	 * @param checkConstraints If the decoded structure should also be checked against the type's constraints
+	 * @return One of the FAILURE_ constants in the high 32 bits, and the number of bits the decoder consumed
+	 * 	in the low 32 bits
+	 */
+	native static long validateXerUtf8(int type, byte[] xer, int offset, int length, boolean checkConstraints);
+
+	/**
+	 * Natively turn the per-thread arena allocator on or off for conversions started after this call
+	 * @param enabled If conversions should allocate from the arena
+	 */
+	native static void setArenaEnabled(boolean enabled);
+
+	/**
+	 * @return If conversions allocate from the per-thread arena, which is always false if the native
+	 * 	library was built without the arena hooks
+	 */
+	native static boolean isArenaEnabled();
+
+	/**
+	 * @return Why the last conversion on the calling thread failed, one of the FAILURE_ constants,
+	 * 	with the asn1c decoder's return code in the low byte for {@link #FAILURE_DECODE}
+	 */
+	native static int lastFailure();
+
+	/** The last conversion succeeded */
+	static final int FAILURE_NONE = 0;
+
+	/** The last conversion could not be decoded, the low byte holds the asn1c decoder's return code */
+	static final int FAILURE_DECODE = 0x100;
+
+	/** The last conversion decoded, but its SEMI dialogID and seqID did not match its type */
+	static final int FAILURE_IDS = 0x200;
+
+	/** The last conversion decoded, but could not be encoded */
+	static final int FAILURE_ENCODE = 0x300;
+
+	/** The last conversion was for a type the native library does not know */
+	static final int FAILURE_TYPE = 0x400;
+
+	/** The last validation decoded, but the decoded structure broke its type's constraints */
+	static final int FAILURE_CONSTRAINTS = 0x500;
 
 	/**
 	 * This prevents this class from being instantiated
@@ -0,0 +1,136 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import java.nio.ByteBuffer;
+
+/** Backend which converts with the asn1c generated code, through the native library
+ *
+ * <p>
+ *
+ * Direct buffers and UTF-8 encoded XER are handed to the native library as they are, without being copied onto the
+ * Java heap first. Every method loads the library before calling into it, so that a library which cannot be loaded
+ * always fails with a {@link gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.NativeLibraryException}.
+ *
+ * @author andrew
+ *
+ */
+final class NativeCodecBackend implements CodecBackend
+{
+    /** Only {@link #INSTANCE} is needed */
+    private NativeCodecBackend()
+    {
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public void load()
+    {
+        NativeLibrary.load();
+    }
+
+    @Override
+    public String perToXer(Asn1Type type, byte[] per)
+    {
+        NativeLibrary.load();
+        return Native.perToXer(type.cInt, per);
+    }
+
+    @Override
+    public byte[] perToXerUtf8(Asn1Type type, byte[] per)
+    {
+        NativeLibrary.load();
+        return Native.perToXerUtf8(type.cInt, per);
+    }
+
+    @Override
+    public String perToXer(Asn1Type type, ByteBuffer per)
+    {
+        NativeLibrary.load();
+        if (per.isDirect()) {
+            return Native.perToXerDirect(type.cInt, per, per.position(), per.remaining());
+        }
+        return CodecBackend.super.perToXer(type, per);
+    }
+
+    @Override
+    public byte[] xerToPer(Asn1Type type, String xer)
+    {
+        NativeLibrary.load();
+        return Native.xerToPer(type.cInt, xer);
+    }
+
+    @Override
+    public byte[] xerToPerUtf8(Asn1Type type, ByteBuffer xer)
+    {
+        NativeLibrary.load();
+        if (xer.isDirect()) {
+            return Native.xerToPerUtf8Direct(type.cInt, xer, xer.position(), xer.remaining());
+        } else if (xer.hasArray()) {
+            return Native.xerToPerUtf8(type.cInt, xer.array(), xer.arrayOffset() + xer.position(), xer.remaining());
+        }
+        final byte[] copy = new byte[xer.remaining()];
+        xer.duplicate().get(copy);
+        return Native.xerToPerUtf8(type.cInt, copy, 0, copy.length);
+    }
+
+    @Override
+    public int xerToPer(Asn1Type type, String xer, ByteBuffer per)
+    {
+        NativeLibrary.load();
+        if (per.isDirect()) {
+            return Native.xerToPerDirect(type.cInt, xer, per, per.position(), per.remaining());
+        }
+        return CodecBackend.super.xerToPer(type, xer, per);
+    }
+
+    @Override
+    public String[] perToXerBatch(Asn1Type type, byte[] per, int[] offsets)
+    {
+        NativeLibrary.load();
+        return Native.perToXerBatch(type.cInt, per, offsets);
+    }
+
+    @Override
+    public byte[][] xerToPerBatch(Asn1Type type, byte[] xer, int[] offsets)
+    {
+        NativeLibrary.load();
+        return Native.xerToPerBatch(type.cInt, xer, offsets);
+    }
+
+    @Override
+    public int detectTypes(byte[] per)
+    {
+        NativeLibrary.load();
+        return Native.detectTypes(per);
+    }
+
+    @Override
+    public long extractSemiIds(Asn1Type type, byte[] per)
+    {
+        NativeLibrary.load();
+        return Native.extractSemiIds(type.cInt, per);
+    }
+
+    @Override
+    public int lastFailure()
+    {
+        NativeLibrary.load();
+        return Native.lastFailure();
+    }
+
+    @Override
+    public String toString()
+    {
+        return NAME;
+    }
+
+    /** Name of the backend */
+    static final String NAME = "native";
+
+    /** The backend */
+    static final NativeCodecBackend INSTANCE = new NativeCodecBackend();
+}
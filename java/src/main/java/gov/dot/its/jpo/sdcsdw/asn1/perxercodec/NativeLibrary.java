@@ -0,0 +1,166 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.NativeLibraryException;
+
+/** Loads the native library, once, the first time it is needed
+ *
+ * <p>
+ *
+ * By default the library is loaded from java.library.path. If the system property named by {@link #EXTRACT_PROPERTY}
+ * is true, the copy bundled in the jar is extracted to a temporary directory and loaded from there instead.
+ *
+ * @author andrew
+ *
+ */
+final class NativeLibrary
+{
+    /** Load the native library, and check that it supports the types in {@link Asn1Types}
+     *
+     * <p>
+     *
+     * Does nothing if the library is already loaded, without taking a lock, so it can be called before every native
+     * call. If loading failed before, the same failure is thrown again.
+     *
+     * @throws NativeLibraryException If the library could not be loaded, or does not match the java wrapper
+     */
+    static void load()
+    {
+        if (!loaded) {
+            loadOnce();
+        }
+    }
+
+    /** Load the native library, unless another thread already has
+     *
+     * @throws NativeLibraryException If the library could not be loaded, or does not match the java wrapper
+     */
+    private static synchronized void loadOnce()
+    {
+        if (failure != null) {
+            throw failure;
+        } else if (linked) {
+            return;
+        }
+
+        try {
+            link();
+            // Set before the check, since it initializes Native, which loads the library again
+            linked = true;
+            checkTypeTable(Native.getTypeTable());
+            loaded = true;
+        } catch (UnsatisfiedLinkError ex) {
+            failure = new NativeLibraryException("Native shared library for PER XER Codec does not match the java wrapper", ex);
+            throw failure;
+        } catch (NativeLibraryException ex) {
+            failure = ex;
+            throw ex;
+        }
+    }
+
+    /** Link the native library into the JVM
+     *
+     * @throws NativeLibraryException If the library could not be found or linked
+     */
+    private static void link()
+    {
+        final String fileName = System.mapLibraryName(LIBRARY_NAME);
+        final URL bundled = NativeLibrary.class.getResource(fileName);
+
+        if (!Boolean.getBoolean(EXTRACT_PROPERTY)) {
+            try {
+                System.loadLibrary(LIBRARY_NAME);
+                return;
+            } catch (UnsatisfiedLinkError ex) {
+                throw new NativeLibraryException("Could not load native shared library for PER XER Codec, expecting a file named "
+                                                 + fileName
+                                                 + " on the following path: "
+                                                 + System.getProperty("java.library.path")
+                                                 + (bundled != null ? ", or set " + EXTRACT_PROPERTY + "=true to use the copy in the jar" : ""),
+                                                 ex);
+            }
+        }
+
+        if (bundled == null) {
+            throw new NativeLibraryException(EXTRACT_PROPERTY + " is set, but the jar does not contain " + fileName);
+        }
+
+        final Path extracted = extract(bundled, fileName);
+        try {
+            System.load(extracted.toString());
+        } catch (UnsatisfiedLinkError ex) {
+            throw new NativeLibraryException("Could not load native shared library for PER XER Codec extracted to " + extracted, ex);
+        }
+    }
+
+    /** Copy a bundled library into a new temporary directory, which is deleted when the JVM exits
+     *
+     * @param bundled Location of the bundled library
+     * @param fileName Name to give the copy
+     * @return Location of the copy
+     * @throws NativeLibraryException If the library could not be copied
+     */
+    static Path extract(URL bundled, String fileName)
+    {
+        try {
+            final Path directory = Files.createTempDirectory(LIBRARY_NAME);
+            directory.toFile().deleteOnExit();
+
+            final Path extracted = directory.resolve(fileName);
+            try (InputStream in = bundled.openStream()) {
+                Files.copy(in, extracted, StandardCopyOption.REPLACE_EXISTING);
+            }
+            extracted.toFile().deleteOnExit();
+
+            return extracted;
+        } catch (IOException ex) {
+            throw new NativeLibraryException("Could not extract native shared library for PER XER Codec from " + bundled, ex);
+        }
+    }
+
+    /** Check that the native library has the same value for each type as {@link Asn1Types}
+     *
+     * @param table Name of each type, indexed by native enum value
+     * @throws NativeLibraryException If any type is missing or has a different value
+     */
+    static void checkTypeTable(String[] table)
+    {
+        for (Asn1Type type : Asn1Types.getAllTypes()) {
+            if (type.cInt < 0 || type.cInt >= table.length || !type.name.equals(table[type.cInt])) {
+                throw new NativeLibraryException("Native shared library for PER XER Codec does not match the java wrapper, expected "
+                                                 + type.name
+                                                 + " at "
+                                                 + type.cInt
+                                                 + " in "
+                                                 + Arrays.toString(table));
+            }
+        }
+    }
+
+    /**
+     * Prevents this class from being instantiated
+     */
+    private NativeLibrary() { }
+
+    /** System property which, when true, loads the library bundled in the jar instead of from java.library.path */
+    static final String EXTRACT_PROPERTY = "gov.dot.its.jpo.sdcsdw.asn1.perxercodec.extractNativeLibrary";
+
+    /** The base name of the native library, which have prefixes and extensions added based on the OS */
+    private static final String LIBRARY_NAME = "per-xer-codec";
+
+    /** If the library has been linked */
+    private static boolean linked;
+
+    /** If the library has been linked and checked, so that it can be used */
+    private static volatile boolean loaded;
+
+    /** Why loading failed, if it did */
+    private static NativeLibraryException failure;
+}
@@ -1,11 +1,24 @@
 package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodecMetrics.Direction;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodecMetrics.Stage;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecException;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecFailedException;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.FormattingFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.NativeLibraryException;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.UnformattingFailedException;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerData;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerDataFormatter;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerDataUnformatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.Utf8EncodedXerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.Utf8XerDataFormatter;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerData;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerDataFormatter;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerDataUnformatter;
@@ -77,7 +90,168 @@ public class PerXerCodec
         /** Data parsed */
         private final T data;
     }
-    
+
+    /** Result of converting a single item, such as one entry of a batch
+     *
+     * @param <T> Type of the converted data
+     */
+    public static class ConversionResult<T>
+    {
+        /** Create a successful result
+         *
+         * @param data Data produced by the conversion
+         */
+        public ConversionResult(T data)
+        {
+            this.data = data;
+            this.failure = null;
+        }
+
+        /** Create a failed result
+         *
+         * @param failure Reason the conversion failed
+         */
+        public ConversionResult(CodecException failure)
+        {
+            this.data = null;
+            this.failure = failure;
+        }
+
+        /** Test if the conversion succeeded
+         *
+         * @return True if data was produced
+         */
+        public boolean isSuccessful()
+        {
+            return failure == null;
+        }
+
+        /** Get the data produced by the conversion
+         *
+         * @return The data produced, or null if unsuccessful
+         */
+        public T getData()
+        {
+            return data;
+        }
+
+        /** Get the reason the conversion failed
+         *
+         * @return The reason the conversion failed, or null if successful
+         */
+        public CodecException getFailure()
+        {
+            return failure;
+        }
+
+        /** Data produced */
+        private final T data;
+
+        /** Reason for failure */
+        private final CodecException failure;
+    }
+
+    /** Load the native library now, rather than on the first conversion
+     *
+     * <p>
+     *
+     * The library is loaded from java.library.path, unless the system property
+     * gov.dot.its.jpo.sdcsdw.asn1.perxercodec.extractNativeLibrary is true, in which case the copy bundled in the jar
+     * is extracted to a temporary directory and loaded from there.
+     *
+     * @throws NativeLibraryException If the library could not be loaded, or does not match this version of the codec
+     */
+    public static void loadNativeLibrary()
+    {
+        NativeLibrary.load();
+    }
+
+    /** Get the backend conversions are handed to
+     *
+     * @return The backend in use, which is the one named by the system property
+     *         {@value CodecBackend#BACKEND_PROPERTY}, or "native", unless another has been set
+     * @throws IllegalStateException If the system property names no known backend, or names "java", which can only be
+     *         picked with {@link #setBackend(String)}
+     */
+    public static CodecBackend getBackend()
+    {
+        return CodecBackends.current();
+    }
+
+    /** Hand conversions to a backend from now on
+     *
+     * <p>
+     *
+     * Conversions, type detection, and header extraction go through the backend. Decoding into a
+     * {@link DecodedMessage}, validation, and the native arena always use the native library.
+     *
+     * @param backend The backend to use
+     */
+    public static void setBackend(CodecBackend backend)
+    {
+        CodecBackends.set(backend);
+    }
+
+    /** Hand conversions to a backend from now on, picking it by name
+     *
+     * @param name "native", "java", or the name of a backend listed in
+     *        META-INF/services/gov.dot.its.jpo.sdcsdw.asn1.perxercodec.CodecBackend; "java" does not yet convert
+     *        messages with Position3D regional extensions
+     * @throws IllegalArgumentException If there is no backend by that name
+     * @see #setBackend(CodecBackend)
+     */
+    public static void setBackend(String name)
+    {
+        CodecBackends.set(CodecBackends.forName(name));
+    }
+
+    /** Warm up the codec, giving up after 30 seconds
+     *
+     * @return How warming up went
+     * @throws NativeLibraryException If the native library could not be loaded
+     * @see #warmUp(long, TimeUnit)
+     */
+    public static WarmUpReport warmUp()
+    {
+        return warmUp(DEFAULT_WARM_UP_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /** Warm up the codec, so that the first conversions of real traffic are as fast as later ones
+     *
+     * <p>
+     *
+     * Converts a built-in message of every type in both directions, through every built-in PER and XER
+     * representation, over and over until the time each round takes stops changing. Warm up conversions are counted
+     * by {@link PerXerCodecMetrics}, which can be reset afterwards.
+     *
+     * @param timeLimit Longest to keep converting for
+     * @param unit Unit of timeLimit
+     * @return How warming up went, which is ready if round timings stabilized in time
+     * @throws NativeLibraryException If the native library could not be loaded
+     */
+    public static WarmUpReport warmUp(long timeLimit, TimeUnit unit)
+    {
+        if (unit == null) {
+            throw new IllegalArgumentException("Unit cannot be null");
+        }
+
+        CodecBackends.current().load();
+        final WarmUpReport report = WarmUp.run(unit.toNanos(timeLimit));
+        if (report.isReady()) {
+            warmedUp = true;
+        }
+        return report;
+    }
+
+    /** Check if a warm up has finished with the codec ready
+     *
+     * @return True once any call to {@link #warmUp(long, TimeUnit)} has reported ready
+     */
+    public static boolean isWarmedUp()
+    {
+        return warmedUp;
+    }
+
     /** Convert PER encoded data into XER encoded data 
      * 
      * @param <PER> Input type representing PER data
@@ -110,17 +284,27 @@ public class PerXerCodec
             throw new IllegalArgumentException("XER Formatter cannot be null");
         }
         
-    	    PerT rawPer = perUnformatter.unformatPerData(per);
-    	
-        String rawXer = Native.perToXer(type.cInt, rawPer.getPerData());
-        if (rawXer == null) {
-            throw new CodecFailedException("Could not convert PER data to XER: " + per);
-        } else {
-            return xerFormatter.formatXerData(rawXer).getFormattedXerData();
+        final ConversionEvent event = ConversionEvent.start(Direction.PER_TO_XER);
+        try {
+            PerT rawPer = unformatPer(type, per, perUnformatter, event);
+            
+            XerT rawXer = convertPerToXer(type, rawPer.getPerData(), xerFormatter, event);
+            if (rawXer == null) {
+                throw new CodecFailedException("Could not convert PER data to XER: " + per);
+            } else {
+                return rawXer.getFormattedXerData();
+            }
+        } finally {
+            event.finish();
         }
     }
     
     /** Convert PER encoded data into XER encoded data, while guessing what type of data is present
+     * 
+     * <p>
+     * 
+     * Types whose SEMI dialogID and seqID match the start of the data are tried first, and only if none of them
+     * convert is each of the other types tried.
      * 
      * @param <PER> Input type representing PER data
      * @param <XER> Output type representing XER data
@@ -148,98 +332,1071 @@ public class PerXerCodec
             throw new IllegalArgumentException("XER Formatter cannot be null");
         }
         
-        PerT rawPer = perUnformatter.unformatPerData(per);
-        
+        final ConversionEvent event = ConversionEvent.start(Direction.PER_TO_XER);
+        try {
+            PerT rawPer = unformatPer(null, per, perUnformatter, event);
+            
+            // Types whose SEMI ids match the header are decoded first, the rest only if none of those convert
+            int candidates = CodecBackends.current().detectTypes(rawPer.getPerData());
+            
+            TypeGuessResult<XER> result = guessPerToXer(types, candidates, true, rawPer.getPerData(), xerFormatter, event);
+            if (result == null) {
+                result = guessPerToXer(types, candidates, false, rawPer.getPerData(), xerFormatter, event);
+            }
+            if (result != null) {
+                return result;
+            }
+            
+            event.noMatch();
+            return new TypeGuessResult<XER>();
+        } finally {
+            event.finish();
+        }
+    }
+    
+    /** Try converting PER encoded data as each type, either of those detected from its header, or of the rest
+     * 
+     * @param <XER> Output type representing XER data
+     * @param <XerT> Wrapper around XER
+     * @param types The types the PER encoded data could possibly contain
+     * @param candidates Bit mask with bit (1 &lt;&lt; cInt) set for each type detected from the header
+     * @param detected If the types detected should be tried, rather than the rest
+     * @param rawPer The PER encoded data
+     * @param xerFormatter A hint as to how to represent output XER in memory
+     * @param event Event recording the conversion
+     * @return The result for the first type which converts, or null if none do
+     * @throws FormattingFailedException If the desired XER representation could not be built
+     */
+    private static <XER, XerT extends XerData<XER>>
+    TypeGuessResult<XER> guessPerToXer(Iterable<Asn1Type> types, int candidates, boolean detected, byte[] rawPer, XerDataFormatter<XER, XerT> xerFormatter, ConversionEvent event)
+        throws FormattingFailedException
+    {
         for(Asn1Type type : types) {
-            String rawXer = Native.perToXer(type.cInt, rawPer.getPerData());
+            if (((candidates & (1 << type.cInt)) != 0) != detected) {
+                continue;
+            }
+            
+            event.attempt(type);
+            event.skip();
+            XerT rawXer = convertPerToXer(type, rawPer, xerFormatter, event);
             if (rawXer != null) {
-                return new TypeGuessResult<XER>(type, xerFormatter.formatXerData(rawXer).getFormattedXerData());
+                return new TypeGuessResult<XER>(type, rawXer.getFormattedXerData());
             }
         }
+        return null;
+    }
+
+    /** Detect what type of data PER encoded data contains, without decoding it
+     * 
+     * <p>
+     * 
+     * Only the SEMI dialogID and seqID at the start of the data are examined, so a non-null result
+     * does not guarantee that the rest of the data is valid.
+     * 
+     * @param <PER> Input type representing PER data
+     * @param <PerT> Wrapper around PER
+     * @param per The PER encoded data
+     * @param perUnformatter A hint as to how the PER data is represented in memory
+     * @return The type whose dialogID and seqID match the data, or null if no single type matches
+     * @throws UnformattingFailedException If the PER data could not be interpreted
+     */
+    public static <PER, PerT extends PerData<PER>>
+    Asn1Type detectType(PER per, PerDataUnformatter<PER, PerT> perUnformatter)
+        throws UnformattingFailedException
+    {
+        if (per == null) {
+            throw new IllegalArgumentException("PER cannot be null");
+        } else if (perUnformatter == null) {
+            throw new IllegalArgumentException("PER Unformatter cannot be null");
+        }
+        
+        PerT rawPer = perUnformatter.unformatPerData(per);
         
-        return new TypeGuessResult<XER>();
+        return singleType(CodecBackends.current().detectTypes(rawPer.getPerData()));
     }
-    
-    /** Convert XER encoded data into PER encoded data 
+
+    /** Detect what type of data PER encoded data held in a byte buffer contains, without decoding it
+     *
+     * <p>
+     *
+     * Only the first few bytes after the buffer's position are read, and the buffer's position is left untouched.
+     * As with {@link #detectType(Object, PerDataUnformatter)}, a non-null result does not guarantee that the rest of
+     * the data is valid.
+     *
+     * @param per Buffer containing the PER encoded data
+     * @return The type whose dialogID and seqID match the data, or null if no single type matches
+     */
+    public static Asn1Type detectBufferType(ByteBuffer per)
+    {
+        if (per == null) {
+            throw new IllegalArgumentException("PER cannot be null");
+        }
+
+        final byte[] header = new byte[Math.min(per.remaining(), SEMI_HEADER_PEEK_SIZE)];
+        per.duplicate().get(header);
+
+        return singleType(CodecBackends.current().detectTypes(header));
+    }
+
+    /** Read the SEMI header fields at the start of PER encoded data, without decoding the rest of it
+     *
+     * <p>
+     *
+     * Only the dialogID, seqID, groupID, and requestID are examined, so a successful result
+     * does not guarantee that the rest of the data is valid.
+     *
+     * @param <PER> Input type representing PER data
+     * @param <PerT> Wrapper around PER
+     * @param type The type the PER encoded data contains
+     * @param per The PER encoded data
+     * @param perUnformatter A hint as to how the PER data is represented in memory
+     * @return The header fields
+     * @throws CodecFailedException If the header could not be read, or its dialogID and seqID do not match the type
+     * @throws UnformattingFailedException If the PER data could not be interpreted
+     */
+    public static <PER, PerT extends PerData<PER>>
+    SemiHeader extractHeader(Asn1Type type, PER per, PerDataUnformatter<PER, PerT> perUnformatter)
+        throws CodecFailedException, UnformattingFailedException
+    {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        } else if (per == null) {
+            throw new IllegalArgumentException("PER cannot be null");
+        } else if (perUnformatter == null) {
+            throw new IllegalArgumentException("PER Unformatter cannot be null");
+        }
+
+        PerT rawPer = perUnformatter.unformatPerData(per);
+
+        SemiHeader header = extractHeader(type, rawPer.getPerData());
+        if (header == null) {
+            throw new CodecFailedException("Could not read " + type.getName() + " header from PER data: " + per);
+        } else {
+            return header;
+        }
+    }
+
+    /** Read the SEMI header fields at the start of PER encoded data, while detecting what type of data is present
+     *
+     * <p>
+     *
+     * The type is detected as by {@link #detectType(Object, PerDataUnformatter)}.
+     *
+     * @param <PER> Input type representing PER data
+     * @param <PerT> Wrapper around PER
+     * @param per The PER encoded data
+     * @param perUnformatter A hint as to how the PER data is represented in memory
+     * @return The header fields, including the type detected
+     * @throws CodecFailedException If no single type matches the data, or the header could not be read
+     * @throws UnformattingFailedException If the PER data could not be interpreted
+     */
+    public static <PER, PerT extends PerData<PER>>
+    SemiHeader extractHeader(PER per, PerDataUnformatter<PER, PerT> perUnformatter)
+        throws CodecFailedException, UnformattingFailedException
+    {
+        if (per == null) {
+            throw new IllegalArgumentException("PER cannot be null");
+        } else if (perUnformatter == null) {
+            throw new IllegalArgumentException("PER Unformatter cannot be null");
+        }
+
+        PerT rawPer = perUnformatter.unformatPerData(per);
+        byte[] rawPerData = rawPer.getPerData();
+
+        Asn1Type detectedType = singleType(CodecBackends.current().detectTypes(rawPerData));
+        if (detectedType == null) {
+            throw new CodecFailedException("Could not detect a single type for PER data: " + per);
+        }
+
+        SemiHeader header = extractHeader(detectedType, rawPerData);
+        if (header == null) {
+            throw new CodecFailedException("Could not read header from PER data: " + per);
+        } else {
+            return header;
+        }
+    }
+
+    /** Pick the only type set in a mask of detected types
+     *
+     * @param candidates Bit mask with bit (1 &lt;&lt; cInt) set for each type detected
+     * @return The only type detected, or null if none or several were
+     */
+    private static Asn1Type singleType(int candidates)
+    {
+        Asn1Type detectedType = null;
+        for (Asn1Type type : Asn1Types.getAllTypes()) {
+            if ((candidates & (1 << type.cInt)) != 0) {
+                if (detectedType != null) {
+                    return null;
+                }
+                detectedType = type;
+            }
+        }
+
+        return detectedType;
+    }
+
+    /** Read the SEMI header fields at the start of unformatted PER data
+     *
+     * @param type The type the PER data contains
+     * @param rawPer The PER data
+     * @return The header fields, or null if they could not be read
+     */
+    private static SemiHeader extractHeader(Asn1Type type, byte[] rawPer)
+    {
+        return SemiHeader.fromNative(type, CodecBackends.current().extractSemiIds(type, rawPer), rawPer);
+    }
+
+    /** Convert PER encoded data held in a byte buffer into XER encoded data
      * 
-     * @param <XER> Input type representing XER data
-     * @param <PER> Output type representing PER data
+     * <p>
+     * 
+     * The bytes between the buffer's position and limit are converted, and the buffer's position is left untouched.
+     * With the native backend, direct buffers are read in place, without being copied onto the Java heap.
+     * 
+     * @param <XER> Output type representing XER data
      * @param <XerT> Wrapper around XER
-     * @param <PerT> Wrapper around PER
-     * @param type The ASN.1 type the XER encoded data contains
-     * @param xer The XER encoded data
-     * @param xerUnformatter A hint as to how the XER data is represented in memory
-     * @param perFormatter A hint as to how to represent output PER in memory
-     * @return The PER encoded data
-     * @throws UnformattingFailedException If the XER data could not be interpreted 
+     * @param type The type the PER encoded data contains
+     * @param per Buffer containing the PER encoded data
+     * @param xerFormatter A hint as to how to represent output XER in memory
+     * @return The XER encoded data
      * @throws CodecFailedException If the generated ASN.1 code could not handle the given data
-     * @throws FormattingFailedException If the desired PER representation could not be built
+     * @throws FormattingFailedException If the desired XER representation could not be built
      */
-    public static <XER, XerT extends XerData<XER>, PER, PerT extends PerData<PER>>
-    PER xerToPer(Asn1Type type, 
-    			 XER xer, 
-    			 XerDataUnformatter<XER, XerT> xerUnformatter, 
-    			 PerDataFormatter<PER, PerT> perFormatter)
-    	throws UnformattingFailedException, CodecFailedException, FormattingFailedException
+    public static <XER, XerT extends XerData<XER>>
+    XER perBufferToXer(Asn1Type type, ByteBuffer per, XerDataFormatter<XER, XerT> xerFormatter)
+        throws CodecFailedException, FormattingFailedException
     {
         if (type == null) {
             throw new IllegalArgumentException("Type cannot be null");
-        } else if (xer == null) {
-            throw new IllegalArgumentException("XER cannot be null");
-        } else if (xerUnformatter == null) {
-            throw new IllegalArgumentException("XER Unformatter cannot be null");
-        } else if (perFormatter == null) {
-            throw new IllegalArgumentException("PER Formatter cannot be null");
+        } else if (per == null) {
+            throw new IllegalArgumentException("PER cannot be null");
+        } else if (xerFormatter == null) {
+            throw new IllegalArgumentException("XER Formatter cannot be null");
         }
         
-    	
-    	    XerT rawXer = xerUnformatter.unformatXerData(xer);
-    	
-        byte[] rawPer = Native.xerToPer(type.cInt, rawXer.getXerData());
-        if (rawPer == null) {
-            throw new CodecFailedException("Could not convert XER data to PER: " + xer);
-        } else {
-            return perFormatter.formatPerData(rawPer).getFormattedPerData();
+        final ConversionEvent event = ConversionEvent.start(Direction.PER_TO_XER);
+        try {
+            event.input(per.remaining());
+            final String rawXer = CodecBackends.current().perToXer(type, per);
+            event.lap(type, Stage.NATIVE);
+            
+            if (rawXer == null) {
+                event.nativeFailed(type);
+                throw new CodecFailedException("Could not convert PER data to XER: " + per);
+            }
+            
+            final XerT formatted;
+            try {
+                formatted = xerFormatter.formatXerData(rawXer);
+            } catch (FormattingFailedException ex) {
+                event.formattingFailed(type);
+                throw ex;
+            }
+            event.lap(type, Stage.FORMAT);
+            event.succeeded(type, rawXer.length());
+            return formatted.getFormattedXerData();
+        } finally {
+            event.finish();
         }
     }
     
-    /** Convert XER encoded data into PER encoded data, while guessing what type of data is present
+    /** Convert XER encoded data into PER encoded data, writing the PER data into a byte buffer
+     * 
+     * <p>
+     * 
+     * The PER data is written starting at the buffer's position, which is advanced past it, as with a channel read.
+     * With the native backend, direct buffers are written in place, without the PER data being copied onto the Java heap,
+     * unless the XER data is held as UTF-8; that is handed to the backend as it is, rather than going through a string,
+     * and its PER data is copied into the buffer. If the PER data does not fit between the buffer's position and limit, the buffer's position is left untouched.
      * 
      * @param <XER> Input type representing XER data
-     * @param <PER> Output type representing PER data
      * @param <XerT> Wrapper around XER
-     * @param <PerT> Wrapper around PER
-     * @param types The types the XER encoded data could possibly contain
+     * @param type The ASN.1 type the XER encoded data contains
      * @param xer The XER encoded data
      * @param xerUnformatter A hint as to how the XER data is represented in memory
-     * @param perFormatter A hint as to how to represent output PER in memory
-     * @return The result of guessing
-     * @throws UnformattingFailedException If the desired PER representation could not be built
-     * @throws FormattingFailedException If the XER data could not be interpreted
+     * @param per Buffer to write the PER encoded data into
+     * @return The number of bytes of PER data written
+     * @throws UnformattingFailedException If the XER data could not be interpreted 
+     * @throws CodecFailedException If the generated ASN.1 code could not handle the given data
+     * @throws FormattingFailedException If the PER data does not fit in the buffer
      */
-    public static <XER, XerT extends XerData<XER>, PER, PerT extends PerData<PER>>
-    TypeGuessResult<PER> guessXerToPer(Iterable<Asn1Type> types, XER xer, XerDataUnformatter<XER, XerT> xerUnformatter, PerDataFormatter<PER, PerT> perFormatter)
-        throws UnformattingFailedException, FormattingFailedException
+    public static <XER, XerT extends XerData<XER>>
+    int xerToPerBuffer(Asn1Type type, XER xer, XerDataUnformatter<XER, XerT> xerUnformatter, ByteBuffer per)
+        throws UnformattingFailedException, CodecFailedException, FormattingFailedException
     {
-        if (types == null) {
-            throw new IllegalArgumentException("Types cannot be null");
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
         } else if (xer == null) {
             throw new IllegalArgumentException("XER cannot be null");
         } else if (xerUnformatter == null) {
             throw new IllegalArgumentException("XER Unformatter cannot be null");
-        } else if (perFormatter == null) {
-            throw new IllegalArgumentException("PER Formatter cannot be null");
+        } else if (per == null) {
+            throw new IllegalArgumentException("PER buffer cannot be null");
+        } else if (per.isReadOnly()) {
+            throw new IllegalArgumentException("PER buffer cannot be read-only");
         }
         
-        XerT rawXer = xerUnformatter.unformatXerData(xer);
+        final ConversionEvent event = ConversionEvent.start(Direction.XER_TO_PER);
+        try {
+            XerT rawXer = unformatXer(type, xer, xerUnformatter, event);
+            
+            if (per.isDirect() && !(rawXer instanceof Utf8EncodedXerData)) {
+                final String rawXerString = rawXer.getXerData();
+                event.input(rawXerString.length());
+                final int perLength = CodecBackends.current().xerToPer(type, rawXerString, per);
+                event.lap(type, Stage.NATIVE);
+                if (perLength < 0) {
+                    event.nativeFailed(type);
+                    throw new CodecFailedException("Could not convert XER data to PER: " + xer);
+                } else if (perLength > per.remaining()) {
+                    event.formattingFailed(type);
+                    throw new FormattingFailedException("PER data needs " + perLength + " bytes, but only " + per.remaining() + " are available in the buffer");
+                }
+                per.position(per.position() + perLength);
+                event.succeeded(type, perLength);
+                return perLength;
+            } else {
+                final byte[] rawPer = convertXerToPer(type, rawXer, event);
+                if (rawPer == null) {
+                    throw new CodecFailedException("Could not convert XER data to PER: " + xer);
+                } else if (rawPer.length > per.remaining()) {
+                    event.formattingFailed(type);
+                    throw new FormattingFailedException("PER data needs " + rawPer.length + " bytes, but only " + per.remaining() + " are available in the buffer");
+                }
+                per.put(rawPer);
+                event.succeeded(type, rawPer.length);
+                return rawPer.length;
+            }
+        } finally {
+            event.finish();
+        }
+    }
+    
+    /** Convert a batch of PER encoded data into XER encoded data
+     *
+     * <p>
+     *
+     * The whole batch is handed to the backend at once, so with the native backend the cost of crossing into native
+     * code is paid once per batch instead of once per item. Each item succeeds or fails on its own; a bad item does not affect the
+     * others.
+     *
+     * @param <PER> Input type representing PER data
+     * @param <XER> Output type representing XER data
+     * @param <PerT> Wrapper around PER
+     * @param <XerT> Wrapper around XER
+     * @param type The type every item of the batch contains
+     * @param pers The PER encoded data
+     * @param perUnformatter A hint as to how the PER data is represented in memory
+     * @param xerFormatter A hint as to how to represent output XER in memory
+     * @return The result for each item, in the same order as pers
+     */
+    public static <PER, PerT extends PerData<PER>, XER, XerT extends XerData<XER>>
+    List<ConversionResult<XER>> perToXerBatch(Asn1Type type,
+                                              List<PER> pers,
+                                              PerDataUnformatter<PER, PerT> perUnformatter,
+                                              XerDataFormatter<XER, XerT> xerFormatter)
+    {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        } else if (pers == null) {
+            throw new IllegalArgumentException("PER cannot be null");
+        } else if (perUnformatter == null) {
+            throw new IllegalArgumentException("PER Unformatter cannot be null");
+        } else if (xerFormatter == null) {
+            throw new IllegalArgumentException("XER Formatter cannot be null");
+        }
+
+        final int count = pers.size();
+        final List<ConversionResult<XER>> results = new ArrayList<>(Collections.nCopies(count, null));
+        final byte[][] rawPers = new byte[count][];
+
+        for (int i = 0; i < count; ++i) {
+            if (pers.get(i) == null) {
+                throw new IllegalArgumentException("PER cannot be null");
+            }
+
+            try {
+                rawPers[i] = perUnformatter.unformatPerData(pers.get(i)).getPerData();
+            } catch (UnformattingFailedException ex) {
+                PerXerCodecMetrics.unformattingFailure(type, Direction.PER_TO_XER);
+                results.set(i, new ConversionResult<XER>(ex));
+                rawPers[i] = new byte[0];
+            }
+        }
+
+        final int[] offsets = new int[count + 1];
+        final byte[] packedPer = pack(rawPers, offsets);
+
+        final String[] rawXers = CodecBackends.current().perToXerBatch(type, packedPer, offsets);
+
+        for (int i = 0; i < count; ++i) {
+            if (results.get(i) != null) {
+                continue;
+            } else if (rawXers[i] == null) {
+                PerXerCodecMetrics.unexplainedNativeFailure(type, Direction.PER_TO_XER);
+                results.set(i, new ConversionResult<XER>(new CodecFailedException("Could not convert PER data to XER: " + pers.get(i))));
+            } else {
+                try {
+                    results.set(i, new ConversionResult<XER>(xerFormatter.formatXerData(rawXers[i]).getFormattedXerData()));
+                    PerXerCodecMetrics.success(type, Direction.PER_TO_XER);
+                } catch (FormattingFailedException ex) {
+                    PerXerCodecMetrics.formattingFailure(type, Direction.PER_TO_XER);
+                    results.set(i, new ConversionResult<XER>(ex));
+                }
+            }
+        }
+
+        return results;
+    }
+
+    /** Convert XER encoded data into PER encoded data 
+     * 
+     * @param <XER> Input type representing XER data
+     * @param <PER> Output type representing PER data
+     * @param <XerT> Wrapper around XER
+     * @param <PerT> Wrapper around PER
+     * @param type The ASN.1 type the XER encoded data contains
+     * @param xer The XER encoded data
+     * @param xerUnformatter A hint as to how the XER data is represented in memory
+     * @param perFormatter A hint as to how to represent output PER in memory
+     * @return The PER encoded data
+     * @throws UnformattingFailedException If the XER data could not be interpreted 
+     * @throws CodecFailedException If the generated ASN.1 code could not handle the given data
+     * @throws FormattingFailedException If the desired PER representation could not be built
+     */
+    public static <XER, XerT extends XerData<XER>, PER, PerT extends PerData<PER>>
+    PER xerToPer(Asn1Type type, 
+    			 XER xer, 
+    			 XerDataUnformatter<XER, XerT> xerUnformatter, 
+    			 PerDataFormatter<PER, PerT> perFormatter)
+    	throws UnformattingFailedException, CodecFailedException, FormattingFailedException
+    {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        } else if (xer == null) {
+            throw new IllegalArgumentException("XER cannot be null");
+        } else if (xerUnformatter == null) {
+            throw new IllegalArgumentException("XER Unformatter cannot be null");
+        } else if (perFormatter == null) {
+            throw new IllegalArgumentException("PER Formatter cannot be null");
+        }
         
-        for(Asn1Type type : types) {
-            byte[] rawPer = Native.xerToPer(type.cInt, rawXer.getXerData());
-            if (rawPer != null) {
-                return new TypeGuessResult<PER>(type, perFormatter.formatPerData(rawPer).getFormattedPerData());
+    	
+        final ConversionEvent event = ConversionEvent.start(Direction.XER_TO_PER);
+        try {
+            XerT rawXer = unformatXer(type, xer, xerUnformatter, event);
+            
+            byte[] rawPer = convertXerToPer(type, rawXer, event);
+            if (rawPer == null) {
+                throw new CodecFailedException("Could not convert XER data to PER: " + xer);
+            } else {
+                return formatPer(type, rawPer, perFormatter, event).getFormattedPerData();
             }
+        } finally {
+            event.finish();
+        }
+    }
+    
+    /** Convert XER encoded data into PER encoded data, while guessing what type of data is present
+     * 
+     * <p>
+     * 
+     * If the root element of the XER data names a known type, only that type is tried, otherwise each type is tried in turn.
+     * 
+     * @param <XER> Input type representing XER data
+     * @param <PER> Output type representing PER data
+     * @param <XerT> Wrapper around XER
+     * @param <PerT> Wrapper around PER
+     * @param types The types the XER encoded data could possibly contain
+     * @param xer The XER encoded data
+     * @param xerUnformatter A hint as to how the XER data is represented in memory
+     * @param perFormatter A hint as to how to represent output PER in memory
+     * @return The result of guessing
+     * @throws UnformattingFailedException If the desired PER representation could not be built
+     * @throws FormattingFailedException If the XER data could not be interpreted
+     */
+    public static <XER, XerT extends XerData<XER>, PER, PerT extends PerData<PER>>
+    TypeGuessResult<PER> guessXerToPer(Iterable<Asn1Type> types, XER xer, XerDataUnformatter<XER, XerT> xerUnformatter, PerDataFormatter<PER, PerT> perFormatter)
+        throws UnformattingFailedException, FormattingFailedException
+    {
+        if (types == null) {
+            throw new IllegalArgumentException("Types cannot be null");
+        } else if (xer == null) {
+            throw new IllegalArgumentException("XER cannot be null");
+        } else if (xerUnformatter == null) {
+            throw new IllegalArgumentException("XER Unformatter cannot be null");
+        } else if (perFormatter == null) {
+            throw new IllegalArgumentException("PER Formatter cannot be null");
+        }
+        
+        final ConversionEvent event = ConversionEvent.start(Direction.XER_TO_PER);
+        try {
+            XerT rawXer = unformatXer(null, xer, xerUnformatter, event);
+            
+            // The root element names the type, so when it is a type we know, only that type can succeed
+            String rootName = rawXer instanceof Utf8EncodedXerData
+                ? XerRootElement.getName(((Utf8EncodedXerData<?>) rawXer).getXerDataUtf8())
+                : XerRootElement.getName(rawXer.getXerData());
+            Asn1Type rootType = rootName == null ? null : Asn1Types.getAsn1TypeByName(rootName);
+            if (rootType != null) {
+                for (Asn1Type type : types) {
+                    if (type.equals(rootType)) {
+                        event.attempt(type);
+                        event.skip();
+                        byte[] rawPer = convertXerToPer(type, rawXer, event);
+                        if (rawPer != null) {
+                            return new TypeGuessResult<PER>(type, formatPer(type, rawPer, perFormatter, event).getFormattedPerData());
+                        }
+                        break;
+                    }
+                }
+                
+                event.noMatch();
+                return new TypeGuessResult<PER>();
+            }
+            
+            for(Asn1Type type : types) {
+                event.attempt(type);
+                event.skip();
+                byte[] rawPer = convertXerToPer(type, rawXer, event);
+                if (rawPer != null) {
+                    return new TypeGuessResult<PER>(type, formatPer(type, rawPer, perFormatter, event).getFormattedPerData());
+                }
+            }
+            
+            event.noMatch();
+            return new TypeGuessResult<PER>();
+        } finally {
+            event.finish();
+        }
+    }
+
+    /** Convert a batch of XER encoded data into PER encoded data
+     *
+     * <p>
+     *
+     * The whole batch is handed to the backend at once, so with the native backend the cost of crossing into native
+     * code is paid once per batch instead of once per item. Each item succeeds or fails on its own; a bad item does not affect the
+     * others.
+     *
+     * @param <XER> Input type representing XER data
+     * @param <PER> Output type representing PER data
+     * @param <XerT> Wrapper around XER
+     * @param <PerT> Wrapper around PER
+     * @param type The ASN.1 type every item of the batch contains
+     * @param xers The XER encoded data
+     * @param xerUnformatter A hint as to how the XER data is represented in memory
+     * @param perFormatter A hint as to how to represent output PER in memory
+     * @return The result for each item, in the same order as xers
+     */
+    public static <XER, XerT extends XerData<XER>, PER, PerT extends PerData<PER>>
+    List<ConversionResult<PER>> xerToPerBatch(Asn1Type type,
+                                              List<XER> xers,
+                                              XerDataUnformatter<XER, XerT> xerUnformatter,
+                                              PerDataFormatter<PER, PerT> perFormatter)
+    {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        } else if (xers == null) {
+            throw new IllegalArgumentException("XER cannot be null");
+        } else if (xerUnformatter == null) {
+            throw new IllegalArgumentException("XER Unformatter cannot be null");
+        } else if (perFormatter == null) {
+            throw new IllegalArgumentException("PER Formatter cannot be null");
+        }
+
+        final int count = xers.size();
+        final List<ConversionResult<PER>> results = new ArrayList<>(Collections.nCopies(count, null));
+        final byte[][] rawXers = new byte[count][];
+
+        for (int i = 0; i < count; ++i) {
+            if (xers.get(i) == null) {
+                throw new IllegalArgumentException("XER cannot be null");
+            }
+
+            try {
+                rawXers[i] = utf8Bytes(xerUnformatter.unformatXerData(xers.get(i)));
+            } catch (UnformattingFailedException ex) {
+                PerXerCodecMetrics.unformattingFailure(type, Direction.XER_TO_PER);
+                results.set(i, new ConversionResult<PER>(ex));
+                rawXers[i] = new byte[0];
+            }
+        }
+
+        final int[] offsets = new int[count + 1];
+        final byte[] packedXer = pack(rawXers, offsets);
+
+        final byte[][] rawPers = CodecBackends.current().xerToPerBatch(type, packedXer, offsets);
+
+        for (int i = 0; i < count; ++i) {
+            if (results.get(i) != null) {
+                continue;
+            } else if (rawPers[i] == null) {
+                PerXerCodecMetrics.unexplainedNativeFailure(type, Direction.XER_TO_PER);
+                results.set(i, new ConversionResult<PER>(new CodecFailedException("Could not convert XER data to PER: " + xers.get(i))));
+            } else {
+                try {
+                    results.set(i, new ConversionResult<PER>(perFormatter.formatPerData(rawPers[i]).getFormattedPerData()));
+                    PerXerCodecMetrics.success(type, Direction.XER_TO_PER);
+                } catch (FormattingFailedException ex) {
+                    PerXerCodecMetrics.formattingFailure(type, Direction.XER_TO_PER);
+                    results.set(i, new ConversionResult<PER>(ex));
+                }
+            }
+        }
+
+        return results;
+    }
+
+    /** Decode PER encoded data once, so that it can be encoded any number of times
+     * 
+     * <p>
+     * 
+     * The decoded message holds native memory, and should be closed once it is no longer needed.
+     * 
+     * @param <PER> Input type representing PER data
+     * @param <PerT> Wrapper around PER
+     * @param type The type the PER encoded data contains
+     * @param per The PER encoded data
+     * @param perUnformatter A hint as to how the PER data is represented in memory
+     * @return The decoded message
+     * @throws CodecFailedException If the generated ASN.1 code could not decode the given data
+     * @throws UnformattingFailedException If the PER data could not be interpreted
+     * @throws NativeLibraryException If the native library could not be loaded
+     */
+    public static <PER, PerT extends PerData<PER>>
+    DecodedMessage decodePer(Asn1Type type, PER per, PerDataUnformatter<PER, PerT> perUnformatter)
+        throws CodecFailedException, UnformattingFailedException
+    {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        } else if (per == null) {
+            throw new IllegalArgumentException("PER cannot be null");
+        } else if (perUnformatter == null) {
+            throw new IllegalArgumentException("PER Unformatter cannot be null");
+        }
+        
+        PerT rawPer = perUnformatter.unformatPerData(per);
+        
+        NativeLibrary.load();
+        long handle = Native.decodePer(type.cInt, rawPer.getPerData());
+        if (handle == 0) {
+            throw new CodecFailedException("Could not decode PER data: " + per);
+        } else {
+            return new DecodedMessage(type, handle);
+        }
+    }
+    
+    /** Decode XER encoded data once, so that it can be encoded any number of times
+     * 
+     * <p>
+     * 
+     * The decoded message holds native memory, and should be closed once it is no longer needed.
+     * 
+     * @param <XER> Input type representing XER data
+     * @param <XerT> Wrapper around XER
+     * @param type The ASN.1 type the XER encoded data contains
+     * @param xer The XER encoded data
+     * @param xerUnformatter A hint as to how the XER data is represented in memory
+     * @return The decoded message
+     * @throws CodecFailedException If the generated ASN.1 code could not decode the given data
+     * @throws UnformattingFailedException If the XER data could not be interpreted
+     * @throws NativeLibraryException If the native library could not be loaded
+     */
+    public static <XER, XerT extends XerData<XER>>
+    DecodedMessage decodeXer(Asn1Type type, XER xer, XerDataUnformatter<XER, XerT> xerUnformatter)
+        throws CodecFailedException, UnformattingFailedException
+    {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        } else if (xer == null) {
+            throw new IllegalArgumentException("XER cannot be null");
+        } else if (xerUnformatter == null) {
+            throw new IllegalArgumentException("XER Unformatter cannot be null");
         }
         
-        return new TypeGuessResult<PER>();
+        XerT rawXer = xerUnformatter.unformatXerData(xer);
+        
+        NativeLibrary.load();
+        long handle = Native.decodeXer(type.cInt, rawXer.getXerData());
+        if (handle == 0) {
+            throw new CodecFailedException("Could not decode XER data: " + xer);
+        } else {
+            return new DecodedMessage(type, handle);
+        }
+    }
+
+    /** Check PER encoded data without converting it
+     *
+     * <p>
+     *
+     * This is the same as {@link #validatePer(Asn1Type, Object, PerDataUnformatter, boolean)} without checking
+     * constraints, which matches what a conversion checks.
+     *
+     * @param <PER> Input type representing PER data
+     * @param <PerT> Wrapper around PER
+     * @param type The type the PER encoded data should contain
+     * @param per The PER encoded data
+     * @param perUnformatter A hint as to how the PER data is represented in memory
+     * @return The result of validating
+     * @throws UnformattingFailedException If the PER data could not be interpreted
+     * @throws NativeLibraryException If the native library could not be loaded
+     */
+    public static <PER, PerT extends PerData<PER>>
+    ValidationResult validatePer(Asn1Type type, PER per, PerDataUnformatter<PER, PerT> perUnformatter)
+        throws UnformattingFailedException
+    {
+        return validatePer(type, per, perUnformatter, false);
+    }
+
+    /** Check PER encoded data without converting it
+     *
+     * <p>
+     *
+     * The data is decoded, and its SEMI dialogID and seqID checked against the type, but nothing is encoded,
+     * so this is cheaper than a conversion for callers which only need to accept or reject data.
+     *
+     * @param <PER> Input type representing PER data
+     * @param <PerT> Wrapper around PER
+     * @param type The type the PER encoded data should contain
+     * @param per The PER encoded data
+     * @param perUnformatter A hint as to how the PER data is represented in memory
+     * @param checkConstraints If the decoded data should also be checked against the type's constraints,
+     *                         which conversions do not do
+     * @return The result of validating
+     * @throws UnformattingFailedException If the PER data could not be interpreted
+     * @throws NativeLibraryException If the native library could not be loaded
+     */
+    public static <PER, PerT extends PerData<PER>>
+    ValidationResult validatePer(Asn1Type type, PER per, PerDataUnformatter<PER, PerT> perUnformatter, boolean checkConstraints)
+        throws UnformattingFailedException
+    {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        } else if (per == null) {
+            throw new IllegalArgumentException("PER cannot be null");
+        } else if (perUnformatter == null) {
+            throw new IllegalArgumentException("PER Unformatter cannot be null");
+        }
+
+        PerT rawPer = perUnformatter.unformatPerData(per);
+
+        NativeLibrary.load();
+        return ValidationResult.fromNative(Native.validatePer(type.cInt, rawPer.getPerData(), checkConstraints));
+    }
+
+    /** Check XER encoded data without converting it
+     *
+     * <p>
+     *
+     * This is the same as {@link #validateXer(Asn1Type, Object, XerDataUnformatter, boolean)} without checking
+     * constraints, which matches what a conversion checks.
+     *
+     * @param <XER> Input type representing XER data
+     * @param <XerT> Wrapper around XER
+     * @param type The ASN.1 type the XER encoded data should contain
+     * @param xer The XER encoded data
+     * @param xerUnformatter A hint as to how the XER data is represented in memory
+     * @return The result of validating
+     * @throws UnformattingFailedException If the XER data could not be interpreted
+     * @throws NativeLibraryException If the native library could not be loaded
+     */
+    public static <XER, XerT extends XerData<XER>>
+    ValidationResult validateXer(Asn1Type type, XER xer, XerDataUnformatter<XER, XerT> xerUnformatter)
+        throws UnformattingFailedException
+    {
+        return validateXer(type, xer, xerUnformatter, false);
+    }
+
+    /** Check XER encoded data without converting it
+     *
+     * <p>
+     *
+     * The data is decoded, and its SEMI dialogID and seqID checked against the type, but nothing is encoded,
+     * so this is cheaper than a conversion for callers which only need to accept or reject data.
+     *
+     * @param <XER> Input type representing XER data
+     * @param <XerT> Wrapper around XER
+     * @param type The ASN.1 type the XER encoded data should contain
+     * @param xer The XER encoded data
+     * @param xerUnformatter A hint as to how the XER data is represented in memory
+     * @param checkConstraints If the decoded data should also be checked against the type's constraints,
+     *                         which conversions do not do
+     * @return The result of validating
+     * @throws UnformattingFailedException If the XER data could not be interpreted
+     * @throws NativeLibraryException If the native library could not be loaded
+     */
+    public static <XER, XerT extends XerData<XER>>
+    ValidationResult validateXer(Asn1Type type, XER xer, XerDataUnformatter<XER, XerT> xerUnformatter, boolean checkConstraints)
+        throws UnformattingFailedException
+    {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        } else if (xer == null) {
+            throw new IllegalArgumentException("XER cannot be null");
+        } else if (xerUnformatter == null) {
+            throw new IllegalArgumentException("XER Unformatter cannot be null");
+        }
+
+        XerT rawXer = xerUnformatter.unformatXerData(xer);
+
+        NativeLibrary.load();
+        final long packed;
+        if (!(rawXer instanceof Utf8EncodedXerData)) {
+            packed = Native.validateXer(type.cInt, rawXer.getXerData(), checkConstraints);
+        } else {
+            final ByteBuffer utf8 = ((Utf8EncodedXerData<?>) rawXer).getXerDataUtf8();
+            if (utf8.hasArray()) {
+                packed = Native.validateXerUtf8(type.cInt, utf8.array(), utf8.arrayOffset() + utf8.position(), utf8.remaining(), checkConstraints);
+            } else {
+                final byte[] copy = utf8Bytes(rawXer);
+                packed = Native.validateXerUtf8(type.cInt, copy, 0, copy.length, checkConstraints);
+            }
+        }
+
+        return ValidationResult.fromNative(packed);
     }
+
+    /** Turn the native arena allocator on or off
+     * 
+     * <p>
+     * 
+     * With the arena on, which is the default, each thread converts out of its own reusable block of native memory,
+     * which is reset after every conversion instead of freeing the decoded message piece by piece.
+     * With it off, every allocation goes to the C library and is freed individually, which is slower,
+     * but makes the native library's memory use visible to tools such as valgrind.
+     * 
+     * @param enabled If the arena should be used for conversions started after this call
+     * @throws NativeLibraryException If the native library could not be loaded
+     */
+    public static void setNativeArenaEnabled(boolean enabled)
+    {
+        NativeLibrary.load();
+        Native.setArenaEnabled(enabled);
+    }
+
+    /** Check if the native arena allocator is in use
+     * 
+     * @return If conversions allocate from the arena, which is always false if the native library was built without it
+     * @throws NativeLibraryException If the native library could not be loaded
+     */
+    public static boolean isNativeArenaEnabled()
+    {
+        NativeLibrary.load();
+        return Native.isArenaEnabled();
+    }
+
+    /** Unformat PER data, noting the failure if it cannot be
+     *
+     * @param <PER> Input type representing PER data
+     * @param <PerT> Wrapper around PER
+     * @param type The type the PER data contains, or null if it is not known
+     * @param per The PER data
+     * @param perUnformatter A hint as to how the PER data is represented in memory
+     * @param event Event for the conversion
+     * @return The unformatted PER data
+     * @throws UnformattingFailedException If the PER data could not be interpreted
+     */
+    private static <PER, PerT extends PerData<PER>>
+    PerT unformatPer(Asn1Type type, PER per, PerDataUnformatter<PER, PerT> perUnformatter, ConversionEvent event)
+        throws UnformattingFailedException
+    {
+        final PerT rawPer;
+        try {
+            rawPer = perUnformatter.unformatPerData(per);
+        } catch (UnformattingFailedException ex) {
+            event.unformattingFailed(type);
+            throw ex;
+        }
+
+        event.lap(type, Stage.UNFORMAT);
+        return rawPer;
+    }
+
+    /** Unformat XER data, noting the failure if it cannot be
+     *
+     * @param <XER> Input type representing XER data
+     * @param <XerT> Wrapper around XER
+     * @param type The type the XER data contains, or null if it is not known
+     * @param xer The XER data
+     * @param xerUnformatter A hint as to how the XER data is represented in memory
+     * @param event Event for the conversion
+     * @return The unformatted XER data
+     * @throws UnformattingFailedException If the XER data could not be interpreted
+     */
+    private static <XER, XerT extends XerData<XER>>
+    XerT unformatXer(Asn1Type type, XER xer, XerDataUnformatter<XER, XerT> xerUnformatter, ConversionEvent event)
+        throws UnformattingFailedException
+    {
+        final XerT rawXer;
+        try {
+            rawXer = xerUnformatter.unformatXerData(xer);
+        } catch (UnformattingFailedException ex) {
+            event.unformattingFailed(type);
+            throw ex;
+        }
+
+        event.lap(type, Stage.UNFORMAT);
+        return rawXer;
+    }
+
+    /** Format PER data produced by the native codec, noting the conversion as a success if it can be
+     *
+     * @param <PER> Output type representing PER data
+     * @param <PerT> Wrapper around PER
+     * @param type The type the PER data contains
+     * @param rawPer The PER data
+     * @param perFormatter A hint as to how to represent output PER in memory
+     * @param event Event for the conversion
+     * @return The formatted PER data
+     * @throws FormattingFailedException If the desired PER representation could not be built
+     */
+    private static <PER, PerT extends PerData<PER>>
+    PerT formatPer(Asn1Type type, byte[] rawPer, PerDataFormatter<PER, PerT> perFormatter, ConversionEvent event)
+        throws FormattingFailedException
+    {
+        final PerT formatted;
+        try {
+            formatted = perFormatter.formatPerData(rawPer);
+        } catch (FormattingFailedException ex) {
+            event.formattingFailed(type);
+            throw ex;
+        }
+
+        event.lap(type, Stage.FORMAT);
+        event.succeeded(type, rawPer.length);
+        return formatted;
+    }
+
+    /** Convert PER data to XER with the backend, handing UTF-8 formatters its output without building a string
+     *
+     * @param <XER> Output type representing XER data
+     * @param <XerT> Wrapper around XER
+     * @param type The type the PER data contains
+     * @param rawPer The PER data
+     * @param xerFormatter A hint as to how to represent output XER in memory
+     * @param event Event for the conversion
+     * @return The formatted XER data, or null if the backend failed
+     * @throws FormattingFailedException If the desired XER representation could not be built
+     */
+    private static <XER, XerT extends XerData<XER>>
+    XerT convertPerToXer(Asn1Type type, byte[] rawPer, XerDataFormatter<XER, XerT> xerFormatter, ConversionEvent event)
+        throws FormattingFailedException
+    {
+        event.input(rawPer.length);
+
+        final XerT formatted;
+        final int rawXerSize;
+        if (xerFormatter instanceof Utf8XerDataFormatter) {
+            final byte[] rawXer = CodecBackends.current().perToXerUtf8(type, rawPer);
+            event.lap(type, Stage.NATIVE);
+            if (rawXer == null) {
+                event.nativeFailed(type);
+                return null;
+            }
+
+            rawXerSize = rawXer.length;
+            try {
+                formatted = ((Utf8XerDataFormatter<XER, XerT>) xerFormatter).formatXerDataUtf8(rawXer);
+            } catch (FormattingFailedException ex) {
+                event.formattingFailed(type);
+                throw ex;
+            }
+        } else {
+            final String rawXer = CodecBackends.current().perToXer(type, rawPer);
+            event.lap(type, Stage.NATIVE);
+            if (rawXer == null) {
+                event.nativeFailed(type);
+                return null;
+            }
+
+            rawXerSize = rawXer.length();
+            try {
+                formatted = xerFormatter.formatXerData(rawXer);
+            } catch (FormattingFailedException ex) {
+                event.formattingFailed(type);
+                throw ex;
+            }
+        }
+
+        event.lap(type, Stage.FORMAT);
+        event.succeeded(type, rawXerSize);
+        return formatted;
+    }
+
+    /** Convert XER data to PER with the backend, passing UTF-8 encoded XER data to it as it is
+     *
+     * @param type The type the XER data contains
+     * @param rawXer The XER data
+     * @param event Event for the conversion
+     * @return The PER data, or null if the backend failed
+     */
+    private static byte[] convertXerToPer(Asn1Type type, XerData<?> rawXer, ConversionEvent event)
+    {
+        final byte[] rawPer;
+        if (!(rawXer instanceof Utf8EncodedXerData)) {
+            final String xer = rawXer.getXerData();
+            event.input(xer.length());
+            rawPer = CodecBackends.current().xerToPer(type, xer);
+        } else {
+            final ByteBuffer utf8 = ((Utf8EncodedXerData<?>) rawXer).getXerDataUtf8();
+            event.input(utf8.remaining());
+            rawPer = CodecBackends.current().xerToPerUtf8(type, utf8);
+        }
+
+        event.lap(type, Stage.NATIVE);
+        if (rawPer == null) {
+            event.nativeFailed(type);
+        }
+        return rawPer;
+    }
+
+    /** Get XER data as UTF-8 bytes, without going through a string if it is already held as UTF-8
+     *
+     * @param rawXer The XER data
+     * @return The UTF-8 encoded XER data
+     */
+    static byte[] utf8Bytes(XerData<?> rawXer)
+    {
+        if (!(rawXer instanceof Utf8EncodedXerData)) {
+            return rawXer.getXerData().getBytes(StandardCharsets.UTF_8);
+        }
+
+        final ByteBuffer utf8 = ((Utf8EncodedXerData<?>) rawXer).getXerDataUtf8();
+        final byte[] bytes = new byte[utf8.remaining()];
+        utf8.get(bytes);
+        return bytes;
+    }
+
+    /** Pack several byte strings end to end into a single array
+     *
+     * @param items Byte strings to pack
+     * @param offsets Filled with the offset of each item, followed by the total length; must be one longer than items
+     * @return The packed byte strings
+     */
+    private static byte[] pack(byte[][] items, int[] offsets)
+    {
+        int totalLength = 0;
+        for (int i = 0; i < items.length; ++i) {
+            offsets[i] = totalLength;
+            totalLength = Math.addExact(totalLength, items[i].length);
+        }
+        offsets[items.length] = totalLength;
+
+        final byte[] packed = new byte[totalLength];
+        for (int i = 0; i < items.length; ++i) {
+            System.arraycopy(items[i], 0, packed, offsets[i], items[i].length);
+        }
+        return packed;
+    }
+
+    /** Bytes of PER data which hold the SEMI dialogID and seqID of any type, matching SEMI_HEADER_PEEK_SIZE in the native library */
+    private static final int SEMI_HEADER_PEEK_SIZE = 8;
+
+    /** Longest {@link #warmUp()} keeps converting for */
+    private static final long DEFAULT_WARM_UP_SECONDS = 30;
+
+    /** If a warm up has reported ready */
+    private static volatile boolean warmedUp;
 }
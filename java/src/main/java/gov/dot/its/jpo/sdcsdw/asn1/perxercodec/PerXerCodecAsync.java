@@ -0,0 +1,341 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec.TypeGuessResult;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerDataFormatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerDataUnformatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerDataFormatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerDataUnformatter;
+
+/** Asynchronous front end to {@link PerXerCodec}, which runs conversions on a bounded pool of native worker threads
+ *
+ * <p>
+ *
+ * Every call into the native codec blocks the calling thread until it returns, and a virtual thread which calls into
+ * native code stays pinned to its carrier thread for the whole call. Submitting conversions here instead keeps the
+ * native calls on a small, fixed set of platform threads, and hands back a future which the caller can wait on
+ * without holding a carrier.
+ *
+ * <p>
+ *
+ * Conversions wait in a queue of bounded length for a worker to become free. What happens when the queue is full is
+ * decided by the {@link RejectionPolicy}. Futures fail with the same exceptions the matching {@link PerXerCodec}
+ * method would throw, or with {@link RejectedExecutionException} if the conversion was rejected.
+ *
+ * @author andrew
+ *
+ */
+public class PerXerCodecAsync implements AutoCloseable
+{
+    /** What to do with a conversion which is submitted while the queue is full
+     *
+     * @author andrew
+     *
+     */
+    public enum RejectionPolicy
+    {
+        /** Fail the conversion's future with a {@link RejectedExecutionException} */
+        FAIL,
+        /** Block the submitting thread until there is room in the queue, which does not pin a virtual thread */
+        BLOCK,
+        /** Run the conversion on the submitting thread, which pins a virtual thread for the length of the conversion */
+        CALLER_RUNS
+    }
+
+    /** Create an asynchronous codec with one worker per available processor
+     *
+     * <p>
+     *
+     * The queue holds up to 1024 conversions per worker, and conversions which do not fit are failed.
+     */
+    public PerXerCodecAsync()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Create an asynchronous codec
+     *
+     * <p>
+     *
+     * The queue holds up to 1024 conversions per worker, and conversions which do not fit are failed.
+     *
+     * @param workers Number of native worker threads
+     */
+    public PerXerCodecAsync(int workers)
+    {
+        this(workers, Math.multiplyExact(workers, DEFAULT_QUEUE_LIMIT_PER_WORKER), RejectionPolicy.FAIL);
+    }
+
+    /** Create an asynchronous codec
+     *
+     * @param workers Number of native worker threads
+     * @param queueLimit Number of conversions which may wait for a worker
+     * @param rejectionPolicy What to do with conversions which are submitted while the queue is full
+     */
+    public PerXerCodecAsync(int workers, int queueLimit, RejectionPolicy rejectionPolicy)
+    {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers must be at least 1");
+        } else if (queueLimit < 1) {
+            throw new IllegalArgumentException("Queue limit must be at least 1");
+        } else if (rejectionPolicy == null) {
+            throw new IllegalArgumentException("Rejection policy cannot be null");
+        }
+
+        this.rejectionPolicy = rejectionPolicy;
+        this.queue = new ArrayBlockingQueue<>(queueLimit);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, queue, new WorkerThreadFactory(), rejectionHandler(rejectionPolicy));
+        this.executor.prestartAllCoreThreads();
+    }
+
+    /** Asynchronously convert PER encoded data into XER encoded data
+     *
+     * @param <PER> Input type representing PER data
+     * @param <XER> Output type representing XER data
+     * @param <PerT> Wrapper around PER
+     * @param <XerT> Wrapper around XER
+     * @param type The type the PER encoded data contains
+     * @param per The PER encoded data
+     * @param perUnformatter A hint as to how the PER data is represented in memory
+     * @param xerFormatter A hint as to how to represent output XER in memory
+     * @return Future XER encoded data
+     * @see PerXerCodec#perToXer(Asn1Type, Object, PerDataUnformatter, XerDataFormatter)
+     */
+    public <PER, PerT extends PerData<PER>, XER, XerT extends XerData<XER>>
+    CompletableFuture<XER> perToXer(Asn1Type type,
+                                    PER per,
+                                    PerDataUnformatter<PER, PerT> perUnformatter,
+                                    XerDataFormatter<XER, XerT> xerFormatter)
+    {
+        return submit(() -> PerXerCodec.perToXer(type, per, perUnformatter, xerFormatter));
+    }
+
+    /** Asynchronously convert PER encoded data into XER encoded data, while guessing what type of data is present
+     *
+     * @param <PER> Input type representing PER data
+     * @param <XER> Output type representing XER data
+     * @param <PerT> Wrapper around PER
+     * @param <XerT> Wrapper around XER
+     * @param types The types the PER encoded data could possibly contain
+     * @param per The PER encoded data
+     * @param perUnformatter A hint as to how the PER data is represented in memory
+     * @param xerFormatter A hint as to how to represent output XER in memory
+     * @return Future result of guessing
+     * @see PerXerCodec#guessPerToXer(Iterable, Object, PerDataUnformatter, XerDataFormatter)
+     */
+    public <PER, PerT extends PerData<PER>, XER, XerT extends XerData<XER>>
+    CompletableFuture<TypeGuessResult<XER>> guessPerToXer(Iterable<Asn1Type> types,
+                                                          PER per,
+                                                          PerDataUnformatter<PER, PerT> perUnformatter,
+                                                          XerDataFormatter<XER, XerT> xerFormatter)
+    {
+        return submit(() -> PerXerCodec.guessPerToXer(types, per, perUnformatter, xerFormatter));
+    }
+
+    /** Asynchronously convert XER encoded data into PER encoded data
+     *
+     * @param <XER> Input type representing XER data
+     * @param <PER> Output type representing PER data
+     * @param <XerT> Wrapper around XER
+     * @param <PerT> Wrapper around PER
+     * @param type The ASN.1 type the XER encoded data contains
+     * @param xer The XER encoded data
+     * @param xerUnformatter A hint as to how the XER data is represented in memory
+     * @param perFormatter A hint as to how to represent output PER in memory
+     * @return Future PER encoded data
+     * @see PerXerCodec#xerToPer(Asn1Type, Object, XerDataUnformatter, PerDataFormatter)
+     */
+    public <XER, XerT extends XerData<XER>, PER, PerT extends PerData<PER>>
+    CompletableFuture<PER> xerToPer(Asn1Type type,
+                                    XER xer,
+                                    XerDataUnformatter<XER, XerT> xerUnformatter,
+                                    PerDataFormatter<PER, PerT> perFormatter)
+    {
+        return submit(() -> PerXerCodec.xerToPer(type, xer, xerUnformatter, perFormatter));
+    }
+
+    /** Asynchronously convert XER encoded data into PER encoded data, while guessing what type of data is present
+     *
+     * @param <XER> Input type representing XER data
+     * @param <PER> Output type representing PER data
+     * @param <XerT> Wrapper around XER
+     * @param <PerT> Wrapper around PER
+     * @param types The types the XER encoded data could possibly contain
+     * @param xer The XER encoded data
+     * @param xerUnformatter A hint as to how the XER data is represented in memory
+     * @param perFormatter A hint as to how to represent output PER in memory
+     * @return Future result of guessing
+     * @see PerXerCodec#guessXerToPer(Iterable, Object, XerDataUnformatter, PerDataFormatter)
+     */
+    public <XER, XerT extends XerData<XER>, PER, PerT extends PerData<PER>>
+    CompletableFuture<TypeGuessResult<PER>> guessXerToPer(Iterable<Asn1Type> types,
+                                                          XER xer,
+                                                          XerDataUnformatter<XER, XerT> xerUnformatter,
+                                                          PerDataFormatter<PER, PerT> perFormatter)
+    {
+        return submit(() -> PerXerCodec.guessXerToPer(types, xer, xerUnformatter, perFormatter));
+    }
+
+    /** Get the policy for conversions which are submitted while the queue is full
+     *
+     * @return The rejection policy
+     */
+    public RejectionPolicy getRejectionPolicy()
+    {
+        return rejectionPolicy;
+    }
+
+    /** Get the number of conversions waiting for a worker
+     *
+     * @return The number of queued conversions
+     */
+    public int getQueuedCount()
+    {
+        return queue.size();
+    }
+
+    /** Stop accepting conversions
+     *
+     * <p>
+     *
+     * Conversions which have already been accepted still run, and their futures still complete.
+     * Conversions submitted after this fail with a {@link RejectedExecutionException}, whatever the rejection policy,
+     * as may those still blocked waiting for room in the queue.
+     */
+    @Override
+    public void close()
+    {
+        executor.shutdown();
+    }
+
+    /** Wait for every accepted conversion to finish after {@link #close()}
+     *
+     * @param timeout How long to wait
+     * @param unit Unit of timeout
+     * @return If every conversion finished before the timeout
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /** Run a task on a worker, or reject it according to the rejection policy
+     *
+     * @param <T> Result type of the task
+     * @param task The task to run
+     * @return Future result of the task
+     */
+    <T> CompletableFuture<T> submit(Callable<T> task)
+    {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        final Runnable runnable = () -> {
+            // Skip the work entirely if the caller gave up while this was queued
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(task.call());
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            }
+        };
+
+        try {
+            executor.execute(runnable);
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+
+        return future;
+    }
+
+    /** Build the executor's handler for a rejection policy
+     *
+     * @param rejectionPolicy The rejection policy
+     * @return Handler which carries out the policy
+     */
+    private static RejectedExecutionHandler rejectionHandler(RejectionPolicy rejectionPolicy)
+    {
+        switch (rejectionPolicy) {
+        case BLOCK:
+            return (runnable, executor) -> {
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("Codec has been closed");
+                }
+                try {
+                    executor.getQueue().put(runnable);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Interrupted while waiting for room in the queue", ex);
+                }
+                // If the codec was closed while blocked, the workers may already have emptied the queue and stopped
+                if (executor.isShutdown() && executor.getQueue().remove(runnable)) {
+                    throw new RejectedExecutionException("Codec has been closed");
+                }
+            };
+        case CALLER_RUNS:
+            return (runnable, executor) -> {
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("Codec has been closed");
+                }
+                runnable.run();
+            };
+        case FAIL:
+        default:
+            return (runnable, executor) -> {
+                throw new RejectedExecutionException(executor.isShutdown() ? "Codec has been closed" : "Codec queue is full");
+            };
+        }
+    }
+
+    /** Factory for the native worker threads, which are daemons so that an unclosed codec does not keep the JVM alive
+     *
+     * @author andrew
+     *
+     */
+    private static class WorkerThreadFactory implements ThreadFactory
+    {
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            final Thread thread = new Thread(runnable, "per-xer-codec-" + poolNumber + "-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+        /** Number of this factory's pool, to tell apart the threads of different codecs */
+        private final int poolNumber = poolCount.incrementAndGet();
+
+        /** Number of threads created so far */
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        /** Number of pools created so far */
+        private static final AtomicInteger poolCount = new AtomicInteger();
+    }
+
+    /** Default number of queued conversions allowed per worker */
+    private static final int DEFAULT_QUEUE_LIMIT_PER_WORKER = 1024;
+
+    /** Policy for conversions submitted while the queue is full */
+    private final RejectionPolicy rejectionPolicy;
+
+    /** Conversions waiting for a worker */
+    private final BlockingQueue<Runnable> queue;
+
+    /** Pool of native worker threads */
+    private final ThreadPoolExecutor executor;
+}
@@ -0,0 +1,462 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.FormattingFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.UnformattingFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerDataFormatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerDataUnformatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.Utf8XerDataFormatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerDataFormatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerDataUnformatter;
+
+/** Bounded cache in front of {@link PerXerCodec}, for data which is converted over and over, such as rebroadcast
+ *  advisories
+ *
+ * <p>
+ *
+ * Results are keyed by the type, the direction of the conversion, and the SHA-256 digest of the unformatted input,
+ * so a repeated input skips the codec backend entirely, however it is formatted. Inputs which the backend could
+ * not convert are remembered too, and fail again straight away.
+ *
+ * <p>
+ *
+ * The cache holds at most a fixed weight, which is roughly the number of bytes held, and evicts the least recently
+ * used results to stay under it. Results heavier than the whole cache are never held.
+ *
+ * <p>
+ *
+ * The cache is thread safe. Two threads which miss on the same input at once both convert it.
+ *
+ * @author andrew
+ *
+ */
+public class PerXerCodecCache
+{
+    /** Snapshot of the statistics of a cache
+     *
+     * @author andrew
+     *
+     */
+    public static class Stats
+    {
+        /** Create a snapshot
+         *
+         * @param hitCount Number of lookups which found a result
+         * @param missCount Number of lookups which had to convert
+         * @param failureHitCount Number of hits which found a known bad input
+         * @param evictionCount Number of results evicted
+         * @param size Number of results held
+         * @param weight Total weight of the results held
+         */
+        Stats(long hitCount, long missCount, long failureHitCount, long evictionCount, int size, long weight)
+        {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.failureHitCount = failureHitCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+            this.weight = weight;
+        }
+
+        /** Get the number of lookups which found a result, including known bad inputs
+         *
+         * @return The number of hits
+         */
+        public long getHitCount()
+        {
+            return hitCount;
+        }
+
+        /** Get the number of lookups which had to convert
+         *
+         * @return The number of misses
+         */
+        public long getMissCount()
+        {
+            return missCount;
+        }
+
+        /** Get the number of hits which found a known bad input
+         *
+         * @return The number of hits on known bad inputs
+         */
+        public long getFailureHitCount()
+        {
+            return failureHitCount;
+        }
+
+        /** Get the number of results evicted to stay under the maximum weight
+         *
+         * @return The number of evictions
+         */
+        public long getEvictionCount()
+        {
+            return evictionCount;
+        }
+
+        /** Get the fraction of lookups which found a result
+         *
+         * @return The hit rate, or 0 if there have been no lookups
+         */
+        public double getHitRate()
+        {
+            final long lookups = hitCount + missCount;
+            return lookups == 0 ? 0 : (double) hitCount / lookups;
+        }
+
+        /** Get the number of results held
+         *
+         * @return The number of results held
+         */
+        public int getSize()
+        {
+            return size;
+        }
+
+        /** Get the total weight of the results held
+         *
+         * @return The weight held
+         */
+        public long getWeight()
+        {
+            return weight;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Stats [hitCount=" + hitCount + ", missCount=" + missCount + ", failureHitCount=" + failureHitCount
+                    + ", evictionCount=" + evictionCount + ", size=" + size + ", weight=" + weight + "]";
+        }
+
+        /** Number of lookups which found a result */
+        private final long hitCount;
+
+        /** Number of lookups which had to convert */
+        private final long missCount;
+
+        /** Number of hits which found a known bad input */
+        private final long failureHitCount;
+
+        /** Number of results evicted */
+        private final long evictionCount;
+
+        /** Number of results held */
+        private final int size;
+
+        /** Total weight of the results held */
+        private final long weight;
+    }
+
+    /** Create a cache
+     *
+     * @param maxWeight Maximum total weight of the results held, roughly in bytes
+     */
+    public PerXerCodecCache(long maxWeight)
+    {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("Maximum weight must be at least 1");
+        }
+
+        this.maxWeight = maxWeight;
+    }
+
+    /** Convert PER encoded data into XER encoded data, as {@link PerXerCodec#perToXer} does, using a cached result
+     *  if the same data has been converted before
+     *
+     * @param <PER> Input type representing PER data
+     * @param <XER> Output type representing XER data
+     * @param <PerT> Wrapper around PER
+     * @param <XerT> Wrapper around XER
+     * @param type The type the PER encoded data contains
+     * @param per The PER encoded data
+     * @param perUnformatter A hint as to how the PER data is represented in memory
+     * @param xerFormatter A hint as to how to represent output XER in memory
+     * @return The XER encoded data
+     * @throws CodecFailedException If the generated ASN.1 code could not handle the given data, now or before
+     * @throws FormattingFailedException If the desired XER representation could not be built
+     * @throws UnformattingFailedException If the PER data could not be interpreted
+     */
+    public <PER, PerT extends PerData<PER>, XER, XerT extends XerData<XER>>
+    XER perToXer(Asn1Type type,
+                 PER per,
+                 PerDataUnformatter<PER, PerT> perUnformatter,
+                 XerDataFormatter<XER, XerT> xerFormatter)
+        throws CodecFailedException, FormattingFailedException, UnformattingFailedException
+    {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        } else if (per == null) {
+            throw new IllegalArgumentException("PER cannot be null");
+        } else if (perUnformatter == null) {
+            throw new IllegalArgumentException("PER Unformatter cannot be null");
+        } else if (xerFormatter == null) {
+            throw new IllegalArgumentException("XER Formatter cannot be null");
+        }
+
+        final byte[] rawPer = perUnformatter.unformatPerData(per).getPerData();
+        final Key key = new Key(type, PER_TO_XER, rawPer);
+
+        byte[] rawXer = lookup(key);
+        if (rawXer == null) {
+            rawXer = CodecBackends.current().perToXerUtf8(type, rawPer);
+            store(key, rawXer);
+        } else if (rawXer == FAILED) {
+            rawXer = null;
+        } else {
+            // Formatters are free to keep the array they are given, so never hand out the cached one
+            rawXer = rawXer.clone();
+        }
+
+        if (rawXer == null) {
+            throw new CodecFailedException("Could not convert PER data to XER: " + per);
+        } else if (xerFormatter instanceof Utf8XerDataFormatter) {
+            return ((Utf8XerDataFormatter<XER, XerT>) xerFormatter).formatXerDataUtf8(rawXer).getFormattedXerData();
+        } else {
+            return xerFormatter.formatXerData(new String(rawXer, StandardCharsets.UTF_8)).getFormattedXerData();
+        }
+    }
+
+    /** Convert XER encoded data into PER encoded data, as {@link PerXerCodec#xerToPer} does, using a cached result
+     *  if the same data has been converted before
+     *
+     * @param <XER> Input type representing XER data
+     * @param <PER> Output type representing PER data
+     * @param <XerT> Wrapper around XER
+     * @param <PerT> Wrapper around PER
+     * @param type The ASN.1 type the XER encoded data contains
+     * @param xer The XER encoded data
+     * @param xerUnformatter A hint as to how the XER data is represented in memory
+     * @param perFormatter A hint as to how to represent output PER in memory
+     * @return The PER encoded data
+     * @throws UnformattingFailedException If the XER data could not be interpreted
+     * @throws CodecFailedException If the generated ASN.1 code could not handle the given data, now or before
+     * @throws FormattingFailedException If the desired PER representation could not be built
+     */
+    public <XER, XerT extends XerData<XER>, PER, PerT extends PerData<PER>>
+    PER xerToPer(Asn1Type type,
+                 XER xer,
+                 XerDataUnformatter<XER, XerT> xerUnformatter,
+                 PerDataFormatter<PER, PerT> perFormatter)
+        throws UnformattingFailedException, CodecFailedException, FormattingFailedException
+    {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        } else if (xer == null) {
+            throw new IllegalArgumentException("XER cannot be null");
+        } else if (xerUnformatter == null) {
+            throw new IllegalArgumentException("XER Unformatter cannot be null");
+        } else if (perFormatter == null) {
+            throw new IllegalArgumentException("PER Formatter cannot be null");
+        }
+
+        final byte[] rawXer = PerXerCodec.utf8Bytes(xerUnformatter.unformatXerData(xer));
+        final Key key = new Key(type, XER_TO_PER, rawXer);
+
+        byte[] rawPer = lookup(key);
+        if (rawPer == null) {
+            rawPer = CodecBackends.current().xerToPerUtf8(type, ByteBuffer.wrap(rawXer));
+            store(key, rawPer);
+        } else if (rawPer == FAILED) {
+            rawPer = null;
+        } else {
+            rawPer = rawPer.clone();
+        }
+
+        if (rawPer == null) {
+            throw new CodecFailedException("Could not convert XER data to PER: " + xer);
+        } else {
+            return perFormatter.formatPerData(rawPer).getFormattedPerData();
+        }
+    }
+
+    /** Get a snapshot of the statistics of this cache
+     *
+     * @return The statistics
+     */
+    public Stats getStats()
+    {
+        synchronized (entries) {
+            return new Stats(hitCount, missCount, failureHitCount, evictionCount, entries.size(), weight);
+        }
+    }
+
+    /** Get the maximum total weight of the results held
+     *
+     * @return The maximum weight
+     */
+    public long getMaxWeight()
+    {
+        return maxWeight;
+    }
+
+    /** Drop every result held, leaving the statistics as they are */
+    public void clear()
+    {
+        synchronized (entries) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    /** Look up the result of a conversion, counting the hit or miss
+     *
+     * @param key The conversion
+     * @return The output, {@link #FAILED} if the input is known to be bad, or null if the result is not held
+     */
+    private byte[] lookup(Key key)
+    {
+        synchronized (entries) {
+            final byte[] output = entries.get(key);
+            if (output == null) {
+                ++missCount;
+            } else {
+                ++hitCount;
+                if (output == FAILED) {
+                    ++failureHitCount;
+                }
+            }
+            return output;
+        }
+    }
+
+    /** Hold the result of a conversion, evicting the least recently used results until it fits
+     *
+     * @param key The conversion
+     * @param output The output, or null if the conversion failed
+     */
+    private void store(Key key, byte[] output)
+    {
+        final byte[] value = output == null ? FAILED : output.clone();
+        final long entryWeight = Key.WEIGHT + value.length;
+        if (entryWeight > maxWeight) {
+            return;
+        }
+
+        synchronized (entries) {
+            final byte[] previous = entries.put(key, value);
+            if (previous != null) {
+                weight -= Key.WEIGHT + previous.length;
+            }
+            weight += entryWeight;
+
+            final Iterator<Map.Entry<Key, byte[]>> eldest = entries.entrySet().iterator();
+            while (weight > maxWeight) {
+                final Map.Entry<Key, byte[]> entry = eldest.next();
+                weight -= Key.WEIGHT + entry.getValue().length;
+                eldest.remove();
+                ++evictionCount;
+            }
+        }
+    }
+
+    /** Identity of a conversion: its type, its direction, and a digest of its input
+     *
+     * @author andrew
+     *
+     */
+    private static class Key
+    {
+        /** Create the key for a conversion
+         *
+         * @param type The type converted
+         * @param direction Which way the conversion goes
+         * @param input The unformatted input
+         */
+        Key(Asn1Type type, int direction, byte[] input)
+        {
+            this.type = type.cInt;
+            this.direction = direction;
+            this.digest = sha256(input);
+            this.hashCode = Arrays.hashCode(digest) * 31 + this.type * 2 + direction;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            final Key other = (Key) obj;
+            return type == other.type && direction == other.direction && Arrays.equals(digest, other.digest);
+        }
+
+        /** Digest data with SHA-256
+         *
+         * @param data The data to digest
+         * @return The digest
+         */
+        private static byte[] sha256(byte[] data)
+        {
+            try {
+                return MessageDigest.getInstance("SHA-256").digest(data);
+            } catch (NoSuchAlgorithmException ex) {
+                // Every Java platform is required to support SHA-256
+                throw new IllegalStateException("SHA-256 is not available", ex);
+            }
+        }
+
+        /** Weight each key adds to its entry: roughly the bytes taken by the key, its digest, and the map entry */
+        static final long WEIGHT = 128;
+
+        /** Native enum of the type converted */
+        private final int type;
+
+        /** Which way the conversion goes */
+        private final int direction;
+
+        /** SHA-256 digest of the input */
+        private final byte[] digest;
+
+        /** Cached hash code */
+        private final int hashCode;
+    }
+
+    /** Direction of conversions from PER to XER */
+    private static final int PER_TO_XER = 0;
+
+    /** Direction of conversions from XER to PER */
+    private static final int XER_TO_PER = 1;
+
+    /** Output held for inputs which could not be converted */
+    private static final byte[] FAILED = new byte[0];
+
+    /** Maximum total weight of the results held */
+    private final long maxWeight;
+
+    /** Results held, least recently used first; guards all of the mutable state below */
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Total weight of the results held */
+    private long weight;
+
+    /** Number of lookups which found a result */
+    private long hitCount;
+
+    /** Number of lookups which had to convert */
+    private long missCount;
+
+    /** Number of hits which found a known bad input */
+    private long failureHitCount;
+
+    /** Number of results evicted */
+    private long evictionCount;
+}
@@ -0,0 +1,620 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/** Counters and latency histograms for every conversion made through {@link PerXerCodec}
+ *
+ * <p>
+ *
+ * Metrics are off by default, in which case conversions are neither counted nor timed. Once enabled, each conversion
+ * is counted by type, direction, and outcome, and the time spent unformatting its input, in the native codec, and
+ * formatting its output is recorded in a histogram with power of two buckets. Recording never allocates or locks.
+ * Unformatting and formatting are only timed when they succeed; failures are counted, but not timed.
+ * Stages are timed by each conversion's {@link ConversionEvent}, which shares its timings with flight recordings.
+ *
+ * <p>
+ *
+ * There is one instance, which can be published over JMX with {@link #register()}.
+ *
+ * @author andrew
+ *
+ */
+public class PerXerCodecMetrics implements PerXerCodecMetricsMXBean
+{
+    /** Which way a conversion goes
+     *
+     * @author andrew
+     *
+     */
+    public enum Direction
+    {
+        /** From PER to XER */
+        PER_TO_XER,
+        /** From XER to PER */
+        XER_TO_PER
+    }
+
+    /** Part of a conversion which is timed separately
+     *
+     * @author andrew
+     *
+     */
+    public enum Stage
+    {
+        /** Turning the caller's input into bytes or a string for the native codec */
+        UNFORMAT,
+        /** Decoding and re-encoding in the native codec */
+        NATIVE,
+        /** Turning the native codec's output into the caller's representation */
+        FORMAT
+    }
+
+    /** Snapshot of the latency of one stage of conversion
+     *
+     * <p>
+     *
+     * Percentiles are read from power of two buckets, so each is the upper bound of the bucket it falls in,
+     * and may be up to twice the true value.
+     *
+     * @author andrew
+     *
+     */
+    public static class StageLatency
+    {
+        /** Create a snapshot
+         *
+         * @param count Number of times the stage was timed
+         * @param totalNanos Total time spent in the stage
+         * @param maxNanos Longest time spent in the stage
+         * @param p50Nanos Median time spent in the stage
+         * @param p90Nanos 90th percentile of the time spent in the stage
+         * @param p99Nanos 99th percentile of the time spent in the stage
+         */
+        StageLatency(long count, long totalNanos, long maxNanos, long p50Nanos, long p90Nanos, long p99Nanos)
+        {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.p50Nanos = p50Nanos;
+            this.p90Nanos = p90Nanos;
+            this.p99Nanos = p99Nanos;
+        }
+
+        /** @return Number of times the stage was timed */
+        public long getCount()
+        {
+            return count;
+        }
+
+        /** @return Mean time spent in the stage, in nanoseconds */
+        public long getMeanNanos()
+        {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        /** @return Longest time spent in the stage, in nanoseconds */
+        public long getMaxNanos()
+        {
+            return maxNanos;
+        }
+
+        /** @return Median time spent in the stage, in nanoseconds */
+        public long getP50Nanos()
+        {
+            return p50Nanos;
+        }
+
+        /** @return 90th percentile of the time spent in the stage, in nanoseconds */
+        public long getP90Nanos()
+        {
+            return p90Nanos;
+        }
+
+        /** @return 99th percentile of the time spent in the stage, in nanoseconds */
+        public long getP99Nanos()
+        {
+            return p99Nanos;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "StageLatency [count=" + count + ", meanNanos=" + getMeanNanos() + ", maxNanos=" + maxNanos
+                    + ", p50Nanos=" + p50Nanos + ", p90Nanos=" + p90Nanos + ", p99Nanos=" + p99Nanos + "]";
+        }
+
+        /** Number of times the stage was timed */
+        private final long count;
+
+        /** Total time spent in the stage */
+        private final long totalNanos;
+
+        /** Longest time spent in the stage */
+        private final long maxNanos;
+
+        /** Median time spent in the stage */
+        private final long p50Nanos;
+
+        /** 90th percentile of the time spent in the stage */
+        private final long p90Nanos;
+
+        /** 99th percentile of the time spent in the stage */
+        private final long p99Nanos;
+    }
+
+    /** Get the metrics of every conversion
+     *
+     * @return The single instance
+     */
+    public static PerXerCodecMetrics getInstance()
+    {
+        return instance;
+    }
+
+    /** Publish the metrics with the platform MBean server, under {@link #OBJECT_NAME}, and enable them
+     *
+     * <p>
+     *
+     * Registering more than once has no further effect.
+     *
+     * @throws JMException If the MBean server refused the metrics
+     */
+    public static void register() throws JMException
+    {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(instance, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException ex) {
+            // Already registered
+        }
+        instance.setEnabled(true);
+    }
+
+    /** Withdraw the metrics from the platform MBean server, leaving them enabled or disabled as they are
+     *
+     * @throws JMException If the MBean server refused to withdraw the metrics
+     */
+    public static void unregister() throws JMException
+    {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+        } catch (InstanceNotFoundException ex) {
+            // Not registered
+        }
+    }
+
+    @Override
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Map<String, Long> getSuccessCounts()
+    {
+        return counts(SUCCESS);
+    }
+
+    @Override
+    public Map<String, Long> getDecodeFailureCounts()
+    {
+        final Map<String, Long> counts = new TreeMap<>();
+        counts.putAll(counts(DECODE_WMORE, "RC_WMORE"));
+        counts.putAll(counts(DECODE_FAIL, "RC_FAIL"));
+        counts.putAll(counts(DECODE_UNKNOWN, "UNKNOWN"));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getIdValidationFailureCounts()
+    {
+        return counts(ID_VALIDATION);
+    }
+
+    @Override
+    public Map<String, Long> getEncodeFailureCounts()
+    {
+        return counts(ENCODE);
+    }
+
+    @Override
+    public Map<String, Long> getUnformattingFailureCounts()
+    {
+        return counts(UNFORMATTING);
+    }
+
+    @Override
+    public Map<String, Long> getFormattingFailureCounts()
+    {
+        return counts(FORMATTING);
+    }
+
+    @Override
+    public Map<String, StageLatency> getStageLatencies()
+    {
+        final Map<String, StageLatency> latencies = new TreeMap<>();
+        for (int slot = 0; slot < TYPE_SLOTS; ++slot) {
+            for (Direction direction : Direction.values()) {
+                for (Stage stage : Stage.values()) {
+                    final StageLatency latency = histograms[index(slot, direction, stage.ordinal(), STAGES)].snapshot();
+                    if (latency.getCount() != 0) {
+                        latencies.put(key(slot, direction) + "." + stage, latency);
+                    }
+                }
+            }
+        }
+        return latencies;
+    }
+
+    @Override
+    public void reset()
+    {
+        for (LongAdder counter : counters) {
+            counter.reset();
+        }
+        for (Histogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /** Check if metrics are being recorded, without going through the instance
+     *
+     * @return If metrics are enabled
+     */
+    static boolean isRecording()
+    {
+        return instance.enabled;
+    }
+
+    /** Record the time spent in a stage
+     *
+     * @param type The type converted, or null if it is not known yet
+     * @param direction Which way the conversion goes
+     * @param stage The stage which has just finished
+     * @param nanos Time spent in the stage
+     */
+    static void stage(Asn1Type type, Direction direction, Stage stage, long nanos)
+    {
+        if (instance.enabled) {
+            instance.histograms[index(slot(type), direction, stage.ordinal(), STAGES)].record(nanos);
+        }
+    }
+
+    /** Count a conversion which succeeded
+     *
+     * @param type The type converted
+     * @param direction Which way the conversion went
+     */
+    static void success(Asn1Type type, Direction direction)
+    {
+        instance.count(type, direction, SUCCESS);
+    }
+
+    /** Count a conversion which the native codec failed
+     *
+     * @param type The type converted
+     * @param direction Which way the conversion went
+     * @param failure Why it failed, as returned by {@link CodecBackend#lastFailure()}
+     */
+    static void nativeFailure(Asn1Type type, Direction direction, int failure)
+    {
+        final int outcome;
+        switch (failure & ~0xFF) {
+        case Native.FAILURE_DECODE:
+            outcome = (failure & 0xFF) == RC_WMORE ? DECODE_WMORE : (failure & 0xFF) == RC_FAIL ? DECODE_FAIL : DECODE_UNKNOWN;
+            break;
+        case Native.FAILURE_IDS:
+            outcome = ID_VALIDATION;
+            break;
+        case Native.FAILURE_ENCODE:
+            outcome = ENCODE;
+            break;
+        default:
+            outcome = DECODE_UNKNOWN;
+            break;
+        }
+        instance.count(type, direction, outcome);
+    }
+
+    /** Count a conversion which the native codec failed, without knowing why, as for an item of a batch
+     *
+     * @param type The type converted
+     * @param direction Which way the conversion went
+     */
+    static void unexplainedNativeFailure(Asn1Type type, Direction direction)
+    {
+        instance.count(type, direction, DECODE_UNKNOWN);
+    }
+
+    /** Count a conversion whose input could not be unformatted
+     *
+     * @param type The type converted, or null if it is not known yet
+     * @param direction Which way the conversion went
+     */
+    static void unformattingFailure(Asn1Type type, Direction direction)
+    {
+        instance.count(type, direction, UNFORMATTING);
+    }
+
+    /** Count a conversion whose output could not be formatted
+     *
+     * @param type The type converted
+     * @param direction Which way the conversion went
+     */
+    static void formattingFailure(Asn1Type type, Direction direction)
+    {
+        instance.count(type, direction, FORMATTING);
+    }
+
+    /** Metrics are only made by {@link #getInstance()} */
+    private PerXerCodecMetrics()
+    {
+        for (int i = 0; i < counters.length; ++i) {
+            counters[i] = new LongAdder();
+        }
+        for (int i = 0; i < histograms.length; ++i) {
+            histograms[i] = new Histogram();
+        }
+    }
+
+    /** Count an outcome, if metrics are enabled
+     *
+     * @param type The type converted, or null if it is not known
+     * @param direction Which way the conversion went
+     * @param outcome The outcome to count
+     */
+    private void count(Asn1Type type, Direction direction, int outcome)
+    {
+        if (enabled) {
+            counters[index(slot(type), direction, outcome, OUTCOMES)].increment();
+        }
+    }
+
+    /** Get the slot a type is counted in, which is reported under the name of the known type with its native enum
+     *
+     * @param type The type, or null if it is not known
+     * @return The slot for the type
+     */
+    private static int slot(Asn1Type type)
+    {
+        if (type == null || type.cInt < 0 || type.cInt >= UNKNOWN_SLOT) {
+            return UNKNOWN_SLOT;
+        }
+        return type.cInt;
+    }
+
+    /** Name each slot after the known type with its native enum, without loading the native library
+     *
+     * @return The name of each slot
+     */
+    private static String[] slotNames()
+    {
+        final String[] names = new String[TYPE_SLOTS];
+        for (Asn1Type type : Asn1Types.getAllTypes()) {
+            names[type.cInt] = type.getName();
+        }
+        names[UNKNOWN_SLOT] = "Unknown";
+        return names;
+    }
+
+    /** Gather the non-zero counts of an outcome
+     *
+     * @param outcome The outcome
+     * @return Counts keyed by type and direction
+     */
+    private Map<String, Long> counts(int outcome)
+    {
+        return counts(outcome, null);
+    }
+
+    /** Gather the non-zero counts of an outcome
+     *
+     * @param outcome The outcome
+     * @param suffix Last part of each key, or null for none
+     * @return Counts keyed by type, direction, and suffix
+     */
+    private Map<String, Long> counts(int outcome, String suffix)
+    {
+        final Map<String, Long> counts = new TreeMap<>();
+        for (int slot = 0; slot < TYPE_SLOTS; ++slot) {
+            for (Direction direction : Direction.values()) {
+                final long count = counters[index(slot, direction, outcome, OUTCOMES)].sum();
+                if (count != 0) {
+                    counts.put(suffix == null ? key(slot, direction) : key(slot, direction) + "." + suffix, count);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /** Build the key for a type and direction
+     *
+     * @param slot Slot of the type
+     * @param direction The direction
+     * @return The key
+     */
+    private static String key(int slot, Direction direction)
+    {
+        return SLOT_NAMES[slot] + "." + direction;
+    }
+
+    /** Find where a type, direction, and outcome or stage are kept in a flat array
+     *
+     * @param slot Slot of the type
+     * @param direction The direction
+     * @param item The outcome or stage
+     * @param items Number of outcomes or stages
+     * @return Index into the array
+     */
+    private static int index(int slot, Direction direction, int item, int items)
+    {
+        return (slot * DIRECTIONS + direction.ordinal()) * items + item;
+    }
+
+    /** Histogram of durations with one bucket per power of two nanoseconds
+     *
+     * @author andrew
+     *
+     */
+    private static class Histogram
+    {
+        /** Record a duration
+         *
+         * @param nanos The duration
+         */
+        void record(long nanos)
+        {
+            if (nanos < 0) {
+                nanos = 0;
+            }
+            buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(nanos | 1));
+            total.add(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+        }
+
+        /** Take a snapshot, which is not atomic with respect to concurrent recording
+         *
+         * @return The snapshot
+         */
+        StageLatency snapshot()
+        {
+            final long[] counts = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; ++i) {
+                counts[i] = buckets.get(i);
+                count += counts[i];
+            }
+
+            final long max = this.max.get();
+            return new StageLatency(count,
+                                    total.sum(),
+                                    max,
+                                    percentile(counts, count, max, 0.50),
+                                    percentile(counts, count, max, 0.90),
+                                    percentile(counts, count, max, 0.99));
+        }
+
+        /** Forget every duration recorded */
+        void reset()
+        {
+            for (int i = 0; i < BUCKETS; ++i) {
+                buckets.set(i, 0);
+            }
+            total.reset();
+            max.set(0);
+        }
+
+        /** Estimate a percentile from bucket counts
+         *
+         * @param counts Count of each bucket
+         * @param count Total count
+         * @param max Largest duration recorded
+         * @param fraction The percentile, as a fraction
+         * @return The upper bound of the bucket the percentile falls in, no more than max
+         */
+        private static long percentile(long[] counts, long count, long max, double fraction)
+        {
+            final long rank = (long) Math.ceil(count * fraction);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; ++i) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(i == 62 ? Long.MAX_VALUE : (2L << i) - 1, max);
+                }
+            }
+            return max;
+        }
+
+        /** Number of buckets, enough for any non-negative long */
+        private static final int BUCKETS = 63;
+
+        /** Count of durations in [2^i, 2^(i+1)) in bucket i, except bucket 0 which also holds 0 */
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        /** Total of every duration */
+        private final LongAdder total = new LongAdder();
+
+        /** Largest duration */
+        private final AtomicLong max = new AtomicLong();
+    }
+
+    /** Name the metrics are registered under by {@link #register()} */
+    public static final String OBJECT_NAME = "gov.dot.its.jpo.sdcsdw.asn1.perxercodec:type=PerXerCodecMetrics";
+
+    /** asn1c's RC_WMORE, the decoder ran out of data */
+    private static final int RC_WMORE = 1;
+
+    /** asn1c's RC_FAIL, the decoder found invalid data */
+    private static final int RC_FAIL = 2;
+
+    /** Outcome of a conversion which succeeded */
+    private static final int SUCCESS = 0;
+
+    /** Outcome of a conversion which needed more data to decode */
+    private static final int DECODE_WMORE = 1;
+
+    /** Outcome of a conversion which could not be decoded */
+    private static final int DECODE_FAIL = 2;
+
+    /** Outcome of a conversion which the native codec failed for an unknown reason */
+    private static final int DECODE_UNKNOWN = 3;
+
+    /** Outcome of a conversion whose ids did not match its type */
+    private static final int ID_VALIDATION = 4;
+
+    /** Outcome of a conversion which could not be encoded */
+    private static final int ENCODE = 5;
+
+    /** Outcome of a conversion whose input could not be unformatted */
+    private static final int UNFORMATTING = 6;
+
+    /** Outcome of a conversion whose output could not be formatted */
+    private static final int FORMATTING = 7;
+
+    /** Number of outcomes */
+    private static final int OUTCOMES = 8;
+
+    /** Number of stages */
+    private static final int STAGES = Stage.values().length;
+
+    /** Number of directions */
+    private static final int DIRECTIONS = Direction.values().length;
+
+    /** Slot for conversions whose type is not known, after one slot per native type */
+    private static final int UNKNOWN_SLOT = 7;
+
+    /** Number of type slots */
+    private static final int TYPE_SLOTS = UNKNOWN_SLOT + 1;
+
+    /** Name each slot is reported under */
+    private static final String[] SLOT_NAMES = slotNames();
+
+    /** The single instance */
+    private static final PerXerCodecMetrics instance = new PerXerCodecMetrics();
+
+    /** If metrics are being recorded */
+    private volatile boolean enabled;
+
+    /** Count of each type, direction, and outcome */
+    private final LongAdder[] counters = new LongAdder[TYPE_SLOTS * DIRECTIONS * OUTCOMES];
+
+    /** Latency of each type, direction, and stage */
+    private final Histogram[] histograms = new Histogram[TYPE_SLOTS * DIRECTIONS * STAGES];
+}
@@ -0,0 +1,77 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import java.util.Map;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodecMetrics.StageLatency;
+
+/** Management interface of {@link PerXerCodecMetrics}
+ *
+ * <p>
+ *
+ * Counts are keyed by type name and direction, for example {@code ServiceRequest.PER_TO_XER}, with a further part
+ * for the reason or stage where there is one. Conversions which fail before their type is known, such as while
+ * guessing, are counted under the type name {@code Unknown}. Only keys with a non-zero count are included.
+ *
+ * @author andrew
+ *
+ */
+public interface PerXerCodecMetricsMXBean
+{
+    /** Check if conversions are being counted and timed
+     *
+     * @return If metrics are being recorded
+     */
+    boolean isEnabled();
+
+    /** Start or stop counting and timing conversions
+     *
+     * @param enabled If metrics should be recorded
+     */
+    void setEnabled(boolean enabled);
+
+    /** Get the number of conversions which succeeded
+     *
+     * @return Counts keyed by type and direction
+     */
+    Map<String, Long> getSuccessCounts();
+
+    /** Get the number of conversions which the native codec could not decode
+     *
+     * @return Counts keyed by type, direction, and the asn1c decoder's return code, such as {@code RC_FAIL},
+     *         or {@code UNKNOWN} where the native codec did not say why it failed
+     */
+    Map<String, Long> getDecodeFailureCounts();
+
+    /** Get the number of conversions which decoded, but whose SEMI dialogID and seqID did not match their type
+     *
+     * @return Counts keyed by type and direction
+     */
+    Map<String, Long> getIdValidationFailureCounts();
+
+    /** Get the number of conversions which decoded, but could not be encoded
+     *
+     * @return Counts keyed by type and direction
+     */
+    Map<String, Long> getEncodeFailureCounts();
+
+    /** Get the number of conversions whose input could not be unformatted
+     *
+     * @return Counts keyed by type and direction
+     */
+    Map<String, Long> getUnformattingFailureCounts();
+
+    /** Get the number of conversions whose output could not be formatted
+     *
+     * @return Counts keyed by type and direction
+     */
+    Map<String, Long> getFormattingFailureCounts();
+
+    /** Get the latency of each stage of conversion
+     *
+     * @return Latencies keyed by type, direction, and stage
+     */
+    Map<String, StageLatency> getStageLatencies();
+
+    /** Set every count and latency back to zero */
+    void reset();
+}
@@ -0,0 +1,179 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+/** The SEMI header fields which start every message, read without decoding the rest of the message
+ *
+ * <p>
+ *
+ * Every type in {@link Asn1Types} starts with a dialogID, seqID, groupID, and requestID, in that order, which is
+ * enough to route a message without converting it. The dialogID and seqID are the values of their ASN.1 enumerations,
+ * such as 157 for {@code advSitDatDist}, and the groupID and requestID hold their four octets in big endian order.
+ *
+ * @author andrew
+ *
+ */
+public final class SemiHeader
+{
+    /** Build a header from the ids decoded by the native codec, reading the groupID and requestID which follow them
+     *
+     * @param type The type the data contains
+     * @param packedIds Result of {@link Native#extractSemiIds(int, byte[])}
+     * @param per The PER data
+     * @return The header, or null if the ids could not be decoded or the data is too short to hold the header
+     */
+    static SemiHeader fromNative(Asn1Type type, long packedIds, byte[] per)
+    {
+        if (packedIds == -1) {
+            return null;
+        }
+
+        final int dialogId = (int) (packedIds >>> 48);
+        final int seqId = (int) ((packedIds >>> 32) & 0xFFFF);
+        final long idsEnd = packedIds & 0xFFFFFFFFL;
+
+        // Both the groupID and requestID are OCTET STRING (SIZE(4)), which UPER encodes as the bare octets
+        if (idsEnd + 2 * Integer.SIZE > per.length * 8L) {
+            return null;
+        }
+
+        return new SemiHeader(type, dialogId, seqId, readInt(per, idsEnd), readInt(per, idsEnd + Integer.SIZE));
+    }
+
+    /** Read 32 bits which need not be byte aligned
+     *
+     * @param data Data to read from, which must hold at least 32 bits from bitOffset
+     * @param bitOffset Offset of the first bit to read, counting from the most significant bit of the first byte
+     * @return The bits read
+     */
+    static int readInt(byte[] data, long bitOffset)
+    {
+        final int byteOffset = (int) (bitOffset >>> 3);
+        final int bitShift = (int) (bitOffset & 7);
+
+        // 32 unaligned bits span at most 5 bytes, the last of which may be past the end if the bits happen to be aligned
+        long bits = 0;
+        for (int i = 0; i < 5; ++i) {
+            bits <<= 8;
+            if (byteOffset + i < data.length) {
+                bits |= data[byteOffset + i] & 0xFF;
+            }
+        }
+
+        return (int) (bits >>> (8 - bitShift));
+    }
+
+    /** Create a header
+     *
+     * @param type The type the message contains
+     * @param dialogId Value of the dialogID
+     * @param seqId Value of the seqID
+     * @param groupId Octets of the groupID
+     * @param requestId Octets of the requestID
+     */
+    SemiHeader(Asn1Type type, int dialogId, int seqId, int groupId, int requestId)
+    {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        }
+
+        this.type = type;
+        this.dialogId = dialogId;
+        this.seqId = seqId;
+        this.groupId = groupId;
+        this.requestId = requestId;
+    }
+
+    /** Get the type the message contains
+     *
+     * @return The type of the message
+     */
+    public Asn1Type getType()
+    {
+        return type;
+    }
+
+    /** Get the dialogID
+     *
+     * @return The value of the dialogID
+     */
+    public int getDialogId()
+    {
+        return dialogId;
+    }
+
+    /** Get the seqID
+     *
+     * @return The value of the seqID
+     */
+    public int getSeqId()
+    {
+        return seqId;
+    }
+
+    /** Get the groupID
+     *
+     * @return The four octets of the groupID, the first in the most significant byte
+     */
+    public int getGroupId()
+    {
+        return groupId;
+    }
+
+    /** Get the requestID
+     *
+     * @return The four octets of the requestID, the first in the most significant byte
+     */
+    public int getRequestId()
+    {
+        return requestId;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        } else if (!(obj instanceof SemiHeader)) {
+            return false;
+        }
+
+        final SemiHeader other = (SemiHeader) obj;
+        return type.equals(other.type)
+            && dialogId == other.dialogId
+            && seqId == other.seqId
+            && groupId == other.groupId
+            && requestId == other.requestId;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hash = type.hashCode();
+        hash = 31 * hash + dialogId;
+        hash = 31 * hash + seqId;
+        hash = 31 * hash + groupId;
+        hash = 31 * hash + requestId;
+        return hash;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s[dialogID=%d, seqID=%d, groupID=%08X, requestID=%08X]",
+                             type.getName(), dialogId, seqId, groupId, requestId);
+    }
+
+    /** Type the message contains */
+    private final Asn1Type type;
+
+    /** Value of the dialogID */
+    private final int dialogId;
+
+    /** Value of the seqID */
+    private final int seqId;
+
+    /** Octets of the groupID */
+    private final int groupId;
+
+    /** Octets of the requestID */
+    private final int requestId;
+}
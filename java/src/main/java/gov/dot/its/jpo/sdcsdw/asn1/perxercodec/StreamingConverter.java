@@ -0,0 +1,231 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec.TypeGuessResult;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.Base64PerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerDataFormatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerDataUnformatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+
+/** Converts requests read one per line, so that a single long running process can serve many conversions
+ *
+ * <p>
+ *
+ * Each request is a line holding the same arguments {@link ExampleApplication} takes, separated by spaces:
+ * <ul>
+ * <li>The format of the data, XER or PER</li>
+ * <li>If PER data is hexadecimal (16) or base64 (64)</li>
+ * <li>The name of the ASN.1 type of the data, or GUESS to guess it</li>
+ * <li>The data itself, which for XER must be on a single line</li>
+ * </ul>
+ *
+ * Each request is answered, in order, with a single line of either OK followed by a space and the converted data,
+ * or ERROR followed by a space and the reason the request failed. XER is written on a single line by dropping the
+ * line breaks and indentation between elements, and writing any other line breaks as character references.
+ *
+ * <p>
+ *
+ * Responses are flushed once every request which has already arrived has been answered, so a client which sends
+ * many requests before reading any responses gets them in large writes, while a client which waits for each
+ * response still gets it straight away.
+ *
+ * @author andrew
+ *
+ */
+public class StreamingConverter
+{
+    /** Answer every request until the end of the input
+     *
+     * @param in Where requests are read from
+     * @param out Where responses are written to
+     * @throws IOException If requests could not be read or responses could not be written
+     */
+    public static void run(BufferedReader in, Writer out) throws IOException
+    {
+        if (in == null) {
+            throw new IllegalArgumentException("In cannot be null");
+        } else if (out == null) {
+            throw new IllegalArgumentException("Out cannot be null");
+        }
+
+        String line;
+        while ((line = in.readLine()) != null) {
+            out.write(respond(line));
+            out.write('\n');
+
+            // Only flush when no more requests are waiting, so pipelined requests are answered together
+            if (!in.ready()) {
+                out.flush();
+            }
+        }
+        out.flush();
+    }
+
+    /** Answer a single request
+     *
+     * @param request The request line
+     * @return The response line, without a newline
+     */
+    static String respond(String request)
+    {
+        final String[] fields = request.trim().split("\\s+", FIELD_COUNT);
+        if (fields.length < FIELD_COUNT) {
+            return ERROR + "Expected (XER|PER) (16|64) (TYPE|" + BulkConverter.GUESS_TYPE + ") DATA";
+        }
+
+        final boolean isXer;
+        switch (fields[0]) {
+        case "XER":
+            isXer = true;
+            break;
+        case "PER":
+            isXer = false;
+            break;
+        default:
+            return ERROR + "Unknown format " + fields[0];
+        }
+
+        final PerDataFormatter<String, ? extends PerData<String>> perFormatter;
+        final PerDataUnformatter<String, ? extends PerData<String>> perUnformatter;
+        switch (fields[1]) {
+        case "16":
+            perFormatter = HexPerData.formatter;
+            perUnformatter = HexPerData.unformatter;
+            break;
+        case "64":
+            perFormatter = Base64PerData.formatter;
+            perUnformatter = Base64PerData.unformatter;
+            break;
+        default:
+            return ERROR + "Unknown PER encoding " + fields[1];
+        }
+
+        final boolean guess = BulkConverter.GUESS_TYPE.equals(fields[2]);
+        final Asn1Type type = guess ? null : Asn1Types.getAsn1TypeByName(fields[2]);
+        if (!guess && type == null) {
+            return ERROR + "Unknown type " + fields[2];
+        }
+
+        final String data = fields[3];
+        try {
+            if (isXer) {
+                return OK + (guess ? guessed(PerXerCodec.guessXerToPer(Asn1Types.getAllTypes(), data, RawXerData.unformatter, perFormatter))
+                                   : PerXerCodec.xerToPer(type, data, RawXerData.unformatter, perFormatter));
+            } else {
+                return OK + toSingleLine(guess ? guessed(PerXerCodec.guessPerToXer(Asn1Types.getAllTypes(), data, perUnformatter, RawXerData.formatter))
+                                               : PerXerCodec.perToXer(type, data, perUnformatter, RawXerData.formatter));
+            }
+        } catch (CodecException | RuntimeException ex) {
+            // Anything else which goes wrong fails only this request, so the process keeps serving the rest
+            return ERROR + toSingleLine(ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+        }
+    }
+
+    /** Get the data from the result of guessing
+     *
+     * @param <T> Type of the converted data
+     * @param guess The result of guessing
+     * @return The data
+     * @throws CodecFailedException If no type was found
+     */
+    private static <T> T guessed(TypeGuessResult<T> guess) throws CodecFailedException
+    {
+        if (!guess.isSuccesful()) {
+            throw new CodecFailedException("Could not guess the type of the data");
+        }
+        return guess.getData();
+    }
+
+    /** Put XER, or a message, on a single line
+     *
+     * <p>
+     *
+     * Line breaks followed only by indentation and then a tag are dropped along with the indentation, since they are
+     * only there for layout. Any other line break is written as a character reference.
+     *
+     * @param text The text
+     * @return The text without any line breaks
+     */
+    static String toSingleLine(String text)
+    {
+        if (text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+
+        final StringBuilder line = new StringBuilder(text.length());
+        final int length = text.length();
+        for (int i = 0; i < length; ++i) {
+            final char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                int next = i + 1;
+                while (next < length && isLayout(text.charAt(next))) {
+                    ++next;
+                }
+                if (next == length || text.charAt(next) == '<') {
+                    i = next - 1;
+                } else {
+                    line.append(c == '\n' ? "&#10;" : "&#13;");
+                }
+            } else {
+                line.append(c);
+            }
+        }
+        return line.toString();
+    }
+
+    /** Check if a character is layout between elements
+     *
+     * @param c The character
+     * @return If it is a line break, space, or tab
+     */
+    private static boolean isLayout(char c)
+    {
+        return c == '\n' || c == '\r' || c == ' ' || c == '\t';
+    }
+
+    /** Entry point
+     *
+     * <p>
+     *
+     * Answers requests from standard input on standard output until standard input is closed
+     *
+     * @param args Command line arguments, which are ignored
+     */
+    public static void main(String[] args)
+    {
+        final BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(FileDescriptor.in), StandardCharsets.UTF_8), BUFFER_SIZE);
+        final Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            run(in, out);
+        } catch (IOException ex) {
+            System.err.println("Could not stream: " + ex.getMessage());
+            System.exit(-1);
+        }
+    }
+
+    /** Number of fields in a request */
+    private static final int FIELD_COUNT = 4;
+
+    /** Starts a successful response */
+    private static final String OK = "OK ";
+
+    /** Starts a failed response */
+    private static final String ERROR = "ERROR ";
+
+    /** Size of the buffers requests are read through and responses are written through */
+    private static final int BUFFER_SIZE = 1 << 16;
+}
@@ -0,0 +1,158 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+/** Result of validating encoded data without converting it
+ *
+ * <p>
+ *
+ * Validating runs only the native decoder and the checks made on what it decoded, so it is cheaper than a conversion,
+ * and never throws because the data is bad. Results carry no copy of the data.
+ *
+ * @author andrew
+ *
+ */
+public final class ValidationResult
+{
+    /** Outcome of validating data */
+    public enum Status
+    {
+        /** The data decoded, and passed every check made on it */
+        VALID,
+
+        /** The data could not be decoded */
+        DECODE_FAILED,
+
+        /** The data ended before a complete message could be decoded */
+        INCOMPLETE,
+
+        /** The data decoded, but its SEMI dialogID and seqID did not match its type */
+        ID_MISMATCH,
+
+        /** The data decoded, but broke its type's constraints */
+        CONSTRAINT_VIOLATED,
+
+        /** The native library does not know the type */
+        UNKNOWN_TYPE
+    }
+
+    /** Unpack a result returned by the native codec
+     *
+     * @param packed One of the native failure constants in the high 32 bits, and the number of bits consumed in the
+     *               low 32 bits
+     * @return The result
+     */
+    static ValidationResult fromNative(long packed)
+    {
+        final int failure = (int) (packed >>> 32);
+        final long consumedBits = packed & 0xFFFFFFFFL;
+
+        final Status status;
+        switch (failure & ~0xFF) {
+        case Native.FAILURE_NONE:
+            status = Status.VALID;
+            break;
+        case Native.FAILURE_DECODE:
+            status = (failure & 0xFF) == RC_WMORE ? Status.INCOMPLETE : Status.DECODE_FAILED;
+            break;
+        case Native.FAILURE_IDS:
+            status = Status.ID_MISMATCH;
+            break;
+        case Native.FAILURE_CONSTRAINTS:
+            status = Status.CONSTRAINT_VIOLATED;
+            break;
+        case Native.FAILURE_TYPE:
+            return UNKNOWN_TYPE;
+        default:
+            status = Status.DECODE_FAILED;
+            break;
+        }
+
+        return new ValidationResult(status, consumedBits);
+    }
+
+    /** Create a result
+     *
+     * @param status Outcome of validating
+     * @param consumedBits Number of bits the decoder consumed
+     */
+    ValidationResult(Status status, long consumedBits)
+    {
+        if (status == null) {
+            throw new IllegalArgumentException("Status cannot be null");
+        } else if (consumedBits < 0) {
+            throw new IllegalArgumentException("Consumed bits cannot be negative");
+        }
+
+        this.status = status;
+        this.consumedBits = consumedBits;
+    }
+
+    /** Test if the data is valid
+     *
+     * @return True if the data decoded and passed every check
+     */
+    public boolean isValid()
+    {
+        return status == Status.VALID;
+    }
+
+    /** Get the outcome of validating
+     *
+     * @return The outcome
+     */
+    public Status getStatus()
+    {
+        return status;
+    }
+
+    /** Get how much of the data the decoder consumed
+     *
+     * <p>
+     *
+     * For valid PER data this is the exact length of the message in bits, which may be followed by padding or
+     * other data. For XER data it is always a whole number of bytes. For data which could not be decoded, it is how
+     * far the decoder got, which hints at where the data went wrong.
+     *
+     * @return Number of bits consumed
+     */
+    public long getConsumedBits()
+    {
+        return consumedBits;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        } else if (!(obj instanceof ValidationResult)) {
+            return false;
+        }
+
+        final ValidationResult other = (ValidationResult) obj;
+        return status == other.status && consumedBits == other.consumedBits;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * status.hashCode() + Long.hashCode(consumedBits);
+    }
+
+    @Override
+    public String toString()
+    {
+        return status + " after " + consumedBits + " bits";
+    }
+
+    /** The asn1c decoder's return code for data which ended too soon */
+    private static final int RC_WMORE = 1;
+
+    /** Result for a type the native library does not know, which consumes nothing */
+    private static final ValidationResult UNKNOWN_TYPE = new ValidationResult(Status.UNKNOWN_TYPE, 0);
+
+    /** Outcome of validating */
+    private final Status status;
+
+    /** Number of bits the decoder consumed */
+    private final long consumedBits;
+}
@@ -0,0 +1,280 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.Base64PerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.ByteBufferPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerDataUnformatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.RawPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.ByteBufferXerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.DocumentXerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.Utf8XerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerDataUnformatter;
+
+/** Runs built-in messages through the codec until it reaches steady state
+ *
+ * <p>
+ *
+ * A round converts one message of every type in both directions, through every built-in PER and XER representation,
+ * and through the direct buffer methods. Documents are only converted into, since a DocumentXerData built from a
+ * Document has no XER text to convert from. Rounds are repeated until enough rounds in a row take about as long as the
+ * one before them, at which point class loading, native linking, JIT compilation, and the native library's first
+ * touches of its tables are all behind it.
+ *
+ * @author andrew
+ *
+ */
+final class WarmUp
+{
+    /** A single conversion of a built-in message */
+    @FunctionalInterface
+    interface Conversion
+    {
+        /** Run the conversion
+         *
+         * @throws CodecException If the message could not be converted
+         */
+        void run() throws CodecException;
+    }
+
+    /** Tracks round timings until they stop changing
+     *
+     * @author andrew
+     *
+     */
+    static final class Stability
+    {
+        /** Create a tracker
+         *
+         * @param minRounds Fewest rounds before timings can be stable
+         * @param stableRounds Number of rounds in a row which must each be close to the round before
+         * @param tolerance Largest change from one round to the next, as a fraction of the earlier round, which counts as close
+         */
+        Stability(int minRounds, int stableRounds, double tolerance)
+        {
+            this.minRounds = minRounds;
+            this.stableRounds = stableRounds;
+            this.tolerance = tolerance;
+        }
+
+        /** Note the length of a round
+         *
+         * @param nanos Length of the round
+         * @return True if timings are now stable
+         */
+        boolean add(long nanos)
+        {
+            ++rounds;
+            if (lastNanos > 0 && Math.abs(nanos - lastNanos) <= lastNanos * tolerance) {
+                ++closeRounds;
+            } else {
+                closeRounds = 0;
+            }
+            lastNanos = nanos;
+            return rounds >= minRounds && closeRounds >= stableRounds;
+        }
+
+        /** Fewest rounds before timings can be stable */
+        private final int minRounds;
+
+        /** Number of close rounds in a row needed */
+        private final int stableRounds;
+
+        /** Largest change which counts as close */
+        private final double tolerance;
+
+        /** Rounds noted so far */
+        private int rounds;
+
+        /** Close rounds in a row so far */
+        private int closeRounds;
+
+        /** Length of the last round */
+        private long lastNanos;
+    }
+
+    /** Warm up the codec
+     *
+     * <p>
+     *
+     * Never throws because a built-in message could not be converted; the failure is put in the report instead, so
+     * that a readiness check only ever sees a codec which is not ready.
+     *
+     * @param timeLimitNanos Longest to keep running rounds for
+     * @return How warming up went
+     */
+    static WarmUpReport run(long timeLimitNanos)
+    {
+        final long start = System.nanoTime();
+
+        final List<Conversion> conversions = new ArrayList<>();
+        try {
+            for (String line : messages()) {
+                final String[] fields = line.split(" ", 2);
+                final Asn1Type type = Asn1Types.getAsn1TypeByName(fields[0]);
+                addConversions(conversions, type, HexPerData.decode(fields[1]));
+            }
+        } catch (CodecException ex) {
+            return new WarmUpReport(false, 0, conversions.size(), 0, System.nanoTime() - start, ex);
+        } catch (RuntimeException ex) {
+            return new WarmUpReport(false, 0, conversions.size(), 0, System.nanoTime() - start, unexpected(ex));
+        }
+
+        final Stability stability = new Stability(MIN_ROUNDS, STABLE_ROUNDS, TOLERANCE);
+        int rounds = 0;
+        long roundNanos = 0;
+        boolean stable = false;
+        while (!stable && System.nanoTime() - start < timeLimitNanos) {
+            final long roundStart = System.nanoTime();
+            try {
+                for (Conversion conversion : conversions) {
+                    conversion.run();
+                }
+            } catch (CodecException ex) {
+                return new WarmUpReport(false, rounds, conversions.size(), roundNanos, System.nanoTime() - start, ex);
+            } catch (RuntimeException ex) {
+                return new WarmUpReport(false, rounds, conversions.size(), roundNanos, System.nanoTime() - start, unexpected(ex));
+            }
+            roundNanos = System.nanoTime() - roundStart;
+            ++rounds;
+            stable = stability.add(roundNanos);
+        }
+
+        return new WarmUpReport(stable, rounds, conversions.size(), roundNanos, System.nanoTime() - start, null);
+    }
+
+    /** Wrap an exception the codec should never have thrown, so that it can be reported like any other failure
+     *
+     * @param ex The exception
+     * @return A codec exception caused by it
+     */
+    private static CodecException unexpected(RuntimeException ex)
+    {
+        return new CodecException("Converting a built-in message threw " + ex, ex);
+    }
+
+    /** Add every conversion of a single message
+     *
+     * @param conversions List to add the conversions to
+     * @param type The message's type
+     * @param per The message
+     * @throws CodecException If the message could not be prepared in each representation
+     */
+    private static void addConversions(List<Conversion> conversions, Asn1Type type, byte[] per) throws CodecException
+    {
+        final String xer = PerXerCodec.perToXer(type, per, RawPerData.unformatter, RawXerData.formatter);
+
+        final String hex = HexPerData.formatter.formatPerData(per).getFormattedPerData();
+        final String base64 = Base64PerData.formatter.formatPerData(per).getFormattedPerData();
+        final ByteBuffer perBuffer = ByteBuffer.allocateDirect(per.length).put(per).flip();
+
+        addPerToXer(conversions, type, () -> per, RawPerData.unformatter);
+        addPerToXer(conversions, type, () -> hex, HexPerData.unformatter);
+        addPerToXer(conversions, type, () -> base64, Base64PerData.unformatter);
+        addPerToXer(conversions, type, perBuffer::duplicate, ByteBufferPerData.unformatter);
+        conversions.add(() -> PerXerCodec.perBufferToXer(type, perBuffer.duplicate(), RawXerData.formatter));
+
+        final byte[] utf8 = xer.getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer xerBuffer = ByteBuffer.allocateDirect(utf8.length).put(utf8).flip();
+        final ByteBuffer perOut = ByteBuffer.allocateDirect(per.length * 2 + PER_OUT_SLACK);
+
+        addXerToPer(conversions, type, () -> xer, RawXerData.unformatter);
+        addXerToPer(conversions, type, () -> utf8, Utf8XerData.unformatter);
+        addXerToPer(conversions, type, xerBuffer::duplicate, ByteBufferXerData.unformatter);
+        conversions.add(() -> PerXerCodec.xerToPerBuffer(type, xer, RawXerData.unformatter, perOut.duplicate()));
+    }
+
+    /** Add conversions of a single PER representation into every XER representation
+     *
+     * @param <PER> Type representing PER data
+     * @param <PerT> Wrapper around PER
+     * @param conversions List to add the conversions to
+     * @param type The message's type
+     * @param per Supplies the message, fresh for every conversion
+     * @param perUnformatter How the message is represented
+     */
+    private static <PER, PerT extends PerData<PER>>
+    void addPerToXer(List<Conversion> conversions, Asn1Type type, Supplier<PER> per, PerDataUnformatter<PER, PerT> perUnformatter)
+    {
+        conversions.add(() -> PerXerCodec.perToXer(type, per.get(), perUnformatter, RawXerData.formatter));
+        conversions.add(() -> PerXerCodec.perToXer(type, per.get(), perUnformatter, Utf8XerData.formatter));
+        conversions.add(() -> PerXerCodec.perToXer(type, per.get(), perUnformatter, ByteBufferXerData.formatter));
+        conversions.add(() -> PerXerCodec.perToXer(type, per.get(), perUnformatter, DocumentXerData.formatter));
+    }
+
+    /** Add conversions of a single XER representation into every PER representation
+     *
+     * @param <XER> Type representing XER data
+     * @param <XerT> Wrapper around XER
+     * @param conversions List to add the conversions to
+     * @param type The message's type
+     * @param xer Supplies the message, fresh for every conversion
+     * @param xerUnformatter How the message is represented
+     */
+    private static <XER, XerT extends XerData<XER>>
+    void addXerToPer(List<Conversion> conversions, Asn1Type type, Supplier<XER> xer, XerDataUnformatter<XER, XerT> xerUnformatter)
+    {
+        conversions.add(() -> PerXerCodec.xerToPer(type, xer.get(), xerUnformatter, RawPerData.formatter));
+        conversions.add(() -> PerXerCodec.xerToPer(type, xer.get(), xerUnformatter, HexPerData.formatter));
+        conversions.add(() -> PerXerCodec.xerToPer(type, xer.get(), xerUnformatter, Base64PerData.formatter));
+        conversions.add(() -> PerXerCodec.xerToPer(type, xer.get(), xerUnformatter, ByteBufferPerData.formatter));
+    }
+
+    /** Read the built-in messages
+     *
+     * @return Each message, as the name of its type, a space, and its PER encoding in hexadecimal
+     */
+    static List<String> messages()
+    {
+        final List<String> messages = new ArrayList<>();
+        try (InputStream in = WarmUp.class.getResourceAsStream(MESSAGES_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Could not find " + MESSAGES_RESOURCE + " next to " + WarmUp.class.getName());
+            }
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    messages.add(line);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return messages;
+    }
+
+    /**
+     * Prevents this class from being instantiated
+     */
+    private WarmUp() { }
+
+    /** Resource holding the built-in messages */
+    private static final String MESSAGES_RESOURCE = "warm-up-messages.txt";
+
+    /** Fewest rounds before timings can be stable */
+    private static final int MIN_ROUNDS = 10;
+
+    /** Number of rounds in a row which must each be close to the round before */
+    private static final int STABLE_ROUNDS = 5;
+
+    /** Largest change from one round to the next which counts as close */
+    private static final double TOLERANCE = 0.1;
+
+    /** Extra room in the buffer XER is converted into */
+    private static final int PER_OUT_SLACK = 64;
+}
@@ -0,0 +1,109 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecException;
+
+/** Result of warming up the codec with {@link PerXerCodec#warmUp()}
+ *
+ * @author andrew
+ *
+ */
+public final class WarmUpReport
+{
+    /** Create a report
+     *
+     * @param ready If round timings stabilized
+     * @param rounds Number of rounds run
+     * @param conversionsPerRound Number of conversions in each round
+     * @param lastRoundNanos Length of the last round
+     * @param elapsedNanos Length of the whole warm up
+     * @param failure Why a built-in message failed to convert, or null if none did
+     */
+    WarmUpReport(boolean ready, int rounds, int conversionsPerRound, long lastRoundNanos, long elapsedNanos, CodecException failure)
+    {
+        this.ready = ready;
+        this.rounds = rounds;
+        this.conversionsPerRound = conversionsPerRound;
+        this.lastRoundNanos = lastRoundNanos;
+        this.elapsedNanos = elapsedNanos;
+        this.failure = failure;
+    }
+
+    /** Check if the codec is ready for traffic
+     *
+     * @return True if every built-in message converted, and round timings stabilized before the time limit
+     */
+    public boolean isReady()
+    {
+        return ready;
+    }
+
+    /** Get the number of rounds run
+     *
+     * @return Number of times every built-in conversion was run
+     */
+    public int getRounds()
+    {
+        return rounds;
+    }
+
+    /** Get the number of conversions in each round
+     *
+     * @return Number of conversions in a single round
+     */
+    public int getConversionsPerRound()
+    {
+        return conversionsPerRound;
+    }
+
+    /** Get how long the last round took
+     *
+     * @return Length of the last round, in nanoseconds
+     */
+    public long getLastRoundNanos()
+    {
+        return lastRoundNanos;
+    }
+
+    /** Get how long warming up took
+     *
+     * @return Length of the whole warm up, in nanoseconds
+     */
+    public long getElapsedNanos()
+    {
+        return elapsedNanos;
+    }
+
+    /** Get why a built-in message failed to convert
+     *
+     * @return The failure, or null if every built-in message converted
+     */
+    public CodecException getFailure()
+    {
+        return failure;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("WarmUpReport[ready=%b, rounds=%d, conversionsPerRound=%d, lastRoundNanos=%d, elapsedNanos=%d, failure=%s]",
+                             ready, rounds, conversionsPerRound, lastRoundNanos, elapsedNanos, failure);
+    }
+
+    /** If the codec is ready */
+    private final boolean ready;
+
+    /** Number of rounds run */
+    private final int rounds;
+
+    /** Number of conversions in each round */
+    private final int conversionsPerRound;
+
+    /** Length of the last round */
+    private final long lastRoundNanos;
+
+    /** Length of the whole warm up */
+    private final long elapsedNanos;
+
+    /** Why a built-in message failed, if one did */
+    private final CodecException failure;
+}
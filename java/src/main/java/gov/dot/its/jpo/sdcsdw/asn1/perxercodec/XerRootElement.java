@@ -0,0 +1,193 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import java.nio.ByteBuffer;
+
+/** Lightweight scanner for the name of the root element of an XML document
+ *
+ * <p>
+ *
+ * Only the prolog and the start of the root element are read, the rest of the document is never looked at.
+ * This is used to pick which type XER data contains without handing it to the native codec once per type.
+ *
+ * @author andrew
+ *
+ */
+abstract class XerRootElement
+{
+    /** Find the name of the root element of an XML document
+     *
+     * @param xml The XML document
+     * @return The name of the root element, including any namespace prefix,
+     *         or null if the document does not start with a recognizable element
+     */
+    static String getName(CharSequence xml)
+    {
+        final int length = xml.length();
+        int i = 0;
+
+        while (i < length) {
+            final char c = xml.charAt(i);
+
+            if (c == '\uFEFF' || Character.isWhitespace(c)) {
+                ++i;
+            } else if (c != '<' || i + 1 >= length) {
+                return null;
+            } else if (xml.charAt(i + 1) == '?') {
+                // XML declaration or processing instruction
+                i = skipPast(xml, i + 2, "?>");
+            } else if (startsWith(xml, i, "<!--")) {
+                i = skipPast(xml, i + 4, "-->");
+            } else if (xml.charAt(i + 1) == '!') {
+                i = skipDoctype(xml, i + 2);
+            } else {
+                return readName(xml, i + 1);
+            }
+
+            if (i < 0) {
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    /** Find the name of the root element of a UTF-8 encoded XML document, without decoding the document
+     *
+     * <p>
+     *
+     * Every byte is read as the character with the same value, which is exact for ASCII. Markup and the names of
+     * the types are all ASCII, and a name with non-ASCII characters in it can only fail to match a type.
+     *
+     * @param xml Buffer containing the XML document between its position and limit, which is left untouched
+     * @return The name of the root element, including any namespace prefix,
+     *         or null if the document does not start with a recognizable element
+     */
+    static String getName(ByteBuffer xml)
+    {
+        final ByteBuffer view = xml.duplicate();
+
+        // Skip a UTF-8 byte order mark, which is not whitespace when read a byte at a time
+        if (view.remaining() >= 3
+                && view.get(view.position()) == (byte) 0xEF
+                && view.get(view.position() + 1) == (byte) 0xBB
+                && view.get(view.position() + 2) == (byte) 0xBF) {
+            view.position(view.position() + 3);
+        }
+
+        return getName(new CharSequence() {
+            @Override
+            public int length()
+            {
+                return view.remaining();
+            }
+
+            @Override
+            public char charAt(int index)
+            {
+                return (char) (view.get(view.position() + index) & 0xFF);
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end)
+            {
+                final StringBuilder builder = new StringBuilder(end - start);
+                for (int i = start; i < end; ++i) {
+                    builder.append(charAt(i));
+                }
+                return builder;
+            }
+        });
+    }
+
+    /** Read an element name
+     *
+     * @param xml The XML document
+     * @param start Index of the first character of the name
+     * @return The name, or null if it is empty or runs off the end of the document
+     */
+    private static String readName(CharSequence xml, int start)
+    {
+        final int length = xml.length();
+
+        for (int i = start; i < length; ++i) {
+            final char c = xml.charAt(i);
+            if (c == '>' || c == '/' || Character.isWhitespace(c)) {
+                return i == start ? null : xml.subSequence(start, i).toString();
+            }
+        }
+
+        return null;
+    }
+
+    /** Skip a DOCTYPE declaration, including any internal subset
+     *
+     * @param xml The XML document
+     * @param start Index just past the opening "&lt;!"
+     * @return Index just past the end of the declaration, or -1 if it is never closed
+     */
+    private static int skipDoctype(CharSequence xml, int start)
+    {
+        final int length = xml.length();
+        int depth = 0;
+
+        for (int i = start; i < length; ++i) {
+            final char c = xml.charAt(i);
+            if (c == '[') {
+                ++depth;
+            } else if (c == ']') {
+                --depth;
+            } else if (c == '>' && depth <= 0) {
+                return i + 1;
+            }
+        }
+
+        return -1;
+    }
+
+    /** Skip up to and including the next occurrence of a terminator
+     *
+     * @param xml The XML document
+     * @param start Index to start searching from
+     * @param terminator The terminator to search for
+     * @return Index just past the terminator, or -1 if it is never found
+     */
+    private static int skipPast(CharSequence xml, int start, String terminator)
+    {
+        final int last = xml.length() - terminator.length();
+
+        for (int i = start; i <= last; ++i) {
+            if (startsWith(xml, i, terminator)) {
+                return i + terminator.length();
+            }
+        }
+
+        return -1;
+    }
+
+    /** Check if a prefix appears at a given index
+     *
+     * @param xml The XML document
+     * @param start Index to check at
+     * @param prefix The prefix to check for
+     * @return If the prefix appears at the index
+     */
+    private static boolean startsWith(CharSequence xml, int start, String prefix)
+    {
+        if (start + prefix.length() > xml.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length(); ++i) {
+            if (xml.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Prevents this class from being instantiated
+     */
+    private XerRootElement() { }
+}
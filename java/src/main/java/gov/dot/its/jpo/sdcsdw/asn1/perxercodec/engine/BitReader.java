@@ -0,0 +1,150 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.EngineFailedException.Reason;
+
+/** Reads unaligned PER data a few bits at a time, most significant bit first
+ *
+ * @author andrew
+ *
+ */
+final class BitReader
+{
+    /** Create a reader over a whole array
+     *
+     * @param data The PER data
+     */
+    BitReader(byte[] data)
+    {
+        this.data = data;
+        this.limit = data.length * 8L;
+    }
+
+    /** Get the offset of the next bit to be read
+     *
+     * @return Number of bits read so far
+     */
+    long position()
+    {
+        return position;
+    }
+
+    /** Read a single bit
+     *
+     * @return True if the bit is set
+     * @throws EngineFailedException If the data has run out
+     */
+    boolean bit() throws EngineFailedException
+    {
+        if (position >= limit) {
+            throw truncated();
+        }
+
+        final int b = data[(int) (position >>> 3)] >>> (7 - (int) (position & 7));
+        ++position;
+        return (b & 1) != 0;
+    }
+
+    /** Read a non-negative number held in a fixed number of bits
+     *
+     * @param count Number of bits to read, at most 63
+     * @return The bits read, as a number
+     * @throws EngineFailedException If the data has run out
+     */
+    long bits(int count) throws EngineFailedException
+    {
+        if (position + count > limit) {
+            throw truncated();
+        }
+
+        long value = 0;
+        int remaining = count;
+        while (remaining > 0) {
+            final int available = 8 - (int) (position & 7);
+            final int take = Math.min(available, remaining);
+            final int b = data[(int) (position >>> 3)] & 0xFF;
+            value = (value << take) | ((b >>> (available - take)) & ((1 << take) - 1));
+            position += take;
+            remaining -= take;
+        }
+        return value;
+    }
+
+    /** Read a single octet, which need not be byte aligned
+     *
+     * @return The octet, from 0 to 255
+     * @throws EngineFailedException If the data has run out
+     */
+    int octet() throws EngineFailedException
+    {
+        if (position + 8 > limit) {
+            throw truncated();
+        }
+
+        final int index = (int) (position >>> 3);
+        final int shift = (int) (position & 7);
+        position += 8;
+        if (shift == 0) {
+            return data[index] & 0xFF;
+        }
+        return (((data[index] & 0xFF) << shift) | ((data[index + 1] & 0xFF) >>> (8 - shift))) & 0xFF;
+    }
+
+    /** Step over bits without reading them
+     *
+     * @param count Number of bits to skip
+     * @throws EngineFailedException If the data has run out
+     */
+    void skip(long count) throws EngineFailedException
+    {
+        if (position + count > limit) {
+            throw truncated();
+        }
+        position += count;
+    }
+
+    /** Read an unconstrained length determinant, as used for open types
+     *
+     * @return The length
+     * @throws EngineFailedException If the data has run out, or the length is fragmented
+     */
+    int length() throws EngineFailedException
+    {
+        if (!bit()) {
+            return (int) bits(7);
+        } else if (!bit()) {
+            return (int) bits(14);
+        }
+        throw new EngineFailedException(Reason.MALFORMED, "Fragmented lengths are not supported, at bit " + position);
+    }
+
+    /** Read a normally small length, as used for the number of extension additions
+     *
+     * @return The length
+     * @throws EngineFailedException If the data has run out, or the length is fragmented
+     */
+    int normallySmallLength() throws EngineFailedException
+    {
+        if (!bit()) {
+            return (int) bits(6) + 1;
+        }
+        return length();
+    }
+
+    /** Build the exception for running out of data
+     *
+     * @return The exception
+     */
+    private EngineFailedException truncated()
+    {
+        return new EngineFailedException(Reason.TRUNCATED, "PER data ended after " + limit + " bits, in the middle of the message");
+    }
+
+    /** The PER data */
+    private final byte[] data;
+
+    /** Number of bits of data */
+    private final long limit;
+
+    /** Offset of the next bit to read */
+    private long position;
+}
@@ -0,0 +1,125 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+import java.util.Arrays;
+
+/** Writes unaligned PER data a few bits at a time, most significant bit first
+ *
+ * <p>
+ *
+ * Bits which are skipped over are left as zero, so that fields which precede what they describe, such as the presence
+ * bits of a SEQUENCE or the count of a SEQUENCE OF, can be reserved and filled in once the rest is known.
+ *
+ * @author andrew
+ *
+ */
+final class BitWriter
+{
+    /** Create a writer
+     *
+     * @param capacity Number of bytes to allocate up front, which is grown as needed
+     */
+    BitWriter(int capacity)
+    {
+        this.data = new byte[Math.max(capacity, 1)];
+    }
+
+    /** Get the offset of the next bit to be written
+     *
+     * @return Number of bits written so far
+     */
+    long position()
+    {
+        return position;
+    }
+
+    /** Write a single bit
+     *
+     * @param set If the bit is set
+     */
+    void bit(boolean set)
+    {
+        ensure(position + 1);
+        if (set) {
+            data[(int) (position >>> 3)] |= 0x80 >>> (int) (position & 7);
+        }
+        ++position;
+    }
+
+    /** Write a non-negative number in a fixed number of bits
+     *
+     * @param value The number, which must fit in count bits
+     * @param count Number of bits to write, at most 63
+     */
+    void bits(long value, int count)
+    {
+        ensure(position + count);
+        set(position, value, count);
+        position += count;
+    }
+
+    /** Write a single octet, which need not be byte aligned
+     *
+     * @param value The octet
+     */
+    void octet(int value)
+    {
+        bits(value & 0xFF, 8);
+    }
+
+    /** Leave bits as zero, to be filled in later by {@link #set(long, long, int)}
+     *
+     * @param count Number of bits to skip
+     */
+    void skip(int count)
+    {
+        ensure(position + count);
+        position += count;
+    }
+
+    /** Fill in bits which were skipped earlier
+     *
+     * @param offset Offset of the first bit to fill in, which must still be zero
+     * @param value The number, which must fit in count bits
+     * @param count Number of bits to fill in
+     */
+    void set(long offset, long value, int count)
+    {
+        long at = offset;
+        int remaining = count;
+        while (remaining > 0) {
+            final int space = 8 - (int) (at & 7);
+            final int take = Math.min(space, remaining);
+            final int chunk = (int) (value >>> (remaining - take)) & ((1 << take) - 1);
+            data[(int) (at >>> 3)] |= chunk << (space - take);
+            at += take;
+            remaining -= take;
+        }
+    }
+
+    /** Get the data written, padded with zero bits to a whole number of bytes
+     *
+     * @return The PER data, which is at least one byte long, as with a complete encoding
+     */
+    byte[] toByteArray()
+    {
+        return Arrays.copyOf(data, Math.max(1, (int) ((position + 7) >>> 3)));
+    }
+
+    /** Make room for bits up to an offset
+     *
+     * @param bits Offset just past the last bit which will be written
+     */
+    private void ensure(long bits)
+    {
+        final long bytes = (bits + 7) >>> 3;
+        if (bytes > data.length) {
+            data = Arrays.copyOf(data, (int) Math.max(bytes, data.length * 2L));
+        }
+    }
+
+    /** The data written so far, followed by zeros */
+    private byte[] data;
+
+    /** Offset of the next bit to write */
+    private long position;
+}
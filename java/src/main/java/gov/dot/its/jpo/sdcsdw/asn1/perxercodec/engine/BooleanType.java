@@ -0,0 +1,24 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+/** BOOLEAN, encoded in PER as a single bit, and in XER as an empty element named true or false
+ *
+ * @author andrew
+ *
+ */
+final class BooleanType extends SchemaType
+{
+    @Override
+    void toXer(BitReader per, StringBuilder xer) throws EngineFailedException
+    {
+        xer.append(per.bit() ? "<true/>" : "<false/>");
+    }
+
+    @Override
+    void toPer(XerReader xer, BitWriter per) throws EngineFailedException
+    {
+        per.bit(xer.choice(NAMES) == 0);
+    }
+
+    /** Names of the values, true first */
+    private static final String[] NAMES = { "true", "false" };
+}
@@ -0,0 +1,57 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.EngineFailedException.Reason;
+
+/** CHOICE without an extension marker, encoded in PER as the index of the alternative followed by its value, and in
+ *  XER as an element for the alternative
+ *
+ * @author andrew
+ *
+ */
+final class ChoiceType extends SchemaType
+{
+    /** Create the type
+     *
+     * @param alternatives The alternatives, in order
+     */
+    ChoiceType(Component... alternatives)
+    {
+        this.alternatives = alternatives;
+        this.width = bitsFor(alternatives.length - 1);
+    }
+
+    @Override
+    void toXer(BitReader per, StringBuilder xer) throws EngineFailedException
+    {
+        final int index = (int) per.bits(width);
+        if (index >= alternatives.length) {
+            throw new EngineFailedException(Reason.MALFORMED, "Choice index " + index + " is past the last alternative, at bit " + per.position());
+        }
+
+        final Component alternative = alternatives[index];
+        xer.append(alternative.startTag);
+        alternative.type.toXer(per, xer);
+        xer.append(alternative.endTag);
+    }
+
+    @Override
+    void toPer(XerReader xer, BitWriter per) throws EngineFailedException
+    {
+        for (int i = 0; i < alternatives.length; ++i) {
+            final Component alternative = alternatives[i];
+            if (xer.start(alternative.name)) {
+                per.bits(i, width);
+                alternative.type.toPer(xer, per);
+                xer.end(alternative.name);
+                return;
+            }
+        }
+        throw xer.expected("one of the alternatives of a choice");
+    }
+
+    /** The alternatives */
+    private final Component[] alternatives;
+
+    /** Number of bits in the index */
+    private final int width;
+}
@@ -0,0 +1,61 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+/** A named component of a SEQUENCE, or an alternative of a CHOICE
+ *
+ * @author andrew
+ *
+ */
+final class Component
+{
+    /** Create a component which must be present
+     *
+     * @param name Name of the component, which is also the name of its XER element
+     * @param type Type of the component
+     * @return The component
+     */
+    static Component of(String name, SchemaType type)
+    {
+        return new Component(name, type, false);
+    }
+
+    /** Create a component marked OPTIONAL
+     *
+     * @param name Name of the component, which is also the name of its XER element
+     * @param type Type of the component
+     * @return The component
+     */
+    static Component optional(String name, SchemaType type)
+    {
+        return new Component(name, type, true);
+    }
+
+    /** Create a component
+     *
+     * @param name Name of the component
+     * @param type Type of the component
+     * @param optional If the component may be absent
+     */
+    private Component(String name, SchemaType type, boolean optional)
+    {
+        this.name = name;
+        this.type = type;
+        this.optional = optional;
+        this.startTag = "<" + name + ">";
+        this.endTag = "</" + name + ">";
+    }
+
+    /** Name of the component */
+    final String name;
+
+    /** Type of the component */
+    final SchemaType type;
+
+    /** If the component may be absent */
+    final boolean optional;
+
+    /** Start tag of the component's XER element */
+    final String startTag;
+
+    /** End tag of the component's XER element */
+    final String endTag;
+}
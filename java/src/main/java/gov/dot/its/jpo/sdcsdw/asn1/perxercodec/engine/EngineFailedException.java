@@ -0,0 +1,52 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecFailedException;
+
+/** Exception thrown when the pure Java engine cannot convert data, saying which step failed
+ *
+ * @author andrew
+ *
+ */
+public class EngineFailedException extends CodecFailedException
+{
+    /** Which step of a conversion failed */
+    public enum Reason
+    {
+        /** The input ended before the message did */
+        TRUNCATED,
+        /** The input is not a valid encoding of the message */
+        MALFORMED,
+        /** The message decoded, but its SEMI dialogID and seqID do not match its type */
+        IDS,
+        /** The message decoded, but a value is outside what its type can encode */
+        UNENCODABLE
+    }
+
+    /**
+     * Create a new EngineFailedException from a reason and a message
+     * @param reason Which step failed
+     * @param msg Message for this exception
+     */
+    public EngineFailedException(Reason reason, String msg)
+    {
+        super(msg);
+        this.reason = reason;
+    }
+
+    /** Get which step of the conversion failed
+     *
+     * @return Which step failed
+     */
+    public Reason getReason()
+    {
+        return reason;
+    }
+
+    /** Which step failed */
+    private final Reason reason;
+
+    /**
+     *
+     */
+    private static final long serialVersionUID = 2390481625523815727L;
+}
@@ -0,0 +1,106 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.EngineFailedException.Reason;
+
+/** ENUMERATED, encoded in PER as the index of the value, and in XER as an empty element named after the value
+ *
+ * <p>
+ *
+ * Values are numbered one after another from a first value, which covers every enumeration in SEMI. An extensible
+ * enumeration is preceded by a bit saying if the value is an extension; since none of them have any extension values,
+ * one which is set cannot be converted, as in asn1c.
+ *
+ * @author andrew
+ *
+ */
+final class EnumeratedType extends SchemaType
+{
+    /** Create the type
+     *
+     * @param extensible If the enumeration ends with an extension marker
+     * @param firstValue Value of the first name
+     * @param names Names of the values, in order
+     */
+    EnumeratedType(boolean extensible, int firstValue, String... names)
+    {
+        this.extensible = extensible;
+        this.firstValue = firstValue;
+        this.names = names;
+        this.width = bitsFor(names.length - 1);
+        this.tags = new String[names.length];
+        for (int i = 0; i < names.length; ++i) {
+            tags[i] = "<" + names[i] + "/>";
+        }
+    }
+
+    @Override
+    void toXer(BitReader per, StringBuilder xer) throws EngineFailedException
+    {
+        xer.append(tags[read(per)]);
+    }
+
+    @Override
+    void toPer(XerReader xer, BitWriter per) throws EngineFailedException
+    {
+        if (extensible) {
+            per.bit(false);
+        }
+        per.bits(xer.choice(names), width);
+    }
+
+    /** Read the index of a value from PER data
+     *
+     * @param per PER data, positioned at the start of the value
+     * @return Index of the value
+     * @throws EngineFailedException If the value is an extension, or past the last value
+     */
+    int read(BitReader per) throws EngineFailedException
+    {
+        final int index = index(per);
+        if (index < 0) {
+            throw new EngineFailedException(Reason.MALFORMED, "Enumeration value at bit " + per.position() + " is not one of " + String.join(", ", names));
+        }
+        return index;
+    }
+
+    /** Read the index of a value from PER data, without throwing if it is not one of the values
+     *
+     * @param per PER data, positioned at the start of the value
+     * @return Index of the value, or -1 if the value is an extension, or past the last value
+     * @throws EngineFailedException If the data has run out
+     */
+    int index(BitReader per) throws EngineFailedException
+    {
+        if (extensible && per.bit()) {
+            return -1;
+        }
+
+        final int index = (int) per.bits(width);
+        return index < names.length ? index : -1;
+    }
+
+    /** Get the value of a name
+     *
+     * @param index Index of the name
+     * @return The value given to it in ASN.1
+     */
+    int value(int index)
+    {
+        return firstValue + index;
+    }
+
+    /** If the enumeration is extensible */
+    private final boolean extensible;
+
+    /** Value of the first name */
+    private final int firstValue;
+
+    /** Names of the values */
+    private final String[] names;
+
+    /** Empty element for each value */
+    private final String[] tags;
+
+    /** Number of bits in the index */
+    private final int width;
+}
@@ -0,0 +1,49 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.EngineFailedException.Reason;
+
+/** INTEGER (lb..ub), encoded in PER as a constrained whole number in the fewest bits which hold the range
+ *
+ * @author andrew
+ *
+ */
+final class IntegerType extends SchemaType
+{
+    /** Create the type
+     *
+     * @param lowerBound Smallest value allowed
+     * @param upperBound Largest value allowed
+     */
+    IntegerType(long lowerBound, long upperBound)
+    {
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.width = bitsFor(upperBound - lowerBound);
+    }
+
+    @Override
+    void toXer(BitReader per, StringBuilder xer) throws EngineFailedException
+    {
+        // As with asn1c, values past the upper bound which still fit in the bits are decoded rather than rejected
+        xer.append(lowerBound + per.bits(width));
+    }
+
+    @Override
+    void toPer(XerReader xer, BitWriter per) throws EngineFailedException
+    {
+        final long value = xer.integer();
+        if (value < lowerBound || value > upperBound) {
+            throw new EngineFailedException(Reason.UNENCODABLE, value + " is outside the range " + lowerBound + ".." + upperBound);
+        }
+        per.bits(value - lowerBound, width);
+    }
+
+    /** Smallest value allowed */
+    private final long lowerBound;
+
+    /** Largest value allowed */
+    private final long upperBound;
+
+    /** Number of bits in the encoding */
+    private final int width;
+}
@@ -0,0 +1,64 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.EngineFailedException.Reason;
+
+/** OCTET STRING (SIZE(lb..ub)), encoded in XER as uppercase hexadecimal
+ *
+ * <p>
+ *
+ * A fixed size string is encoded in PER as the bare octets, otherwise they are preceded by the length as a
+ * constrained whole number. Every size in SEMI is below 64K, so lengths are never fragmented.
+ *
+ * @author andrew
+ *
+ */
+final class OctetStringType extends SchemaType
+{
+    /** Create the type
+     *
+     * @param lowerBound Fewest octets allowed
+     * @param upperBound Most octets allowed
+     */
+    OctetStringType(int lowerBound, int upperBound)
+    {
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.width = bitsFor(upperBound - lowerBound);
+    }
+
+    @Override
+    void toXer(BitReader per, StringBuilder xer) throws EngineFailedException
+    {
+        final int length = lowerBound + (int) per.bits(width);
+        for (int i = 0; i < length; ++i) {
+            final int octet = per.octet();
+            xer.append(HEX_DIGITS[octet >>> 4]).append(HEX_DIGITS[octet & 0xF]);
+        }
+    }
+
+    @Override
+    void toPer(XerReader xer, BitWriter per) throws EngineFailedException
+    {
+        final byte[] octets = xer.octets();
+        if (octets.length < lowerBound || octets.length > upperBound) {
+            throw new EngineFailedException(Reason.UNENCODABLE, octets.length + " octets is outside the size " + lowerBound + ".." + upperBound);
+        }
+
+        per.bits(octets.length - lowerBound, width);
+        for (byte octet : octets) {
+            per.octet(octet);
+        }
+    }
+
+    /** Hexadecimal digits, as asn1c writes them */
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /** Fewest octets allowed */
+    private final int lowerBound;
+
+    /** Most octets allowed */
+    private final int upperBound;
+
+    /** Number of bits in the length, which is 0 for a fixed size */
+    private final int width;
+}
@@ -0,0 +1,40 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+/** An ASN.1 type, which knows how to convert its own values between unaligned PER and XER
+ *
+ * <p>
+ *
+ * Conversions work straight from one encoding to the other, without building a value in between. The tags of the
+ * element holding a value belong to whatever holds it, so each type only reads and writes the content of its element.
+ *
+ * @author andrew
+ *
+ */
+abstract class SchemaType
+{
+    /** Convert a value from PER to XER
+     *
+     * @param per PER data, positioned at the start of the value
+     * @param xer Builder to append the content of the value's XER element to
+     * @throws EngineFailedException If the PER data is not a valid encoding of the value
+     */
+    abstract void toXer(BitReader per, StringBuilder xer) throws EngineFailedException;
+
+    /** Convert a value from XER to PER
+     *
+     * @param xer XER data, positioned just after the start tag of the value's element
+     * @param per Writer to append the PER encoding of the value to
+     * @throws EngineFailedException If the XER data is not a valid encoding of the value, or the value cannot be encoded
+     */
+    abstract void toPer(XerReader xer, BitWriter per) throws EngineFailedException;
+
+    /** Count the bits needed to hold every whole number up to a bound, as a constrained whole number in PER
+     *
+     * @param range Largest number, the upper bound less the lower bound
+     * @return Number of bits needed, which is 0 for a range of a single value
+     */
+    static int bitsFor(long range)
+    {
+        return Long.SIZE - Long.numberOfLeadingZeros(range);
+    }
+}
@@ -0,0 +1,224 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.EngineFailedException.Reason;
+
+/** One of the SEMI message types, converted between unaligned PER and XER in pure Java
+ *
+ * <p>
+ *
+ * Conversions behave as the native library's do: PER is decoded as ATS_UNALIGNED_CANONICAL_PER and XER is written
+ * as ATS_CANONICAL_XER, with no whitespace, and the SEMI dialogID and seqID of every message are checked against its
+ * type once it has been decoded. Instances hold no state between conversions, and are safe to share between threads.
+ *
+ * @author andrew
+ *
+ */
+public final class SemiMessage
+{
+    /** Find a message type by name
+     *
+     * @param name Name of the type, as used by {@link gov.dot.its.jpo.sdcsdw.asn1.perxercodec.Asn1Types}
+     * @return The message type, or null if there is none by that name
+     */
+    public static SemiMessage forName(String name)
+    {
+        for (SemiMessage message : ALL) {
+            if (message.name.equals(name)) {
+                return message;
+            }
+        }
+        return null;
+    }
+
+    /** Get every message type
+     *
+     * @return Every message type, in the same order as {@link gov.dot.its.jpo.sdcsdw.asn1.perxercodec.Asn1Types#getAllTypes()}
+     */
+    public static List<SemiMessage> all()
+    {
+        return ALL;
+    }
+
+    /** Create a message type
+     *
+     * @param name Name of the type, which is also the name of the root element of its XER data
+     * @param type Definition of the type
+     * @param dialogId Value of the dialogID the type must have, or -1 if any is allowed
+     * @param seqId Value of the seqID the type must have
+     */
+    private SemiMessage(String name, SequenceType type, int dialogId, int seqId)
+    {
+        this.name = name;
+        this.type = type;
+        this.dialogId = dialogId;
+        this.seqId = seqId;
+        this.idsOffset = type.preambleBits();
+        this.startTag = "<" + name + ">";
+        this.endTag = "</" + name + ">";
+    }
+
+    /** Get the name of the type
+     *
+     * @return Name of the type
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /** Convert PER encoded data to XER encoded data
+     *
+     * @param per The PER encoded data
+     * @return The XER encoded data
+     * @throws EngineFailedException If the data is not a message of this type
+     */
+    public String perToXer(byte[] per) throws EngineFailedException
+    {
+        if (per == null) {
+            throw new IllegalArgumentException("PER cannot be null");
+        }
+
+        final StringBuilder xer = new StringBuilder(per.length * XER_CHARS_PER_OCTET + startTag.length() + endTag.length());
+        xer.append(startTag);
+        type.toXer(new BitReader(per), xer);
+        xer.append(endTag);
+
+        checkIds(per);
+        return xer.toString();
+    }
+
+    /** Convert XER encoded data to PER encoded data
+     *
+     * @param xer The XER encoded data
+     * @return The PER encoded data
+     * @throws EngineFailedException If the data is not a message of this type, or cannot be encoded as one
+     */
+    public byte[] xerToPer(CharSequence xer) throws EngineFailedException
+    {
+        if (xer == null) {
+            throw new IllegalArgumentException("XER cannot be null");
+        }
+
+        final XerReader reader = new XerReader(xer);
+        if (!reader.start(name)) {
+            throw reader.expected("<" + name + ">");
+        }
+
+        final BitWriter writer = new BitWriter(xer.length() / XER_CHARS_PER_OCTET + 1);
+        type.toPer(reader, writer);
+        reader.end(name);
+
+        final byte[] per = writer.toByteArray();
+        checkIds(per);
+        return per;
+    }
+
+    /** Read the SEMI dialogID and seqID at the start of PER encoded data, without decoding the rest of it
+     *
+     * @param per The PER encoded data
+     * @return The dialogID in bits 48 to 63, the seqID in bits 32 to 47, and the offset of the first bit after the
+     *         seqID in bits 0 to 31, or -1 if they could not be read or do not match this type, as with the native
+     *         library's extractSemiIds
+     */
+    public long extractIds(byte[] per)
+    {
+        if (per == null) {
+            throw new IllegalArgumentException("PER cannot be null");
+        }
+
+        // Both ids are extensible enumerations of fewer than 16 values, so they take 5 bits each
+        if (per.length * 8L < idsOffset + 2 * ID_BITS) {
+            return -1;
+        }
+
+        final int dialogIndex;
+        final int seqIndex;
+        final BitReader reader = new BitReader(per);
+        try {
+            reader.skip(idsOffset);
+            dialogIndex = SemiSchema.DIALOG_ID.index(reader);
+            seqIndex = SemiSchema.SEQUENCE_ID.index(reader);
+        } catch (EngineFailedException ex) {
+            return -1;
+        }
+        if (dialogIndex < 0 || seqIndex < 0) {
+            return -1;
+        }
+
+        final int dialog = SemiSchema.DIALOG_ID.value(dialogIndex);
+        final int seq = SemiSchema.SEQUENCE_ID.value(seqIndex);
+        if (seq != seqId || (dialogId >= 0 && dialog != dialogId)) {
+            return -1;
+        }
+        return ((long) dialog << 48) | ((long) seq << 32) | reader.position();
+    }
+
+    /** Check if the SEMI dialogID and seqID at the start of PER encoded data are the ones this type must have
+     *
+     * @param per The PER encoded data
+     * @return True if the ids could be read, and match this type
+     */
+    public boolean idsMatch(byte[] per)
+    {
+        return extractIds(per) != -1;
+    }
+
+    /** Check the ids of a converted message, as the native library does after decoding
+     *
+     * @param per The message's PER encoding
+     * @throws EngineFailedException If the ids do not match this type
+     */
+    private void checkIds(byte[] per) throws EngineFailedException
+    {
+        if (!idsMatch(per)) {
+            throw new EngineFailedException(Reason.IDS, "SEMI dialogID and seqID do not match " + name);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SemiMessage[" + name + "]";
+    }
+
+    /** Bits of PER data holding each of the dialogID and seqID */
+    private static final int ID_BITS = 5;
+
+    /** Rough number of characters of XER data per octet of PER data, for sizing buffers */
+    private static final int XER_CHARS_PER_OCTET = 4;
+
+    /** Every message type, with the ids the native library checks for each */
+    private static final List<SemiMessage> ALL = Collections.unmodifiableList(Arrays.asList(
+            new SemiMessage("AdvisorySituationData", SemiSchema.ADVISORY_SITUATION_DATA, 156, 5),
+            new SemiMessage("ServiceRequest", SemiSchema.SERVICE_REQUEST, -1, 1),
+            new SemiMessage("ServiceResponse", SemiSchema.SERVICE_RESPONSE, -1, 2),
+            new SemiMessage("DataRequest", SemiSchema.DATA_REQUEST, -1, 3),
+            new SemiMessage("AdvisorySituationDataDistribution", SemiSchema.ADVISORY_SITUATION_DATA_DISTRIBUTION, 157, 5),
+            new SemiMessage("DataAcceptance", SemiSchema.DATA_ACCEPTANCE, -1, 6),
+            new SemiMessage("DataReceipt", SemiSchema.DATA_RECEIPT, -1, 7)));
+
+    /** Name of the type */
+    private final String name;
+
+    /** Definition of the type */
+    private final SequenceType type;
+
+    /** Value of the dialogID the type must have, or -1 for any */
+    private final int dialogId;
+
+    /** Value of the seqID the type must have */
+    private final int seqId;
+
+    /** Offset of the first bit of the dialogID */
+    private final int idsOffset;
+
+    /** Start tag of the root element */
+    private final String startTag;
+
+    /** End tag of the root element */
+    private final String endTag;
+}
@@ -0,0 +1,202 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+import static gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.Component.of;
+import static gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.Component.optional;
+
+/** The SEMI v2.3 types the codec converts, and the J2735 types they use
+ *
+ * <p>
+ *
+ * Each definition mirrors the ASN.1 module the native library is generated from, given in its comment. Only the
+ * constraints which change the encoding are kept; as in asn1c, a conversion does not check the rest.
+ *
+ * @author andrew
+ *
+ */
+final class SemiSchema
+{
+    /** SemiDialogID ::= ENUMERATED { vehSitData (154), dataSubscription (155), advSitDataDep (156),
+     *  advSitDatDist (157), reserved1 (158), reserved2 (159), objReg (160), objDisc (161),
+     *  intersectionSitDataDep (162), intersectionSitDataQuery (163), ... } */
+    static final EnumeratedType DIALOG_ID = new EnumeratedType(true, 154,
+            "vehSitData", "dataSubscription", "advSitDataDep", "advSitDatDist", "reserved1", "reserved2",
+            "objReg", "objDisc", "intersectionSitDataDep", "intersectionSitDataQuery");
+
+    /** SemiSequenceID ::= ENUMERATED { svcReq (1), svcResp (2), dataReq (3), dataConf (4), data (5), accept (6),
+     *  receipt (7), subscriptionReq (8), subscriptinoResp (9), subscriptionCancelReq (10),
+     *  subscriptionCancelResp (11), ... } */
+    static final EnumeratedType SEQUENCE_ID = new EnumeratedType(true, 1,
+            "svcReq", "svcResp", "dataReq", "dataConf", "data", "accept", "receipt",
+            "subscriptionReq", "subscriptinoResp", "subscriptionCancelReq", "subscriptionCancelResp");
+
+    /** GroupID, TemporaryID, IPv4Address: OCTET STRING (SIZE(4)) */
+    private static final OctetStringType OCTETS_4 = new OctetStringType(4, 4);
+
+    /** DistributionType, Priority: OCTET STRING (SIZE(1)) */
+    private static final OctetStringType OCTETS_1 = new OctetStringType(1, 1);
+
+    /** Position3D ::= SEQUENCE { lat Latitude, long Longitude, elevation Elevation OPTIONAL,
+     *  regional SEQUENCE (SIZE(1..4)) OF RegionalExtension {{REGION.Reg-Position3D}} OPTIONAL, ... } */
+    private static final SequenceType POSITION_3D = new SequenceType(true,
+            of("lat", new IntegerType(-900000000, 900000001)),
+            of("long", new IntegerType(-1799999999, 1800000001)),
+            optional("elevation", new IntegerType(-4096, 61439)),
+            optional("regional", new UnsupportedType("Position3D regional extension")));
+
+    /** GeoRegion ::= SEQUENCE { nwCorner Position3D, seCorner Position3D } */
+    private static final SequenceType GEO_REGION = new SequenceType(false,
+            of("nwCorner", POSITION_3D),
+            of("seCorner", POSITION_3D));
+
+    /** DDateTime ::= SEQUENCE { year DYear OPTIONAL, month DMonth OPTIONAL, day DDay OPTIONAL, hour DHour OPTIONAL,
+     *  minute DMinute OPTIONAL, second DSecond OPTIONAL, offset DOffset OPTIONAL } */
+    private static final SequenceType D_DATE_TIME = new SequenceType(false,
+            optional("year", new IntegerType(0, 4095)),
+            optional("month", new IntegerType(0, 12)),
+            optional("day", new IntegerType(0, 31)),
+            optional("hour", new IntegerType(0, 31)),
+            optional("minute", new IntegerType(0, 60)),
+            optional("second", new IntegerType(0, 65535)),
+            optional("offset", new IntegerType(-840, 840)));
+
+    /** DFullTime ::= SEQUENCE { year DYear, month DMonth, day DDay, hour DHour, minute DMinute } */
+    private static final SequenceType D_FULL_TIME = new SequenceType(false,
+            of("year", new IntegerType(0, 4095)),
+            of("month", new IntegerType(0, 12)),
+            of("day", new IntegerType(0, 31)),
+            of("hour", new IntegerType(0, 31)),
+            of("minute", new IntegerType(0, 60)));
+
+    /** AdvisoryBroadcastType ::= ENUMERATED { spatAggregate, map, tim, ev, ... } */
+    private static final EnumeratedType ADVISORY_BROADCAST_TYPE = new EnumeratedType(true, 0,
+            "spatAggregate", "map", "tim", "ev");
+
+    /** advisoryMessage OCTET STRING (SIZE(0..1400)) */
+    private static final OctetStringType ADVISORY_MESSAGE = new OctetStringType(0, 1400);
+
+    /** IpAddress ::= CHOICE { ipv4Address IPv4Address, ipv6Address IPv6Address } */
+    private static final ChoiceType IP_ADDRESS = new ChoiceType(
+            of("ipv4Address", OCTETS_4),
+            of("ipv6Address", new OctetStringType(16, 16)));
+
+    /** ConnectionPoint ::= SEQUENCE { address IpAddress OPTIONAL, port PortNumber } */
+    private static final SequenceType CONNECTION_POINT = new SequenceType(false,
+            optional("address", IP_ADDRESS),
+            of("port", new IntegerType(0, 65535)));
+
+    /** AdvisoryDetails ::= SEQUENCE { asdmID TemporaryID, asdmType AdvisoryBroadcastType,
+     *  distType DistributionType, startTime DFullTime OPTIONAL, stopTime DFullTime OPTIONAL,
+     *  advisoryMessage OCTET STRING (SIZE(0..1400)) } */
+    private static final SequenceType ADVISORY_DETAILS = new SequenceType(false,
+            of("asdmID", OCTETS_4),
+            of("asdmType", ADVISORY_BROADCAST_TYPE),
+            of("distType", OCTETS_1),
+            optional("startTime", D_FULL_TIME),
+            optional("stopTime", D_FULL_TIME),
+            of("advisoryMessage", ADVISORY_MESSAGE));
+
+    /** BroadcastInstructions ::= SEQUENCE { biType AdvisoryBroadcastType, biPriority Priority OPTIONAL,
+     *  biDeliveryStart DFullTime, biDeliveryStop DFullTime, biSignature BOOLEAN, biEncryption BOOLEAN,
+     *  biTxMode TxMode, biTxChannel TxChannel, biTxInterval INTEGER (1..50), ... } */
+    private static final SequenceType BROADCAST_INSTRUCTIONS = new SequenceType(true,
+            of("biType", ADVISORY_BROADCAST_TYPE),
+            optional("biPriority", OCTETS_1),
+            of("biDeliveryStart", D_FULL_TIME),
+            of("biDeliveryStop", D_FULL_TIME),
+            of("biSignature", new BooleanType()),
+            of("biEncryption", new BooleanType()),
+            of("biTxMode", new EnumeratedType(false, 0, "continuous", "alternating")),
+            of("biTxChannel", new EnumeratedType(false, 0,
+                    "chControl", "chService", "ch172", "ch174", "ch176", "ch178", "ch180", "ch182", "ch184")),
+            of("biTxInterval", new IntegerType(1, 50)));
+
+    /** AdvisoryBroadcast ::= SEQUENCE { messagePsid OCTET STRING (SIZE(4)),
+     *  broadcastInst BroadcastInstructions OPTIONAL, advisoryMessage OCTET STRING (SIZE(0..1400)) } */
+    private static final SequenceType ADVISORY_BROADCAST = new SequenceType(false,
+            of("messagePsid", OCTETS_4),
+            optional("broadcastInst", BROADCAST_INSTRUCTIONS),
+            of("advisoryMessage", ADVISORY_MESSAGE));
+
+    /** AdvisorySituationBundle ::= SEQUENCE { bundleNumber INTEGER (1..40), bundleId TemporaryID,
+     *  asdRecords SEQUENCE (SIZE(1..10)) OF AdvisoryBroadcast } */
+    private static final SequenceType ADVISORY_SITUATION_BUNDLE = new SequenceType(false,
+            of("bundleNumber", new IntegerType(1, 40)),
+            of("bundleId", OCTETS_4),
+            of("asdRecords", new SequenceOfType("AdvisoryBroadcast", ADVISORY_BROADCAST, 1, 10)));
+
+    /** ServiceRequest ::= SEQUENCE { dialogID SemiDialogID, seqID SemiSequenceID, groupID GroupID,
+     *  requestID TemporaryID, destination ConnectionPoint OPTIONAL } */
+    static final SequenceType SERVICE_REQUEST = new SequenceType(false,
+            of("dialogID", DIALOG_ID),
+            of("seqID", SEQUENCE_ID),
+            of("groupID", OCTETS_4),
+            of("requestID", OCTETS_4),
+            optional("destination", CONNECTION_POINT));
+
+    /** ServiceResponse ::= SEQUENCE { dialogID SemiDialogID, seqID SemiSequenceID, groupID GroupID,
+     *  requestID TemporaryID, expiration DDateTime, serviceRegion GeoRegion OPTIONAL, hash Sha256Hash } */
+    static final SequenceType SERVICE_RESPONSE = new SequenceType(false,
+            of("dialogID", DIALOG_ID),
+            of("seqID", SEQUENCE_ID),
+            of("groupID", OCTETS_4),
+            of("requestID", OCTETS_4),
+            of("expiration", D_DATE_TIME),
+            optional("serviceRegion", GEO_REGION),
+            of("hash", new OctetStringType(32, 32)));
+
+    /** DataRequest ::= SEQUENCE { dialogID SemiDialogID, seqID SemiSequenceID, groupID GroupID,
+     *  requestID TemporaryID, serviceRegion GeoRegion, distType DistributionType, ... } */
+    static final SequenceType DATA_REQUEST = new SequenceType(true,
+            of("dialogID", DIALOG_ID),
+            of("seqID", SEQUENCE_ID),
+            of("groupID", OCTETS_4),
+            of("requestID", OCTETS_4),
+            of("serviceRegion", GEO_REGION),
+            of("distType", OCTETS_1));
+
+    /** AdvisorySituationData ::= SEQUENCE { dialogID SemiDialogID, seqID SemiSequenceID, groupID GroupID,
+     *  requestID TemporaryID, recordID TemporaryID OPTIONAL, timeToLive TimeToLive OPTIONAL,
+     *  serviceRegion GeoRegion, asdmDetails AdvisoryDetails } */
+    static final SequenceType ADVISORY_SITUATION_DATA = new SequenceType(false,
+            of("dialogID", DIALOG_ID),
+            of("seqID", SEQUENCE_ID),
+            of("groupID", OCTETS_4),
+            of("requestID", OCTETS_4),
+            optional("recordID", OCTETS_4),
+            optional("timeToLive", new EnumeratedType(false, 0, "minute", "halfHour", "day", "week", "month", "year")),
+            of("serviceRegion", GEO_REGION),
+            of("asdmDetails", ADVISORY_DETAILS));
+
+    /** AdvisorySituationDataDistribution ::= SEQUENCE { dialogID SemiDialogID, seqID SemiSequenceID,
+     *  groupID GroupID, requestID TemporaryID, recordCount INTEGER (0..400), bundleCount INTEGER (0..40),
+     *  asdBundles SEQUENCE (SIZE(0..4)) OF AdvisorySituationBundle } */
+    static final SequenceType ADVISORY_SITUATION_DATA_DISTRIBUTION = new SequenceType(false,
+            of("dialogID", DIALOG_ID),
+            of("seqID", SEQUENCE_ID),
+            of("groupID", OCTETS_4),
+            of("requestID", OCTETS_4),
+            of("recordCount", new IntegerType(0, 400)),
+            of("bundleCount", new IntegerType(0, 40)),
+            of("asdBundles", new SequenceOfType("AdvisorySituationBundle", ADVISORY_SITUATION_BUNDLE, 0, 4)));
+
+    /** DataAcceptance ::= SEQUENCE { dialogID SemiDialogID, seqID SemiSequenceID, groupID GroupID,
+     *  requestID TemporaryID } */
+    static final SequenceType DATA_ACCEPTANCE = new SequenceType(false,
+            of("dialogID", DIALOG_ID),
+            of("seqID", SEQUENCE_ID),
+            of("groupID", OCTETS_4),
+            of("requestID", OCTETS_4));
+
+    /** DataReceipt ::= SEQUENCE { dialogID SemiDialogID, seqID SemiSequenceID, groupID GroupID,
+     *  requestID TemporaryID } */
+    static final SequenceType DATA_RECEIPT = new SequenceType(false,
+            of("dialogID", DIALOG_ID),
+            of("seqID", SEQUENCE_ID),
+            of("groupID", OCTETS_4),
+            of("requestID", OCTETS_4));
+
+    /**
+     * Prevents this class from being instantiated
+     */
+    private SemiSchema() { }
+}
@@ -0,0 +1,81 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.EngineFailedException.Reason;
+
+/** SEQUENCE (SIZE(lb..ub)) OF, encoded in PER as the count as a constrained whole number followed by each element,
+ *  and in XER as an element for each element, named after the element's type
+ *
+ * @author andrew
+ *
+ */
+final class SequenceOfType extends SchemaType
+{
+    /** Create the type
+     *
+     * @param elementName Name of the elements' type, which is the name of each element's XER element
+     * @param element Type of the elements
+     * @param lowerBound Fewest elements allowed
+     * @param upperBound Most elements allowed
+     */
+    SequenceOfType(String elementName, SchemaType element, int lowerBound, int upperBound)
+    {
+        this.elementName = elementName;
+        this.element = element;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.width = bitsFor(upperBound - lowerBound);
+        this.startTag = "<" + elementName + ">";
+        this.endTag = "</" + elementName + ">";
+    }
+
+    @Override
+    void toXer(BitReader per, StringBuilder xer) throws EngineFailedException
+    {
+        final int count = lowerBound + (int) per.bits(width);
+        for (int i = 0; i < count; ++i) {
+            xer.append(startTag);
+            element.toXer(per, xer);
+            xer.append(endTag);
+        }
+    }
+
+    @Override
+    void toPer(XerReader xer, BitWriter per) throws EngineFailedException
+    {
+        final long countOffset = per.position();
+        per.skip(width);
+
+        int count = 0;
+        while (xer.start(elementName)) {
+            element.toPer(xer, per);
+            xer.end(elementName);
+            ++count;
+        }
+
+        if (count < lowerBound || count > upperBound) {
+            throw new EngineFailedException(Reason.UNENCODABLE, count + " elements is outside the size " + lowerBound + ".." + upperBound);
+        }
+        per.set(countOffset, count - lowerBound, width);
+    }
+
+    /** Name of the elements' XER elements */
+    private final String elementName;
+
+    /** Type of the elements */
+    private final SchemaType element;
+
+    /** Fewest elements allowed */
+    private final int lowerBound;
+
+    /** Most elements allowed */
+    private final int upperBound;
+
+    /** Number of bits in the count */
+    private final int width;
+
+    /** Start tag of each element */
+    private final String startTag;
+
+    /** End tag of each element */
+    private final String endTag;
+}
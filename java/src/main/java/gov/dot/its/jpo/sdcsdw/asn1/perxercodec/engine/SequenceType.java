@@ -0,0 +1,127 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+/** SEQUENCE, encoded in PER as a bit for each OPTIONAL component saying if it is present, followed by the components
+ *  which are, and in XER as an element for each component which is present
+ *
+ * <p>
+ *
+ * An extensible SEQUENCE starts with a bit saying if extension additions follow the root components. None of the
+ * SEQUENCEs in SEMI have any additions, so any which are found are skipped, as asn1c does for additions it does not
+ * know, and additions are never written.
+ *
+ * @author andrew
+ *
+ */
+final class SequenceType extends SchemaType
+{
+    /** Create the type
+     *
+     * @param extensible If the SEQUENCE ends with an extension marker
+     * @param components The root components, in order
+     */
+    SequenceType(boolean extensible, Component... components)
+    {
+        this.extensible = extensible;
+        this.components = components;
+
+        int optionalCount = 0;
+        for (Component component : components) {
+            if (component.optional) {
+                ++optionalCount;
+            }
+        }
+        this.optionalCount = optionalCount;
+    }
+
+    @Override
+    void toXer(BitReader per, StringBuilder xer) throws EngineFailedException
+    {
+        final boolean extended = extensible && per.bit();
+        final long presence = per.bits(optionalCount);
+
+        int optionalIndex = optionalCount;
+        for (Component component : components) {
+            if (component.optional && (presence & (1L << --optionalIndex)) == 0) {
+                continue;
+            }
+            xer.append(component.startTag);
+            component.type.toXer(per, xer);
+            xer.append(component.endTag);
+        }
+
+        if (extended) {
+            skipAdditions(per);
+        }
+    }
+
+    @Override
+    void toPer(XerReader xer, BitWriter per) throws EngineFailedException
+    {
+        if (extensible) {
+            per.bit(false);
+        }
+        final long presenceOffset = per.position();
+        per.skip(optionalCount);
+
+        int optionalIndex = 0;
+        for (Component component : components) {
+            if (xer.start(component.name)) {
+                component.type.toPer(xer, per);
+                xer.end(component.name);
+                if (component.optional) {
+                    per.set(presenceOffset + optionalIndex, 1, 1);
+                }
+            } else if (!component.optional) {
+                throw xer.expected("<" + component.name + ">");
+            }
+            if (component.optional) {
+                ++optionalIndex;
+            }
+        }
+
+        if (extensible) {
+            while (!xer.atEnd()) {
+                xer.skipElement();
+            }
+        }
+    }
+
+    /** Get the number of bits before the first component, which is where the first component starts
+     *
+     * @return Number of bits of extension marker and presence bits
+     */
+    int preambleBits()
+    {
+        return (extensible ? 1 : 0) + optionalCount;
+    }
+
+    /** Skip the extension additions which follow the root components
+     *
+     * @param per PER data, positioned after the root components
+     * @throws EngineFailedException If the additions are not encoded correctly
+     */
+    private static void skipAdditions(BitReader per) throws EngineFailedException
+    {
+        final int count = per.normallySmallLength();
+        int present = 0;
+        for (int i = 0; i < count; ++i) {
+            if (per.bit()) {
+                ++present;
+            }
+        }
+
+        // Each addition present is an open type, a length in octets followed by that many octets
+        for (int i = 0; i < present; ++i) {
+            per.skip(per.length() * 8L);
+        }
+    }
+
+    /** If the SEQUENCE is extensible */
+    private final boolean extensible;
+
+    /** The root components */
+    private final Component[] components;
+
+    /** Number of OPTIONAL components */
+    private final int optionalCount;
+}
@@ -0,0 +1,49 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.EngineFailedException.Reason;
+
+/** A type the engine does not convert, for OPTIONAL components which SEMI messages leave out
+ *
+ * <p>
+ *
+ * Messages where the component is absent convert normally; a message where it is present fails, and must be
+ * converted by the native backend instead.
+ *
+ * @author andrew
+ *
+ */
+final class UnsupportedType extends SchemaType
+{
+    /** Create the type
+     *
+     * @param name Name of the type, for error messages
+     */
+    UnsupportedType(String name)
+    {
+        this.name = name;
+    }
+
+    @Override
+    void toXer(BitReader per, StringBuilder xer) throws EngineFailedException
+    {
+        throw unsupported();
+    }
+
+    @Override
+    void toPer(XerReader xer, BitWriter per) throws EngineFailedException
+    {
+        throw unsupported();
+    }
+
+    /** Build the exception for meeting a value of this type
+     *
+     * @return The exception
+     */
+    private EngineFailedException unsupported()
+    {
+        return new EngineFailedException(Reason.MALFORMED, name + " is not supported by the pure Java engine");
+    }
+
+    /** Name of the type */
+    private final String name;
+}
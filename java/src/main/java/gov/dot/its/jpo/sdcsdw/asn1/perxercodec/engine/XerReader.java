@@ -0,0 +1,390 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+import java.util.Arrays;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.EngineFailedException.Reason;
+
+/** Pulls the elements and text of XER data in document order, without building a tree
+ *
+ * <p>
+ *
+ * Only what XER uses is understood: start, end, and empty element tags without attributes, whitespace between them,
+ * and text holding numbers or hexadecimal octets. The XML declaration, processing instructions, and comments are
+ * skipped wherever whitespace is allowed.
+ *
+ * @author andrew
+ *
+ */
+final class XerReader
+{
+    /** Create a reader
+     *
+     * @param xer The XER data
+     */
+    XerReader(CharSequence xer)
+    {
+        this.xer = xer;
+        this.length = xer.length();
+    }
+
+    /** Read the start tag of an element, if the next element has the given name
+     *
+     * @param name Name of the element
+     * @return True if the start tag was read, false if the next thing is not that element, and nothing was read
+     * @throws EngineFailedException If the data ended
+     */
+    boolean start(String name) throws EngineFailedException
+    {
+        if (empty) {
+            return false;
+        }
+
+        skipMisc();
+        if (position >= length || xer.charAt(position) != '<') {
+            return false;
+        }
+
+        int at = matchName(position + 1, name);
+        if (at < 0) {
+            return false;
+        }
+
+        at = skipWhitespace(at);
+        if (at < length && xer.charAt(at) == '>') {
+            position = at + 1;
+            return true;
+        } else if (at + 1 < length && xer.charAt(at) == '/' && xer.charAt(at + 1) == '>') {
+            position = at + 2;
+            empty = true;
+            return true;
+        }
+        return false;
+    }
+
+    /** Read the end tag of an element whose start tag was the last one read
+     *
+     * @param name Name of the element
+     * @throws EngineFailedException If the next thing is not the end tag
+     */
+    void end(String name) throws EngineFailedException
+    {
+        if (empty) {
+            empty = false;
+            return;
+        }
+
+        skipMisc();
+        if (position + 1 < length && xer.charAt(position) == '<' && xer.charAt(position + 1) == '/') {
+            int at = matchName(position + 2, name);
+            if (at >= 0) {
+                at = skipWhitespace(at);
+                if (at < length && xer.charAt(at) == '>') {
+                    position = at + 1;
+                    return;
+                }
+            }
+        }
+        throw expected("</" + name + ">");
+    }
+
+    /** Check if the next thing is an end tag, meaning the current element has no more children
+     *
+     * @return True if the next thing is an end tag
+     * @throws EngineFailedException If the data ended
+     */
+    boolean atEnd() throws EngineFailedException
+    {
+        if (empty) {
+            return true;
+        }
+
+        skipMisc();
+        if (position >= length) {
+            throw truncated();
+        }
+        return position + 1 < length && xer.charAt(position) == '<' && xer.charAt(position + 1) == '/';
+    }
+
+    /** Skip over the next element, including everything in it
+     *
+     * @throws EngineFailedException If the next thing is not an element, or the data ended inside it
+     */
+    void skipElement() throws EngineFailedException
+    {
+        skipMisc();
+        if (position >= length || xer.charAt(position) != '<') {
+            throw expected("an element");
+        }
+
+        int depth = 0;
+        do {
+            final int close = indexOf('>', position);
+            if (close < 0) {
+                throw truncated();
+            }
+            if (xer.charAt(position + 1) == '/') {
+                --depth;
+            } else if (xer.charAt(close - 1) != '/') {
+                ++depth;
+            }
+            position = close + 1;
+            if (depth > 0) {
+                position = indexOf('<', position);
+                if (position < 0) {
+                    throw truncated();
+                }
+            }
+        } while (depth > 0);
+    }
+
+    /** Read the text of an element holding an INTEGER
+     *
+     * @return The number
+     * @throws EngineFailedException If the text is not a number which fits in a long
+     */
+    long integer() throws EngineFailedException
+    {
+        if (empty) {
+            throw expected("a number");
+        }
+
+        position = skipWhitespace(position);
+        final int start = position;
+        boolean negative = false;
+        if (position < length && (xer.charAt(position) == '-' || xer.charAt(position) == '+')) {
+            negative = xer.charAt(position) == '-';
+            ++position;
+        }
+
+        long value = 0;
+        final int digits = position;
+        while (position < length) {
+            final int digit = xer.charAt(position) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                throw new EngineFailedException(Reason.UNENCODABLE, "Number at offset " + start + " is too large");
+            }
+            value = value * 10 + digit;
+            ++position;
+        }
+        if (position == digits) {
+            throw expected("a number");
+        }
+
+        position = skipWhitespace(position);
+        return negative ? -value : value;
+    }
+
+    /** Read the text of an element holding an OCTET STRING, as pairs of hexadecimal digits
+     *
+     * @return The octets
+     * @throws EngineFailedException If the text is not an even number of hexadecimal digits, ignoring whitespace
+     */
+    byte[] octets() throws EngineFailedException
+    {
+        if (empty) {
+            return EMPTY;
+        }
+
+        final int end = indexOf('<', position);
+        if (end < 0) {
+            throw truncated();
+        }
+
+        final byte[] octets = new byte[(end - position) / 2];
+        int count = 0;
+        int high = -1;
+        for (int i = position; i < end; ++i) {
+            final char c = xer.charAt(i);
+            final int nibble = c < 0x80 ? Character.digit(c, 16) : -1;
+            if (nibble < 0) {
+                if (Character.isWhitespace(c)) {
+                    continue;
+                }
+                position = i;
+                throw expected("hexadecimal digits");
+            } else if (high < 0) {
+                high = nibble;
+            } else {
+                octets[count++] = (byte) ((high << 4) | nibble);
+                high = -1;
+            }
+        }
+        if (high >= 0) {
+            position = end;
+            throw expected("an even number of hexadecimal digits");
+        }
+
+        position = end;
+        return count == octets.length ? octets : Arrays.copyOf(octets, count);
+    }
+
+    /** Read the content of an element holding an ENUMERATED or BOOLEAN, which is a single empty element naming the value
+     *
+     * @param names Names of the possible values
+     * @return Index of the value named
+     * @throws EngineFailedException If the content is not one of the names
+     */
+    int choice(String[] names) throws EngineFailedException
+    {
+        for (int i = 0; i < names.length; ++i) {
+            if (start(names[i])) {
+                end(names[i]);
+                return i;
+            }
+        }
+        throw expected("one of " + String.join(", ", names));
+    }
+
+    /** Check a name appears at an offset, followed by something which cannot continue it
+     *
+     * @param at Offset to look at
+     * @param name The name
+     * @return Offset just past the name, or -1 if it does not appear
+     */
+    private int matchName(int at, String name)
+    {
+        final int end = at + name.length();
+        if (end >= length) {
+            return -1;
+        }
+        for (int i = 0; i < name.length(); ++i) {
+            if (xer.charAt(at + i) != name.charAt(i)) {
+                return -1;
+            }
+        }
+
+        final char next = xer.charAt(end);
+        return next == '>' || next == '/' || Character.isWhitespace(next) ? end : -1;
+    }
+
+    /** Skip whitespace, the XML declaration, processing instructions, and comments
+     *
+     * @throws EngineFailedException If one of them is not closed
+     */
+    private void skipMisc() throws EngineFailedException
+    {
+        while (true) {
+            position = skipWhitespace(position);
+            if (startsWith("<?")) {
+                position = skipPast(position + 2, "?>");
+            } else if (startsWith("<!--")) {
+                position = skipPast(position + 4, "-->");
+            } else {
+                return;
+            }
+        }
+    }
+
+    /** Find the offset just past the next occurrence of some text
+     *
+     * @param from Offset to start looking from
+     * @param text Text to look for
+     * @return Offset just past the text
+     * @throws EngineFailedException If the text does not appear
+     */
+    private int skipPast(int from, String text) throws EngineFailedException
+    {
+        for (int i = from; i + text.length() <= length; ++i) {
+            if (regionMatches(i, text)) {
+                return i + text.length();
+            }
+        }
+        throw truncated();
+    }
+
+    /** Check if text appears at the current position
+     *
+     * @param text Text to look for
+     * @return True if it does
+     */
+    private boolean startsWith(String text)
+    {
+        return position + text.length() <= length && regionMatches(position, text);
+    }
+
+    /** Check if text appears at an offset
+     *
+     * @param at Offset to look at, which must leave room for the text
+     * @param text Text to look for
+     * @return True if it does
+     */
+    private boolean regionMatches(int at, String text)
+    {
+        for (int i = 0; i < text.length(); ++i) {
+            if (xer.charAt(at + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Find the next occurrence of a character
+     *
+     * @param c The character
+     * @param from Offset to start looking from
+     * @return Offset of the character, or -1 if it does not appear
+     */
+    private int indexOf(char c, int from)
+    {
+        for (int i = from; i < length; ++i) {
+            if (xer.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Find the first character which is not whitespace
+     *
+     * @param from Offset to start looking from
+     * @return Offset of the character, or the length of the data if there is none
+     */
+    private int skipWhitespace(int from)
+    {
+        int at = from;
+        while (at < length && Character.isWhitespace(xer.charAt(at))) {
+            ++at;
+        }
+        return at;
+    }
+
+    /** Build the exception for finding something other than what was expected at the current position
+     *
+     * @param expected Description of what was expected
+     * @return The exception, which says the data was truncated if it ends before the next tag does
+     */
+    EngineFailedException expected(String expected)
+    {
+        if (indexOf('>', position) < 0) {
+            return truncated();
+        }
+        return new EngineFailedException(Reason.MALFORMED, "Expected " + expected + " at offset " + position + " of XER data");
+    }
+
+    /** Build the exception for running out of data
+     *
+     * @return The exception
+     */
+    private EngineFailedException truncated()
+    {
+        return new EngineFailedException(Reason.TRUNCATED, "XER data ended after " + length + " characters, in the middle of the message");
+    }
+
+    /** Octets of an empty OCTET STRING */
+    private static final byte[] EMPTY = new byte[0];
+
+    /** The XER data */
+    private final CharSequence xer;
+
+    /** Number of characters of data */
+    private final int length;
+
+    /** Offset of the next character to read */
+    private int position;
+
+    /** If the last start tag read was an empty element tag, whose end has not been read */
+    private boolean empty;
+}
@@ -0,0 +1,12 @@
+/**
+ * This package provides a pure Java converter between unaligned PER and XER for the SEMI message types
+ *
+ * <p>
+ *
+ * {@link gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.SemiMessage} converts each type in {@link
+ * gov.dot.its.jpo.sdcsdw.asn1.perxercodec.Asn1Types} without the native library, writing the same canonical output as
+ * it, so that conversions can be inlined by the JIT and use no native memory. It is the engine behind the "java" {@link
+ * gov.dot.its.jpo.sdcsdw.asn1.perxercodec.CodecBackend}, and can also be used on its own. It rejects messages with
+ * Position3D regional extensions, which the native library converts.
+ */
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
@@ -0,0 +1,38 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception;
+
+/** Exception thrown when the codec's native library cannot be loaded, or does not match the java wrapper
+ *
+ * <p>
+ *
+ * Unlike the other exceptions of the codec, this is unchecked, since no conversion can succeed until the deployment
+ * itself is fixed.
+ *
+ * @author andrew
+ *
+ */
+public class NativeLibraryException extends RuntimeException
+{
+	/**
+	 * Create a new NativeLibraryException from a message and a cause
+	 * @param msg Message for this exception
+	 * @param cause Cause of this exception
+	 */
+	public NativeLibraryException(String msg, Throwable cause)
+	{
+		super(msg, cause);
+	}
+
+	/**
+	 * Create a new NativeLibraryException from a message
+	 * @param msg Message for this exception
+	 */
+	public NativeLibraryException(String msg)
+	{
+		super(msg);
+	}
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = -3180641722466015447L;
+}
@@ -0,0 +1,381 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.flow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec.ConversionResult;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecException;
+
+/** Processor which converts each item it receives on an executor, and publishes the result of each conversion
+ *
+ * <p>
+ *
+ * Items are only requested from upstream once the subscriber has asked for the results they will produce, and never
+ * more than the parallelism at once, so no more than that many items are ever held, whether converting or waiting to
+ * be published. A conversion which fails with a {@link CodecException} is published as a failed
+ * {@link ConversionResult} and does not stop the stream. Any other exception is treated as a bug, and ends the stream
+ * with an error.
+ *
+ * <p>
+ *
+ * Only one subscriber is supported; any further subscriber is immediately sent an error.
+ *
+ * @author andrew
+ *
+ * @param <I> Type of item received
+ * @param <O> Type of data produced by each conversion
+ */
+abstract class ConversionProcessor<I, O> implements Flow.Processor<I, ConversionResult<O>>
+{
+    /** Create a processor
+     *
+     * @param parallelism Maximum number of items held at once, converting or waiting to be published
+     * @param ordered If results should be published in the order items were received,
+     *                rather than in the order their conversions finished
+     * @param executor Executor to run conversions on
+     */
+    ConversionProcessor(int parallelism, boolean ordered, Executor executor)
+    {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        } else if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+        this.executor = executor;
+    }
+
+    /** Convert a single item
+     *
+     * @param item The item to convert
+     * @return The converted data
+     * @throws CodecException If the item could not be converted
+     */
+    abstract O convert(I item) throws CodecException;
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ConversionResult<O>> subscriber)
+    {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null");
+        }
+
+        synchronized (lock) {
+            if (downstream == null) {
+                downstream = subscriber;
+            } else {
+                subscriber.onSubscribe(new CancelledSubscription());
+                subscriber.onError(new IllegalStateException("Processor already has a subscriber"));
+                return;
+            }
+        }
+
+        subscriber.onSubscribe(new DownstreamSubscription());
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription)
+    {
+        boolean duplicate;
+        synchronized (lock) {
+            duplicate = upstream != null;
+            if (!duplicate) {
+                upstream = subscription;
+            }
+        }
+
+        if (duplicate) {
+            subscription.cancel();
+        } else {
+            drain();
+        }
+    }
+
+    @Override
+    public void onNext(I item)
+    {
+        final Slot<O> slot = new Slot<>();
+        synchronized (lock) {
+            if (done) {
+                return;
+            }
+            --requested;
+            ++held;
+            if (ordered) {
+                slots.add(slot);
+            }
+        }
+
+        try {
+            executor.execute(() -> complete(slot, item));
+        } catch (RejectedExecutionException ex) {
+            fail(ex);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable)
+    {
+        synchronized (lock) {
+            if (upstreamDone) {
+                return;
+            }
+            upstreamDone = true;
+            upstreamError = throwable;
+        }
+        drain();
+    }
+
+    @Override
+    public void onComplete()
+    {
+        synchronized (lock) {
+            upstreamDone = true;
+        }
+        drain();
+    }
+
+    /** Convert an item, and queue its result for publishing
+     *
+     * @param slot Where to put the result
+     * @param item The item to convert
+     */
+    private void complete(Slot<O> slot, I item)
+    {
+        ConversionResult<O> result;
+        try {
+            result = new ConversionResult<O>(convert(item));
+        } catch (CodecException ex) {
+            result = new ConversionResult<O>(ex);
+        } catch (RuntimeException ex) {
+            fail(ex);
+            return;
+        }
+
+        synchronized (lock) {
+            slot.result = result;
+            if (!ordered) {
+                slots.add(slot);
+            }
+        }
+        drain();
+    }
+
+    /** End the stream with an error, without waiting for held items
+     *
+     * @param throwable The error
+     */
+    private void fail(Throwable throwable)
+    {
+        Flow.Subscription toCancel;
+        synchronized (lock) {
+            if (done) {
+                return;
+            }
+            toCancel = upstream;
+            upstreamDone = true;
+            upstreamError = throwable;
+            slots.clear();
+            held = 0;
+        }
+
+        if (toCancel != null) {
+            toCancel.cancel();
+        }
+        drain();
+    }
+
+    /** Publish whatever results there is demand for, request more items if there is room, and finish the stream
+     *  if everything has been published
+     *
+     * <p>
+     *
+     * Only one thread drains at a time, any other thread which calls this while a drain is in progress leaves the
+     * work to that thread, so results are never published concurrently.
+     */
+    private void drain()
+    {
+        synchronized (lock) {
+            if (draining) {
+                missed = true;
+                return;
+            }
+            draining = true;
+        }
+
+        while (true) {
+            final List<ConversionResult<O>> toPublish = new ArrayList<>();
+            final Flow.Subscriber<? super ConversionResult<O>> subscriber;
+            final Flow.Subscription subscription;
+            long toRequest = 0;
+            boolean finish = false;
+            Throwable error = null;
+
+            synchronized (lock) {
+                subscriber = downstream;
+                subscription = upstream;
+
+                if (subscriber != null && !done) {
+                    while (demand > 0 && !slots.isEmpty() && slots.peek().result != null) {
+                        toPublish.add(slots.poll().result);
+                        --demand;
+                        --held;
+                    }
+
+                    if (upstreamDone) {
+                        if (held == 0) {
+                            finish = true;
+                            error = upstreamError;
+                            done = true;
+                        }
+                    } else if (subscription != null) {
+                        // Only ask for items which will fit, and which the subscriber already wants the results of
+                        long room = Math.min(parallelism, demand) - held - requested;
+                        if (room > 0) {
+                            toRequest = room;
+                            requested += room;
+                        }
+                    }
+                }
+
+                if (toPublish.isEmpty() && toRequest == 0 && !finish && !missed) {
+                    draining = false;
+                    return;
+                }
+                missed = false;
+            }
+
+            for (ConversionResult<O> result : toPublish) {
+                subscriber.onNext(result);
+            }
+            if (toRequest > 0) {
+                subscription.request(toRequest);
+            }
+            if (finish) {
+                if (error == null) {
+                    subscriber.onComplete();
+                } else {
+                    subscriber.onError(error);
+                }
+            }
+        }
+    }
+
+    /** Subscription handed to the subscriber
+     *
+     * @author andrew
+     *
+     */
+    private class DownstreamSubscription implements Flow.Subscription
+    {
+        @Override
+        public void request(long n)
+        {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Requested " + n + " results, which is not positive"));
+                return;
+            }
+
+            synchronized (lock) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel()
+        {
+            Flow.Subscription toCancel;
+            synchronized (lock) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                toCancel = upstream;
+                slots.clear();
+            }
+
+            if (toCancel != null) {
+                toCancel.cancel();
+            }
+        }
+    }
+
+    /** Subscription handed to subscribers which are refused
+     *
+     * @author andrew
+     *
+     */
+    private static class CancelledSubscription implements Flow.Subscription
+    {
+        @Override
+        public void request(long n) { }
+
+        @Override
+        public void cancel() { }
+    }
+
+    /** Place for the result of one conversion, in publishing order
+     *
+     * @author andrew
+     *
+     * @param <O> Type of data produced by the conversion
+     */
+    private static class Slot<O>
+    {
+        /** The result, or null while the conversion is still running */
+        ConversionResult<O> result;
+    }
+
+    /** Maximum number of items held at once */
+    private final int parallelism;
+
+    /** If results are published in the order items were received */
+    private final boolean ordered;
+
+    /** Executor conversions run on */
+    private final Executor executor;
+
+    /** Guards all of the mutable state below */
+    private final Object lock = new Object();
+
+    /** Results waiting to be published: every held item in order if ordered, otherwise only the finished ones */
+    private final ArrayDeque<Slot<O>> slots = new ArrayDeque<>();
+
+    /** The subscriber, or null if there is none yet */
+    private Flow.Subscriber<? super ConversionResult<O>> downstream;
+
+    /** Subscription to upstream, or null if not yet subscribed */
+    private Flow.Subscription upstream;
+
+    /** Number of results the subscriber has asked for and not yet been sent */
+    private long demand;
+
+    /** Number of items requested from upstream and not yet received */
+    private long requested;
+
+    /** Number of items received whose results have not yet been published */
+    private long held;
+
+    /** If upstream has finished, or the stream has failed */
+    private boolean upstreamDone;
+
+    /** Error to end the stream with, or null to complete it normally */
+    private Throwable upstreamError;
+
+    /** If the subscriber has been sent its final signal, or has cancelled */
+    private boolean done;
+
+    /** If a thread is draining */
+    private boolean draining;
+
+    /** If drain was called while another thread was draining */
+    private boolean missed;
+}
@@ -0,0 +1,93 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.flow;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.Asn1Type;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerDataUnformatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerDataFormatter;
+
+/** Processor which converts a stream of PER encoded data into a stream of XER conversion results
+ *
+ * <p>
+ *
+ * Each item is converted as if by
+ * {@link PerXerCodec#perToXer(Asn1Type, Object, PerDataUnformatter, XerDataFormatter) PerXerCodec.perToXer}.
+ *
+ * @author andrew
+ *
+ * @param <PER> Input type representing PER data
+ * @param <PerT> Wrapper around PER
+ * @param <XER> Output type representing XER data
+ * @param <XerT> Wrapper around XER
+ */
+public class PerToXerProcessor<PER, PerT extends PerData<PER>, XER, XerT extends XerData<XER>>
+    extends ConversionProcessor<PER, XER>
+{
+    /** Create a processor which converts on the common fork-join pool
+     *
+     * @param type The type every item contains
+     * @param perUnformatter A hint as to how the PER data is represented in memory
+     * @param xerFormatter A hint as to how to represent output XER in memory
+     * @param parallelism Maximum number of items held at once, converting or waiting to be published
+     * @param ordered If results should be published in the order items were received
+     */
+    public PerToXerProcessor(Asn1Type type,
+                             PerDataUnformatter<PER, PerT> perUnformatter,
+                             XerDataFormatter<XER, XerT> xerFormatter,
+                             int parallelism,
+                             boolean ordered)
+    {
+        this(type, perUnformatter, xerFormatter, parallelism, ordered, ForkJoinPool.commonPool());
+    }
+
+    /** Create a processor
+     *
+     * @param type The type every item contains
+     * @param perUnformatter A hint as to how the PER data is represented in memory
+     * @param xerFormatter A hint as to how to represent output XER in memory
+     * @param parallelism Maximum number of items held at once, converting or waiting to be published
+     * @param ordered If results should be published in the order items were received
+     * @param executor Executor to run conversions on
+     */
+    public PerToXerProcessor(Asn1Type type,
+                             PerDataUnformatter<PER, PerT> perUnformatter,
+                             XerDataFormatter<XER, XerT> xerFormatter,
+                             int parallelism,
+                             boolean ordered,
+                             Executor executor)
+    {
+        super(parallelism, ordered, executor);
+
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        } else if (perUnformatter == null) {
+            throw new IllegalArgumentException("PER Unformatter cannot be null");
+        } else if (xerFormatter == null) {
+            throw new IllegalArgumentException("XER Formatter cannot be null");
+        }
+
+        this.type = type;
+        this.perUnformatter = perUnformatter;
+        this.xerFormatter = xerFormatter;
+    }
+
+    @Override
+    XER convert(PER item) throws CodecException
+    {
+        return PerXerCodec.perToXer(type, item, perUnformatter, xerFormatter);
+    }
+
+    /** The type every item contains */
+    private final Asn1Type type;
+
+    /** How PER data is represented in memory */
+    private final PerDataUnformatter<PER, PerT> perUnformatter;
+
+    /** How to represent output XER in memory */
+    private final XerDataFormatter<XER, XerT> xerFormatter;
+}
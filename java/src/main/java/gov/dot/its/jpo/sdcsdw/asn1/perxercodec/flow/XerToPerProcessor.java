@@ -0,0 +1,93 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.flow;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.Asn1Type;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerDataFormatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerDataUnformatter;
+
+/** Processor which converts a stream of XER encoded data into a stream of PER conversion results
+ *
+ * <p>
+ *
+ * Each item is converted as if by
+ * {@link PerXerCodec#xerToPer(Asn1Type, Object, XerDataUnformatter, PerDataFormatter) PerXerCodec.xerToPer}.
+ *
+ * @author andrew
+ *
+ * @param <XER> Input type representing XER data
+ * @param <XerT> Wrapper around XER
+ * @param <PER> Output type representing PER data
+ * @param <PerT> Wrapper around PER
+ */
+public class XerToPerProcessor<XER, XerT extends XerData<XER>, PER, PerT extends PerData<PER>>
+    extends ConversionProcessor<XER, PER>
+{
+    /** Create a processor which converts on the common fork-join pool
+     *
+     * @param type The type every item contains
+     * @param xerUnformatter A hint as to how the XER data is represented in memory
+     * @param perFormatter A hint as to how to represent output PER in memory
+     * @param parallelism Maximum number of items held at once, converting or waiting to be published
+     * @param ordered If results should be published in the order items were received
+     */
+    public XerToPerProcessor(Asn1Type type,
+                             XerDataUnformatter<XER, XerT> xerUnformatter,
+                             PerDataFormatter<PER, PerT> perFormatter,
+                             int parallelism,
+                             boolean ordered)
+    {
+        this(type, xerUnformatter, perFormatter, parallelism, ordered, ForkJoinPool.commonPool());
+    }
+
+    /** Create a processor
+     *
+     * @param type The type every item contains
+     * @param xerUnformatter A hint as to how the XER data is represented in memory
+     * @param perFormatter A hint as to how to represent output PER in memory
+     * @param parallelism Maximum number of items held at once, converting or waiting to be published
+     * @param ordered If results should be published in the order items were received
+     * @param executor Executor to run conversions on
+     */
+    public XerToPerProcessor(Asn1Type type,
+                             XerDataUnformatter<XER, XerT> xerUnformatter,
+                             PerDataFormatter<PER, PerT> perFormatter,
+                             int parallelism,
+                             boolean ordered,
+                             Executor executor)
+    {
+        super(parallelism, ordered, executor);
+
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        } else if (xerUnformatter == null) {
+            throw new IllegalArgumentException("XER Unformatter cannot be null");
+        } else if (perFormatter == null) {
+            throw new IllegalArgumentException("PER Formatter cannot be null");
+        }
+
+        this.type = type;
+        this.xerUnformatter = xerUnformatter;
+        this.perFormatter = perFormatter;
+    }
+
+    @Override
+    PER convert(XER item) throws CodecException
+    {
+        return PerXerCodec.xerToPer(type, item, xerUnformatter, perFormatter);
+    }
+
+    /** The type every item contains */
+    private final Asn1Type type;
+
+    /** How XER data is represented in memory */
+    private final XerDataUnformatter<XER, XerT> xerUnformatter;
+
+    /** How to represent output PER in memory */
+    private final PerDataFormatter<PER, PerT> perFormatter;
+}
@@ -0,0 +1,11 @@
+/**
+ * This package provides {@link java.util.concurrent.Flow.Processor} stages which run the codec over a stream of data
+ *
+ * <p>
+ *
+ * Each processor publishes one {@link gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec.ConversionResult} per item
+ * it receives, which holds either the converted data or the exception the conversion failed with. Items are only
+ * pulled from upstream as the downstream subscriber asks for results, and up to a fixed number are converted in
+ * parallel.
+ */
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.flow;
@@ -1,8 +1,12 @@
 package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
-
-import javax.xml.bind.DatatypeConverter;
+import java.util.Base64;
 
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.UnformattingFailedException;
 
@@ -23,7 +27,7 @@ public class Base64PerData implements PerData<String>
         this.base64PerData = base64PerData;
         
         try {
-            this.perData = DatatypeConverter.parseBase64Binary(base64PerData);
+            this.perData = decoder.decode(base64PerData);
         } catch (IllegalArgumentException ex) {
             throw new UnformattingFailedException("String did not contain valid base-64 data", ex);
         }
@@ -36,7 +40,147 @@ public class Base64PerData implements PerData<String>
     public Base64PerData(byte[] perData)
     {
         this.perData = perData;
-        this.base64PerData = DatatypeConverter.printBase64Binary(perData);
+        this.base64PerData = encoder.encodeToString(perData);
+    }
+    
+    /** Decode base64 characters held in a byte buffer, e.g. straight off the wire, into an existing buffer
+     * 
+     * <p>
+     * 
+     * The characters between the source's position and limit are decoded, and the source's position is advanced past them.
+     * The decoded bytes are written at the destination's position, which is advanced past them.
+     * As when decoding strings, characters outside the base64 alphabet are ignored.
+     * 
+     * @param base64PerData Buffer containing PER data formatted as base64 characters
+     * @param dest Buffer to decode into
+     * @return The number of bytes decoded
+     * @throws UnformattingFailedException If the characters could not be interpreted
+     * @throws BufferOverflowException If dest does not have room for all of the decoded bytes
+     */
+    public static int decode(ByteBuffer base64PerData, ByteBuffer dest) throws UnformattingFailedException
+    {
+        if (base64PerData == null) {
+            throw new IllegalArgumentException("base64PerData cannot be null");
+        } else if (dest == null) {
+            throw new IllegalArgumentException("dest cannot be null");
+        }
+        
+        return decode(new ByteBufferInputStream(base64PerData), dest);
+    }
+    
+    /** Decode part of a sequence of base64 characters into an existing buffer
+     * 
+     * <p>
+     * 
+     * The decoded bytes are written at the destination's position, which is advanced past them.
+     * As when decoding strings, characters outside the base64 alphabet are ignored.
+     * 
+     * @param base64PerData PER data formatted as base64 characters, e.g. a String or CharBuffer
+     * @param start Index of the first character to decode
+     * @param end Index just past the last character to decode
+     * @param dest Buffer to decode into
+     * @return The number of bytes decoded
+     * @throws UnformattingFailedException If the characters could not be interpreted
+     * @throws BufferOverflowException If dest does not have room for all of the decoded bytes
+     */
+    public static int decode(CharSequence base64PerData, int start, int end, ByteBuffer dest) throws UnformattingFailedException
+    {
+        if (base64PerData == null) {
+            throw new IllegalArgumentException("base64PerData cannot be null");
+        } else if (dest == null) {
+            throw new IllegalArgumentException("dest cannot be null");
+        } else if (start < 0 || end > base64PerData.length() || start > end) {
+            throw new IndexOutOfBoundsException("Region " + start + " to " + end + " is outside of a sequence of length " + base64PerData.length());
+        }
+        
+        return decode(new CharSequenceInputStream(base64PerData, start, end), dest);
+    }
+    
+    /** Encode bytes as base64 characters straight into a byte buffer, e.g. one about to be written to the wire
+     * 
+     * <p>
+     * 
+     * The bytes between the source's position and limit are encoded, and the source's position is advanced past them.
+     * The characters are written as ASCII at the destination's position, which is advanced past them.
+     * 
+     * @param perData Buffer containing PER data
+     * @param dest Buffer to encode into, which must have room for {@link #encodedLength(int)} bytes
+     * @return The number of characters written
+     * @throws BufferOverflowException If dest does not have room for all of the characters
+     */
+    public static int encode(ByteBuffer perData, ByteBuffer dest)
+    {
+        if (perData == null) {
+            throw new IllegalArgumentException("perData cannot be null");
+        } else if (dest == null) {
+            throw new IllegalArgumentException("dest cannot be null");
+        }
+        
+        final int charCount = encodedLength(perData.remaining());
+        if (dest.remaining() < charCount) {
+            throw new BufferOverflowException();
+        }
+        
+        try (OutputStream out = encoder.wrap(new ByteBufferOutputStream(dest))) {
+            if (perData.hasArray()) {
+                out.write(perData.array(), perData.arrayOffset() + perData.position(), perData.remaining());
+                perData.position(perData.limit());
+            } else {
+                while (perData.hasRemaining()) {
+                    out.write(perData.get());
+                }
+            }
+        } catch (IOException ex) {
+            // The underlying buffer stream never throws
+            throw new IllegalStateException(ex);
+        }
+        
+        return charCount;
+    }
+    
+    /** Find how many characters encoding bytes as base64 takes
+     * 
+     * @param byteCount Number of bytes to encode
+     * @return The number of characters, including padding
+     */
+    public static int encodedLength(int byteCount)
+    {
+        return Math.multiplyExact((byteCount + 2) / 3, 4);
+    }
+    
+    /** Decode a stream of base64 characters into a buffer
+     * 
+     * @param base64PerData Stream of base64 characters
+     * @param dest Buffer to decode into
+     * @return The number of bytes decoded
+     * @throws UnformattingFailedException If the characters could not be interpreted
+     * @throws BufferOverflowException If dest does not have room for all of the decoded bytes
+     */
+    private static int decode(InputStream base64PerData, ByteBuffer dest) throws UnformattingFailedException
+    {
+        try (InputStream in = decoder.wrap(base64PerData)) {
+            final int start = dest.position();
+            
+            if (dest.hasArray()) {
+                int read;
+                while (dest.hasRemaining() && (read = in.read(dest.array(), dest.arrayOffset() + dest.position(), dest.remaining())) > 0) {
+                    dest.position(dest.position() + read);
+                }
+            } else {
+                int b;
+                while (dest.hasRemaining() && (b = in.read()) >= 0) {
+                    dest.put((byte) b);
+                }
+            }
+            
+            if (in.read() >= 0) {
+                throw new BufferOverflowException();
+            }
+            
+            return dest.position() - start;
+        } catch (IOException ex) {
+            throw new UnformattingFailedException("Buffer did not contain valid base-64 data", ex);
+        }
     }
 
     /**
@@ -79,7 +223,7 @@ public class Base64PerData implements PerData<String>
         if (obj == null)
             return false;
         if (obj instanceof PerData<?>) {
-            return ((PerData<?>) obj).getPerData().equals(perData);
+            return Arrays.equals(((PerData<?>) obj).getPerData(), perData);
         }
         return false;
     }
@@ -99,4 +243,120 @@ public class Base64PerData implements PerData<String>
      * 
      */
     private final byte[] perData;
+    
+    /**
+     * Decoder for all base64 data, which ignores line breaks and any other characters outside the base64 alphabet
+     */
+    private static final Base64.Decoder decoder = Base64.getMimeDecoder();
+    
+    /**
+     * Encoder for all base64 data, which produces a single unbroken line
+     */
+    private static final Base64.Encoder encoder = Base64.getEncoder();
+    
+    /** Stream which reads bytes from a buffer, advancing its position
+     * 
+     */
+    private static class ByteBufferInputStream extends InputStream
+    {
+        /** Create a stream which reads from a buffer
+         * 
+         * @param buffer Buffer to read from
+         */
+        ByteBufferInputStream(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+        
+        @Override
+        public int read()
+        {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len)
+        {
+            if (len == 0) {
+                return 0;
+            } else if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            
+            final int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+        
+        /** Buffer to read from */
+        private final ByteBuffer buffer;
+    }
+    
+    /** Stream which reads characters from part of a sequence as bytes
+     * 
+     */
+    private static class CharSequenceInputStream extends InputStream
+    {
+        /** Create a stream which reads part of a sequence
+         * 
+         * @param chars Sequence to read from
+         * @param start Index of the first character to read
+         * @param end Index just past the last character to read
+         */
+        CharSequenceInputStream(CharSequence chars, int start, int end)
+        {
+            this.chars = chars;
+            this.index = start;
+            this.end = end;
+        }
+        
+        @Override
+        public int read()
+        {
+            if (index >= end) {
+                return -1;
+            }
+            
+            // Anything outside of ASCII is outside of the base64 alphabet too, so it is passed on as such
+            final char c = chars.charAt(index++);
+            return c < 0x80 ? c : 0xFF;
+        }
+        
+        /** Sequence to read from */
+        private final CharSequence chars;
+        /** Index of the next character to read */
+        private int index;
+        /** Index just past the last character to read */
+        private final int end;
+    }
+    
+    /** Stream which writes bytes into a buffer, advancing its position
+     * 
+     */
+    private static class ByteBufferOutputStream extends OutputStream
+    {
+        /** Create a stream which writes to a buffer
+         * 
+         * @param buffer Buffer to write to
+         */
+        ByteBufferOutputStream(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+        
+        @Override
+        public void write(int b)
+        {
+            buffer.put((byte) b);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len)
+        {
+            buffer.put(b, off, len);
+        }
+        
+        /** Buffer to write to */
+        private final ByteBuffer buffer;
+    }
 }
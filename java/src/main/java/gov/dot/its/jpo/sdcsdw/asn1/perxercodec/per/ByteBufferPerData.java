@@ -36,10 +36,17 @@ public class ByteBufferPerData implements PerData<ByteBuffer>
      */
     public static final PerDataUnformatter<ByteBuffer, ByteBufferPerData> unformatter = ByteBufferPerData::new;
 
+	/** Copy the bytes between the buffer's position and limit
+	 * 
+	 * <p>
+	 * 
+	 * The buffer's position is left untouched, so this may be called any number of times
+	 */
 	@Override
 	public byte[] getPerData() {
-		byte[] perData = new byte[perBuffer.capacity()];
-		perBuffer.get(perData);
+		final ByteBuffer view = perBuffer.duplicate();
+		byte[] perData = new byte[view.remaining()];
+		view.get(perData);
 		return perData;
 	}
 
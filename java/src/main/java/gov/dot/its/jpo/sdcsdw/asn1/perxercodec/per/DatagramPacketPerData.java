@@ -44,7 +44,7 @@ public class DatagramPacketPerData implements PerData<DatagramPacket>
 		if (perPacket.getOffset() == 0 && perPacket.getData().length == perPacket.getLength()) {
 			return perPacket.getData();
 		} else {
-			return Arrays.copyOfRange(perPacket.getData(), perPacket.getOffset(), perPacket.getLength());
+			return Arrays.copyOfRange(perPacket.getData(), perPacket.getOffset(), perPacket.getOffset() + perPacket.getLength());
 		}
 	}
 
@@ -1,5 +1,6 @@
 package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per;
 
+import java.io.IOException;
 import java.util.Arrays;
 
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.UnformattingFailedException;
@@ -17,6 +18,7 @@ public class HexPerData implements PerData<String>
      * 
      * Each character in hexPerData should be 0-9, a-f, A-F, x, or whitespace
      * If whitespace is present, digits should be grouped into bytes, i.e. two digits
+     * Whitespace may follow the last byte, but may not come before the first
      * A leading 0x or 0X is optional, but permitted, either as a single prefix, or a per-byte prefix
      * 
      * 
@@ -30,98 +32,299 @@ public class HexPerData implements PerData<String>
         }
         
         this.hexPerData = hexPerData;
+        this.perData = decode(hexPerData);
+    }
+    
+    /**
+     * Build a PER data object from a byte string
+     * @param perData Byte string containing PER data
+     */
+    public HexPerData(byte[] perData)
+    {
+        if (perData == null) {
+            throw new IllegalArgumentException("perData cannot be null");
+        }
         
-        final String lowerHexPerData = hexPerData.toLowerCase();
+        this.perData = perData;
+        final char[] hexPerData = new char[encodedLength(perData.length)];
+        encode(perData, hexPerData, 0);
+        this.hexPerData = new String(hexPerData);
+    }
+    
+    /** Decode a string of hexadecimal digits
+     * 
+     * <p>
+     * 
+     * Accepts the same formats as {@link #HexPerData(String)}.
+     * 
+     * @param hexPerData PER data formatted as hexadecimal digits, e.g. a String or CharBuffer
+     * @return The decoded bytes
+     * @throws UnformattingFailedException If the characters could not be interpreted
+     */
+    public static byte[] decode(CharSequence hexPerData) throws UnformattingFailedException
+    {
+        if (hexPerData == null) {
+            throw new IllegalArgumentException("hexPerData cannot be null");
+        }
         
-        final String prefix = "0x";
+        final byte[] perData = new byte[decodeInto(hexPerData, null, 0)];
+        decodeInto(hexPerData, perData, 0);
+        return perData;
+    }
+    
+    /** Decode a string of hexadecimal digits into an existing array
+     * 
+     * <p>
+     * 
+     * Accepts the same formats as {@link #HexPerData(String)}.
+     * 
+     * @param hexPerData PER data formatted as hexadecimal digits, e.g. a String or CharBuffer
+     * @param dest Array to decode into
+     * @param offset Index in dest to write the first byte at
+     * @return The number of bytes decoded
+     * @throws UnformattingFailedException If the characters could not be interpreted
+     */
+    public static int decode(CharSequence hexPerData, byte[] dest, int offset) throws UnformattingFailedException
+    {
+        if (hexPerData == null) {
+            throw new IllegalArgumentException("hexPerData cannot be null");
+        } else if (dest == null) {
+            throw new IllegalArgumentException("dest cannot be null");
+        }
+        
+        final int byteCount = decodedLength(hexPerData);
+        if (offset < 0 || offset > dest.length - byteCount) {
+            throw new IllegalArgumentException("dest does not have room for " + byteCount + " bytes at offset " + offset);
+        }
         
-        final String oneOrMoreSpacesRegex = "\\s+";
+        return decodeInto(hexPerData, dest, offset);
+    }
+    
+    /** Find how many bytes a string of hexadecimal digits will decode to, without decoding it
+     * 
+     * <p>
+     * 
+     * Only the layout of the digits is checked, so decoding may still fail if any of the digits are invalid.
+     * 
+     * @param hexPerData PER data formatted as hexadecimal digits
+     * @return The number of bytes
+     * @throws UnformattingFailedException If the digits are not laid out as bytes
+     */
+    public static int decodedLength(CharSequence hexPerData) throws UnformattingFailedException
+    {
+        if (hexPerData == null) {
+            throw new IllegalArgumentException("hexPerData cannot be null");
+        }
         
-        final String[] sections = lowerHexPerData.split(oneOrMoreSpacesRegex);
+        return decodeInto(hexPerData, null, 0);
+    }
+    
+    /** Encode bytes as hexadecimal digits, in the same format as {@link #getFormattedPerData()}
+     * 
+     * @param perData Bytes to encode
+     * @param out Destination for the digits
+     * @throws IOException If out could not be appended to
+     */
+    public static void encode(byte[] perData, Appendable out) throws IOException
+    {
+        if (perData == null) {
+            throw new IllegalArgumentException("perData cannot be null");
+        } else if (out == null) {
+            throw new IllegalArgumentException("out cannot be null");
+        }
         
-        if (hexPerData.length() == 0) {
+        for (byte b : perData) {
+            out.append(upperDigits[(b >> 4) & 0xF]);
+            out.append(upperDigits[b & 0xF]);
+            out.append(' ');
+        }
+    }
+    
+    /** Encode bytes as hexadecimal digits into an existing array, in the same format as {@link #getFormattedPerData()}
+     * 
+     * @param perData Bytes to encode
+     * @param dest Array to encode into, which must have room for {@link #encodedLength(int)} characters
+     * @param offset Index in dest to write the first character at
+     * @return The number of characters written
+     */
+    public static int encode(byte[] perData, char[] dest, int offset)
+    {
+        if (perData == null) {
+            throw new IllegalArgumentException("perData cannot be null");
+        } else if (dest == null) {
+            throw new IllegalArgumentException("dest cannot be null");
+        }
+        
+        final int charCount = encodedLength(perData.length);
+        if (offset < 0 || offset > dest.length - charCount) {
+            throw new IllegalArgumentException("dest does not have room for " + charCount + " characters at offset " + offset);
+        }
+        
+        int i = offset;
+        for (byte b : perData) {
+            dest[i++] = upperDigits[(b >> 4) & 0xF];
+            dest[i++] = upperDigits[b & 0xF];
+            dest[i++] = ' ';
+        }
+        
+        return charCount;
+    }
+    
+    /** Find how many characters encoding bytes as hexadecimal digits takes
+     * 
+     * @param byteCount Number of bytes to encode
+     * @return The number of characters
+     */
+    public static int encodedLength(int byteCount)
+    {
+        return Math.multiplyExact(byteCount, 3);
+    }
+    
+    /** Decode hexadecimal digits in a single pass, or just count the bytes they contain
+     * 
+     * @param hex Hexadecimal digits
+     * @param dest Array to decode into, or null to only check the layout and count the bytes
+     * @param offset Index in dest to write the first byte at
+     * @return The number of bytes
+     * @throws UnformattingFailedException If the characters could not be interpreted
+     */
+    private static int decodeInto(CharSequence hex, byte[] dest, int offset) throws UnformattingFailedException
+    {
+        final int start = 0;
+        int end = hex.length();
+        
+        if (end > 0 && isSeparator(hex.charAt(0))) {
+            throw new UnformattingFailedException("Hex digits cannot be preceded by whitespace");
+        }
+        while (end > start && isSeparator(hex.charAt(end - 1))) {
+            --end;
+        }
+        
+        if (start == end) {
             // Empty string, no data
-            perData = new byte[0];
-        } else if (sections.length == 1) {
+            return 0;
+        }
+        
+        final boolean prefixPresent = hasPrefix(hex, start, end);
+        
+        int firstSeparator = start;
+        while (firstSeparator < end && !isSeparator(hex.charAt(firstSeparator))) {
+            ++firstSeparator;
+        }
+        
+        if (firstSeparator == end) {
             // We have one big string of bytes
-            final String allBytesString = sections[0];
             
             // There has to be an even number of characters, even if we have the 0x prefix
-            if (allBytesString.length() % 2 != 0) {
+            if ((end - start) % 2 != 0) {
                 throw new UnformattingFailedException("Received an odd number of hex digits, must be provided as a complete set of bytes");
             }
             
-            // Strip off the prefix, if it's there
-            final String cleanedAllBytesString;
+            final int digitsStart = prefixPresent ? start + 2 : start;
+            final int byteCount = (end - digitsStart) / 2;
             
-            if (allBytesString.startsWith(prefix)) {
-                cleanedAllBytesString = allBytesString.substring(2);
-            } else {
-                cleanedAllBytesString = allBytesString;
-            }
-            
-            // Find out how many bytes we are going to decode
-            final int byteCount = cleanedAllBytesString.length() / 2;
-            
-            perData = new byte[byteCount];
-            
-            // Parse each byte as an unsigned 
-            for(int byteIndex = 0; byteIndex < byteCount; ++byteIndex) {
-                String byteChars = cleanedAllBytesString.substring(2 * byteIndex, 2 * byteIndex + 2);
-                perData[byteIndex] = (byte) Integer.parseInt(byteChars, 16); 
+            if (dest != null) {
+                for (int byteIndex = 0; byteIndex < byteCount; ++byteIndex) {
+                    dest[offset + byteIndex] = decodeByte(hex, digitsStart + 2 * byteIndex);
+                }
             }
             
-            // All good
+            return byteCount;
         } else {
-            // We have multiple bytes
-            
-            // Assume that all of the sections have or don't have the prefix
-            final boolean prefixPresent = sections[0].startsWith(prefix);
-            
-            final int byteCount = sections.length;
-            
-            perData = new byte[byteCount];
+            // We have one byte per whitespace separated section, all of which have or don't have the prefix
+            final int sectionLength = prefixPresent ? 4 : 2;
             
-            int byteIndex = 0;
-            
-            // For each assumption
-            for (String byteString : sections) {
-                // Remove the prefix, if its there
-                final String cleanedByteString;
+            int byteCount = 0;
+            int sectionStart = start;
+            while (sectionStart < end) {
+                int sectionEnd = sectionStart;
+                while (sectionEnd < end && !isSeparator(hex.charAt(sectionEnd))) {
+                    ++sectionEnd;
+                }
                 
                 // Enforce the all-or-nothing for prefixes
-                if ((prefixPresent && byteString.length() != 4) || (!prefixPresent && byteString.length() != 2)) {
+                if (sectionEnd - sectionStart != sectionLength || (prefixPresent && !hasPrefix(hex, sectionStart, sectionEnd))) {
                     throw new UnformattingFailedException("0x and non-0x bytes mis-matched");
                 }
                 
-                if (prefixPresent) {
-                    cleanedByteString = byteString.substring(2);
-                } else {
-                    cleanedByteString = byteString;
+                if (dest != null) {
+                    dest[offset + byteCount] = decodeByte(hex, sectionEnd - 2);
                 }
+                ++byteCount;
                 
-                // Parse the remaining characters
-                perData[byteIndex++] = (byte) Integer.parseInt(cleanedByteString, 16);
+                sectionStart = sectionEnd;
+                while (sectionStart < end && isSeparator(hex.charAt(sectionStart))) {
+                    ++sectionStart;
+                }
             }
+            
+            return byteCount;
         }
     }
     
-    /**
-     * Build a PER data object from a byte string
-     * @param perData Byte string containing PER data
+    /** Decode a pair of hexadecimal digits
+     * 
+     * @param hex Hexadecimal digits
+     * @param index Index of the high digit
+     * @return The decoded byte
+     * @throws UnformattingFailedException If either digit is not a hexadecimal digit
      */
-    public HexPerData(byte[] perData)
+    private static byte decodeByte(CharSequence hex, int index) throws UnformattingFailedException
     {
-        if (perData == null) {
-            throw new IllegalArgumentException("perData cannot be null");
+        final int high = digitValue(hex.charAt(index));
+        final int low = digitValue(hex.charAt(index + 1));
+        
+        if ((high | low) < 0) {
+            throw new UnformattingFailedException("Invalid hex digit in \"" + hex.subSequence(index, index + 2) + "\" at index " + index);
         }
         
-        this.perData = perData;
-        StringBuilder hexPerData = new StringBuilder();
-        for(byte b : perData) {
-            hexPerData.append(String.format("%02X ", b));
+        return (byte) ((high << 4) | low);
+    }
+    
+    /** Get the value of a hexadecimal digit
+     * 
+     * @param c Character to look up
+     * @return The value of the digit, or -1 if c is not a hexadecimal digit
+     */
+    private static int digitValue(char c)
+    {
+        return c < digitValues.length ? digitValues[c] : -1;
+    }
+    
+    /** Check if a section starts with the 0x prefix
+     * 
+     * @param hex Hexadecimal digits
+     * @param start Index the section starts at
+     * @param end Index just past the end of the section
+     * @return If the prefix is present
+     */
+    private static boolean hasPrefix(CharSequence hex, int start, int end)
+    {
+        return end - start >= 2 && hex.charAt(start) == '0' && (hex.charAt(start + 1) == 'x' || hex.charAt(start + 1) == 'X');
+    }
+    
+    /** Check if a character separates bytes, using the same definition of whitespace as the \s regular expression class
+     * 
+     * @param c Character to check
+     * @return If c is whitespace
+     */
+    private static boolean isSeparator(char c)
+    {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+    
+    /** Uppercase digit for each nibble value */
+    private static final char[] upperDigits = "0123456789ABCDEF".toCharArray();
+    
+    /** Value of each ASCII character as a hexadecimal digit, or -1 if it is not one */
+    private static final byte[] digitValues = new byte[128];
+    
+    static {
+        Arrays.fill(digitValues, (byte) -1);
+        for (int value = 0; value < 16; ++value) {
+            digitValues["0123456789abcdef".charAt(value)] = (byte) value;
+            digitValues["0123456789ABCDEF".charAt(value)] = (byte) value;
         }
-        this.hexPerData = hexPerData.toString();
     }
     
     /**
@@ -0,0 +1,543 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.udp;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.Asn1Type;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerDataFormatter;
+
+/** Receives PER encoded datagrams from a channel, and converts them to XER on a pool of worker threads
+ *
+ * <p>
+ *
+ * Datagrams are received straight into a fixed pool of direct buffers, which the native codec reads in place, so a
+ * datagram is never copied into a new array. Whenever the channel becomes readable, every waiting datagram is drained
+ * and handed to the workers in batches. Each datagram's type is detected from its SEMI header, and its buffer goes
+ * back to the pool as soon as it has been converted, before its result is handed to the consumer.
+ *
+ * <p>
+ *
+ * When every buffer is in use, nothing more is read from the channel until one is recycled, leaving datagrams to queue
+ * in the socket's receive buffer, and then be dropped by the operating system once it is full. A consumer which blocks
+ * therefore slows the intake down rather than growing the heap.
+ *
+ * <p>
+ *
+ * The consumer is called on the worker threads, so it must be thread safe. A datagram which fails to convert, for any
+ * reason, is handed to the consumer as a failed result. If the consumer throws, the rest of the datagrams in its batch
+ * are dropped, and the exception goes to the worker thread's uncaught exception handler.
+ *
+ * @author andrew
+ *
+ * @param <XER> Output type representing XER data
+ */
+public class DatagramIngest<XER> implements AutoCloseable
+{
+    /** Start receiving with one worker per available processor, and the default pool of buffers
+     *
+     * @param <XerT> Wrapper around XER
+     * @param channel Bound channel to receive from, which is switched to non-blocking mode
+     * @param xerFormatter A hint as to how to represent output XER in memory
+     * @param consumer Called with the result of converting each datagram
+     * @throws IOException If the channel could not be registered for receiving
+     */
+    public <XerT extends XerData<XER>>
+    DatagramIngest(DatagramChannel channel,
+                   XerDataFormatter<XER, XerT> xerFormatter,
+                   Consumer<? super IngestedDatagram<XER>> consumer)
+        throws IOException
+    {
+        this(channel,
+             xerFormatter,
+             consumer,
+             Runtime.getRuntime().availableProcessors(),
+             DEFAULT_BUFFER_COUNT,
+             MAX_DATAGRAM_SIZE,
+             DEFAULT_BATCH_SIZE);
+    }
+
+    /** Start receiving with one worker per available processor, and the default pool of buffers, putting results in a queue
+     *
+     * <p>
+     *
+     * Workers wait for room in the queue, so a bounded queue which fills up slows the intake down.
+     *
+     * @param <XerT> Wrapper around XER
+     * @param channel Bound channel to receive from, which is switched to non-blocking mode
+     * @param xerFormatter A hint as to how to represent output XER in memory
+     * @param queue Queue to put the result of converting each datagram in
+     * @throws IOException If the channel could not be registered for receiving
+     */
+    public <XerT extends XerData<XER>>
+    DatagramIngest(DatagramChannel channel,
+                   XerDataFormatter<XER, XerT> xerFormatter,
+                   BlockingQueue<? super IngestedDatagram<XER>> queue)
+        throws IOException
+    {
+        this(channel, xerFormatter, putter(queue));
+    }
+
+    /** Start receiving
+     *
+     * @param <XerT> Wrapper around XER
+     * @param channel Bound channel to receive from, which is switched to non-blocking mode
+     * @param xerFormatter A hint as to how to represent output XER in memory
+     * @param consumer Called with the result of converting each datagram
+     * @param workers Number of worker threads
+     * @param bufferCount Number of receive buffers, which bounds the number of datagrams received but not yet converted
+     * @param bufferSize Size of each receive buffer, larger datagrams fail to convert
+     * @param batchSize Most datagrams handed to a worker at once
+     * @throws IOException If the channel could not be registered for receiving
+     */
+    public <XerT extends XerData<XER>>
+    DatagramIngest(DatagramChannel channel,
+                   XerDataFormatter<XER, XerT> xerFormatter,
+                   Consumer<? super IngestedDatagram<XER>> consumer,
+                   int workers,
+                   int bufferCount,
+                   int bufferSize,
+                   int batchSize)
+        throws IOException
+    {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel cannot be null");
+        } else if (xerFormatter == null) {
+            throw new IllegalArgumentException("XER Formatter cannot be null");
+        } else if (consumer == null) {
+            throw new IllegalArgumentException("Consumer cannot be null");
+        } else if (workers < 1) {
+            throw new IllegalArgumentException("Workers must be at least 1");
+        } else if (bufferCount < 1) {
+            throw new IllegalArgumentException("Buffer count must be at least 1");
+        } else if (bufferSize < 1 || bufferSize > MAX_DATAGRAM_SIZE) {
+            throw new IllegalArgumentException("Buffer size must be between 1 and " + MAX_DATAGRAM_SIZE);
+        } else if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+
+        this.channel = channel;
+        this.xerFormatter = xerFormatter;
+        this.consumer = consumer;
+        this.bufferSize = bufferSize;
+        this.batchSize = batchSize;
+
+        // Each buffer has a spare byte, so that a datagram which was cut short to fit can be told apart from one which just fits
+        this.freeBuffers = new ArrayBlockingQueue<>(bufferCount);
+        for (int i = 0; i < bufferCount; ++i) {
+            freeBuffers.add(ByteBuffer.allocateDirect(bufferSize + 1));
+        }
+
+        final int ingestNumber = ingestCount.incrementAndGet();
+
+        // Every queued batch holds at least one buffer, so the pool bounds the executor's queue
+        this.executor = new ThreadPoolExecutor(workers,
+                                               workers,
+                                               0,
+                                               TimeUnit.MILLISECONDS,
+                                               new LinkedBlockingQueue<>(),
+                                               threadFactory("per-xer-codec-udp-" + ingestNumber + "-worker-"));
+
+        channel.configureBlocking(false);
+        this.selector = Selector.open();
+        try {
+            channel.register(selector, SelectionKey.OP_READ);
+        } catch (IOException | RuntimeException ex) {
+            selector.close();
+            executor.shutdown();
+            throw ex;
+        }
+
+        this.receiver = new Thread(this::receive, "per-xer-codec-udp-" + ingestNumber + "-receiver");
+        this.receiver.setDaemon(true);
+        this.receiver.start();
+    }
+
+    /** Get the channel being received from
+     *
+     * @return The channel
+     */
+    public DatagramChannel getChannel()
+    {
+        return channel;
+    }
+
+    /** Get the number of datagrams received so far
+     *
+     * @return The number of datagrams received
+     */
+    public long getReceivedCount()
+    {
+        return receivedCount.sum();
+    }
+
+    /** Get the number of datagrams converted so far
+     *
+     * @return The number of datagrams converted
+     */
+    public long getConvertedCount()
+    {
+        return convertedCount.sum();
+    }
+
+    /** Get the number of datagrams which failed to convert so far
+     *
+     * @return The number of datagrams which failed
+     */
+    public long getFailedCount()
+    {
+        return failedCount.sum();
+    }
+
+    /** Get the number of receive buffers not holding a datagram
+     *
+     * @return The number of free buffers
+     */
+    public int getAvailableBufferCount()
+    {
+        return freeBuffers.size();
+    }
+
+    /** Get the reason receiving stopped, if it stopped because the channel failed
+     *
+     * @return The failure, or null if the channel has not failed
+     */
+    public IOException getReceiveFailure()
+    {
+        return receiveFailure;
+    }
+
+    /** Stop receiving
+     *
+     * <p>
+     *
+     * Datagrams which have already been received are still converted and handed to the consumer.
+     * The channel is left open, as it belongs to the caller.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        selector.wakeup();
+    }
+
+    /** Wait for every received datagram to be converted after {@link #close()}
+     *
+     * @param timeout How long to wait
+     * @param unit Unit of timeout
+     * @return If every datagram was converted before the timeout
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        TimeUnit.NANOSECONDS.timedJoin(receiver, Math.max(1, deadline - System.nanoTime()));
+        if (receiver.isAlive()) {
+            return false;
+        }
+
+        return executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /** Receive datagrams until closed, or until the channel fails */
+    private void receive()
+    {
+        ByteBuffer buffer = null;
+        Batch batch = new Batch(batchSize);
+        try {
+            while (!closed) {
+                selector.select();
+                selector.selectedKeys().clear();
+
+                // Drain every datagram waiting on the channel
+                while (!closed) {
+                    if (buffer == null) {
+                        buffer = freeBuffers.poll();
+                    }
+                    if (buffer == null) {
+                        // Every buffer is in use, so hand over what has been received so far, then wait for one to come back
+                        batch = dispatch(batch);
+                        buffer = freeBuffers.poll(FREE_BUFFER_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                        continue;
+                    }
+
+                    final SocketAddress source = channel.receive(buffer);
+                    if (source == null) {
+                        // Nothing left to drain, the buffer is kept for the next datagram
+                        break;
+                    }
+
+                    buffer.flip();
+                    receivedCount.increment();
+                    batch.add(buffer, source);
+                    buffer = null;
+
+                    if (batch.isFull()) {
+                        batch = dispatch(batch);
+                    }
+                }
+                batch = dispatch(batch);
+            }
+        } catch (IOException ex) {
+            receiveFailure = ex;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closed = true;
+            if (buffer != null) {
+                recycle(buffer);
+            }
+            // Datagrams received before the channel failed are still converted
+            dispatch(batch);
+            try {
+                selector.close();
+            } catch (IOException ex) {
+                // Nothing is waiting on the selector any more, so there is nothing to do about it
+            }
+            executor.shutdown();
+        }
+    }
+
+    /** Hand a batch of datagrams to a worker, if it holds any
+     *
+     * @param batch The batch
+     * @return An empty batch to fill next
+     */
+    private Batch dispatch(Batch batch)
+    {
+        if (batch.count == 0) {
+            return batch;
+        }
+
+        executor.execute(() -> convert(batch));
+        return new Batch(batchSize);
+    }
+
+    /** Convert every datagram in a batch, and hand each result to the consumer
+     *
+     * @param batch The batch
+     */
+    private void convert(Batch batch)
+    {
+        int next = 0;
+        try {
+            while (next < batch.count) {
+                final ByteBuffer buffer = batch.buffers[next];
+                final SocketAddress source = batch.sources[next];
+                ++next;
+                consumer.accept(convert(buffer, source));
+            }
+        } finally {
+            // Only reached with datagrams left over if the consumer threw
+            while (next < batch.count) {
+                recycle(batch.buffers[next++]);
+            }
+        }
+    }
+
+    /** Convert a single datagram, recycling its buffer
+     *
+     * <p>
+     *
+     * Anything thrown while converting is reported as a failed result, so that the worker carries on with the rest of
+     * its batch.
+     *
+     * @param buffer Buffer holding the datagram
+     * @param source Address the datagram was received from
+     * @return The result of converting it
+     */
+    private IngestedDatagram<XER> convert(ByteBuffer buffer, SocketAddress source)
+    {
+        Asn1Type type = null;
+        try {
+            if (buffer.remaining() > bufferSize) {
+                throw new CodecFailedException("Datagram from " + source + " is larger than " + bufferSize + " bytes");
+            }
+
+            type = PerXerCodec.detectBufferType(buffer);
+            if (type == null) {
+                throw new CodecFailedException("Could not detect the type of datagram from " + source);
+            }
+
+            final XER xer = PerXerCodec.perBufferToXer(type, buffer, xerFormatter);
+            convertedCount.increment();
+            return new IngestedDatagram<XER>(source, type, xer);
+        } catch (CodecException ex) {
+            failedCount.increment();
+            return new IngestedDatagram<XER>(source, type, ex);
+        } catch (RuntimeException ex) {
+            failedCount.increment();
+            return new IngestedDatagram<XER>(source, type, new CodecException("Converting datagram from " + source + " threw " + ex, ex));
+        } finally {
+            recycle(buffer);
+        }
+    }
+
+    /** Return a buffer to the pool
+     *
+     * @param buffer The buffer, which must not be used again by the caller
+     */
+    private void recycle(ByteBuffer buffer)
+    {
+        buffer.clear();
+        freeBuffers.offer(buffer);
+    }
+
+    /** Build a consumer which puts results in a queue, waiting for room
+     *
+     * @param <T> Type of result
+     * @param queue The queue
+     * @return The consumer
+     */
+    private static <T> Consumer<T> putter(BlockingQueue<? super T> queue)
+    {
+        if (queue == null) {
+            throw new IllegalArgumentException("Queue cannot be null");
+        }
+
+        return result -> {
+            try {
+                queue.put(result);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    /** Build a factory for daemon threads, so that an unclosed ingest does not keep the JVM alive
+     *
+     * @param namePrefix Prefix of each thread's name, which is followed by a count
+     * @return The factory
+     */
+    private static ThreadFactory threadFactory(String namePrefix)
+    {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** Datagrams received together, to be converted by a single worker
+     *
+     * @author andrew
+     *
+     */
+    private static final class Batch
+    {
+        /** Create an empty batch
+         *
+         * @param size Most datagrams the batch can hold
+         */
+        Batch(int size)
+        {
+            buffers = new ByteBuffer[size];
+            sources = new SocketAddress[size];
+        }
+
+        /** Add a datagram
+         *
+         * @param buffer Buffer holding the datagram, flipped ready for reading
+         * @param source Address the datagram was received from
+         */
+        void add(ByteBuffer buffer, SocketAddress source)
+        {
+            buffers[count] = buffer;
+            sources[count] = source;
+            ++count;
+        }
+
+        /** Check if the batch can hold no more datagrams
+         *
+         * @return If the batch is full
+         */
+        boolean isFull()
+        {
+            return count == buffers.length;
+        }
+
+        /** Buffers holding each datagram */
+        final ByteBuffer[] buffers;
+
+        /** Address each datagram was received from */
+        final SocketAddress[] sources;
+
+        /** Number of datagrams in the batch */
+        int count;
+    }
+
+    /** Largest payload a UDP datagram can carry over IPv4 */
+    public static final int MAX_DATAGRAM_SIZE = 65507;
+
+    /** Default number of receive buffers */
+    private static final int DEFAULT_BUFFER_COUNT = 64;
+
+    /** Default most datagrams handed to a worker at once */
+    private static final int DEFAULT_BATCH_SIZE = 16;
+
+    /** How often the receiver checks for being closed while every buffer is in use */
+    private static final long FREE_BUFFER_POLL_MILLIS = 100;
+
+    /** Number of ingests created so far, to tell apart the threads of different ingests */
+    private static final AtomicInteger ingestCount = new AtomicInteger();
+
+    /** Channel to receive from */
+    private final DatagramChannel channel;
+
+    /** How to represent output XER in memory */
+    private final XerDataFormatter<XER, ?> xerFormatter;
+
+    /** Called with each result */
+    private final Consumer<? super IngestedDatagram<XER>> consumer;
+
+    /** Size of each receive buffer, not counting the spare byte */
+    private final int bufferSize;
+
+    /** Most datagrams handed to a worker at once */
+    private final int batchSize;
+
+    /** Receive buffers not holding a datagram */
+    private final BlockingQueue<ByteBuffer> freeBuffers;
+
+    /** Pool of worker threads */
+    private final ThreadPoolExecutor executor;
+
+    /** Selector which waits for the channel to become readable */
+    private final Selector selector;
+
+    /** Thread which receives datagrams */
+    private final Thread receiver;
+
+    /** Number of datagrams received */
+    private final LongAdder receivedCount = new LongAdder();
+
+    /** Number of datagrams converted */
+    private final LongAdder convertedCount = new LongAdder();
+
+    /** Number of datagrams which failed to convert */
+    private final LongAdder failedCount = new LongAdder();
+
+    /** If receiving has stopped, or been asked to stop */
+    private volatile boolean closed;
+
+    /** Why the channel failed, if it did */
+    private volatile IOException receiveFailure;
+}
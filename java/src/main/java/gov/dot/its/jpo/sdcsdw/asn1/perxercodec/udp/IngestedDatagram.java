@@ -0,0 +1,66 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.udp;
+
+import java.net.SocketAddress;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.Asn1Type;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec.ConversionResult;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecException;
+
+/** Result of converting a single received datagram
+ *
+ * @author andrew
+ *
+ * @param <T> Type of the converted data
+ */
+public class IngestedDatagram<T> extends ConversionResult<T>
+{
+    /** Create a successful result
+     *
+     * @param source Address the datagram was received from
+     * @param type The type detected
+     * @param data Data produced by the conversion
+     */
+    public IngestedDatagram(SocketAddress source, Asn1Type type, T data)
+    {
+        super(data);
+        this.source = source;
+        this.type = type;
+    }
+
+    /** Create a failed result
+     *
+     * @param source Address the datagram was received from
+     * @param type The type detected, or null if no type could be detected
+     * @param failure Reason the conversion failed
+     */
+    public IngestedDatagram(SocketAddress source, Asn1Type type, CodecException failure)
+    {
+        super(failure);
+        this.source = source;
+        this.type = type;
+    }
+
+    /** Get the address the datagram was received from
+     *
+     * @return The sender's address
+     */
+    public SocketAddress getSource()
+    {
+        return source;
+    }
+
+    /** Get the type detected from the datagram's SEMI header
+     *
+     * @return The type detected, or null if no single type matched
+     */
+    public Asn1Type getType()
+    {
+        return type;
+    }
+
+    /** Address the datagram was received from */
+    private final SocketAddress source;
+
+    /** Type detected */
+    private final Asn1Type type;
+}
@@ -0,0 +1,11 @@
+/**
+ * This package provides intake of PER encoded data straight from UDP
+ *
+ * <p>
+ *
+ * {@link gov.dot.its.jpo.sdcsdw.asn1.perxercodec.udp.DatagramIngest} receives datagrams from a
+ * {@link java.nio.channels.DatagramChannel} into pooled buffers, detects each one's type from its SEMI header, and
+ * converts it to XER on a pool of worker threads, handing each
+ * {@link gov.dot.its.jpo.sdcsdw.asn1.perxercodec.udp.IngestedDatagram} to a callback or a queue.
+ */
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.udp;
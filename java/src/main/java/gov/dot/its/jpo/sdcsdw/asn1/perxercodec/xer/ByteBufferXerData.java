@@ -0,0 +1,100 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * XER data which is encoded as UTF-8 bytes held in a byte buffer
+ *
+ * <p>
+ *
+ * The bytes between the buffer's position and limit are the XML, and the buffer's position is never moved.
+ * Direct buffers are read by the native codec in place, without being copied onto the Java heap.
+ *
+ * @author andrew
+ *
+ */
+public class ByteBufferXerData implements Utf8EncodedXerData<ByteBuffer>
+{
+	/**
+	 * Create a XER data object from a buffer of UTF-8 encoded XML
+	 *
+	 * @param xerBuffer Buffer containing UTF-8 encoded XML
+	 */
+    public ByteBufferXerData(ByteBuffer xerBuffer)
+    {
+        this.xerBuffer = xerBuffer;
+    }
+
+	/**
+	 * Create a XER data object from UTF-8 encoded XML, and wrap it in a ByteBuffer
+	 *
+	 * @param xerData UTF-8 encoded XML
+	 */
+    public ByteBufferXerData(byte[] xerData)
+    {
+        this.xerBuffer = ByteBuffer.wrap(xerData);
+    }
+
+    /**
+     * Formatter for this type
+     */
+    public static final Utf8XerDataFormatter<ByteBuffer, ByteBufferXerData> formatter = ByteBufferXerData::new;
+    /**
+     * Unformatter for this type
+     */
+    public static final XerDataUnformatter<ByteBuffer, ByteBufferXerData> unformatter = ByteBufferXerData::new;
+
+    /** Decode the UTF-8 bytes into a string, which is done on every call
+     *
+     * @return A string containing the XER data for this object
+     */
+    @Override
+    public String getXerData()
+    {
+        return StandardCharsets.UTF_8.decode(xerBuffer.duplicate()).toString();
+    }
+
+    @Override
+    public ByteBuffer getFormattedXerData()
+    {
+        return xerBuffer;
+    }
+
+    @Override
+    public ByteBuffer getXerDataUtf8()
+    {
+        return xerBuffer.duplicate();
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return getXerData().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (obj instanceof XerData<?>) {
+            return ((XerData<?>) obj).getXerData().equals(getXerData());
+        }
+
+        return false;
+    }
+
+    @Override
+    public String toString()
+    {
+        return getXerData();
+    }
+
+    /**
+     * Buffer containing UTF-8 encoded XML data
+     */
+    private final ByteBuffer xerBuffer;
+}
@@ -1,14 +1,15 @@
 package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.StringReader;
 
+import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.FormattingFailedException;
@@ -47,13 +48,15 @@ public class DocumentXerData implements XerData<Document>
     public DocumentXerData(String xerData) throws FormattingFailedException
     {
         this.xerData = xerData;
+        DocumentBuilder documentBuilder = documentBuilders.get();
         try {
-            InputStream xerStream = new ByteArrayInputStream(xerData.getBytes());
-			this.documentXerData = documentBuilder.parse(xerStream);
+			this.documentXerData = documentBuilder.parse(new InputSource(new StringReader(xerData)));
 		} catch (SAXException e) {
 			throw new FormattingFailedException("Could not parse as XML", e);
 		} catch (IOException e) {
 			throw new FormattingFailedException("An IO error occured while parsing XML", e);
+		} finally {
+			documentBuilder.reset();
 		}
     }
     
@@ -99,23 +102,40 @@ public class DocumentXerData implements XerData<Document>
     }
     
     /**
-     * Builder factory needed to get documentBuilder
+     * Builder factory needed to get document builders
      */
-    private static DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-    
-    /**
-     * Document builder used to build documents for all instances of this class
-     */
-    private static DocumentBuilder documentBuilder;
+    private static final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
     
     static {
         try {
-            documentBuilder = documentBuilderFactory.newDocumentBuilder();
+            documentBuilderFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
         } catch (ParserConfigurationException ex) {
             throw new RuntimeException(ex);
         }
         
+        // XER never has a DTD, so refusing them outright is both safer and cheaper than resolving them
+        try {
+            documentBuilderFactory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        } catch (ParserConfigurationException ex) {
+            // Not a Xerces based parser, secure processing still applies
+        }
+        documentBuilderFactory.setExpandEntityReferences(false);
+        documentBuilderFactory.setValidating(false);
     }
+    
+    /**
+     * Document builder for each thread, as document builders are not thread safe.
+     * Builders are reset after each parse, so they can be reused for the life of the thread.
+     */
+    private static final ThreadLocal<DocumentBuilder> documentBuilders = ThreadLocal.withInitial(() -> {
+        try {
+            synchronized (documentBuilderFactory) {
+                return documentBuilderFactory.newDocumentBuilder();
+            }
+        } catch (ParserConfigurationException ex) {
+            throw new RuntimeException(ex);
+        }
+    });
 
     /**
      * XER data as a string
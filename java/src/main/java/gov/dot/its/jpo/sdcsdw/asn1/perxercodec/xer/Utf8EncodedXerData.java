@@ -0,0 +1,23 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer;
+
+import java.nio.ByteBuffer;
+
+/** XER data which is held as UTF-8 bytes, and can be handed to the native codec without building a java string
+ *
+ * @author andrew
+ * @param <T> The "External" type
+ */
+public interface Utf8EncodedXerData<T> extends XerData<T>
+{
+    /**
+     * Get the XER data of this object as UTF-8 bytes
+     *
+     * <p>
+     *
+     * The XER data lies between the returned buffer's position and limit. The buffer may share its contents with
+     * this object, so it must not be written to.
+     *
+     * @return A buffer containing the UTF-8 encoded XER data for this object
+     */
+    ByteBuffer getXerDataUtf8();
+}
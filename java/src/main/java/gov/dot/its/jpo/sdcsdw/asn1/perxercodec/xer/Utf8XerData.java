@@ -0,0 +1,94 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * XER data which is encoded as the UTF-8 bytes of the XML string
+ *
+ * <p>
+ *
+ * The native codec reads and writes these bytes as they are, so no java string is ever built unless
+ * {@link #getXerData()} is called.
+ *
+ * @author andrew
+ *
+ */
+public class Utf8XerData implements Utf8EncodedXerData<byte[]>
+{
+	/**
+	 * Create a XER data object from UTF-8 encoded XML
+	 *
+	 * @param xerData UTF-8 encoded XML, which is not copied
+	 */
+    public Utf8XerData(byte[] xerData)
+    {
+        this.xerData = xerData;
+    }
+
+    /**
+     * Formatter for this type
+     */
+    public static final Utf8XerDataFormatter<byte[], Utf8XerData> formatter = Utf8XerData::new;
+    /**
+     * Unformatter for this type
+     */
+    public static final XerDataUnformatter<byte[], Utf8XerData> unformatter = Utf8XerData::new;
+
+    /** Decode the UTF-8 bytes into a string, which is done on every call
+     *
+     * @return A string containing the XER data for this object
+     */
+    @Override
+    public String getXerData()
+    {
+        return new String(xerData, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] getFormattedXerData()
+    {
+        return xerData;
+    }
+
+    @Override
+    public ByteBuffer getXerDataUtf8()
+    {
+        return ByteBuffer.wrap(xerData);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return getXerData().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (obj instanceof Utf8XerData) {
+            return Arrays.equals(((Utf8XerData) obj).xerData, xerData);
+        }
+        if (obj instanceof XerData<?>) {
+            return ((XerData<?>) obj).getXerData().equals(getXerData());
+        }
+
+        return false;
+    }
+
+    @Override
+    public String toString()
+    {
+        return getXerData();
+    }
+
+    /**
+     * UTF-8 encoded XML data
+     */
+    private final byte[] xerData;
+}
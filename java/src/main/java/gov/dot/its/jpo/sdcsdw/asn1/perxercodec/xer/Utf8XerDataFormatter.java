@@ -0,0 +1,33 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer;
+
+import java.nio.charset.StandardCharsets;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.FormattingFailedException;
+
+/** Functional interface for functions which can build XerData from UTF-8 encoded XML, or fail
+ *
+ * <p>
+ *
+ * The codec hands formatters of this type the native codec's UTF-8 output directly, without building a string.
+ *
+ * @author andrew
+ *
+ * @param <T> Instance of XerData this builder will build
+ * @param <XerT> Subtype of XerData to build
+ */
+public interface Utf8XerDataFormatter<T, XerT extends XerData<T>> extends XerDataFormatter<T, XerT> {
+	/** Build a XerData instance from UTF-8 bytes
+	 *
+	 * @param xer UTF-8 encoded XML containing XER data
+	 * @return The XerData instance built
+	 * @throws FormattingFailedException If the instance could not create the desired
+	 * 	representation, this usually indicates an error in a user-defined implementation of XerData
+	 */
+	XerT formatXerDataUtf8(byte[] xer) throws FormattingFailedException;
+
+	@Override
+	default XerT formatXerData(String xer) throws FormattingFailedException
+	{
+		return formatXerDataUtf8(xer.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,196 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.FormattingFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.UnformattingFailedException;
+
+/** XER data which is encoded as a StAX XML stream reader
+ *
+ * <p>
+ *
+ * Formatting does not parse anything up front, the XML is parsed lazily as events are pulled from the reader,
+ * and no tree is ever built.
+ *
+ * @author andrew
+ *
+ */
+public class XmlStreamReaderXerData implements XerData<XMLStreamReader>
+{
+    /** Build a XER data object from an XML string
+     *
+     * @param xerData String containing XER data
+     * @throws FormattingFailedException If a reader could not be created for the string
+     */
+    public XmlStreamReaderXerData(String xerData) throws FormattingFailedException
+    {
+        this.xerData = xerData;
+        try {
+            this.xmlStreamReader = xmlInputFactory.createXMLStreamReader(new StringReader(xerData));
+        } catch (XMLStreamException e) {
+            throw new FormattingFailedException("Could not create XML stream reader", e);
+        }
+    }
+
+    /** Build a XER data object from the events remaining in an XML stream reader
+     *
+     * <p>
+     *
+     * The reader is consumed up to the end of the document.
+     *
+     * @param xmlStreamReader Reader positioned at or before the root element
+     * @throws UnformattingFailedException If the reader's events could not be written out as XML
+     */
+    public XmlStreamReaderXerData(XMLStreamReader xmlStreamReader) throws UnformattingFailedException
+    {
+        this.xmlStreamReader = xmlStreamReader;
+        try {
+            this.xerData = write(xmlStreamReader);
+        } catch (XMLStreamException e) {
+            throw new UnformattingFailedException("Could not read XML stream", e);
+        }
+    }
+
+    /**
+     * Formatter for this type
+     */
+    public static final XerDataFormatter<XMLStreamReader, XmlStreamReaderXerData> formatter = XmlStreamReaderXerData::new;
+    /**
+     * Unformatter for this type
+     */
+    public static final XerDataUnformatter<XMLStreamReader, XmlStreamReaderXerData> unformatter = XmlStreamReaderXerData::new;
+
+    @Override
+    public String getXerData()
+    {
+        return xerData;
+    }
+
+    @Override
+    public XMLStreamReader getFormattedXerData()
+    {
+        return xmlStreamReader;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((xerData == null) ? 0 : xerData.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (obj instanceof XerData<?>) {
+            return ((XerData<?>) obj).getXerData().equals(xerData);
+        }
+
+        return false;
+    }
+
+    @Override
+    public String toString()
+    {
+        return xerData;
+    }
+
+    /** Write out the events remaining in a reader as an XML string
+     *
+     * @param reader Reader to consume
+     * @return XML string of the reader's events
+     * @throws XMLStreamException If the reader could not be read, or the events could not be written
+     */
+    private static String write(XMLStreamReader reader) throws XMLStreamException
+    {
+        StringWriter out = new StringWriter();
+        XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(out);
+
+        // Codec output carries no declaration, so none is written back, just the element tree
+        int event = reader.getEventType();
+        while (true) {
+            switch (event) {
+            case XMLStreamConstants.START_ELEMENT:
+                writer.writeStartElement(orEmpty(reader.getPrefix()), reader.getLocalName(), orEmpty(reader.getNamespaceURI()));
+                for (int i = 0; i < reader.getNamespaceCount(); ++i) {
+                    writer.writeNamespace(orEmpty(reader.getNamespacePrefix(i)), orEmpty(reader.getNamespaceURI(i)));
+                }
+                for (int i = 0; i < reader.getAttributeCount(); ++i) {
+                    writer.writeAttribute(orEmpty(reader.getAttributePrefix(i)),
+                                          orEmpty(reader.getAttributeNamespace(i)),
+                                          reader.getAttributeLocalName(i),
+                                          reader.getAttributeValue(i));
+                }
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                writer.writeEndElement();
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.SPACE:
+                writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                break;
+            case XMLStreamConstants.CDATA:
+                writer.writeCData(reader.getText());
+                break;
+            case XMLStreamConstants.END_DOCUMENT:
+                writer.flush();
+                return out.toString();
+            default:
+                // Declarations, comments and processing instructions carry no XER data
+                break;
+            }
+
+            if (!reader.hasNext()) {
+                writer.flush();
+                return out.toString();
+            }
+            event = reader.next();
+        }
+    }
+
+    /** Replace a missing prefix or namespace with the empty string, as the writer expects
+     *
+     * @param s Prefix or namespace, possibly null
+     * @return s, or the empty string if s is null
+     */
+    private static String orEmpty(String s)
+    {
+        return s == null ? "" : s;
+    }
+
+    /**
+     * Factory for readers, which is thread safe once configured
+     */
+    private static final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+
+    static {
+        // XER never has a DTD, so there is nothing to resolve
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Factory for writers used when unformatting
+     */
+    private static final XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newInstance();
+
+    /** XER data as a string  */
+    private final String xerData;
+
+    /** XER data as an XML stream reader */
+    private final XMLStreamReader xmlStreamReader;
+}
@@ -21,5 +21,22 @@ class AdvisorySituationDataDistributionTest
     {
         TestData.assertPerDatumParsesAs(Asn1Types.getAllTypes(), Asn1Types.AdvisorySituationDataDistributionType, TestData.HexPerTestAdvisoryDataDistribution);
     }
-
+    
+    @Test
+    void testDetectType() throws Exception
+    {
+        TestData.assertPerDatumDetectedAs(Asn1Types.AdvisorySituationDataDistributionType, TestData.HexPerTestAdvisoryDataDistribution);
+    }
+    
+    @Test
+    void testExtractHeader() throws Exception
+    {
+        TestData.assertPerDatumHeaderExtracts(Asn1Types.AdvisorySituationDataDistributionType, TestData.HexPerTestAdvisoryDataDistribution);
+    }
+    
+    @Test
+    void testDecodePer() throws Exception
+    {
+        TestData.assertPerDatumDecodesOnce(Asn1Types.AdvisorySituationDataDistributionType, TestData.HexPerTestAdvisoryDataDistribution);
+    }
 }
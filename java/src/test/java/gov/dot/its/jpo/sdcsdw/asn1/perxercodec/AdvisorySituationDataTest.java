@@ -24,6 +24,24 @@ class AdvisorySituationDataTest
     }
     
     
+    @Test
+    void testDetectType() throws Exception
+    {
+        TestData.assertPerDatumDetectedAs(Asn1Types.AdvisorySituationDataType, TestData.HexPerTestAdvisorySituationData);
+    }
+    
+    @Test
+    void testExtractHeader() throws Exception
+    {
+        TestData.assertPerDatumHeaderExtracts(Asn1Types.AdvisorySituationDataType, TestData.HexPerTestAdvisorySituationData);
+    }
+    
+    @Test
+    void testDecodePer() throws Exception
+    {
+        TestData.assertPerDatumDecodesOnce(Asn1Types.AdvisorySituationDataType, TestData.HexPerTestAdvisorySituationData);
+    }
+    
     @Test
     void testXerToPer() throws Exception
     {
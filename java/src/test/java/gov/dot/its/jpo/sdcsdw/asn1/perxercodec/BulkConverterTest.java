@@ -0,0 +1,159 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.BulkConverter.Record;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.BulkConverter.Summary;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodecMetrics.Direction;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.TestData.PerTestDatum;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+
+class BulkConverterTest
+{
+    private static final Path FILE = Paths.get("test");
+
+    private static ByteBuffer region(String text)
+    {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static List<String> texts(List<Record> records)
+    {
+        final List<String> texts = new ArrayList<>();
+        for (Record record : records) {
+            final byte[] bytes = new byte[record.length];
+            record.slice().get(bytes);
+            texts.add(new String(bytes, StandardCharsets.US_ASCII));
+        }
+        return texts;
+    }
+
+    @Test
+    void testSplitLines()
+    {
+        final List<Record> records = new ArrayList<>();
+        final String text = "00AB\r\n\n  01CD \n02EF";
+
+        assertEquals(text.length(), BulkConverter.splitLines(region(text), true, FILE, records));
+        assertEquals(Arrays.asList("00AB", "01CD", "02EF"), texts(records));
+        assertEquals(3, records.get(2).number);
+    }
+
+    @Test
+    void testSplitLinesStopsAtPartialLine()
+    {
+        final List<Record> records = new ArrayList<>();
+
+        assertEquals(5, BulkConverter.splitLines(region("00AB\n01C"), false, FILE, records));
+        assertEquals(Arrays.asList("00AB"), texts(records));
+    }
+
+    @Test
+    void testSplitXer() throws IOException
+    {
+        final List<Record> records = new ArrayList<>();
+        final String text = "<?xml version=\"1.0\"?>\n<A><B>1</B><!-- <C> --></A>\n<D/>\n<E x=\"1\"><F/></E>\n";
+
+        assertEquals(text.length(), BulkConverter.splitXer(region(text), true, FILE, records));
+        assertEquals(Arrays.asList("<A><B>1</B><!-- <C> --></A>", "<D/>", "<E x=\"1\"><F/></E>"), texts(records));
+    }
+
+    @Test
+    void testSplitXerStopsAtPartialRecord() throws IOException
+    {
+        final List<Record> records = new ArrayList<>();
+
+        assertEquals(7, BulkConverter.splitXer(region("<A></A>\n<B><C"), false, FILE, records));
+        assertEquals(Arrays.asList("<A></A>"), texts(records));
+    }
+
+    @Test
+    void testSplitXerIncomplete()
+    {
+        assertThrows(IOException.class, () -> BulkConverter.splitXer(region("<A><B></B>"), true, FILE, new ArrayList<>()));
+        assertThrows(IOException.class, () -> BulkConverter.splitXer(region("</A>"), true, FILE, new ArrayList<>()));
+        assertThrows(IOException.class, () -> BulkConverter.splitXer(region("<A></A><B"), true, FILE, new ArrayList<>()));
+    }
+
+    @Test
+    void testInvalidArguments()
+    {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new BulkConverter(null, HexPerData.formatter, HexPerData.unformatter, null));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new BulkConverter(Direction.PER_TO_XER, null, HexPerData.unformatter, null));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new BulkConverter(Direction.PER_TO_XER, HexPerData.formatter, null, null));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new BulkConverter(Direction.PER_TO_XER, HexPerData.formatter, HexPerData.unformatter, null, 0, 1));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new BulkConverter(Direction.PER_TO_XER, HexPerData.formatter, HexPerData.unformatter, null, 1, 0));
+    }
+
+    @Test
+    void testConvertFiles() throws Exception
+    {
+        final PerTestDatum<?, ?>[] data = { TestData.HexPerTestAdvisorySituationData,
+                                            TestData.HexPerTestServiceRequest,
+                                            TestData.HexPerTestServiceResponse,
+                                            TestData.HexPerTestDataRequest,
+                                            TestData.HexPerTestAdvisoryDataDistribution,
+                                            TestData.HexPerTestDataAcceptance,
+                                            TestData.HexPerTestDataReceipt };
+
+        final StringBuilder perInput = new StringBuilder();
+        final List<String> expectedXer = new ArrayList<>();
+        for (PerTestDatum<?, ?> datum : data) {
+            final String hex = (String) datum.getTestInput();
+            perInput.append(hex).append('\n');
+            expectedXer.add(PerXerCodec.perToXer(PerXerCodec.detectType(hex, HexPerData.unformatter), hex, HexPerData.unformatter, RawXerData.formatter));
+        }
+        perInput.append("FFFF\n");
+
+        final Path perFile = Files.createTempFile("bulk", ".per");
+        final Path xerFile = Files.createTempFile("bulk", ".xer");
+        final Path roundTripFile = Files.createTempFile("bulk", ".per");
+        try {
+            Files.write(perFile, perInput.toString().getBytes(StandardCharsets.US_ASCII));
+
+            // A small region makes records straddle mappings
+            final Summary toXer = new BulkConverter(Direction.PER_TO_XER, HexPerData.formatter, HexPerData.unformatter, null, 2, 10000)
+                .convert(Arrays.asList(perFile), xerFile);
+            assertEquals(data.length + 1, toXer.getRecordCount());
+            assertEquals(1, toXer.getFailedCount());
+            assertEquals(1, toXer.getFirstFailures().size());
+            assertTrue(toXer.getFirstFailures().get(0).contains("record " + (data.length + 1)));
+
+            final Summary toPer = new BulkConverter(Direction.XER_TO_PER, HexPerData.formatter, HexPerData.unformatter, null)
+                .convert(Arrays.asList(xerFile), roundTripFile);
+            assertEquals(data.length, toPer.getRecordCount());
+            assertEquals(0, toPer.getFailedCount());
+            assertEquals(toPer.getOutputBytes(), Files.size(roundTripFile));
+
+            final List<String> perLines = Files.readAllLines(roundTripFile, StandardCharsets.US_ASCII);
+            assertEquals(data.length, perLines.size());
+            for (int i = 0; i < data.length; ++i) {
+                final String hex = (String) data[i].getTestInput();
+                final Asn1Type type = PerXerCodec.detectType(hex, HexPerData.unformatter);
+                assertEquals(PerXerCodec.xerToPer(type, expectedXer.get(i), RawXerData.unformatter, HexPerData.formatter), perLines.get(i));
+            }
+        } finally {
+            Files.delete(perFile);
+            Files.delete(xerFile);
+            Files.delete(roundTripFile);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.TestData.PerTestDatum;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.TestData.XerTestDatum;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+
+/** Checks that the native and pure Java backends agree on the sample data, and on damaged copies of it */
+class CodecBackendCrossCheckTest
+{
+    @Test
+    void testPerToXerAgrees() throws Exception
+    {
+        for (byte[] per : perInputs()) {
+            for (Asn1Type type : Asn1Types.getAllTypes()) {
+                final String expected = nativeBackend.perToXer(type, per);
+                final String actual = javaBackend.perToXer(type, per);
+                assertEquals(expected, actual, () -> type.getName() + " " + Arrays.toString(per));
+                if (expected == null) {
+                    assertEquals(nativeBackend.lastFailure() & 0xF00, javaBackend.lastFailure() & 0xF00, type.getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testXerToPerAgrees() throws Exception
+    {
+        for (String xer : xerInputs()) {
+            for (Asn1Type type : Asn1Types.getAllTypes()) {
+                assertArrayEquals(nativeBackend.xerToPer(type, xer), javaBackend.xerToPer(type, xer), () -> type.getName() + " " + xer);
+            }
+        }
+    }
+
+    @Test
+    void testHeadersAgree() throws Exception
+    {
+        for (byte[] per : perInputs()) {
+            assertEquals(nativeBackend.detectTypes(per), javaBackend.detectTypes(per));
+            for (Asn1Type type : Asn1Types.getAllTypes()) {
+                assertEquals(nativeBackend.extractSemiIds(type, per), javaBackend.extractSemiIds(type, per), type.getName());
+            }
+        }
+    }
+
+    /** Get every sample PER message, along with each of them cut short and with each of their bits flipped
+     *
+     * @return The PER inputs to check
+     * @throws Exception If a sample could not be decoded from hexadecimal
+     */
+    private static List<byte[]> perInputs() throws Exception
+    {
+        final List<byte[]> inputs = new ArrayList<>();
+        for (PerTestDatum<String, HexPerData> datum : JavaCodecBackendTest.perSamples().values()) {
+            final byte[] per = new HexPerData(datum.getTestInput()).getPerData();
+            inputs.add(per);
+            for (int length = 1; length < per.length; ++length) {
+                inputs.add(Arrays.copyOf(per, length));
+            }
+            for (int bit = 0; bit < per.length * 8; ++bit) {
+                final byte[] flipped = per.clone();
+                flipped[bit / 8] ^= 0x80 >>> (bit % 8);
+                inputs.add(flipped);
+            }
+        }
+        return inputs;
+    }
+
+    /** Get every sample XER message, along with the XER of every sample PER message, and each of them cut short
+     *
+     * @return The XER inputs to check
+     * @throws Exception If a sample could not be converted
+     */
+    private static List<String> xerInputs() throws Exception
+    {
+        final List<String> samples = new ArrayList<>();
+        for (XerTestDatum<String, RawXerData> datum : JavaCodecBackendTest.xerSamples().values()) {
+            samples.add(datum.getTestInput());
+        }
+        for (Asn1Type type : Asn1Types.getAllTypes()) {
+            final PerTestDatum<String, HexPerData> datum = JavaCodecBackendTest.perSamples().get(type);
+            samples.add(nativeBackend.perToXer(type, new HexPerData(datum.getTestInput()).getPerData()));
+        }
+
+        final List<String> inputs = new ArrayList<>(samples);
+        for (String xer : samples) {
+            for (int length = 0; length < xer.length(); length += 7) {
+                inputs.add(xer.substring(0, length));
+            }
+        }
+        return inputs;
+    }
+
+    /** The native backend */
+    private static final CodecBackend nativeBackend = NativeCodecBackend.INSTANCE;
+
+    /** The pure Java backend */
+    private static final CodecBackend javaBackend = JavaCodecBackend.INSTANCE;
+}
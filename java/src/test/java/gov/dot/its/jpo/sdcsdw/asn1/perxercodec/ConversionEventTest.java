@@ -0,0 +1,131 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodecMetrics.Direction;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodecMetrics.Stage;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class ConversionEventTest
+{
+    @AfterEach
+    void tearDown()
+    {
+        PerXerCodecMetrics.getInstance().setEnabled(false);
+        PerXerCodecMetrics.getInstance().reset();
+    }
+    
+    @Test
+    void testDisabledByDefault()
+    {
+        FlightRecorder.register(ConversionEvent.class);
+        assertFalse(EventType.getEventType(ConversionEvent.class).isEnabled());
+    }
+    
+    @Test
+    void testRecorded() throws Exception
+    {
+        final List<RecordedEvent> events = record(() -> {
+            final ConversionEvent event = ConversionEvent.start(Direction.XER_TO_PER);
+            event.lap(null, Stage.UNFORMAT);
+            event.attempt(testType);
+            event.input(100);
+            event.lap(testType, Stage.NATIVE);
+            event.lap(testType, Stage.FORMAT);
+            event.succeeded(testType, 20);
+            event.finish();
+        });
+        
+        assertEquals(1, events.size());
+        final RecordedEvent event = events.get(0);
+        assertEquals("DataReceipt", event.getString("type"));
+        assertEquals("XER_TO_PER", event.getString("direction"));
+        assertEquals(100, event.getInt("inputSize"));
+        assertEquals(20, event.getInt("outputSize"));
+        assertEquals(1, event.getInt("guessAttempts"));
+        assertEquals("SUCCESS", event.getString("outcome"));
+        assertTrue(event.getDuration("nativeDuration").toNanos() >= 0);
+        assertFalse(event.hasField("conversionType"));
+        assertFalse(event.hasField("timed"));
+    }
+    
+    @Test
+    void testStagesFeedMetrics()
+    {
+        final PerXerCodecMetrics metrics = PerXerCodecMetrics.getInstance();
+        metrics.setEnabled(true);
+        
+        final ConversionEvent event = ConversionEvent.start(Direction.PER_TO_XER);
+        event.lap(testType, Stage.NATIVE);
+        event.formattingFailed(testType);
+        event.finish();
+        
+        assertEquals(1, metrics.getStageLatencies().get("DataReceipt.PER_TO_XER.NATIVE").getCount());
+        assertEquals(1L, (long) metrics.getFormattingFailureCounts().get("DataReceipt.PER_TO_XER"));
+    }
+    
+    @Test
+    void testConversionRecorded() throws Exception
+    {
+        final String per = TestData.HexPerTestServiceRequest.getTestInput();
+        final List<RecordedEvent> events = record(() -> {
+            PerXerCodec.perToXer(Asn1Types.ServiceRequestType, per, HexPerData.unformatter, RawXerData.formatter);
+            PerXerCodec.guessPerToXer(Asn1Types.getAllTypes(), per, HexPerData.unformatter, RawXerData.formatter);
+        });
+        
+        assertEquals(2, events.size());
+        assertEquals("ServiceRequest", events.get(0).getString("type"));
+        assertEquals("SUCCESS", events.get(0).getString("outcome"));
+        assertEquals(0, events.get(0).getInt("guessAttempts"));
+        assertEquals(HexPerData.unformatter.unformatPerData(per).getPerData().length, events.get(0).getInt("inputSize"));
+        assertTrue(events.get(1).getInt("guessAttempts") >= 1);
+    }
+    
+    /** Record the codec events raised by an action
+     *
+     * @param action The action
+     * @return The events recorded, in order
+     * @throws Exception If the action fails
+     */
+    private static List<RecordedEvent> record(Action action) throws Exception
+    {
+        final Path file = Files.createTempFile("conversion-event-test", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ConversionEvent.NAME);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            
+            return RecordingFile.readAllEvents(file).stream()
+                                .filter(event -> event.getEventType().getName().equals(ConversionEvent.NAME))
+                                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                                .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    /** Something to do while recording */
+    private interface Action
+    {
+        void run() throws Exception;
+    }
+    
+    /** Type to record conversions of */
+    private final Asn1Type testType = Asn1Types.DataReceiptType;
+}
@@ -23,6 +23,24 @@ class DataAcceptanceTest
         TestData.assertPerDatumParsesAs(Asn1Types.getAllTypes(), Asn1Types.DataAcceptanceType, TestData.HexPerTestDataAcceptance);
     }
     
+    @Test
+    void testDetectType() throws Exception
+    {
+        TestData.assertPerDatumDetectedAs(Asn1Types.DataAcceptanceType, TestData.HexPerTestDataAcceptance);
+    }
+    
+    @Test
+    void testExtractHeader() throws Exception
+    {
+        TestData.assertPerDatumHeaderExtracts(Asn1Types.DataAcceptanceType, TestData.HexPerTestDataAcceptance);
+    }
+    
+    @Test
+    void testDecodePer() throws Exception
+    {
+        TestData.assertPerDatumDecodesOnce(Asn1Types.DataAcceptanceType, TestData.HexPerTestDataAcceptance);
+    }
+    
     @Test
     void testXerToPer() throws Exception
     {
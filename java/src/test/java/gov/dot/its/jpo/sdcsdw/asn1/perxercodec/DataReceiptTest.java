@@ -22,6 +22,24 @@ class DataReceiptTest
         TestData.assertPerDatumParsesAs(Asn1Types.getAllTypes(), Asn1Types.DataReceiptType, TestData.HexPerTestDataReceipt);
     }
     
+    @Test
+    void testDetectType() throws Exception
+    {
+        TestData.assertPerDatumDetectedAs(Asn1Types.DataReceiptType, TestData.HexPerTestDataReceipt);
+    }
+    
+    @Test
+    void testExtractHeader() throws Exception
+    {
+        TestData.assertPerDatumHeaderExtracts(Asn1Types.DataReceiptType, TestData.HexPerTestDataReceipt);
+    }
+    
+    @Test
+    void testDecodePer() throws Exception
+    {
+        TestData.assertPerDatumDecodesOnce(Asn1Types.DataReceiptType, TestData.HexPerTestDataReceipt);
+    }
+    
     @Test
     void testXerToPer() throws Exception
     {
@@ -22,6 +22,24 @@ class DataRequestTest
         TestData.assertPerDatumParsesAs(Asn1Types.getAllTypes(), Asn1Types.DataRequestType, TestData.HexPerTestDataRequest);
     }
     
+    @Test
+    void testDetectType() throws Exception
+    {
+        TestData.assertPerDatumDetectedAs(Asn1Types.DataRequestType, TestData.HexPerTestDataRequest);
+    }
+    
+    @Test
+    void testExtractHeader() throws Exception
+    {
+        TestData.assertPerDatumHeaderExtracts(Asn1Types.DataRequestType, TestData.HexPerTestDataRequest);
+    }
+    
+    @Test
+    void testDecodePer() throws Exception
+    {
+        TestData.assertPerDatumDecodesOnce(Asn1Types.DataRequestType, TestData.HexPerTestDataRequest);
+    }
+    
     @Test
     void testXerToPer() throws Exception
     {
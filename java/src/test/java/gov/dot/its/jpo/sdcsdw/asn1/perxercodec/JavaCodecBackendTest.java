@@ -0,0 +1,248 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec.ConversionResult;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.TestData.PerTestDatum;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.TestData.XerTestDatum;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.RawPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.Utf8XerData;
+
+/** Runs the sample data through {@link PerXerCodec} with the pure Java backend, which needs no native library */
+class JavaCodecBackendTest
+{
+    @BeforeAll
+    static void useJavaBackend()
+    {
+        previousBackend = PerXerCodec.getBackend();
+        PerXerCodec.setBackend("java");
+    }
+
+    @AfterAll
+    static void restoreBackend()
+    {
+        PerXerCodec.setBackend(previousBackend);
+    }
+
+    @Test
+    void testBackendByName()
+    {
+        assertEquals("java", PerXerCodec.getBackend().getName());
+        assertThrows(IllegalArgumentException.class, () -> PerXerCodec.setBackend("not a backend"));
+        assertThrows(IllegalArgumentException.class, () -> PerXerCodec.setBackend((String) null));
+        assertThrows(IllegalArgumentException.class, () -> PerXerCodec.setBackend((CodecBackend) null));
+        assertEquals("java", PerXerCodec.getBackend().getName());
+    }
+
+    @Test
+    void testPerToXer() throws Exception
+    {
+        for (Map.Entry<Asn1Type, PerTestDatum<String, HexPerData>> sample : perSamples().entrySet()) {
+            for (Asn1Type type : Asn1Types.getAllTypes()) {
+                if (type.equals(sample.getKey())) {
+                    TestData.assertPerDatumParses(type, sample.getValue());
+                } else {
+                    TestData.assertPerDatumFails(type, sample.getValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testGuessAndDetect() throws Exception
+    {
+        for (Map.Entry<Asn1Type, PerTestDatum<String, HexPerData>> sample : perSamples().entrySet()) {
+            TestData.assertPerDatumParsesAs(Asn1Types.getAllTypes(), sample.getKey(), sample.getValue());
+            TestData.assertPerDatumDetectedAs(sample.getKey(), sample.getValue());
+            TestData.assertPerDatumHeaderExtracts(sample.getKey(), sample.getValue());
+        }
+    }
+
+    @Test
+    void testGuessWithoutHeaderMatch() throws Exception
+    {
+        // A backend which recognises no header, so that guessing has to fall back on trying every type
+        final CodecBackend javaBackend = PerXerCodec.getBackend();
+        PerXerCodec.setBackend(new CodecBackend() {
+            @Override
+            public String getName()
+            {
+                return "no-headers";
+            }
+
+            @Override
+            public String perToXer(Asn1Type type, byte[] per)
+            {
+                return javaBackend.perToXer(type, per);
+            }
+
+            @Override
+            public byte[] xerToPer(Asn1Type type, String xer)
+            {
+                return javaBackend.xerToPer(type, xer);
+            }
+
+            @Override
+            public int detectTypes(byte[] per)
+            {
+                return 0;
+            }
+
+            @Override
+            public long extractSemiIds(Asn1Type type, byte[] per)
+            {
+                return -1;
+            }
+        });
+
+        try {
+            for (Map.Entry<Asn1Type, PerTestDatum<String, HexPerData>> sample : perSamples().entrySet()) {
+                TestData.assertPerDatumParsesAs(Asn1Types.getAllTypes(), sample.getKey(), sample.getValue());
+            }
+            assertFalse(PerXerCodec.guessPerToXer(Asn1Types.getAllTypes(), "FFFF", HexPerData.unformatter, RawXerData.formatter).isSuccesful());
+        } finally {
+            PerXerCodec.setBackend(javaBackend);
+        }
+    }
+
+    @Test
+    void testXerToPer() throws Exception
+    {
+        for (Map.Entry<Asn1Type, XerTestDatum<String, RawXerData>> sample : xerSamples().entrySet()) {
+            for (Asn1Type type : Asn1Types.getAllTypes()) {
+                if (type.equals(sample.getKey())) {
+                    TestData.assertXerDatumParses(type, sample.getValue());
+                } else {
+                    TestData.assertXerDatumFails(type, sample.getValue());
+                }
+            }
+            TestData.assertXerDatumParsesAs(Asn1Types.getAllTypes(), sample.getKey(), sample.getValue());
+        }
+    }
+
+    @Test
+    void testRoundTripsMatchSamples() throws Exception
+    {
+        for (Map.Entry<Asn1Type, PerTestDatum<String, HexPerData>> sample : perSamples().entrySet()) {
+            final String xer = PerXerCodec.perToXer(sample.getKey(), sample.getValue().getTestInput(), HexPerData.unformatter, RawXerData.formatter);
+            assertArrayEquals(new HexPerData(sample.getValue().getTestInput()).getPerData(),
+                              PerXerCodec.xerToPer(sample.getKey(), xer, RawXerData.unformatter, RawPerData.formatter),
+                              sample.getKey().getName());
+        }
+    }
+
+    @Test
+    void testBuffersAndUtf8() throws Exception
+    {
+        final Asn1Type type = Asn1Types.ServiceRequestType;
+        final byte[] per = new HexPerData(TestData.HexPerTestServiceRequest.getTestInput()).getPerData();
+        final String xer = PerXerCodec.perToXer(type, per, RawPerData.unformatter, RawXerData.formatter);
+
+        final ByteBuffer perBuffer = ByteBuffer.allocateDirect(per.length);
+        perBuffer.put(per).flip();
+        assertEquals(xer, PerXerCodec.perBufferToXer(type, perBuffer, RawXerData.formatter));
+        assertEquals(0, perBuffer.position());
+
+        final ByteBuffer outBuffer = ByteBuffer.allocateDirect(64);
+        assertEquals(per.length, PerXerCodec.xerToPerBuffer(type, xer, RawXerData.unformatter, outBuffer));
+        assertEquals(per.length, outBuffer.position());
+
+        final byte[] utf8 = PerXerCodec.perToXer(type, per, RawPerData.unformatter, Utf8XerData.formatter);
+        assertArrayEquals(xer.getBytes(StandardCharsets.UTF_8), utf8);
+        assertArrayEquals(per, PerXerCodec.xerToPer(type, utf8, Utf8XerData.unformatter, RawPerData.formatter));
+
+        outBuffer.clear();
+        assertEquals(per.length, PerXerCodec.xerToPerBuffer(type, utf8, Utf8XerData.unformatter, outBuffer));
+        assertEquals(per.length, outBuffer.position());
+        final byte[] written = new byte[per.length];
+        outBuffer.flip();
+        outBuffer.get(written);
+        assertArrayEquals(per, written);
+    }
+
+    @Test
+    void testBatches() throws Exception
+    {
+        final List<ConversionResult<String>> xers = PerXerCodec.perToXerBatch(Asn1Types.DataAcceptanceType,
+                                                                              Arrays.asList(TestData.HexPerTestDataAcceptance.getTestInput(),
+                                                                                            TestData.HexPerTestDataReceipt.getTestInput()),
+                                                                              HexPerData.unformatter,
+                                                                              RawXerData.formatter);
+        assertTrue(xers.get(0).isSuccessful());
+        assertTrue(xers.get(1).getFailure() instanceof CodecFailedException);
+
+        final List<ConversionResult<byte[]>> pers = PerXerCodec.xerToPerBatch(Asn1Types.DataAcceptanceType,
+                                                                              Arrays.asList(xers.get(0).getData(),
+                                                                                            TestData.RawXerTestDataReceipt.getTestInput()),
+                                                                              RawXerData.unformatter,
+                                                                              RawPerData.formatter);
+        assertArrayEquals(new HexPerData(TestData.HexPerTestDataAcceptance.getTestInput()).getPerData(), pers.get(0).getData());
+        assertTrue(pers.get(1).getFailure() instanceof CodecFailedException);
+    }
+
+    @Test
+    void testLastFailure() throws Exception
+    {
+        final CodecBackend backend = PerXerCodec.getBackend();
+        final byte[] per = new HexPerData(TestData.HexPerTestServiceRequest.getTestInput()).getPerData();
+
+        assertNotNull(backend.perToXer(Asn1Types.ServiceRequestType, per));
+        assertEquals(CodecBackend.FAILURE_NONE, backend.lastFailure());
+
+        assertNull(backend.perToXer(Asn1Types.ServiceRequestType, Arrays.copyOf(per, 3)));
+        assertEquals(CodecBackend.FAILURE_DECODE | 1, backend.lastFailure());
+
+        assertNull(backend.perToXer(Asn1Types.ServiceResponseType, per));
+        assertEquals(CodecBackend.FAILURE_DECODE, backend.lastFailure() & 0xF00);
+    }
+
+    /** Get the PER sample of every type
+     *
+     * @return The PER sample of each type, by its type
+     */
+    static Map<Asn1Type, PerTestDatum<String, HexPerData>> perSamples()
+    {
+        final Map<Asn1Type, PerTestDatum<String, HexPerData>> samples = new LinkedHashMap<>();
+        samples.put(Asn1Types.AdvisorySituationDataType, TestData.HexPerTestAdvisorySituationData);
+        samples.put(Asn1Types.ServiceRequestType, TestData.HexPerTestServiceRequest);
+        samples.put(Asn1Types.ServiceResponseType, TestData.HexPerTestServiceResponse);
+        samples.put(Asn1Types.DataRequestType, TestData.HexPerTestDataRequest);
+        samples.put(Asn1Types.AdvisorySituationDataDistributionType, TestData.HexPerTestAdvisoryDataDistribution);
+        samples.put(Asn1Types.DataAcceptanceType, TestData.HexPerTestDataAcceptance);
+        samples.put(Asn1Types.DataReceiptType, TestData.HexPerTestDataReceipt);
+        return samples;
+    }
+
+    /** Get the XER sample of every type which has one
+     *
+     * @return The XER sample of each type, by its type
+     */
+    static Map<Asn1Type, XerTestDatum<String, RawXerData>> xerSamples()
+    {
+        final Map<Asn1Type, XerTestDatum<String, RawXerData>> samples = new LinkedHashMap<>();
+        samples.put(Asn1Types.AdvisorySituationDataType, TestData.RawXerTestAdvisorySituationData);
+        samples.put(Asn1Types.ServiceRequestType, TestData.RawXerTestServiceRequest);
+        samples.put(Asn1Types.ServiceResponseType, TestData.RawXerTestServiceResponse);
+        samples.put(Asn1Types.DataRequestType, TestData.RawXerTestDataRequest);
+        samples.put(Asn1Types.DataAcceptanceType, TestData.RawXerTestDataAcceptance);
+        samples.put(Asn1Types.DataReceiptType, TestData.RawXerTestDataReceipt);
+        return samples;
+    }
+
+    /** Backend in use before these tests */
+    private static CodecBackend previousBackend;
+}
@@ -0,0 +1,93 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.NativeLibraryException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+
+class NativeLibraryTest
+{
+    private static final String[] TYPE_TABLE = { "AdvisorySituationData",
+                                                 "ServiceRequest",
+                                                 "ServiceResponse",
+                                                 "DataRequest",
+                                                 "AdvisorySituationDataDistribution",
+                                                 "DataAcceptance",
+                                                 "DataReceipt" };
+
+    @Test
+    void testTypesDoNotNeedNativeLibrary()
+    {
+        assertEquals(Asn1Types.ServiceRequestType, Asn1Types.getAsn1TypeByName("ServiceRequest"));
+        assertNull(Asn1Types.getAsn1TypeByName("NotAType"));
+    }
+
+    @Test
+    void testCheckTypeTable()
+    {
+        NativeLibrary.checkTypeTable(TYPE_TABLE);
+    }
+
+    @Test
+    void testCheckTypeTableMismatch()
+    {
+        final String[] swapped = TYPE_TABLE.clone();
+        swapped[0] = TYPE_TABLE[1];
+        swapped[1] = TYPE_TABLE[0];
+
+        assertThrows(NativeLibraryException.class, () -> NativeLibrary.checkTypeTable(swapped));
+        assertThrows(NativeLibraryException.class, () -> NativeLibrary.checkTypeTable(new String[TYPE_TABLE.length - 1]));
+    }
+
+    @Test
+    void testMissingLibraryFailsTheSameWayEverywhere()
+    {
+        NativeLibraryException failure = null;
+        try {
+            PerXerCodec.loadNativeLibrary();
+        } catch (NativeLibraryException ex) {
+            failure = ex;
+        }
+        assumeTrue(failure != null, "Only meaningful when the native library cannot be loaded");
+
+        final String per = TestData.HexPerTestServiceRequest.getTestInput();
+        final String xer = TestData.RawXerTestServiceRequest.getTestInput();
+        for (int i = 0; i < 2; ++i) {
+            assertSame(failure, assertThrows(NativeLibraryException.class, () -> PerXerCodec.decodePer(Asn1Types.ServiceRequestType, per, HexPerData.unformatter)));
+            assertSame(failure, assertThrows(NativeLibraryException.class, () -> PerXerCodec.decodeXer(Asn1Types.ServiceRequestType, xer, RawXerData.unformatter)));
+            assertSame(failure, assertThrows(NativeLibraryException.class, () -> PerXerCodec.validatePer(Asn1Types.ServiceRequestType, per, HexPerData.unformatter)));
+            assertSame(failure, assertThrows(NativeLibraryException.class, () -> PerXerCodec.validateXer(Asn1Types.ServiceRequestType, xer, RawXerData.unformatter)));
+            assertSame(failure, assertThrows(NativeLibraryException.class, () -> PerXerCodec.setNativeArenaEnabled(true)));
+            assertSame(failure, assertThrows(NativeLibraryException.class, () -> PerXerCodec.isNativeArenaEnabled()));
+            assertSame(failure, assertThrows(NativeLibraryException.class, () -> NativeCodecBackend.INSTANCE.detectTypes(new byte[1])));
+        }
+    }
+
+    @Test
+    void testExtract() throws Exception
+    {
+        final byte[] contents = { 0x7F, 'E', 'L', 'F', 1, 2, 3 };
+        final Path bundled = Files.createTempFile("bundled", ".so");
+        try {
+            Files.write(bundled, contents);
+
+            final Path extracted = NativeLibrary.extract(bundled.toUri().toURL(), "libtest.so");
+            try {
+                assertEquals("libtest.so", extracted.getFileName().toString());
+                assertArrayEquals(contents, Files.readAllBytes(extracted));
+            } finally {
+                Files.delete(extracted);
+                Files.delete(extracted.getParent());
+            }
+        } finally {
+            Files.delete(bundled);
+        }
+    }
+}
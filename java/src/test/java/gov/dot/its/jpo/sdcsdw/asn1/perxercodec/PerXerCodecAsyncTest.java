@@ -0,0 +1,195 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodecAsync.RejectionPolicy;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.RawPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+
+class PerXerCodecAsyncTest
+{
+    @Test
+    void testPerToXer() throws Exception
+    {
+        try (PerXerCodecAsync codec = new PerXerCodecAsync(2)) {
+            final String expectedXer = PerXerCodec.perToXer(Asn1Types.ServiceRequestType,
+                                                            TestData.HexPerTestServiceRequest.getTestInput(),
+                                                            TestData.HexPerTestServiceRequest.getUnformatter(),
+                                                            RawXerData.formatter);
+
+            assertEquals(expectedXer, codec.perToXer(Asn1Types.ServiceRequestType,
+                                                     TestData.HexPerTestServiceRequest.getTestInput(),
+                                                     TestData.HexPerTestServiceRequest.getUnformatter(),
+                                                     RawXerData.formatter).get());
+        }
+    }
+
+    @Test
+    void testXerToPer() throws Exception
+    {
+        try (PerXerCodecAsync codec = new PerXerCodecAsync(2)) {
+            final byte[] expectedPer = PerXerCodec.xerToPer(Asn1Types.ServiceRequestType,
+                                                            TestData.RawXerTestServiceRequest.getTestInput(),
+                                                            TestData.RawXerTestServiceRequest.getUnformatter(),
+                                                            RawPerData.formatter);
+
+            assertArrayEquals(expectedPer, codec.xerToPer(Asn1Types.ServiceRequestType,
+                                                          TestData.RawXerTestServiceRequest.getTestInput(),
+                                                          TestData.RawXerTestServiceRequest.getUnformatter(),
+                                                          RawPerData.formatter).get());
+        }
+    }
+
+    @Test
+    void testCodecFailure() throws Exception
+    {
+        try (PerXerCodecAsync codec = new PerXerCodecAsync(2)) {
+            CompletableFuture<String> future = codec.perToXer(Asn1Types.DataReceiptType,
+                                                              TestData.HexPerTestServiceRequest.getTestInput(),
+                                                              TestData.HexPerTestServiceRequest.getUnformatter(),
+                                                              RawXerData.formatter);
+
+            ExecutionException ex = assertThrows(ExecutionException.class, future::get);
+            assertTrue(ex.getCause() instanceof CodecFailedException);
+        }
+    }
+
+    @Test
+    void testFailWhenFull() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (PerXerCodecAsync codec = new PerXerCodecAsync(1, 1, RejectionPolicy.FAIL)) {
+            final CompletableFuture<Boolean> running = codec.submit(() -> release.await(10, TimeUnit.SECONDS));
+            awaitQueued(codec, 0);
+            final CompletableFuture<String> queued = codec.submit(() -> "queued");
+
+            final CompletableFuture<String> rejected = codec.submit(() -> "rejected");
+
+            ExecutionException ex = assertThrows(ExecutionException.class, rejected::get);
+            assertTrue(ex.getCause() instanceof RejectedExecutionException);
+
+            release.countDown();
+            assertTrue(running.get());
+            assertEquals("queued", queued.get());
+        }
+    }
+
+    @Test
+    void testCallerRunsWhenFull() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (PerXerCodecAsync codec = new PerXerCodecAsync(1, 1, RejectionPolicy.CALLER_RUNS)) {
+            codec.submit(() -> release.await(10, TimeUnit.SECONDS));
+            awaitQueued(codec, 0);
+            codec.submit(() -> "queued");
+
+            final Thread caller = Thread.currentThread();
+            final CompletableFuture<Thread> ranOn = codec.submit(Thread::currentThread);
+
+            assertSame(caller, ranOn.get());
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testBlockWhenFull() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (PerXerCodecAsync codec = new PerXerCodecAsync(1, 1, RejectionPolicy.BLOCK)) {
+            codec.submit(() -> release.await(10, TimeUnit.SECONDS));
+            awaitQueued(codec, 0);
+            codec.submit(() -> "queued");
+
+            final CompletableFuture<CompletableFuture<String>> submitted = CompletableFuture.supplyAsync(() -> codec.submit(() -> "blocked"));
+
+            Thread.sleep(100);
+            assertFalse(submitted.isDone());
+
+            release.countDown();
+            assertEquals("blocked", submitted.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testBlockedWhenClosedCompletes() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        final PerXerCodecAsync codec = new PerXerCodecAsync(1, 1, RejectionPolicy.BLOCK);
+        codec.submit(() -> release.await(10, TimeUnit.SECONDS));
+        awaitQueued(codec, 0);
+        codec.submit(() -> "queued");
+
+        final CompletableFuture<CompletableFuture<String>> submitted = CompletableFuture.supplyAsync(() -> codec.submit(() -> "blocked"));
+
+        Thread.sleep(100);
+        codec.close();
+        release.countDown();
+
+        // Whether the blocked conversion got in before the workers stopped is a race, but its future must complete
+        final CompletableFuture<String> blocked = submitted.get(10, TimeUnit.SECONDS);
+        try {
+            assertEquals("blocked", blocked.get(10, TimeUnit.SECONDS));
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof RejectedExecutionException);
+        }
+        assertTrue(codec.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testClosedRejects() throws Exception
+    {
+        final PerXerCodecAsync codec = new PerXerCodecAsync(1, 1, RejectionPolicy.CALLER_RUNS);
+        codec.close();
+
+        ExecutionException ex = assertThrows(ExecutionException.class, codec.submit(() -> "closed")::get);
+        assertTrue(ex.getCause() instanceof RejectedExecutionException);
+        assertTrue(codec.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testCancelledWhileQueuedIsSkipped() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch ran = new CountDownLatch(1);
+        try (PerXerCodecAsync codec = new PerXerCodecAsync(1, 1, RejectionPolicy.FAIL)) {
+            codec.submit(() -> release.await(10, TimeUnit.SECONDS));
+            awaitQueued(codec, 0);
+            final CompletableFuture<Object> queued = codec.submit(() -> { ran.countDown(); return null; });
+
+            queued.cancel(false);
+            release.countDown();
+
+            assertFalse(ran.await(100, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    void testInvalidArguments()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new PerXerCodecAsync(0));
+        assertThrows(IllegalArgumentException.class, () -> new PerXerCodecAsync(1, 0, RejectionPolicy.FAIL));
+        assertThrows(IllegalArgumentException.class, () -> new PerXerCodecAsync(1, 1, null));
+    }
+
+    /** Wait for the workers to take every conversion off the queue but the given number
+     *
+     * @param codec The codec to wait on
+     * @param count The number of conversions to leave queued
+     * @throws InterruptedException If interrupted while waiting
+     */
+    private static void awaitQueued(PerXerCodecAsync codec, int count) throws InterruptedException
+    {
+        while (codec.getQueuedCount() > count) {
+            Thread.sleep(1);
+        }
+    }
+}
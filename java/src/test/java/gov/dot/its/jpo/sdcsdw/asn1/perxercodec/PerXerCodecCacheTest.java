@@ -0,0 +1,123 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodecCache.Stats;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.RawPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.Utf8XerData;
+
+class PerXerCodecCacheTest
+{
+    @Test
+    void testPerToXerHit() throws Exception
+    {
+        final PerXerCodecCache cache = new PerXerCodecCache(1 << 20);
+        final String per = TestData.HexPerTestServiceRequest.getTestInput();
+        final String expectedXer = PerXerCodec.perToXer(Asn1Types.ServiceRequestType, per, HexPerData.unformatter, RawXerData.formatter);
+        
+        assertEquals(expectedXer, cache.perToXer(Asn1Types.ServiceRequestType, per, HexPerData.unformatter, RawXerData.formatter));
+        assertEquals(expectedXer, cache.perToXer(Asn1Types.ServiceRequestType, per, HexPerData.unformatter, RawXerData.formatter));
+        // The same bytes formatted differently are the same conversion
+        assertEquals(expectedXer, new String(cache.perToXer(Asn1Types.ServiceRequestType,
+                                                            HexPerData.unformatter.unformatPerData(per).getPerData(),
+                                                            RawPerData.unformatter,
+                                                            Utf8XerData.formatter), "UTF-8"));
+        
+        final Stats stats = cache.getStats();
+        assertEquals(1, stats.getMissCount());
+        assertEquals(2, stats.getHitCount());
+        assertEquals(1, stats.getSize());
+    }
+    
+    @Test
+    void testXerToPerHit() throws Exception
+    {
+        final PerXerCodecCache cache = new PerXerCodecCache(1 << 20);
+        final String xer = TestData.RawXerTestServiceRequest.getTestInput();
+        final byte[] expectedPer = PerXerCodec.xerToPer(Asn1Types.ServiceRequestType, xer, RawXerData.unformatter, RawPerData.formatter);
+        
+        final byte[] first = cache.xerToPer(Asn1Types.ServiceRequestType, xer, RawXerData.unformatter, RawPerData.formatter);
+        first[0] ^= 0xFF;
+        assertArrayEquals(expectedPer, cache.xerToPer(Asn1Types.ServiceRequestType, xer, RawXerData.unformatter, RawPerData.formatter));
+        
+        assertEquals(1, cache.getStats().getHitCount());
+    }
+    
+    @Test
+    void testKnownBadInput() throws Exception
+    {
+        final PerXerCodecCache cache = new PerXerCodecCache(1 << 20);
+        final String per = TestData.HexPerTestServiceRequest.getTestInput();
+        
+        assertThrows(CodecFailedException.class, () -> cache.perToXer(Asn1Types.DataReceiptType, per, HexPerData.unformatter, RawXerData.formatter));
+        assertThrows(CodecFailedException.class, () -> cache.perToXer(Asn1Types.DataReceiptType, per, HexPerData.unformatter, RawXerData.formatter));
+        
+        final Stats stats = cache.getStats();
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getFailureHitCount());
+    }
+    
+    @Test
+    void testTypeIsPartOfKey() throws Exception
+    {
+        final PerXerCodecCache cache = new PerXerCodecCache(1 << 20);
+        final String per = TestData.HexPerTestServiceRequest.getTestInput();
+        
+        assertThrows(CodecFailedException.class, () -> cache.perToXer(Asn1Types.DataReceiptType, per, HexPerData.unformatter, RawXerData.formatter));
+        assertNotNull(cache.perToXer(Asn1Types.ServiceRequestType, per, HexPerData.unformatter, RawXerData.formatter));
+        
+        assertEquals(2, cache.getStats().getMissCount());
+    }
+    
+    @Test
+    void testEviction() throws Exception
+    {
+        final String requestPer = TestData.HexPerTestServiceRequest.getTestInput();
+        final String responsePer = TestData.HexPerTestServiceResponse.getTestInput();
+        final long requestWeight;
+        {
+            final PerXerCodecCache sizing = new PerXerCodecCache(1 << 20);
+            sizing.perToXer(Asn1Types.ServiceRequestType, requestPer, HexPerData.unformatter, RawXerData.formatter);
+            requestWeight = sizing.getStats().getWeight();
+        }
+        
+        // Room for the request only
+        final PerXerCodecCache cache = new PerXerCodecCache(requestWeight);
+        cache.perToXer(Asn1Types.ServiceRequestType, requestPer, HexPerData.unformatter, RawXerData.formatter);
+        assertEquals(1, cache.getStats().getSize());
+        
+        assertThrows(CodecFailedException.class, () -> cache.perToXer(Asn1Types.ServiceRequestType, responsePer, HexPerData.unformatter, RawXerData.formatter));
+        cache.perToXer(Asn1Types.ServiceRequestType, requestPer, HexPerData.unformatter, RawXerData.formatter);
+        
+        final Stats stats = cache.getStats();
+        assertEquals(3, stats.getMissCount());
+        assertEquals(2, stats.getEvictionCount());
+        assertTrue(stats.getWeight() <= requestWeight);
+    }
+    
+    @Test
+    void testClear() throws Exception
+    {
+        final PerXerCodecCache cache = new PerXerCodecCache(1 << 20);
+        final String per = TestData.HexPerTestServiceRequest.getTestInput();
+        
+        cache.perToXer(Asn1Types.ServiceRequestType, per, HexPerData.unformatter, RawXerData.formatter);
+        cache.clear();
+        
+        assertEquals(0, cache.getStats().getSize());
+        assertEquals(0, cache.getStats().getWeight());
+        cache.perToXer(Asn1Types.ServiceRequestType, per, HexPerData.unformatter, RawXerData.formatter);
+        assertEquals(2, cache.getStats().getMissCount());
+    }
+    
+    @Test
+    void testInvalidArguments()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new PerXerCodecCache(0));
+    }
+}
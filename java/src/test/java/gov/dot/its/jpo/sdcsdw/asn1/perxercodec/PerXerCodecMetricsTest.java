@@ -0,0 +1,166 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodecMetrics.Direction;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodecMetrics.Stage;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodecMetrics.StageLatency;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.UnformattingFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+
+class PerXerCodecMetricsTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        metrics.reset();
+        metrics.setEnabled(true);
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        metrics.setEnabled(false);
+        metrics.reset();
+        PerXerCodecMetrics.unregister();
+    }
+    
+    @Test
+    void testCounts()
+    {
+        PerXerCodecMetrics.success(testType, Direction.PER_TO_XER);
+        PerXerCodecMetrics.success(testType, Direction.PER_TO_XER);
+        PerXerCodecMetrics.formattingFailure(testType, Direction.XER_TO_PER);
+        PerXerCodecMetrics.unformattingFailure(null, Direction.PER_TO_XER);
+        PerXerCodecMetrics.unexplainedNativeFailure(testType, Direction.XER_TO_PER);
+        
+        assertEquals(Map.of("DataReceipt.PER_TO_XER", 2L), metrics.getSuccessCounts());
+        assertEquals(Map.of("DataReceipt.XER_TO_PER", 1L), metrics.getFormattingFailureCounts());
+        assertEquals(Map.of("Unknown.PER_TO_XER", 1L), metrics.getUnformattingFailureCounts());
+        assertEquals(Map.of("DataReceipt.XER_TO_PER.UNKNOWN", 1L), metrics.getDecodeFailureCounts());
+        assertTrue(metrics.getIdValidationFailureCounts().isEmpty());
+    }
+    
+    @Test
+    void testSlotsNamedByKnownType()
+    {
+        PerXerCodecMetrics.success(new Asn1Type("Custom", Asn1Types.ServiceRequestType.cInt), Direction.PER_TO_XER);
+        PerXerCodecMetrics.success(Asn1Types.ServiceRequestType, Direction.PER_TO_XER);
+        
+        assertEquals(Map.of("ServiceRequest.PER_TO_XER", 2L), metrics.getSuccessCounts());
+    }
+    
+    @Test
+    void testDisabled()
+    {
+        metrics.setEnabled(false);
+        
+        PerXerCodecMetrics.success(testType, Direction.PER_TO_XER);
+        PerXerCodecMetrics.stage(testType, Direction.PER_TO_XER, Stage.NATIVE, 1000);
+        assertFalse(PerXerCodecMetrics.isRecording());
+        
+        assertTrue(metrics.getSuccessCounts().isEmpty());
+        assertTrue(metrics.getStageLatencies().isEmpty());
+    }
+    
+    @Test
+    void testLatencies()
+    {
+        for (int i = 1; i <= 100; ++i) {
+            PerXerCodecMetrics.stage(testType, Direction.PER_TO_XER, Stage.NATIVE, i * 1000);
+        }
+        
+        final StageLatency latency = metrics.getStageLatencies().get("DataReceipt.PER_TO_XER.NATIVE");
+        assertEquals(100, latency.getCount());
+        assertEquals(100000, latency.getMaxNanos());
+        assertEquals(50500, latency.getMeanNanos());
+        // Buckets are powers of two, so each percentile is within a factor of two above the true value
+        assertTrue(latency.getP50Nanos() >= 50000 && latency.getP50Nanos() < 2 * 50000, latency.toString());
+        assertTrue(latency.getP99Nanos() >= 99000 && latency.getP99Nanos() <= latency.getMaxNanos(), latency.toString());
+        assertTrue(latency.getP50Nanos() <= latency.getP90Nanos() && latency.getP90Nanos() <= latency.getP99Nanos());
+    }
+    
+    @Test
+    void testReset()
+    {
+        PerXerCodecMetrics.success(testType, Direction.PER_TO_XER);
+        PerXerCodecMetrics.stage(testType, Direction.PER_TO_XER, Stage.FORMAT, 1000);
+        metrics.reset();
+        
+        assertTrue(metrics.getSuccessCounts().isEmpty());
+        assertTrue(metrics.getStageLatencies().isEmpty());
+    }
+    
+    @Test
+    void testNativeFailures()
+    {
+        PerXerCodecMetrics.nativeFailure(testType, Direction.PER_TO_XER, Native.FAILURE_DECODE | 2);
+        PerXerCodecMetrics.nativeFailure(testType, Direction.PER_TO_XER, Native.FAILURE_DECODE | 1);
+        PerXerCodecMetrics.nativeFailure(testType, Direction.PER_TO_XER, Native.FAILURE_IDS);
+        PerXerCodecMetrics.nativeFailure(testType, Direction.XER_TO_PER, Native.FAILURE_ENCODE);
+        
+        assertEquals(Map.of("DataReceipt.PER_TO_XER.RC_FAIL", 1L, "DataReceipt.PER_TO_XER.RC_WMORE", 1L), metrics.getDecodeFailureCounts());
+        assertEquals(Map.of("DataReceipt.PER_TO_XER", 1L), metrics.getIdValidationFailureCounts());
+        assertEquals(Map.of("DataReceipt.XER_TO_PER", 1L), metrics.getEncodeFailureCounts());
+    }
+    
+    @Test
+    void testRegister() throws Exception
+    {
+        metrics.setEnabled(false);
+        PerXerCodecMetrics.register();
+        PerXerCodecMetrics.register();
+        assertTrue(metrics.isEnabled());
+        
+        PerXerCodecMetrics.success(testType, Direction.XER_TO_PER);
+        
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName(PerXerCodecMetrics.OBJECT_NAME);
+        assertEquals(Boolean.TRUE, server.getAttribute(name, "Enabled"));
+        assertEquals(1, ((TabularData) server.getAttribute(name, "SuccessCounts")).size());
+        
+        PerXerCodecMetrics.unregister();
+        assertFalse(server.isRegistered(name));
+    }
+    
+    @Test
+    void testConversions() throws Exception
+    {
+        final String per = TestData.HexPerTestServiceRequest.getTestInput();
+        
+        PerXerCodec.perToXer(Asn1Types.ServiceRequestType, per, HexPerData.unformatter, RawXerData.formatter);
+        assertThrows(CodecFailedException.class, () -> PerXerCodec.perToXer(Asn1Types.DataReceiptType, per, HexPerData.unformatter, RawXerData.formatter));
+        assertThrows(UnformattingFailedException.class, () -> PerXerCodec.perToXer(Asn1Types.ServiceRequestType, "not hex", HexPerData.unformatter, RawXerData.formatter));
+        
+        assertEquals(Map.of("ServiceRequest.PER_TO_XER", 1L), metrics.getSuccessCounts());
+        assertEquals(Map.of("ServiceRequest.PER_TO_XER", 1L), metrics.getUnformattingFailureCounts());
+        final long dataReceiptFailures = metrics.getDecodeFailureCounts().values().stream().mapToLong(Long::longValue).sum()
+                                       + metrics.getIdValidationFailureCounts().getOrDefault("DataReceipt.PER_TO_XER", 0L);
+        assertEquals(1, dataReceiptFailures);
+        
+        final Map<String, StageLatency> latencies = metrics.getStageLatencies();
+        // The failed unformat is counted above, but not timed
+        assertEquals(1, latencies.get("ServiceRequest.PER_TO_XER.UNFORMAT").getCount());
+        assertEquals(1, latencies.get("ServiceRequest.PER_TO_XER.NATIVE").getCount());
+        assertEquals(1, latencies.get("ServiceRequest.PER_TO_XER.FORMAT").getCount());
+    }
+    
+    /** Type to record metrics for */
+    private final Asn1Type testType = Asn1Types.DataReceiptType;
+    
+    /** The metrics under test */
+    private final PerXerCodecMetrics metrics = PerXerCodecMetrics.getInstance();
+}
@@ -2,14 +2,25 @@ package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec.ConversionResult;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec.TypeGuessResult;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.FormattingFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.UnformattingFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.RawPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.ByteBufferXerData;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.Utf8XerData;
 
 class PerXerCodecTest
 {
@@ -207,4 +218,185 @@ class PerXerCodecTest
         assertNull(result.getData());
         assertNull(result.getType());
     }
+
+    @Test
+    void testPerToXerBatchNullData()
+    {
+        assertThrows(IllegalArgumentException.class, 
+                     () -> PerXerCodec.perToXerBatch(Asn1Types.AdvisorySituationDataType, 
+                                                     Arrays.asList(TestData.HexPerTestAdvisorySituationData.getTestInput(), null),
+                                                     TestData.HexPerTestAdvisorySituationData.getUnformatter(),
+                                                     RawXerData.formatter));
+    }
+    
+    @Test
+    void testPerToXerBatch() throws Exception
+    {
+        List<ConversionResult<String>> results = PerXerCodec.perToXerBatch(Asn1Types.DataAcceptanceType,
+                                                                           Arrays.asList(TestData.HexPerTestDataAcceptance.getTestInput(),
+                                                                                         TestData.HexPerTestDataReceipt.getTestInput(),
+                                                                                         "not hex",
+                                                                                         TestData.HexPerTestDataAcceptance.getTestInput()),
+                                                                           HexPerData.unformatter,
+                                                                           RawXerData.formatter);
+        
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isSuccessful());
+        assertEquals(PerXerCodec.perToXer(Asn1Types.DataAcceptanceType, TestData.HexPerTestDataAcceptance.getTestInput(), HexPerData.unformatter, RawXerData.formatter),
+                     results.get(0).getData());
+        assertTrue(results.get(1).getFailure() instanceof CodecFailedException);
+        assertTrue(results.get(2).getFailure() instanceof UnformattingFailedException);
+        assertTrue(results.get(3).isSuccessful());
+    }
+    
+    @Test
+    void testXerToPerBatch() throws Exception
+    {
+        List<ConversionResult<byte[]>> results = PerXerCodec.xerToPerBatch(Asn1Types.DataReceiptType,
+                                                                           Arrays.asList(TestData.RawXerTestDataReceipt.getTestInput(),
+                                                                                         TestData.RawXerTestDataAcceptance.getTestInput(),
+                                                                                         TestData.RawXerTestDataReceipt.getTestInput()),
+                                                                           TestData.RawXerTestDataReceipt.getUnformatter(),
+                                                                           RawPerData.formatter);
+        
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccessful());
+        assertArrayEquals(PerXerCodec.xerToPer(Asn1Types.DataReceiptType, TestData.RawXerTestDataReceipt.getTestInput(), TestData.RawXerTestDataReceipt.getUnformatter(), RawPerData.formatter),
+                          results.get(0).getData());
+        assertTrue(results.get(1).getFailure() instanceof CodecFailedException);
+        assertTrue(results.get(2).isSuccessful());
+    }
+
+    @Test
+    void testPerBufferToXerDirect() throws Exception
+    {
+        final byte[] per = new HexPerData(TestData.HexPerTestServiceRequest.getTestInput()).getPerData();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(per.length + 3);
+        buffer.put(new byte[] { 1, 2, 3 });
+        buffer.put(per);
+        buffer.flip();
+        buffer.position(3);
+        
+        assertEquals(PerXerCodec.perToXer(Asn1Types.ServiceRequestType, per, RawPerData.unformatter, RawXerData.formatter),
+                     PerXerCodec.perBufferToXer(Asn1Types.ServiceRequestType, buffer, RawXerData.formatter));
+        assertEquals(3, buffer.position());
+    }
+    
+    @Test
+    void testXerToPerBufferDirect() throws Exception
+    {
+        final byte[] expectedPer = PerXerCodec.xerToPer(Asn1Types.ServiceRequestType,
+                                                        TestData.RawXerTestServiceRequest.getTestInput(),
+                                                        TestData.RawXerTestServiceRequest.getUnformatter(),
+                                                        RawPerData.formatter);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        buffer.position(1);
+        
+        final int written = PerXerCodec.xerToPerBuffer(Asn1Types.ServiceRequestType,
+                                                       TestData.RawXerTestServiceRequest.getTestInput(),
+                                                       TestData.RawXerTestServiceRequest.getUnformatter(),
+                                                       buffer);
+        
+        assertEquals(expectedPer.length, written);
+        assertEquals(1 + written, buffer.position());
+        final byte[] actualPer = new byte[written];
+        buffer.position(1);
+        buffer.get(actualPer);
+        assertArrayEquals(expectedPer, actualPer);
+    }
+    
+    @Test
+    void testXerToPerBufferTooSmall() throws Exception
+    {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(1);
+        
+        assertThrows(FormattingFailedException.class,
+                     () -> PerXerCodec.xerToPerBuffer(Asn1Types.ServiceRequestType,
+                                                      TestData.RawXerTestServiceRequest.getTestInput(),
+                                                      TestData.RawXerTestServiceRequest.getUnformatter(),
+                                                      buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void testPerToXerUtf8() throws Exception
+    {
+        final String expectedXer = PerXerCodec.perToXer(Asn1Types.ServiceRequestType,
+                                                        TestData.HexPerTestServiceRequest.getTestInput(),
+                                                        TestData.HexPerTestServiceRequest.getUnformatter(),
+                                                        RawXerData.formatter);
+        
+        final byte[] actualXer = PerXerCodec.perToXer(Asn1Types.ServiceRequestType,
+                                                      TestData.HexPerTestServiceRequest.getTestInput(),
+                                                      TestData.HexPerTestServiceRequest.getUnformatter(),
+                                                      Utf8XerData.formatter);
+        
+        assertArrayEquals(expectedXer.getBytes(StandardCharsets.UTF_8), actualXer);
+    }
+    
+    @Test
+    void testXerToPerUtf8() throws Exception
+    {
+        final String xer = TestData.RawXerTestServiceRequest.getTestInput();
+        final byte[] expectedPer = PerXerCodec.xerToPer(Asn1Types.ServiceRequestType,
+                                                        xer,
+                                                        RawXerData.unformatter,
+                                                        RawPerData.formatter);
+        final byte[] xerBytes = xer.getBytes(StandardCharsets.UTF_8);
+        
+        assertArrayEquals(expectedPer, PerXerCodec.xerToPer(Asn1Types.ServiceRequestType, xerBytes, Utf8XerData.unformatter, RawPerData.formatter));
+        
+        final ByteBuffer direct = ByteBuffer.allocateDirect(xerBytes.length + 2);
+        direct.put((byte) ' ').put(xerBytes).put((byte) ' ').flip();
+        direct.position(1);
+        assertArrayEquals(expectedPer, PerXerCodec.xerToPer(Asn1Types.ServiceRequestType, direct, ByteBufferXerData.unformatter, RawPerData.formatter));
+        assertEquals(1, direct.position());
+        
+        final TypeGuessResult<byte[]> guess = PerXerCodec.guessXerToPer(Asn1Types.getAllTypes(), xerBytes, Utf8XerData.unformatter, RawPerData.formatter);
+        assertEquals(Asn1Types.ServiceRequestType, guess.getType());
+        assertArrayEquals(expectedPer, guess.getData());
+    }
+    
+    @Test
+    void testValidatePer() throws Exception
+    {
+        final byte[] per = new HexPerData(TestData.HexPerTestDataReceipt.getTestInput()).getPerData();
+        
+        final ValidationResult valid = PerXerCodec.validatePer(Asn1Types.DataReceiptType, per, RawPerData.unformatter, true);
+        assertTrue(valid.isValid());
+        assertTrue(valid.getConsumedBits() > (per.length - 1) * 8L);
+        assertTrue(valid.getConsumedBits() <= per.length * 8L);
+        
+        assertFalse(PerXerCodec.validatePer(Asn1Types.DataAcceptanceType, per, RawPerData.unformatter).isValid());
+        assertFalse(PerXerCodec.validatePer(Asn1Types.DataReceiptType, Arrays.copyOf(per, 1), RawPerData.unformatter).isValid());
+        assertThrows(UnformattingFailedException.class,
+                     () -> PerXerCodec.validatePer(Asn1Types.DataReceiptType, "not hex", HexPerData.unformatter));
+    }
+    
+    @Test
+    void testValidateXer() throws Exception
+    {
+        final String xer = TestData.RawXerTestServiceRequest.getTestInput();
+        final byte[] xerBytes = xer.getBytes(StandardCharsets.UTF_8);
+        
+        final ValidationResult valid = PerXerCodec.validateXer(Asn1Types.ServiceRequestType, xer, RawXerData.unformatter);
+        assertEquals(ValidationResult.Status.VALID, valid.getStatus());
+        assertEquals(valid, PerXerCodec.validateXer(Asn1Types.ServiceRequestType, xerBytes, Utf8XerData.unformatter, true));
+        
+        assertFalse(PerXerCodec.validateXer(Asn1Types.DataRequestType, xer, RawXerData.unformatter).isValid());
+        assertFalse(PerXerCodec.validateXer(Asn1Types.ServiceRequestType, xer.substring(0, xer.length() / 2), RawXerData.unformatter).isValid());
+    }
+
+    @Test
+    void testValidateNullType()
+    {
+        assertThrows(IllegalArgumentException.class,
+                     () -> PerXerCodec.validatePer(null,
+                                                   TestData.HexPerTestServiceRequest.getTestInput(),
+                                                   HexPerData.unformatter));
+        assertThrows(IllegalArgumentException.class,
+                     () -> PerXerCodec.validateXer(null,
+                                                   TestData.RawXerTestServiceRequest.getTestInput(),
+                                                   RawXerData.unformatter));
+    }
 }
@@ -0,0 +1,67 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class SemiHeaderTest
+{
+    private static final Asn1Type testType = new Asn1Type("Test", 1);
+
+    private static long pack(int dialogId, int seqId, long idsEnd)
+    {
+        return ((long) dialogId << 48) | ((long) seqId << 32) | idsEnd;
+    }
+
+    @Test
+    void testReadIntAligned()
+    {
+        byte[] data = { 0x12, 0x34, 0x56, 0x78 };
+
+        assertEquals(0x12345678, SemiHeader.readInt(data, 0));
+    }
+
+    @Test
+    void testReadIntUnaligned()
+    {
+        byte[] data = { (byte) 0x81, 0x23, 0x45, 0x67, (byte) 0x80 };
+
+        assertEquals(0x02468ACF, SemiHeader.readInt(data, 1));
+        assertEquals(0x12345678, SemiHeader.readInt(data, 4));
+    }
+
+    @Test
+    void testFromNative()
+    {
+        // Two bits of ids, then a groupID of all ones and a requestID of 0x12345678
+        byte[] per = { 0x3F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xC4, (byte) 0x8D, 0x15, (byte) 0x9E, 0x00 };
+
+        SemiHeader header = SemiHeader.fromNative(testType, pack(157, 6, 2), per);
+
+        assertEquals(new SemiHeader(testType, 157, 6, 0xFFFFFFFF, 0x12345678), header);
+        assertEquals(157, header.getDialogId());
+        assertEquals(6, header.getSeqId());
+        assertEquals(0xFFFFFFFF, header.getGroupId());
+        assertEquals(0x12345678, header.getRequestId());
+    }
+
+    @Test
+    void testFromNativeFailed()
+    {
+        assertNull(SemiHeader.fromNative(testType, -1, new byte[16]));
+    }
+
+    @Test
+    void testFromNativeTooShort()
+    {
+        assertNull(SemiHeader.fromNative(testType, pack(157, 6, 10), new byte[9]));
+        assertNotNull(SemiHeader.fromNative(testType, pack(157, 6, 8), new byte[9]));
+    }
+
+    @Test
+    void testToString()
+    {
+        assertEquals("Test[dialogID=157, seqID=1, groupID=0000ABCD, requestID=FFFFFFFF]",
+                     new SemiHeader(testType, 157, 1, 0xABCD, -1).toString());
+    }
+}
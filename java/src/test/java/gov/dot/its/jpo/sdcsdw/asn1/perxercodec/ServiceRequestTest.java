@@ -22,6 +22,24 @@ class ServiceRequestTest
         TestData.assertPerDatumParsesAs(Asn1Types.getAllTypes(), Asn1Types.ServiceRequestType, TestData.HexPerTestServiceRequest);
     }
     
+    @Test
+    void testDetectType() throws Exception
+    {
+        TestData.assertPerDatumDetectedAs(Asn1Types.ServiceRequestType, TestData.HexPerTestServiceRequest);
+    }
+    
+    @Test
+    void testExtractHeader() throws Exception
+    {
+        TestData.assertPerDatumHeaderExtracts(Asn1Types.ServiceRequestType, TestData.HexPerTestServiceRequest);
+    }
+    
+    @Test
+    void testDecodePer() throws Exception
+    {
+        TestData.assertPerDatumDecodesOnce(Asn1Types.ServiceRequestType, TestData.HexPerTestServiceRequest);
+    }
+    
     @Test
     void testXerToPer() throws Exception
     {
@@ -22,6 +22,24 @@ class ServiceResponseTest
         TestData.assertPerDatumParsesAs(Asn1Types.getAllTypes(), Asn1Types.ServiceResponseType, TestData.HexPerTestServiceResponse);
     }
     
+    @Test
+    void testDetectType() throws Exception
+    {
+        TestData.assertPerDatumDetectedAs(Asn1Types.ServiceResponseType, TestData.HexPerTestServiceResponse);
+    }
+    
+    @Test
+    void testExtractHeader() throws Exception
+    {
+        TestData.assertPerDatumHeaderExtracts(Asn1Types.ServiceResponseType, TestData.HexPerTestServiceResponse);
+    }
+    
+    @Test
+    void testDecodePer() throws Exception
+    {
+        TestData.assertPerDatumDecodesOnce(Asn1Types.ServiceResponseType, TestData.HexPerTestServiceResponse);
+    }
+    
     @Test
     void testXerToPer() throws Exception
     {
@@ -0,0 +1,121 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.TestData.PerTestDatum;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+
+class StreamingConverterTest
+{
+    @Test
+    void testMalformedRequests()
+    {
+        assertTrue(StreamingConverter.respond("").startsWith("ERROR "));
+        assertTrue(StreamingConverter.respond("PER 16 ServiceRequest").startsWith("ERROR "));
+        assertEquals("ERROR Unknown format BER", StreamingConverter.respond("BER 16 ServiceRequest 00"));
+        assertEquals("ERROR Unknown PER encoding 32", StreamingConverter.respond("PER 32 ServiceRequest 00"));
+    }
+
+    @Test
+    void testUnexpectedFailure() throws Exception
+    {
+        final CodecBackend previousBackend = PerXerCodec.getBackend();
+        PerXerCodec.setBackend(new CodecBackend() {
+            @Override
+            public String getName()
+            {
+                return "failing";
+            }
+
+            @Override
+            public String perToXer(Asn1Type type, byte[] per)
+            {
+                throw new IllegalStateException("Backend\nfailed");
+            }
+
+            @Override
+            public byte[] xerToPer(Asn1Type type, String xer)
+            {
+                throw new IllegalStateException("Backend failed");
+            }
+
+            @Override
+            public int detectTypes(byte[] per)
+            {
+                throw new IllegalStateException("Backend failed");
+            }
+
+            @Override
+            public long extractSemiIds(Asn1Type type, byte[] per)
+            {
+                throw new IllegalStateException("Backend failed");
+            }
+        });
+
+        try {
+            final String hex = TestData.HexPerTestServiceRequest.getTestInput();
+            final StringWriter responses = new StringWriter();
+            StreamingConverter.run(new BufferedReader(new StringReader("PER 16 ServiceRequest " + hex + "\nPER 16 GUESS " + hex + "\n")), responses);
+            assertEquals("ERROR Backend&#10;failed\nERROR Backend failed\n", responses.toString());
+        } finally {
+            PerXerCodec.setBackend(previousBackend);
+        }
+    }
+
+    @Test
+    void testToSingleLine()
+    {
+        assertEquals("<A><B>1</B></A>", StreamingConverter.toSingleLine("<A>\n\t<B>1</B>\n</A>\n"));
+        assertEquals("<A>x&#10;y&#13;&#10;z</A>", StreamingConverter.toSingleLine("<A>x\ny\r\nz</A>"));
+        assertEquals("unchanged", StreamingConverter.toSingleLine("unchanged"));
+    }
+
+    @Test
+    void testRoundTripEveryType() throws Exception
+    {
+        final PerTestDatum<?, ?>[] data = { TestData.HexPerTestAdvisorySituationData,
+                                            TestData.HexPerTestServiceRequest,
+                                            TestData.HexPerTestServiceResponse,
+                                            TestData.HexPerTestDataRequest,
+                                            TestData.HexPerTestAdvisoryDataDistribution,
+                                            TestData.HexPerTestDataAcceptance,
+                                            TestData.HexPerTestDataReceipt };
+
+        final StringBuilder requests = new StringBuilder();
+        for (PerTestDatum<?, ?> datum : data) {
+            final String hex = (String) datum.getTestInput();
+            requests.append("PER 16 ").append(PerXerCodec.detectType(hex, HexPerData.unformatter).getName()).append(' ').append(hex).append('\n');
+        }
+        requests.append("PER 16 GUESS FFFF\n");
+
+        final StringWriter xerResponses = new StringWriter();
+        StreamingConverter.run(new BufferedReader(new StringReader(requests.toString())), xerResponses);
+        final String[] xerLines = xerResponses.toString().split("\n");
+        assertEquals(data.length + 1, xerLines.length);
+        assertTrue(xerLines[data.length].startsWith("ERROR "));
+
+        final StringBuilder roundTripRequests = new StringBuilder();
+        for (int i = 0; i < data.length; ++i) {
+            assertTrue(xerLines[i].startsWith("OK <"));
+            roundTripRequests.append("XER 16 GUESS ").append(xerLines[i].substring(3)).append('\n');
+        }
+
+        final StringWriter perResponses = new StringWriter();
+        StreamingConverter.run(new BufferedReader(new StringReader(roundTripRequests.toString())), perResponses);
+        final String[] perLines = perResponses.toString().split("\n");
+        assertEquals(data.length, perLines.length);
+        for (int i = 0; i < data.length; ++i) {
+            final String hex = (String) data[i].getTestInput();
+            final Asn1Type type = PerXerCodec.detectType(hex, HexPerData.unformatter);
+            final String xer = PerXerCodec.perToXer(type, hex, HexPerData.unformatter, RawXerData.formatter);
+            assertEquals("OK " + PerXerCodec.xerToPer(type, xer, RawXerData.unformatter, HexPerData.formatter), perLines[i]);
+        }
+    }
+}
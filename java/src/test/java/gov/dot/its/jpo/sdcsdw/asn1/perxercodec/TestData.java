@@ -9,6 +9,7 @@ import org.junit.jupiter.api.function.Executable;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerData;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.PerDataUnformatter;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.RawPerData;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerData;
 import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerDataUnformatter;
@@ -245,6 +246,74 @@ public class TestData
         assertNotNull(result.getData());
     }
     
+    /** Run PER test case and assert its type is detected from its header
+     * 
+     * @param type The type expected to be detected
+     * @param datum The test case to run
+     * @throws Exception If the test case could not be run
+     */
+    public static <T, PerT extends PerData<T>> void assertPerDatumDetectedAs(Asn1Type type, PerTestDatum<T, PerT> datum) throws Exception
+    {
+        assertEquals(type, PerXerCodec.detectType(datum.getTestInput(), datum.getUnformatter()));
+    }
+    
+    /** Run PER test case and assert its header fields match those of a full conversion
+     * 
+     * @param type The type the test case contains
+     * @param datum The test case to run
+     * @throws Exception If the test case could not be run
+     */
+    public static <T, PerT extends PerData<T>> void assertPerDatumHeaderExtracts(Asn1Type type, PerTestDatum<T, PerT> datum) throws Exception
+    {
+        String xer = PerXerCodec.perToXer(type, datum.getTestInput(), datum.getUnformatter(), RawXerData.formatter);
+        
+        SemiHeader header = PerXerCodec.extractHeader(type, datum.getTestInput(), datum.getUnformatter());
+        assertEquals(type, header.getType());
+        assertEquals(Integer.parseUnsignedInt(xerElementText(xer, "groupID"), 16), header.getGroupId());
+        assertEquals(Integer.parseUnsignedInt(xerElementText(xer, "requestID"), 16), header.getRequestId());
+        assertEquals(header, PerXerCodec.extractHeader(datum.getTestInput(), datum.getUnformatter()));
+    }
+    
+    /** Get the text of the first element with a name in XER data
+     * 
+     * @param xer The XER data
+     * @param name Name of the element
+     * @return The text of the element, with whitespace trimmed
+     */
+    private static String xerElementText(String xer, String name)
+    {
+        int start = xer.indexOf("<" + name + ">") + name.length() + 2;
+        int end = xer.indexOf("</" + name + ">", start);
+        return xer.substring(start, end).replaceAll("\\s", "");
+    }
+    
+    /** Run PER test case and assert it can be decoded once, then encoded repeatedly to the same output as a one-shot conversion
+     * 
+     * @param type The type to decode as
+     * @param datum The test case to run
+     * @throws Exception If the test case could not be run
+     */
+    public static <T, PerT extends PerData<T>> void assertPerDatumDecodesOnce(Asn1Type type, PerTestDatum<T, PerT> datum) throws Exception
+    {
+        String expectedXer = PerXerCodec.perToXer(type, datum.getTestInput(), datum.getUnformatter(), RawXerData.formatter);
+        byte[] expectedPer = PerXerCodec.xerToPer(type, expectedXer, RawXerData.unformatter, RawPerData.formatter);
+        
+        DecodedMessage message = PerXerCodec.decodePer(type, datum.getTestInput(), datum.getUnformatter());
+        try {
+            assertEquals(type, message.getType());
+            for (int i = 0; i < 2; ++i) {
+                assertEquals(expectedXer, message.toXer(RawXerData.formatter));
+                assertArrayEquals(expectedPer, message.toPer(RawPerData.formatter));
+            }
+        } finally {
+            message.close();
+        }
+        
+        assertTrue(message.isClosed());
+        assertThrows(IllegalStateException.class, () -> message.toXer(RawXerData.formatter));
+        message.close();
+    }
+    
     /** Run PER test case and assert it fails to parse
      * 
      * @param type The type to parse as
@@ -0,0 +1,56 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.ValidationResult.Status;
+
+class ValidationResultTest
+{
+    private static long pack(int failure, long consumedBits)
+    {
+        return ((long) failure << 32) | consumedBits;
+    }
+
+    @Test
+    void testValid()
+    {
+        final ValidationResult result = ValidationResult.fromNative(pack(Native.FAILURE_NONE, 123));
+
+        assertTrue(result.isValid());
+        assertEquals(Status.VALID, result.getStatus());
+        assertEquals(123, result.getConsumedBits());
+    }
+
+    @Test
+    void testDecodeFailures()
+    {
+        assertEquals(new ValidationResult(Status.DECODE_FAILED, 17),
+                     ValidationResult.fromNative(pack(Native.FAILURE_DECODE | 2, 17)));
+        assertEquals(new ValidationResult(Status.INCOMPLETE, 40),
+                     ValidationResult.fromNative(pack(Native.FAILURE_DECODE | 1, 40)));
+    }
+
+    @Test
+    void testCheckFailures()
+    {
+        assertEquals(Status.ID_MISMATCH, ValidationResult.fromNative(pack(Native.FAILURE_IDS, 8)).getStatus());
+        assertEquals(Status.CONSTRAINT_VIOLATED, ValidationResult.fromNative(pack(Native.FAILURE_CONSTRAINTS, 8)).getStatus());
+        assertEquals(Status.UNKNOWN_TYPE, ValidationResult.fromNative(pack(Native.FAILURE_TYPE, 0)).getStatus());
+        assertFalse(ValidationResult.fromNative(pack(Native.FAILURE_IDS, 8)).isValid());
+    }
+
+    @Test
+    void testConsumedBitsUnsigned()
+    {
+        assertEquals(0xFFFFFFFFL, ValidationResult.fromNative(pack(Native.FAILURE_NONE, 0xFFFFFFFFL)).getConsumedBits());
+    }
+
+    @Test
+    void testInvalidArguments()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new ValidationResult(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ValidationResult(Status.VALID, -1));
+    }
+}
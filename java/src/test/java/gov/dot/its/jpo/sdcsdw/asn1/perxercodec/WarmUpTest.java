@@ -0,0 +1,76 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.WarmUp.Stability;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+
+class WarmUpTest
+{
+    @Test
+    void testMessagesCoverEveryType() throws Exception
+    {
+        final Set<Asn1Type> types = new HashSet<>();
+        for (String message : WarmUp.messages()) {
+            final String[] fields = message.split(" ", 2);
+            final Asn1Type type = Asn1Types.getAsn1TypeByName(fields[0]);
+            assertNotNull(type, fields[0]);
+            assertTrue(HexPerData.decode(fields[1]).length > 0);
+            types.add(type);
+        }
+
+        final Set<Asn1Type> allTypes = new HashSet<>();
+        Asn1Types.getAllTypes().forEach(allTypes::add);
+        assertEquals(allTypes, types);
+    }
+
+    @Test
+    void testStabilityNeedsMinimumRounds()
+    {
+        final Stability stability = new Stability(5, 2, 0.1);
+
+        assertFalse(stability.add(100));
+        assertFalse(stability.add(100));
+        assertFalse(stability.add(100));
+        assertFalse(stability.add(100));
+        assertTrue(stability.add(100));
+    }
+
+    @Test
+    void testStabilityNeedsCloseRoundsInARow()
+    {
+        final Stability stability = new Stability(1, 3, 0.1);
+
+        assertFalse(stability.add(1000));
+        assertFalse(stability.add(500));
+        assertFalse(stability.add(505));
+        assertFalse(stability.add(300));
+        assertFalse(stability.add(310));
+        assertFalse(stability.add(305));
+        assertTrue(stability.add(300));
+    }
+
+    @Test
+    void testWarmUp()
+    {
+        final WarmUpReport report = PerXerCodec.warmUp(2, TimeUnit.MINUTES);
+
+        assertNull(report.getFailure());
+        assertTrue(report.isReady());
+        assertTrue(report.getRounds() > 0);
+        assertTrue(report.getConversionsPerRound() > 0);
+        assertTrue(PerXerCodec.isWarmedUp());
+    }
+
+    @Test
+    void testInvalidArguments()
+    {
+        assertThrows(IllegalArgumentException.class, () -> PerXerCodec.warmUp(1, null));
+    }
+}
@@ -0,0 +1,78 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class XerRootElementTest
+{
+    @Test
+    void testBareRoot()
+    {
+        assertEquals("DataRequest", XerRootElement.getName("<DataRequest><dialogID>"));
+    }
+
+    @Test
+    void testRootWithAttributes()
+    {
+        assertEquals("DataReceipt", XerRootElement.getName("<DataReceipt xmlns=\"urn:test\">"));
+    }
+
+    @Test
+    void testEmptyRoot()
+    {
+        assertEquals("DataAcceptance", XerRootElement.getName("<DataAcceptance/>"));
+    }
+
+    @Test
+    void testProlog()
+    {
+        String xml = "\uFEFF<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                   + "<!-- a comment with <FakeRoot> in it -->\n"
+                   + "<!DOCTYPE AdvisorySituationData [ <!ELEMENT AdvisorySituationData ANY> ]>\n"
+                   + "  <AdvisorySituationData>\n";
+
+        assertEquals("AdvisorySituationData", XerRootElement.getName(xml));
+    }
+
+    @Test
+    void testNotXml()
+    {
+        assertNull(XerRootElement.getName("not xml"));
+    }
+
+    @Test
+    void testEmpty()
+    {
+        assertNull(XerRootElement.getName(""));
+    }
+
+    @Test
+    void testTruncated()
+    {
+        assertNull(XerRootElement.getName("<?xml version=\"1.0\""));
+        assertNull(XerRootElement.getName("<ServiceRequest"));
+    }
+
+    @Test
+    void testUtf8()
+    {
+        byte[] xml = "\uFEFF<?xml version=\"1.0\"?><!-- caf\u00e9 --><DataRequest>".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("DataRequest", XerRootElement.getName(ByteBuffer.wrap(xml)));
+    }
+
+    @Test
+    void testUtf8LeavesBufferUntouched()
+    {
+        ByteBuffer xml = ByteBuffer.wrap("xx<ServiceResponse/>".getBytes(StandardCharsets.UTF_8));
+        xml.position(2);
+
+        assertEquals("ServiceResponse", XerRootElement.getName(xml));
+        assertEquals(2, xml.position());
+    }
+}
@@ -0,0 +1,66 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.EngineFailedException.Reason;
+
+class BitWriterTest
+{
+    @Test
+    void testUnalignedFieldsRoundTrip() throws Exception
+    {
+        final BitWriter writer = new BitWriter(1);
+        writer.bit(true);
+        writer.bits(0x5, 3);
+        writer.octet(0xA7);
+        writer.bits(0x123456789L, 36);
+        writer.bit(false);
+        writer.bits(0, 0);
+
+        final byte[] data = writer.toByteArray();
+        assertEquals(7, data.length);
+
+        final BitReader reader = new BitReader(data);
+        assertTrue(reader.bit());
+        assertEquals(0x5, reader.bits(3));
+        assertEquals(0xA7, reader.octet());
+        assertEquals(0x123456789L, reader.bits(36));
+        assertFalse(reader.bit());
+        assertEquals(49, reader.position());
+    }
+
+    @Test
+    void testSkippedBitsCanBeSetLater() throws Exception
+    {
+        final BitWriter writer = new BitWriter(1);
+        writer.bit(true);
+        final long reserved = writer.position();
+        writer.skip(6);
+        writer.bits(0xFF, 8);
+        writer.set(reserved, 0x2A, 6);
+
+        final BitReader reader = new BitReader(writer.toByteArray());
+        assertTrue(reader.bit());
+        assertEquals(0x2A, reader.bits(6));
+        assertEquals(0xFF, reader.bits(8));
+    }
+
+    @Test
+    void testEmptyEncodingIsOneByte()
+    {
+        assertArrayEquals(new byte[] { 0 }, new BitWriter(0).toByteArray());
+    }
+
+    @Test
+    void testReadingPastTheEndIsTruncated() throws Exception
+    {
+        final BitReader reader = new BitReader(new byte[] { (byte) 0xFF });
+        reader.skip(4);
+
+        final EngineFailedException ex = assertThrows(EngineFailedException.class, () -> reader.bits(5));
+        assertEquals(Reason.TRUNCATED, ex.getReason());
+        assertEquals(0xF, reader.bits(4));
+    }
+}
@@ -0,0 +1,191 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.TestData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.engine.EngineFailedException.Reason;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+
+class SemiMessageTest
+{
+    @Test
+    void testPerRoundTrips() throws Exception
+    {
+        for (Map.Entry<String, byte[]> sample : perSamples().entrySet()) {
+            final SemiMessage message = SemiMessage.forName(sample.getKey());
+            final String xer = message.perToXer(sample.getValue());
+
+            assertTrue(xer.startsWith("<" + sample.getKey() + ">"), xer);
+            assertArrayEquals(sample.getValue(), message.xerToPer(xer), sample.getKey());
+        }
+    }
+
+    @Test
+    void testPerToXerValues() throws Exception
+    {
+        final String serviceRequest = SemiMessage.forName("ServiceRequest").perToXer(perSamples().get("ServiceRequest"));
+        assertEquals("<ServiceRequest>"
+                       + "<dialogID><advSitDatDist/></dialogID>"
+                       + "<seqID><svcReq/></seqID>"
+                       + "<groupID>00000000</groupID>"
+                       + "<requestID>E054E21B</requestID>"
+                       + "<destination><port>46750</port></destination>"
+                     + "</ServiceRequest>",
+                     serviceRequest);
+
+        final String dataRequest = SemiMessage.forName("DataRequest").perToXer(perSamples().get("DataRequest"));
+        assertTrue(dataRequest.contains("<nwCorner><lat>"), dataRequest);
+        assertTrue(dataRequest.endsWith("<distType>02</distType></DataRequest>"), dataRequest);
+
+        final String distribution = SemiMessage.forName("AdvisorySituationDataDistribution").perToXer(perSamples().get("AdvisorySituationDataDistribution"));
+        assertTrue(distribution.contains("<recordCount>14</recordCount><bundleCount>2</bundleCount>"), distribution);
+        assertTrue(distribution.contains("<biTxMode><alternating/></biTxMode><biTxChannel><ch178/></biTxChannel>"), distribution);
+        assertTrue(distribution.contains("<biSignature><true/></biSignature><biEncryption><false/></biEncryption>"), distribution);
+    }
+
+    @Test
+    void testPerFailsForOtherTypes() throws Exception
+    {
+        for (Map.Entry<String, byte[]> sample : perSamples().entrySet()) {
+            for (SemiMessage message : SemiMessage.all()) {
+                if (!message.getName().equals(sample.getKey())) {
+                    assertThrows(EngineFailedException.class, () -> message.perToXer(sample.getValue()), message + " " + sample.getKey());
+                    assertEquals(-1, message.extractIds(sample.getValue()), message + " " + sample.getKey());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testXerRoundTrips() throws Exception
+    {
+        for (Map.Entry<String, String> sample : xerSamples().entrySet()) {
+            final SemiMessage message = SemiMessage.forName(sample.getKey());
+            final byte[] per = message.xerToPer(sample.getValue());
+
+            assertEquals(sample.getValue(), message.perToXer(per), sample.getKey());
+        }
+    }
+
+    @Test
+    void testXerFailsForOtherTypes() throws Exception
+    {
+        for (Map.Entry<String, String> sample : xerSamples().entrySet()) {
+            for (SemiMessage message : SemiMessage.all()) {
+                if (!message.getName().equals(sample.getKey())) {
+                    assertThrows(EngineFailedException.class, () -> message.xerToPer(sample.getValue()), message + " " + sample.getKey());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testXerWithWhitespace() throws Exception
+    {
+        final SemiMessage message = SemiMessage.forName("ServiceRequest");
+        final String xer = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                         + "<!-- A request -->\n"
+                         + "<ServiceRequest>\n"
+                         + "  <dialogID><advSitDatDist/></dialogID>\n"
+                         + "  <seqID><svcReq /></seqID>\n"
+                         + "  <groupID>00 00 00 00</groupID>\n"
+                         + "  <requestID>e054e21b</requestID>\n"
+                         + "  <destination>\n"
+                         + "    <port> 46750 </port>\n"
+                         + "  </destination>\n"
+                         + "</ServiceRequest>\n";
+
+        assertArrayEquals(perSamples().get("ServiceRequest"), message.xerToPer(xer));
+    }
+
+    @Test
+    void testExtractIds() throws Exception
+    {
+        final long ids = SemiMessage.forName("AdvisorySituationData").extractIds(perSamples().get("AdvisorySituationData"));
+        assertEquals(156, ids >>> 48);
+        assertEquals(5, (ids >>> 32) & 0xFFFF);
+        assertEquals(12, ids & 0xFFFFFFFFL);
+
+        final long distributionIds = SemiMessage.forName("AdvisorySituationDataDistribution").extractIds(perSamples().get("AdvisorySituationDataDistribution"));
+        assertEquals(157, distributionIds >>> 48);
+        assertEquals(5, (distributionIds >>> 32) & 0xFFFF);
+        assertEquals(10, distributionIds & 0xFFFFFFFFL);
+
+        assertEquals(-1, SemiMessage.forName("DataReceipt").extractIds(new byte[] { 0x19 }));
+    }
+
+    @Test
+    void testFailureReasons() throws Exception
+    {
+        final SemiMessage message = SemiMessage.forName("ServiceRequest");
+        final byte[] per = perSamples().get("ServiceRequest");
+
+        EngineFailedException ex = assertThrows(EngineFailedException.class, () -> message.perToXer(Arrays.copyOf(per, per.length - 2)));
+        assertEquals(Reason.TRUNCATED, ex.getReason());
+
+        final String xer = message.perToXer(per);
+        ex = assertThrows(EngineFailedException.class, () -> message.xerToPer(xer.replace("46750", "70000")));
+        assertEquals(Reason.UNENCODABLE, ex.getReason());
+
+        ex = assertThrows(EngineFailedException.class, () -> message.xerToPer(xer.replace("<svcReq/>", "<svcResp/>")));
+        assertEquals(Reason.IDS, ex.getReason());
+
+        ex = assertThrows(EngineFailedException.class, () -> message.xerToPer(xer.replace("<port>", "<portNumber>")));
+        assertEquals(Reason.MALFORMED, ex.getReason());
+
+        ex = assertThrows(EngineFailedException.class, () -> message.xerToPer(xer.substring(0, xer.length() / 2)));
+        assertEquals(Reason.TRUNCATED, ex.getReason());
+    }
+
+    @Test
+    void testInvalidArguments()
+    {
+        final SemiMessage message = SemiMessage.forName("DataReceipt");
+
+        assertNull(SemiMessage.forName("NotAType"));
+        assertEquals(7, SemiMessage.all().size());
+        assertThrows(IllegalArgumentException.class, () -> message.perToXer(null));
+        assertThrows(IllegalArgumentException.class, () -> message.xerToPer(null));
+        assertThrows(IllegalArgumentException.class, () -> message.extractIds(null));
+    }
+
+    /** Get the PER samples of every type
+     *
+     * @return The PER encoding of a message of each type, by the name of its type
+     * @throws Exception If a sample could not be decoded from hexadecimal
+     */
+    private static Map<String, byte[]> perSamples() throws Exception
+    {
+        final Map<String, byte[]> samples = new LinkedHashMap<>();
+        samples.put("AdvisorySituationData", HexPerData.decode(TestData.HexPerTestAdvisorySituationData.getTestInput()));
+        samples.put("ServiceRequest", HexPerData.decode(TestData.HexPerTestServiceRequest.getTestInput()));
+        samples.put("ServiceResponse", HexPerData.decode(TestData.HexPerTestServiceResponse.getTestInput()));
+        samples.put("DataRequest", HexPerData.decode(TestData.HexPerTestDataRequest.getTestInput()));
+        samples.put("AdvisorySituationDataDistribution", HexPerData.decode(TestData.HexPerTestAdvisoryDataDistribution.getTestInput()));
+        samples.put("DataAcceptance", HexPerData.decode(TestData.HexPerTestDataAcceptance.getTestInput()));
+        samples.put("DataReceipt", HexPerData.decode(TestData.HexPerTestDataReceipt.getTestInput()));
+        return samples;
+    }
+
+    /** Get the XER samples of every type
+     *
+     * @return The XER encoding of a message of each type, by the name of its type
+     */
+    private static Map<String, String> xerSamples()
+    {
+        final Map<String, String> samples = new LinkedHashMap<>();
+        samples.put("AdvisorySituationData", TestData.RawXerTestAdvisorySituationData.getTestInput());
+        samples.put("ServiceRequest", TestData.RawXerTestServiceRequest.getTestInput());
+        samples.put("ServiceResponse", TestData.RawXerTestServiceResponse.getTestInput());
+        samples.put("DataRequest", TestData.RawXerTestDataRequest.getTestInput());
+        samples.put("DataAcceptance", TestData.RawXerTestDataAcceptance.getTestInput());
+        samples.put("DataReceipt", TestData.RawXerTestDataReceipt.getTestInput());
+        return samples;
+    }
+}
@@ -0,0 +1,292 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec.ConversionResult;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecFailedException;
+
+class ConversionProcessorTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        executor = Executors.newFixedThreadPool(8);
+    }
+    
+    @AfterEach
+    void tearDown()
+    {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    void testOrdered() throws Exception
+    {
+        final TestProcessor processor = new TestProcessor(4, true);
+        final RecordingSubscriber subscriber = new RecordingSubscriber(1);
+        
+        processor.subscribe(subscriber);
+        new RangePublisher(100).subscribe(processor);
+        
+        subscriber.completion.get(10, TimeUnit.SECONDS);
+        assertEquals(100, subscriber.results.size());
+        for (int i = 0; i < 100; ++i) {
+            final ConversionResult<String> result = subscriber.results.get(i);
+            if (i % 7 == 0) {
+                assertFalse(result.isSuccessful());
+                assertTrue(result.getFailure() instanceof CodecFailedException);
+            } else {
+                assertTrue(result.isSuccessful());
+                assertEquals(Integer.toString(i), result.getData());
+            }
+        }
+    }
+    
+    @Test
+    void testUnordered() throws Exception
+    {
+        final TestProcessor processor = new TestProcessor(4, false);
+        final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        
+        processor.subscribe(subscriber);
+        new RangePublisher(100).subscribe(processor);
+        
+        subscriber.completion.get(10, TimeUnit.SECONDS);
+        final Set<String> converted = new HashSet<>();
+        int failures = 0;
+        for (ConversionResult<String> result : subscriber.results) {
+            if (result.isSuccessful()) {
+                converted.add(result.getData());
+            } else {
+                ++failures;
+            }
+        }
+        assertEquals(15, failures);
+        assertEquals(85, converted.size());
+    }
+    
+    @Test
+    void testBackpressure() throws Exception
+    {
+        final TestProcessor processor = new TestProcessor(4, true);
+        final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        final RangePublisher publisher = new RangePublisher(100);
+        
+        processor.subscribe(subscriber);
+        publisher.subscribe(processor);
+        
+        Thread.sleep(50);
+        assertEquals(0, publisher.requested.get());
+        
+        subscriber.subscription.request(2);
+        Thread.sleep(100);
+        assertEquals(2, publisher.requested.get());
+        assertEquals(2, subscriber.results.size());
+        
+        subscriber.subscription.request(50);
+        Thread.sleep(500);
+        assertEquals(52, subscriber.results.size());
+        assertTrue(publisher.requested.get() <= 52);
+        assertTrue(processor.maxConcurrent.get() <= 4, "At most 4 conversions at once, but saw " + processor.maxConcurrent.get());
+        assertFalse(subscriber.completion.isDone());
+        
+        subscriber.subscription.request(100);
+        subscriber.completion.get(10, TimeUnit.SECONDS);
+        assertEquals(100, subscriber.results.size());
+    }
+    
+    @Test
+    void testUpstreamErrorAfterHeldItems() throws Exception
+    {
+        final TestProcessor processor = new TestProcessor(4, true);
+        final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        final IllegalStateException error = new IllegalStateException("upstream failed");
+        
+        processor.subscribe(subscriber);
+        processor.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) { }
+            
+            @Override
+            public void cancel() { }
+        });
+        processor.onNext(1);
+        processor.onNext(2);
+        processor.onError(error);
+        
+        assertSame(error, assertThrows(Exception.class, () -> subscriber.completion.get(10, TimeUnit.SECONDS)).getCause());
+        assertEquals(2, subscriber.results.size());
+    }
+    
+    @Test
+    void testSecondSubscriberRefused() throws Exception
+    {
+        final TestProcessor processor = new TestProcessor(4, true);
+        final RecordingSubscriber first = new RecordingSubscriber(1);
+        final RecordingSubscriber second = new RecordingSubscriber(1);
+        
+        processor.subscribe(first);
+        processor.subscribe(second);
+        
+        assertThrows(Exception.class, () -> second.completion.get(10, TimeUnit.SECONDS));
+        assertFalse(first.completion.isDone());
+    }
+    
+    @Test
+    void testNonPositiveRequest() throws Exception
+    {
+        final TestProcessor processor = new TestProcessor(4, true);
+        final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        final RangePublisher publisher = new RangePublisher(10);
+        
+        processor.subscribe(subscriber);
+        publisher.subscribe(processor);
+        subscriber.subscription.request(0);
+        
+        assertTrue(assertThrows(Exception.class, () -> subscriber.completion.get(10, TimeUnit.SECONDS)).getCause() instanceof IllegalArgumentException);
+        assertTrue(publisher.cancelled);
+    }
+    
+    @Test
+    void testInvalidArguments()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new TestProcessor(0, true));
+    }
+    
+    /** Processor which converts integers to strings after a random delay, failing multiples of 7 */
+    private class TestProcessor extends ConversionProcessor<Integer, String>
+    {
+        TestProcessor(int parallelism, boolean ordered)
+        {
+            super(parallelism, ordered, executor);
+        }
+        
+        @Override
+        String convert(Integer item) throws CodecException
+        {
+            final int now = concurrent.incrementAndGet();
+            maxConcurrent.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+            
+            if (item % 7 == 0) {
+                throw new CodecFailedException("Multiple of 7: " + item);
+            }
+            return item.toString();
+        }
+        
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+    }
+    
+    /** Publisher of the integers from 0 up to a limit, which only sends what was requested */
+    private static class RangePublisher implements Flow.Publisher<Integer>
+    {
+        RangePublisher(int count)
+        {
+            this.count = count;
+        }
+        
+        @Override
+        public void subscribe(Flow.Subscriber<? super Integer> subscriber)
+        {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public synchronized void request(long n)
+                {
+                    requested.addAndGet(n);
+                    for (long i = 0; i < n && next < count && !cancelled; ++i) {
+                        subscriber.onNext(next++);
+                    }
+                    if (next == count && !completed) {
+                        completed = true;
+                        subscriber.onComplete();
+                    }
+                }
+                
+                @Override
+                public void cancel()
+                {
+                    cancelled = true;
+                }
+                
+                private int next;
+                private boolean completed;
+            });
+        }
+        
+        private final int count;
+        final AtomicLong requested = new AtomicLong();
+        volatile boolean cancelled;
+    }
+    
+    /** Subscriber which records every result, requesting a fixed number up front and one more per result */
+    private static class RecordingSubscriber implements Flow.Subscriber<ConversionResult<String>>
+    {
+        RecordingSubscriber(long initialRequest)
+        {
+            this.initialRequest = initialRequest;
+        }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription)
+        {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+        
+        @Override
+        public void onNext(ConversionResult<String> item)
+        {
+            results.add(item);
+            if (initialRequest == 1) {
+                subscription.request(1);
+            }
+        }
+        
+        @Override
+        public void onError(Throwable throwable)
+        {
+            completion.completeExceptionally(throwable);
+        }
+        
+        @Override
+        public void onComplete()
+        {
+            completion.complete(null);
+        }
+        
+        private final long initialRequest;
+        volatile Flow.Subscription subscription;
+        final List<ConversionResult<String>> results = Collections.synchronizedList(new ArrayList<>());
+        final CompletableFuture<Void> completion = new CompletableFuture<>();
+    }
+    
+    private ExecutorService executor;
+}
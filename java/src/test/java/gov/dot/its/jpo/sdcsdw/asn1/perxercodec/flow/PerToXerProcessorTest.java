@@ -0,0 +1,121 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.Asn1Types;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.PerXerCodec.ConversionResult;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.TestData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.RawPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+
+class PerToXerProcessorTest
+{
+    @Test
+    void testPerToXer() throws Exception
+    {
+        final String per = TestData.HexPerTestServiceRequest.getTestInput();
+        final String expectedXer = PerXerCodec.perToXer(Asn1Types.ServiceRequestType, per, HexPerData.unformatter, RawXerData.formatter);
+        
+        final List<ConversionResult<String>> results = process(
+                new PerToXerProcessor<>(Asn1Types.ServiceRequestType, HexPerData.unformatter, RawXerData.formatter, 4, true),
+                per, "00");
+        
+        for (int i = 0; i < results.size(); ++i) {
+            if (i == BAD_INDEX) {
+                assertTrue(results.get(i).getFailure() instanceof CodecFailedException);
+            } else {
+                assertEquals(expectedXer, results.get(i).getData());
+            }
+        }
+    }
+    
+    @Test
+    void testXerToPer() throws Exception
+    {
+        final String xer = TestData.RawXerTestServiceRequest.getTestInput();
+        final byte[] expectedPer = PerXerCodec.xerToPer(Asn1Types.ServiceRequestType, xer, RawXerData.unformatter, RawPerData.formatter);
+        
+        final List<ConversionResult<byte[]>> results = process(
+                new XerToPerProcessor<>(Asn1Types.ServiceRequestType, RawXerData.unformatter, RawPerData.formatter, 4, true),
+                xer, "<ServiceRequest/>");
+        
+        for (int i = 0; i < results.size(); ++i) {
+            if (i == BAD_INDEX) {
+                assertTrue(results.get(i).getFailure() instanceof CodecFailedException);
+            } else {
+                assertArrayEquals(expectedPer, results.get(i).getData());
+            }
+        }
+    }
+    
+    /** Publish a number of copies of an input, with one bad input in the middle, through a processor
+     *
+     * @param processor The processor to publish through
+     * @param good The input which should convert
+     * @param bad The input which should fail to convert
+     * @return The results, in order
+     * @throws Exception If the stream ended with an error
+     */
+    private static <O> List<ConversionResult<O>> process(Flow.Processor<String, ConversionResult<O>> processor,
+                                                         String good,
+                                                         String bad) throws Exception
+    {
+        final List<ConversionResult<O>> results = new CopyOnWriteArrayList<>();
+        final CompletableFuture<Void> completion = new CompletableFuture<>();
+        
+        processor.subscribe(new Flow.Subscriber<ConversionResult<O>>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription)
+            {
+                subscription.request(Long.MAX_VALUE);
+            }
+            
+            @Override
+            public void onNext(ConversionResult<O> item)
+            {
+                results.add(item);
+            }
+            
+            @Override
+            public void onError(Throwable throwable)
+            {
+                completion.completeExceptionally(throwable);
+            }
+            
+            @Override
+            public void onComplete()
+            {
+                completion.complete(null);
+            }
+        });
+        
+        try (SubmissionPublisher<String> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(processor);
+            for (int i = 0; i < COUNT; ++i) {
+                publisher.submit(i == BAD_INDEX ? bad : good);
+            }
+        }
+        
+        completion.get(10, TimeUnit.SECONDS);
+        assertEquals(COUNT, results.size());
+        return results;
+    }
+    
+    /** Number of inputs to publish */
+    private static final int COUNT = 20;
+    
+    /** Index of the input which should fail */
+    private static final int BAD_INDEX = 10;
+}
@@ -2,10 +2,13 @@ package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.HashSet;
 
-import javax.xml.bind.DatatypeConverter;
-
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
@@ -14,7 +17,7 @@ import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.UnformattingFailedExcep
 class Base64PerDataTest
 {
     private static final byte[] expectedBytes = new byte[] {0, 1, 2, 3, 4};
-    private static final String expectedBase64 = DatatypeConverter.printBase64Binary(expectedBytes);
+    private static final String expectedBase64 = Base64.getEncoder().encodeToString(expectedBytes);
     
     @Test
     void testValid() throws Exception
@@ -99,5 +102,91 @@ class Base64PerDataTest
     {
         assertThrows(IllegalArgumentException.class, () -> new Base64PerData((byte[])null));
     }
-   
+    
+    @Test
+    void testLineBreaksIgnored() throws Exception
+    {
+        assertArrayEquals(expectedBytes, new Base64PerData("AAEC\r\nAwQ=").getPerData());
+    }
+    
+    @Test
+    void testDecodeByteBuffer() throws Exception
+    {
+        final ByteBuffer source = ByteBuffer.wrap(("xx" + expectedBase64 + "xx").getBytes(StandardCharsets.US_ASCII), 2, expectedBase64.length());
+        final ByteBuffer dest = ByteBuffer.allocate(16);
+        dest.position(1);
+        
+        assertEquals(expectedBytes.length, Base64PerData.decode(source, dest));
+        assertFalse(source.hasRemaining());
+        assertEquals(1 + expectedBytes.length, dest.position());
+        
+        final byte[] decoded = new byte[expectedBytes.length];
+        dest.position(1);
+        dest.get(decoded);
+        assertArrayEquals(expectedBytes, decoded);
+    }
+    
+    @Test
+    void testDecodeIntoDirectBuffer() throws Exception
+    {
+        final ByteBuffer dest = ByteBuffer.allocateDirect(expectedBytes.length);
+        
+        assertEquals(expectedBytes.length, Base64PerData.decode(ByteBuffer.wrap(expectedBase64.getBytes(StandardCharsets.US_ASCII)), dest));
+        
+        final byte[] decoded = new byte[expectedBytes.length];
+        dest.flip();
+        dest.get(decoded);
+        assertArrayEquals(expectedBytes, decoded);
+    }
+    
+    @Test
+    void testDecodeCharSequenceRegion() throws Exception
+    {
+        final CharSequence source = CharBuffer.wrap("{\"per\":\"" + expectedBase64 + "\"}");
+        final ByteBuffer dest = ByteBuffer.allocate(expectedBytes.length);
+        
+        assertEquals(expectedBytes.length, Base64PerData.decode(source, 8, 8 + expectedBase64.length(), dest));
+        assertArrayEquals(expectedBytes, dest.array());
+    }
+    
+    @Test
+    void testDecodeTooSmall() throws Exception
+    {
+        assertThrows(BufferOverflowException.class, () -> Base64PerData.decode(expectedBase64, 0, expectedBase64.length(), ByteBuffer.allocate(expectedBytes.length - 1)));
+    }
+    
+    @Test
+    void testDecodeInvalidBuffer() throws Exception
+    {
+        assertThrows(UnformattingFailedException.class, () -> Base64PerData.decode("A===", 0, 4, ByteBuffer.allocate(4)));
+    }
+    
+    @Test
+    void testEncodeByteBuffer() throws Exception
+    {
+        final ByteBuffer dest = ByteBuffer.allocate(Base64PerData.encodedLength(expectedBytes.length));
+        final ByteBuffer source = ByteBuffer.wrap(expectedBytes);
+        
+        assertEquals(expectedBase64.length(), Base64PerData.encode(source, dest));
+        assertFalse(source.hasRemaining());
+        assertFalse(dest.hasRemaining());
+        assertEquals(expectedBase64, new String(dest.array(), StandardCharsets.US_ASCII));
+    }
+    
+    @Test
+    void testEncodeDirectByteBuffer() throws Exception
+    {
+        final ByteBuffer source = ByteBuffer.allocateDirect(expectedBytes.length);
+        source.put(expectedBytes).flip();
+        final ByteBuffer dest = ByteBuffer.allocate(expectedBase64.length());
+        
+        Base64PerData.encode(source, dest);
+        assertEquals(expectedBase64, new String(dest.array(), StandardCharsets.US_ASCII));
+    }
+    
+    @Test
+    void testEncodeTooSmall() throws Exception
+    {
+        assertThrows(BufferOverflowException.class, () -> Base64PerData.encode(ByteBuffer.wrap(expectedBytes), ByteBuffer.allocate(expectedBase64.length() - 1)));
+    }
 }
@@ -48,6 +48,31 @@ class ByteBufferPerDataTest
         assertArrayEquals(expectedBytes.array(), data.getPerData());
     }
     
+    @Test
+    void testPositionPreserved() throws Exception
+    {
+        final ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 9, 9, 0, 1, 2, 3, 4, 9 });
+        buffer.position(2);
+        buffer.limit(7);
+        final ByteBufferPerData data = new ByteBufferPerData(buffer);
+        
+        assertArrayEquals(expectedBytes.array(), data.getPerData());
+        assertArrayEquals(expectedBytes.array(), data.getPerData());
+        assertEquals(2, buffer.position());
+    }
+    
+    @Test
+    void testSlice() throws Exception
+    {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+        buffer.put(new byte[] { 9, 0, 1, 2, 3, 4, 9, 9 });
+        buffer.position(1);
+        final ByteBuffer slice = buffer.slice();
+        slice.limit(5);
+        
+        assertArrayEquals(expectedBytes.array(), new ByteBufferPerData(slice).getPerData());
+    }
+    
     @Test
     void testUseAsHashKey() throws Exception
     {
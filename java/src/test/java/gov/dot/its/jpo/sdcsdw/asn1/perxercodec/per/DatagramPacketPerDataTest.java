@@ -47,6 +47,14 @@ class DatagramPacketPerDataTest
         assertArrayEquals(expectedBytes, data.getPerData());
     }
     
+    @Test
+    void testBytesPreservedWithOffset() throws Exception
+    {
+        final byte[] paddedBytes = new byte[] { 9, 9, 0, 1, 2, 3, 4, 9 };
+        final DatagramPacketPerData data = new DatagramPacketPerData(new DatagramPacket(paddedBytes, 2, expectedBytes.length));
+        assertArrayEquals(expectedBytes, data.getPerData());
+    }
+    
     @Test
     void testUseAsHashKey() throws Exception
     {
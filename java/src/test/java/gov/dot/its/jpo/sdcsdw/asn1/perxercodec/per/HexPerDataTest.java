@@ -2,6 +2,7 @@ package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.CharBuffer;
 import java.util.HashSet;
 
 import org.junit.jupiter.api.Test;
@@ -132,5 +133,95 @@ class HexPerDataTest
     {
         assertThrows(IllegalArgumentException.class, () -> new HexPerData((byte[])null));
     }
-
+    
+    @Test
+    void testFormattedFromBytes() throws Exception
+    {
+        assertEquals("00 01 02 03 04 ", new HexPerData(expectedBytes).getFormattedPerData());
+        assertEquals("7F 80 FF ", new HexPerData(new byte[] {0x7F, (byte) 0x80, (byte) 0xFF}).getFormattedPerData());
+    }
+    
+    @Test
+    void testMixedCase() throws Exception
+    {
+        assertArrayEquals(new byte[] {(byte) 0xAB, (byte) 0xCD}, new HexPerData("0XaBcD").getPerData());
+    }
+    
+    @Test
+    void testOtherWhitespace() throws Exception
+    {
+        assertArrayEquals(expectedBytes, new HexPerData("00\t01\r\n02  03\n04\n").getPerData());
+    }
+    
+    @Test
+    void testLeadingWhitespace() throws Exception
+    {
+        assertThrows(UnformattingFailedException.class, () -> new HexPerData(" 00 01 02 03 04"));
+        assertThrows(UnformattingFailedException.class, () -> new HexPerData("\t0001020304"));
+        assertThrows(UnformattingFailedException.class, () -> new HexPerData("\n0x00 0x01"));
+        assertThrows(UnformattingFailedException.class, () -> new HexPerData("   "));
+        assertThrows(UnformattingFailedException.class, () -> HexPerData.decodedLength(" 00"));
+    }
+    
+    @Test
+    void testInvalidDigit() throws Exception
+    {
+        assertThrows(UnformattingFailedException.class, () -> new HexPerData("000g"));
+        assertThrows(UnformattingFailedException.class, () -> new HexPerData("0x0x"));
+        assertThrows(UnformattingFailedException.class, () -> new HexPerData("-1"));
+    }
+    
+    @Test
+    void testMissingPrefixInSection() throws Exception
+    {
+        assertThrows(UnformattingFailedException.class, () -> new HexPerData("0x00 1201"));
+    }
+    
+    @Test
+    void testDecodeCharBuffer() throws Exception
+    {
+        final CharBuffer buffer = CharBuffer.wrap("xx00 01 02 03 04xx".toCharArray(), 2, 14);
+        assertArrayEquals(expectedBytes, HexPerData.decode(buffer));
+    }
+    
+    @Test
+    void testDecodeIntoArray() throws Exception
+    {
+        final byte[] dest = new byte[7];
+        assertEquals(5, HexPerData.decode("0x0001020304", dest, 1));
+        assertArrayEquals(new byte[] {0, 0, 1, 2, 3, 4, 0}, dest);
+    }
+    
+    @Test
+    void testDecodeIntoArrayTooSmall() throws Exception
+    {
+        assertThrows(IllegalArgumentException.class, () -> HexPerData.decode("0001020304", new byte[4], 0));
+    }
+    
+    @Test
+    void testEncodeAppendable() throws Exception
+    {
+        final StringBuilder out = new StringBuilder("> ");
+        HexPerData.encode(expectedBytes, out);
+        assertEquals("> 00 01 02 03 04 ", out.toString());
+    }
+    
+    @Test
+    void testEncodeIntoArray() throws Exception
+    {
+        final char[] dest = new char[HexPerData.encodedLength(expectedBytes.length) + 1];
+        assertEquals(15, HexPerData.encode(expectedBytes, dest, 1));
+        assertEquals("00 01 02 03 04 ", new String(dest, 1, 15));
+    }
+    
+    @Test
+    void testRoundTrip() throws Exception
+    {
+        final byte[] allBytes = new byte[256];
+        for (int i = 0; i < allBytes.length; ++i) {
+            allBytes[i] = (byte) i;
+        }
+        
+        assertArrayEquals(allBytes, new HexPerData(new HexPerData(allBytes).getFormattedPerData()).getPerData());
+    }
 }
@@ -0,0 +1,179 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.udp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.Asn1Type;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.Asn1Types;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.TestData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.TestData.PerTestDatum;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.CodecFailedException;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.RawXerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer.XerDataFormatter;
+
+class DatagramIngestTest
+{
+    private static DatagramChannel openChannel() throws Exception
+    {
+        return DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    private static void send(DatagramChannel sender, DatagramChannel receiver, byte[] datagram) throws Exception
+    {
+        sender.send(ByteBuffer.wrap(datagram), receiver.getLocalAddress());
+    }
+
+    @Test
+    void testConvertsEveryType() throws Exception
+    {
+        final PerTestDatum<?, ?>[] data = { TestData.HexPerTestAdvisorySituationData,
+                                            TestData.HexPerTestServiceRequest,
+                                            TestData.HexPerTestServiceResponse,
+                                            TestData.HexPerTestDataRequest,
+                                            TestData.HexPerTestAdvisoryDataDistribution,
+                                            TestData.HexPerTestDataAcceptance,
+                                            TestData.HexPerTestDataReceipt };
+        final BlockingQueue<IngestedDatagram<String>> results = new LinkedBlockingQueue<>();
+
+        try (DatagramChannel receiver = openChannel(); DatagramChannel sender = openChannel()) {
+            final DatagramIngest<String> ingest = new DatagramIngest<>(receiver, RawXerData.formatter, results::add, 2, 4, 16384, 2);
+            try {
+                for (PerTestDatum<?, ?> datum : data) {
+                    send(sender, receiver, new HexPerData((String) datum.getTestInput()).getPerData());
+                }
+                send(sender, receiver, new byte[] { (byte) 0xFF, (byte) 0xFF });
+
+                final Set<Asn1Type> types = new HashSet<>();
+                int failures = 0;
+                for (int i = 0; i < data.length + 1; ++i) {
+                    final IngestedDatagram<String> result = results.poll(10, TimeUnit.SECONDS);
+                    assertNotNull(result);
+                    assertEquals(sender.getLocalAddress(), result.getSource());
+                    if (result.isSuccessful()) {
+                        assertNotNull(result.getData());
+                        types.add(result.getType());
+                    } else {
+                        assertNull(result.getType());
+                        assertTrue(result.getFailure() instanceof CodecFailedException);
+                        ++failures;
+                    }
+                }
+
+                final Set<Asn1Type> allTypes = new HashSet<>();
+                Asn1Types.getAllTypes().forEach(allTypes::add);
+                assertEquals(allTypes, types);
+                assertEquals(1, failures);
+                assertEquals(data.length + 1, ingest.getReceivedCount());
+                assertEquals(data.length, ingest.getConvertedCount());
+                assertEquals(1, ingest.getFailedCount());
+            } finally {
+                ingest.close();
+            }
+
+            assertTrue(ingest.awaitTermination(10, TimeUnit.SECONDS));
+            assertEquals(4, ingest.getAvailableBufferCount());
+            assertNull(ingest.getReceiveFailure());
+            assertTrue(receiver.isOpen());
+        }
+    }
+
+    @Test
+    void testTooLarge() throws Exception
+    {
+        final BlockingQueue<IngestedDatagram<String>> results = new LinkedBlockingQueue<>();
+
+        try (DatagramChannel receiver = openChannel(); DatagramChannel sender = openChannel()) {
+            final DatagramIngest<String> ingest = new DatagramIngest<>(receiver, RawXerData.formatter, results::add, 1, 1, 8, 1);
+            try {
+                send(sender, receiver, new HexPerData(TestData.HexPerTestServiceRequest.getTestInput()).getPerData());
+
+                final IngestedDatagram<String> result = results.poll(10, TimeUnit.SECONDS);
+                assertNotNull(result);
+                assertFalse(result.isSuccessful());
+                assertTrue(result.getFailure() instanceof CodecFailedException);
+            } finally {
+                ingest.close();
+            }
+
+            assertTrue(ingest.awaitTermination(10, TimeUnit.SECONDS));
+            assertEquals(1, ingest.getAvailableBufferCount());
+        }
+    }
+
+    @Test
+    void testUnexpectedFailures() throws Exception
+    {
+        final XerDataFormatter<String, RawXerData> throwingFormatter = xer -> { throw new IllegalArgumentException("Formatter failed"); };
+        final BlockingQueue<IngestedDatagram<String>> results = new LinkedBlockingQueue<>();
+
+        try (DatagramChannel receiver = openChannel(); DatagramChannel sender = openChannel()) {
+            final DatagramIngest<String> ingest = new DatagramIngest<>(receiver, throwingFormatter, results::add, 1, 2, 16384, 2);
+            try {
+                for (int i = 0; i < 3; ++i) {
+                    send(sender, receiver, new HexPerData(TestData.HexPerTestServiceRequest.getTestInput()).getPerData());
+                }
+
+                for (int i = 0; i < 3; ++i) {
+                    final IngestedDatagram<String> result = results.poll(10, TimeUnit.SECONDS);
+                    assertNotNull(result);
+                    assertFalse(result.isSuccessful());
+                    assertTrue(result.getFailure().getCause() instanceof RuntimeException);
+                }
+                assertEquals(3, ingest.getFailedCount());
+                assertEquals(0, ingest.getConvertedCount());
+            } finally {
+                ingest.close();
+            }
+
+            assertTrue(ingest.awaitTermination(10, TimeUnit.SECONDS));
+            assertEquals(2, ingest.getAvailableBufferCount());
+        }
+    }
+
+    @Test
+    void testCloseWithoutTraffic() throws Exception
+    {
+        try (DatagramChannel receiver = openChannel()) {
+            final DatagramIngest<String> ingest = new DatagramIngest<>(receiver, RawXerData.formatter, new LinkedBlockingQueue<>());
+            ingest.close();
+
+            assertTrue(ingest.awaitTermination(10, TimeUnit.SECONDS));
+            assertEquals(0, ingest.getReceivedCount());
+            assertTrue(receiver.isOpen());
+            assertFalse(receiver.isBlocking());
+        }
+    }
+
+    @Test
+    void testInvalidArguments() throws Exception
+    {
+        try (DatagramChannel receiver = openChannel()) {
+            assertThrows(IllegalArgumentException.class,
+                         () -> new DatagramIngest<>(null, RawXerData.formatter, result -> { }));
+            assertThrows(IllegalArgumentException.class,
+                         () -> new DatagramIngest<String>(receiver, null, result -> { }));
+            assertThrows(IllegalArgumentException.class,
+                         () -> new DatagramIngest<>(receiver, RawXerData.formatter, (BlockingQueue<IngestedDatagram<String>>) null));
+            assertThrows(IllegalArgumentException.class,
+                         () -> new DatagramIngest<>(receiver, RawXerData.formatter, result -> { }, 0, 1, 1, 1));
+            assertThrows(IllegalArgumentException.class,
+                         () -> new DatagramIngest<>(receiver, RawXerData.formatter, result -> { }, 1, 0, 1, 1));
+            assertThrows(IllegalArgumentException.class,
+                         () -> new DatagramIngest<>(receiver, RawXerData.formatter, result -> { }, 1, 1, DatagramIngest.MAX_DATAGRAM_SIZE + 1, 1));
+            assertThrows(IllegalArgumentException.class,
+                         () -> new DatagramIngest<>(receiver, RawXerData.formatter, result -> { }, 1, 1, 1, 0));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class ByteBufferXerDataTest
+{
+    @Test
+    void testEqualsSelf() throws Exception
+    {
+        final ByteBufferXerData data = new ByteBufferXerData(new byte[0]);
+        
+        assertEquals(data, data);
+    }
+    
+    @Test
+    void testNotEqualsNull() throws Exception
+    {
+        assertFalse(new ByteBufferXerData(new byte[0]).equals(null));
+    }
+    
+    @Test
+    void testNotEqualsDifferentData() throws Exception
+    {
+        assertFalse(new ByteBufferXerData(new byte[0]).equals(new ByteBufferXerData(utf8("<a/>"))));
+    }
+    
+    @Test
+    void testEqualsSameDataInOtherRepresentation() throws Exception
+    {
+        assertEquals(new ByteBufferXerData(utf8("<a>\u00e9</a>")), new Utf8XerData(utf8("<a>\u00e9</a>")));
+    }
+    
+    @Test
+    void testOnlyRemainingBytesAreData() throws Exception
+    {
+        final ByteBuffer buffer = ByteBuffer.wrap(utf8("junk<a>\u00e9</a>junk"));
+        buffer.position(4);
+        buffer.limit(buffer.limit() - 4);
+        final ByteBufferXerData data = new ByteBufferXerData(buffer);
+        
+        assertEquals("<a>\u00e9</a>", data.getXerData());
+        assertEquals(ByteBuffer.wrap(utf8("<a>\u00e9</a>")), data.getXerDataUtf8());
+        assertSame(buffer, data.getFormattedXerData());
+        assertEquals(4, buffer.position());
+    }
+    
+    @Test
+    void testDirectBuffer() throws Exception
+    {
+        final byte[] xmlBytes = utf8("<a>\u00e9</a>");
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(xmlBytes.length);
+        buffer.put(xmlBytes).flip();
+        
+        assertEquals("<a>\u00e9</a>", new ByteBufferXerData(buffer).getXerData());
+    }
+    
+    @Test
+    void testFormatterFromString() throws Exception
+    {
+        final String xmlString = "<a>\u00e9</a>";
+        
+        assertEquals(ByteBuffer.wrap(utf8(xmlString)), ByteBufferXerData.formatter.formatXerData(xmlString).getFormattedXerData());
+    }
+    
+    private static byte[] utf8(String s)
+    {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -3,7 +3,13 @@ package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -12,7 +18,7 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.w3c.dom.Document;
 
-import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.per.HexPerData;
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.FormattingFailedException;
 
 class DocumentXerDataTest
 {
@@ -114,5 +120,46 @@ class DocumentXerDataTest
     {
         assertThrows(IllegalArgumentException.class, () -> new DocumentXerData((Document)null));
     }
-   
+    
+    @Test
+    void testDoctypeRejected() throws Exception
+    {
+        assertThrows(FormattingFailedException.class, () -> new DocumentXerData("<!DOCTYPE a [<!ENTITY e \"b\">]><a>&e;</a>"));
+    }
+    
+    @Test
+    void testReuseAfterFailure() throws Exception
+    {
+        assertThrows(FormattingFailedException.class, () -> new DocumentXerData("<a>"));
+        assertEquals("b", new DocumentXerData(expectedXml).getFormattedXerData().getDocumentElement().getTextContent());
+    }
+    
+    @Test
+    void testConcurrentParsing() throws Exception
+    {
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; ++i) {
+                final String text = Integer.toString(i);
+                final Callable<Boolean> parser = () -> {
+                    for (int j = 0; j < 1000; ++j) {
+                        Document document = new DocumentXerData("<a>" + text + "</a>").getFormattedXerData();
+                        if (!text.equals(document.getDocumentElement().getTextContent())) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+                results.add(executor.submit(parser));
+            }
+            
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -0,0 +1,91 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
+
+class Utf8XerDataTest
+{
+    @Test
+    void testEqualsSelf() throws Exception
+    {
+        final Utf8XerData data = new Utf8XerData(new byte[0]);
+        
+        assertEquals(data, data);
+    }
+    
+    @Test
+    void testNotEqualsNull() throws Exception
+    {
+        assertFalse(new Utf8XerData(new byte[0]).equals(null));
+    }
+    
+    @Test
+    void testNotEqualsDifferentData() throws Exception
+    {
+        assertFalse(new Utf8XerData(new byte[0]).equals(new Utf8XerData(utf8("<a/>"))));
+    }
+    
+    @Test
+    void testNotEqualsDifferentType() throws Exception
+    {
+        assertFalse(new Utf8XerData(new byte[0]).equals(new Object()));
+    }
+    
+    @Test
+    void testEqualsSameDataInOtherRepresentation() throws Exception
+    {
+        assertEquals(new Utf8XerData(utf8("<a>\u00e9</a>")), new RawXerData("<a>\u00e9</a>"));
+    }
+    
+    @Test
+    void testNonAsciiPreserved() throws Exception
+    {
+        final String xmlString = "<a>caf\u00e9 \ud83d\ude97</a>";
+        final byte[] xmlBytes = utf8(xmlString);
+        final Utf8XerData data = new Utf8XerData(xmlBytes);
+        
+        assertSame(xmlBytes, data.getFormattedXerData());
+        assertEquals(xmlString, data.getXerData());
+        assertEquals(xmlString, data.toString());
+        assertEquals(ByteBuffer.wrap(xmlBytes), data.getXerDataUtf8());
+    }
+    
+    @Test
+    void testFormatterFromString() throws Exception
+    {
+        final String xmlString = "<a>\u00e9</a>";
+        
+        assertArrayEquals(utf8(xmlString), Utf8XerData.formatter.formatXerData(xmlString).getFormattedXerData());
+    }
+    
+    @Test
+    void testFormatterFromBytes() throws Exception
+    {
+        final byte[] xmlBytes = utf8("<a/>");
+        
+        assertSame(xmlBytes, Utf8XerData.formatter.formatXerDataUtf8(xmlBytes).getFormattedXerData());
+    }
+    
+    @Test
+    void testUseAsHashKey() throws Exception
+    {
+        final HashSet<Utf8XerData> set = new HashSet<>();
+        final Utf8XerData data1 = new Utf8XerData(new byte[0]);
+        final Utf8XerData data2 = new Utf8XerData(utf8("<a/>"));
+        
+        set.add(data1);
+        
+        assertTrue(set.contains(new Utf8XerData(new byte[0])));
+        assertFalse(set.contains(data2));
+    }
+    
+    private static byte[] utf8(String s)
+    {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,126 @@
+package gov.dot.its.jpo.sdcsdw.asn1.perxercodec.xer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.HashSet;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import org.junit.jupiter.api.Test;
+
+import gov.dot.its.jpo.sdcsdw.asn1.perxercodec.exception.UnformattingFailedException;
+
+class XmlStreamReaderXerDataTest
+{
+    private static final String expectedXml = "<a><b>c</b><d/></a>";
+    
+    private static XMLStreamReader newReader(String xml) throws Exception
+    {
+        return XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml));
+    }
+    
+    @Test
+    void testEqualsSelf() throws Exception
+    {
+        final XmlStreamReaderXerData data = new XmlStreamReaderXerData(expectedXml);
+        
+        assertEquals(data, data);
+    }
+    
+    @Test
+    void testNotEqualsNull() throws Exception
+    {
+        assertFalse(new XmlStreamReaderXerData(expectedXml).equals(null));
+    }
+    
+    @Test
+    void testEqualsSameData() throws Exception
+    {
+        assertEquals(new XmlStreamReaderXerData(expectedXml), new XmlStreamReaderXerData(expectedXml));
+    }
+    
+    @Test
+    void testNotEqualsDifferentData() throws Exception
+    {
+        assertFalse(new XmlStreamReaderXerData(expectedXml).equals(new XmlStreamReaderXerData("<b>a</b>")));
+    }
+    
+    @Test
+    void testNotEqualsDifferentType() throws Exception
+    {
+        assertFalse(new XmlStreamReaderXerData(expectedXml).equals(new Object()));
+    }
+    
+    @Test
+    void testXmlStringPreserved() throws Exception
+    {
+        final XmlStreamReaderXerData data = new XmlStreamReaderXerData(expectedXml);
+        assertEquals(expectedXml, data.getXerData());
+    }
+    
+    @Test
+    void testFormattedReaderIsLazy() throws Exception
+    {
+        // Malformed content past the root start tag is only noticed once a consumer pulls that far
+        final XMLStreamReader reader = XmlStreamReaderXerData.formatter.formatXerData("<a><b></a>").getFormattedXerData();
+        
+        assertEquals(XMLStreamConstants.START_ELEMENT, reader.nextTag());
+        assertEquals("a", reader.getLocalName());
+    }
+    
+    @Test
+    void testFormattedReaderEvents() throws Exception
+    {
+        final XMLStreamReader reader = XmlStreamReaderXerData.formatter.formatXerData(expectedXml).getFormattedXerData();
+        
+        assertEquals("a", nextStartElement(reader));
+        assertEquals("b", nextStartElement(reader));
+        assertEquals("c", reader.getElementText());
+        assertEquals("d", nextStartElement(reader));
+    }
+    
+    @Test
+    void testUnformatRoundTrip() throws Exception
+    {
+        final XmlStreamReaderXerData data = XmlStreamReaderXerData.unformatter.unformatXerData(newReader(expectedXml));
+        
+        assertEquals("<a><b>c</b><d></d></a>", data.getXerData());
+    }
+    
+    @Test
+    void testUnformatSkipsProlog() throws Exception
+    {
+        final String xml = "<?xml version=\"1.0\"?><!-- comment --><a>b &amp; c</a>";
+        final XmlStreamReaderXerData data = XmlStreamReaderXerData.unformatter.unformatXerData(newReader(xml));
+        
+        assertEquals("<a>b &amp; c</a>", data.getXerData());
+    }
+    
+    @Test
+    void testUnformatMalformed() throws Exception
+    {
+        assertThrows(UnformattingFailedException.class, () -> new XmlStreamReaderXerData(newReader("<a><b></a>")));
+    }
+    
+    @Test
+    void testUseAsHashKey() throws Exception
+    {
+        final HashSet<XmlStreamReaderXerData> set = new HashSet<>();
+        final XmlStreamReaderXerData data1 = new XmlStreamReaderXerData(expectedXml);
+        final XmlStreamReaderXerData data2 = new XmlStreamReaderXerData("<b>a</b>");
+        
+        set.add(data1);
+        
+        assertTrue(set.contains(data1));
+        assertFalse(set.contains(data2));
+    }
+    
+    private static String nextStartElement(XMLStreamReader reader) throws Exception
+    {
+        while (reader.next() != XMLStreamConstants.START_ELEMENT) { }
+        return reader.getLocalName();
+    }
+}
@@ -12,6 +12,9 @@
 #include <jni.h>
 
 #include "asn1/asn_application.h"
+#include "asn1/asn_internal.h"
+#include "asn1/per_decoder.h"
+#include "asn1/xer_decoder.h"
 #include "asn1/AdvisorySituationData.h"
 #include "asn1/ServiceRequest.h"
 #include "asn1/ServiceResponse.h"
@@ -24,55 +27,83 @@
 
 #include <stdio.h>
 
+#include "per_xer_alloc.h"
+
+// Enough leading bytes of a message to hold the preamble, dialogID and seqID of any type
+#define SEMI_HEADER_PEEK_SIZE 8
+
+// Largest dialogID or seqID value which can be handed back packed by extractSemiIds
+#define SEMI_ID_PACKED_MAX 0xFFFE
+
+// Why the last conversion on a thread failed, these must match the FAILURE_ constants in Native.java
+#define FAILURE_NONE 0
+// The low byte holds the asn_dec_rval_t code
+#define FAILURE_DECODE 0x100
+#define FAILURE_IDS 0x200
+#define FAILURE_ENCODE 0x300
+#define FAILURE_TYPE 0x400
+#define FAILURE_CONSTRAINTS 0x500
+
+static __thread int last_failure = FAILURE_NONE;
+
 typedef struct semi_ids_s {
 	SemiDialogID_t dialog_id;
 	int dialog_id_constrained;
 	SemiSequenceID_t seq_id;
 	int seq_id_constrained;
+	// Bits which precede the dialogID in UPER: the SEQUENCE preamble, one bit per OPTIONAL member
+	size_t id_bit_offset;
 } semi_ids_t;
 
 const semi_ids_t AdvisorySituationDataIDs = {
 		.dialog_id = 0x9C,
 		.dialog_id_constrained = 1,
 		.seq_id = 0x05,
-		.seq_id_constrained = 1
+		.seq_id_constrained = 1,
+		.id_bit_offset = 2
 };
 
 const semi_ids_t ServiceRequestIDs = {
 		.dialog_id_constrained = 0,
 		.seq_id = 0x01,
-		.seq_id_constrained = 1
+		.seq_id_constrained = 1,
+		.id_bit_offset = 1
 };
 
 const semi_ids_t ServiceResponseIDs = {
 		.dialog_id_constrained = 0,
 		.seq_id = 0x02,
-		.seq_id_constrained = 1
+		.seq_id_constrained = 1,
+		.id_bit_offset = 1
 };
 
 const semi_ids_t DataRequestIDs = {
 		.dialog_id_constrained = 0,
 		.seq_id = 0x03,
-		.seq_id_constrained = 1
+		.seq_id_constrained = 1,
+		.id_bit_offset = 1
 };
 
 const semi_ids_t AdvisorySituationDataDistributionIDs = {
 		.dialog_id = 0x9D,
 		.dialog_id_constrained = 1,
 		.seq_id = 0x05,
-		.seq_id_constrained = 1
+		.seq_id_constrained = 1,
+		.id_bit_offset = 0
 };
 
 const semi_ids_t DataAcceptanceIDs = {
 		.dialog_id_constrained = 0,
 		.seq_id = 0x06,
-		.seq_id_constrained = 1
+		.seq_id_constrained = 1,
+		.id_bit_offset = 0
 };
 
 const semi_ids_t DataReceiptIDs = {
 		.dialog_id_constrained = 0,
 		.seq_id = 0x07,
-		.seq_id_constrained = 1
+		.seq_id_constrained = 1,
+		.id_bit_offset = 0
 };
 
 enum asn1Type
@@ -83,46 +114,50 @@ enum asn1Type
 	ASN1TYPE_DATA_REQUEST = 3,
 	ASN1TYPE_ADVISORY_SITUATION_DATA_DISTRIBUTION = 4,
 	ASN1TYPE_DATA_ACCEPTANCE = 5,
-	ASN1TYPE_DATA_RECEIPT = 6
+	ASN1TYPE_DATA_RECEIPT = 6,
+	ASN1TYPE_COUNT
 };
 
 
-void left_shift_buffer(uint8_t *buf, size_t buf_size)
+asn_dec_rval_t uper_decode_at_bit(const struct asn_codec_ctx_s *opt_codec_ctx,
+                                  const struct asn_TYPE_descriptor_s *type_descriptor,
+                                  void **structure_ptr,
+                                  const uint8_t *buf,
+                                  size_t buf_size,
+                                  size_t bit_offset)
 {
-	int carry_in = 0;
+	// uper_decode can only skip up to 7 bits itself, so skip whole bytes by starting further into the buffer
+	size_t byte_offset = bit_offset / 8;
 
-	for (int i = buf_size-1; i >= 0; --i) {
-		uint8_t carry_out = !!(buf[i] & 0x80);
-		buf[i] <<= 1;
-		buf[i] &= carry_out;
-		carry_in = carry_out;
+	if (byte_offset >= buf_size) {
+		asn_dec_rval_t rval = { .code = RC_WMORE, .consumed = 0 };
+		return rval;
 	}
+
+	return uper_decode(opt_codec_ctx, type_descriptor, structure_ptr, buf + byte_offset, buf_size - byte_offset, bit_offset % 8, 0);
 }
 
-int try_extract_semi_ids(const struct asn_codec_ctx_s *opt_codec_ctx, uint8_t *buf, size_t buf_size, SemiDialogID_t **dialog_id, SemiSequenceID_t **seq_id)
+int try_extract_semi_ids(const struct asn_codec_ctx_s *opt_codec_ctx, const uint8_t *buf, size_t buf_size, size_t bit_offset, SemiDialogID_t *dialog_id, SemiSequenceID_t *seq_id, size_t *ids_end_bit_offset)
 {
+	// Decode straight into the caller's storage, so nothing is allocated or copied
 	void *dialog_id_proxy = dialog_id;
-	asn_dec_rval_t dialog_id_rval = asn_decode(opt_codec_ctx, ATS_UNALIGNED_CANONICAL_PER, &asn_DEF_SemiDialogID, dialog_id_proxy, buf, buf_size);
-	dialog_id = dialog_id_proxy;
-	if (dialog_id_rval.code == RC_OK) {
-		uint8_t *shift_buf = malloc(buf_size);
-		memcpy(shift_buf, buf, buf_size);
-		size_t offset = dialog_id_rval.consumed;
-		for(int i = 0; i < offset; ++i) {
-			left_shift_buffer(shift_buf, buf_size-i);
-		}
-		void *seq_id_proxy = seq_id;
-		asn_dec_rval_t seq_id_rval = asn_decode(opt_codec_ctx, ATS_UNALIGNED_CANONICAL_PER, &asn_DEF_SemiSequenceID, seq_id_proxy, shift_buf, buf_size-offset);
-		seq_id = seq_id_proxy;
-		free(shift_buf);
-		if (seq_id_rval.code == RC_OK) {
-			return 0;
-		}
+	asn_dec_rval_t dialog_id_rval = uper_decode_at_bit(opt_codec_ctx, &asn_DEF_SemiDialogID, &dialog_id_proxy, buf, buf_size, bit_offset);
+	if (dialog_id_rval.code != RC_OK) {
+		return -1;
+	}
+
+	// The seqID immediately follows the dialogID, consumed is the number of bits the dialogID took up
+	void *seq_id_proxy = seq_id;
+	asn_dec_rval_t seq_id_rval = uper_decode_at_bit(opt_codec_ctx, &asn_DEF_SemiSequenceID, &seq_id_proxy, buf, buf_size, bit_offset + dialog_id_rval.consumed);
+	if (seq_id_rval.code != RC_OK) {
+		return -1;
+	}
 
-		free(*dialog_id);
+	if (ids_end_bit_offset != NULL) {
+		*ids_end_bit_offset = bit_offset + dialog_id_rval.consumed + seq_id_rval.consumed;
 	}
 
-	return -1;
+	return 0;
 }
 
 
@@ -149,6 +184,37 @@ struct asn_TYPE_descriptor_s *pick_type(enum asn1Type type) {
 	}
 }
 
+int conversion_begin(void)
+{
+#ifdef PER_XER_ARENA_HOOKED
+	// Everything the generated code allocates until conversion_end comes from this thread's arena
+	return per_xer_arena_begin();
+#else
+	// The generated code allocates from the C library, so everything must be freed piece by piece
+	return 0;
+#endif
+}
+
+void conversion_end(int arena_began)
+{
+	if (arena_began) {
+		per_xer_arena_end();
+	}
+}
+
+void release_decoded(const struct asn_TYPE_descriptor_s *type_descriptor, void *structure)
+{
+	// Inside the arena the whole structure goes away when the arena ends, so there is no need to walk it
+	if (structure != NULL && !per_xer_arena_active()) {
+		ASN_STRUCT_FREE(*type_descriptor, structure);
+	}
+}
+
+void release_encoded(void *buffer)
+{
+	per_xer_free(buffer);
+}
+
 const semi_ids_t *get_expected_type_ids(enum asn1Type type) {
 	switch (type)
 	{
@@ -239,6 +305,27 @@ int decoded_ids_valid(enum asn1Type type, void *data)
 	}
 }
 
+int detect_semi_types(const uint8_t *buf, size_t buf_size)
+{
+	struct asn_codec_ctx_s dummy_context = { .max_stack_size = 0 }; // No stack limit
+
+	int candidates = 0;
+
+	// Every type places its ids at its own offset, so peek at each type's offset and keep the types whose ids match
+	for (int type = 0; type < ASN1TYPE_COUNT; ++type) {
+		const semi_ids_t *expected_ids = get_expected_type_ids(type);
+		SemiDialogID_t dialog_id;
+		SemiSequenceID_t seq_id;
+
+		if (try_extract_semi_ids(&dummy_context, buf, buf_size, expected_ids->id_bit_offset, &dialog_id, &seq_id, NULL) == 0
+		    && ids_are_expected(expected_ids, &dialog_id, &seq_id)) {
+			candidates |= 1 << type;
+		}
+	}
+
+	return candidates;
+}
+
 int xer_to_per_c(const struct asn_codec_ctx_s *opt_codec_ctx,
                   const struct asn_TYPE_descriptor_s *type_descriptor,
                   const void *input_buffer,
@@ -264,6 +351,9 @@ int xer_to_per_c(const struct asn_codec_ctx_s *opt_codec_ctx,
 
     *dec_rval = asn_decode(opt_codec_ctx, ATS_CANONICAL_XER, type_descriptor, local_intermediate_ptr, input_buffer, input_size);
     if (dec_rval->code != RC_OK) {
+    		// A failed decode can still leave a partially filled structure behind
+    		release_decoded(type_descriptor, *local_intermediate_ptr);
+    		*local_intermediate_ptr = NULL;
     		return 0;
     }
 
@@ -274,7 +364,7 @@ int xer_to_per_c(const struct asn_codec_ctx_s *opt_codec_ctx,
     *output_size_ptr = enc_rval->encoded;
 
     if (intermediate_ptr == NULL) {
-    		free(local_intermediate);
+    		release_decoded(type_descriptor, local_intermediate);
     }
 
     if (enc_rval->encoded == -1) {
@@ -309,6 +399,9 @@ int per_to_xer_c(const struct asn_codec_ctx_s *opt_codec_ctx,
 
 	*dec_rval = asn_decode(opt_codec_ctx, ATS_UNALIGNED_CANONICAL_PER, type_descriptor, local_intermediate_ptr, input_buffer, input_size);
 	if (dec_rval->code != RC_OK) {
+		// A failed decode can still leave a partially filled structure behind
+		release_decoded(type_descriptor, *local_intermediate_ptr);
+		*local_intermediate_ptr = NULL;
 		return 0;
 	}
 
@@ -318,7 +411,7 @@ int per_to_xer_c(const struct asn_codec_ctx_s *opt_codec_ctx,
 	*enc_rval = enc_result.result;
 
 	if (intermediate_ptr == NULL) {
-		free(local_intermediate);
+		release_decoded(type_descriptor, local_intermediate);
 	}
 
 	if (enc_rval->encoded == -1) {
@@ -328,15 +421,11 @@ int per_to_xer_c(const struct asn_codec_ctx_s *opt_codec_ctx,
 	}
 }
 
-JNIEXPORT jbyteArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_xerToPer(JNIEnv* env, jclass myClass, jint type, jstring xer)
+jbyteArray xer_to_per_java(JNIEnv* env, enum asn1Type type, const void *xer_c, size_t xer_c_size)
 {
 	// Create dummy context
-	// TODO: accept this as an argument?
     struct asn_codec_ctx_s dummy_context = { .max_stack_size = 0 }; // No stack limit
-    
-    // Create a C string from the XER Java String
-    const char *xer_c = (*env)->GetStringUTFChars(env, xer, NULL);
-    size_t xer_c_size = (*env)->GetStringLength(env, xer);
+
     void* per_c = NULL;
     size_t per_c_size = 0;
     asn_dec_rval_t dec_rval;
@@ -350,43 +439,48 @@ JNIEXPORT jbyteArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
     // If the type is valid, attempt to decode and re-encode
 
     if (type_descriptor != NULL) {
-    		void *intermediate;
+    		void *intermediate = NULL;
+    		int arena_began = conversion_begin();
 
 		if (xer_to_per_c(&dummy_context, type_descriptor, xer_c, xer_c_size, &per_c, &per_c_size, &dec_rval, &enc_rval, &intermediate)) {
 			// If successful, check that the ids of the decoded type are correct
 			if (decoded_ids_valid(type, intermediate)) {
 				// If valid, copy the PER c byte array into the java byte array
 				per = (*env)->NewByteArray(env, per_c_size);
-				(*env)->SetByteArrayRegion(env, per, 0, per_c_size, per_c);
+				if (per != NULL) {
+					(*env)->SetByteArrayRegion(env, per, 0, per_c_size, per_c);
+				}
+				last_failure = FAILURE_NONE;
+			} else {
+				last_failure = FAILURE_IDS;
 			}
-			free(intermediate);
+		} else {
+			last_failure = dec_rval.code != RC_OK ? FAILURE_DECODE | dec_rval.code : FAILURE_ENCODE;
 		}
-    }
 
-    // Release the c string array we got from the Java XER string
-
-    (*env)->ReleaseStringUTFChars(env, xer, xer_c);
+		release_encoded(per_c);
+		release_decoded(type_descriptor, intermediate);
+		conversion_end(arena_began);
+    } else {
+    		last_failure = FAILURE_TYPE;
+    }
 
     // Return the java byte array PER, which is null if we failed
 
     return per;
 }
 
-JNIEXPORT jstring JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_perToXer(JNIEnv* env, jclass myClass, jint type, jbyteArray per)
+jobject per_to_xer_java_as(JNIEnv* env, enum asn1Type type, const void *per_c, size_t per_c_size, int as_utf8_bytes)
 {
-
 	// Create dummy context
-	// TODO: accept this as an argument?
     struct asn_codec_ctx_s dummy_context = { .max_stack_size = 0 }; // No stack limit
 
-    int8_t *per_c = (*env)->GetByteArrayElements(env, per, NULL);
-    size_t per_c_size = (*env)->GetArrayLength(env, per);
     char *xer_c = NULL;
     size_t xer_c_size = 0;
     asn_dec_rval_t dec_rval;
     asn_enc_rval_t enc_rval;
 
-    jstring xer = NULL;
+    jobject xer = NULL;
 
     // Determine which type the user wants
 	struct asn_TYPE_descriptor_s *type_descriptor = pick_type(type);
@@ -395,7 +489,8 @@ JNIEXPORT jstring JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_pe
 
 	if (type_descriptor != NULL) {
 
-		void *intermediate;
+		void *intermediate = NULL;
+		int arena_began = conversion_begin();
 
 		void *xer_c_proxy = xer_c;
 
@@ -403,55 +498,593 @@ JNIEXPORT jstring JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_pe
 			xer_c = xer_c_proxy;
 			// If successful, check that the ids of the decoded type are correct
 			if (decoded_ids_valid(type, intermediate)) {
-				// If valid, copy the PER c byte array into the java byte array
+				if (as_utf8_bytes) {
+					// If valid, copy the XER c string into a java byte array as is, it is already UTF-8
+					xer = (*env)->NewByteArray(env, enc_rval.encoded);
+					if (xer != NULL) {
+						(*env)->SetByteArrayRegion(env, xer, 0, enc_rval.encoded, (const jbyte *)xer_c);
+					}
+				} else {
+					// If valid, copy the XER c string into the java string
+					xer = (*env)->NewStringUTF(env, xer_c);
+				}
+				last_failure = FAILURE_NONE;
+			} else {
+				last_failure = FAILURE_IDS;
+			}
+		} else {
+			last_failure = dec_rval.code != RC_OK ? FAILURE_DECODE | dec_rval.code : FAILURE_ENCODE;
+		}
+
+		release_encoded(xer_c_proxy);
+		release_decoded(type_descriptor, intermediate);
+		conversion_end(arena_began);
+	} else {
+		last_failure = FAILURE_TYPE;
+	}
+
+	return xer;
+}
 
-				xer = (*env)->NewStringUTF(env, xer_c);
+jstring per_to_xer_java(JNIEnv* env, enum asn1Type type, const void *per_c, size_t per_c_size)
+{
+	return per_to_xer_java_as(env, type, per_c, per_c_size, 0);
+}
+
+int batch_item_bounds(const jint *offsets_c, jsize index, jsize buffer_size, size_t *item_offset, size_t *item_size)
+{
+	jint start = offsets_c[index];
+	jint end = offsets_c[index + 1];
+
+	if (start < 0 || end < start || end > buffer_size) {
+		return 0;
+	}
+
+	*item_offset = start;
+	*item_size = end - start;
+	return 1;
+}
+
+JNIEXPORT jbyteArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_xerToPer(JNIEnv* env, jclass myClass, jint type, jstring xer)
+{
+    // Create a C string from the XER Java String
+    const char *xer_c = (*env)->GetStringUTFChars(env, xer, NULL);
+    // The decoder needs the length in bytes, not in chars, which differ as soon as there is any non-ASCII text
+    size_t xer_c_size = (*env)->GetStringUTFLength(env, xer);
+
+    jbyteArray per = xer_to_per_java(env, type, xer_c, xer_c_size);
+
+    // Release the c string array we got from the Java XER string
+
+    (*env)->ReleaseStringUTFChars(env, xer, xer_c);
+
+    // Return the java byte array PER, which is null if we failed
+
+    return per;
+}
+
+JNIEXPORT jstring JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_perToXer(JNIEnv* env, jclass myClass, jint type, jbyteArray per)
+{
+    int8_t *per_c = (*env)->GetByteArrayElements(env, per, NULL);
+    size_t per_c_size = (*env)->GetArrayLength(env, per);
+
+    jstring xer = per_to_xer_java(env, type, per_c, per_c_size);
+
+	(*env)->ReleaseByteArrayElements(env, per, per_c, JNI_ABORT);
+
+	return xer;
+}
+
+JNIEXPORT jbyteArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_xerToPerUtf8(JNIEnv* env, jclass myClass, jint type, jbyteArray xer, jint offset, jint length)
+{
+	if (offset < 0 || length < 0 || offset + (jlong)length > (*env)->GetArrayLength(env, xer)) {
+		return NULL;
+	}
+
+	// The bytes are already UTF-8, so they go to the decoder as they are, without any conversion
+	jbyte *xer_c = (*env)->GetByteArrayElements(env, xer, NULL);
+
+	jbyteArray per = xer_to_per_java(env, type, xer_c + offset, length);
+
+	(*env)->ReleaseByteArrayElements(env, xer, xer_c, JNI_ABORT);
+
+	return per;
+}
+
+JNIEXPORT jbyteArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_xerToPerUtf8Direct(JNIEnv* env, jclass myClass, jint type, jobject xer, jint offset, jint length)
+{
+	// Read the XER data in place, rather than copying it out of the buffer
+	uint8_t *xer_c = (*env)->GetDirectBufferAddress(env, xer);
+
+	if (xer_c == NULL || offset < 0 || length < 0 || offset + (jlong)length > (*env)->GetDirectBufferCapacity(env, xer)) {
+		return NULL;
+	}
+
+	return xer_to_per_java(env, type, xer_c + offset, length);
+}
+
+JNIEXPORT jbyteArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_perToXerUtf8(JNIEnv* env, jclass myClass, jint type, jbyteArray per)
+{
+    jbyte *per_c = (*env)->GetByteArrayElements(env, per, NULL);
+    size_t per_c_size = (*env)->GetArrayLength(env, per);
+
+    jbyteArray xer = per_to_xer_java_as(env, type, per_c, per_c_size, 1);
+
+	(*env)->ReleaseByteArrayElements(env, per, per_c, JNI_ABORT);
+
+	return xer;
+}
+
+JNIEXPORT jstring JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_perToXerDirect(JNIEnv* env, jclass myClass, jint type, jobject per, jint offset, jint length)
+{
+	// Read the PER data in place, rather than copying it out of the buffer
+	uint8_t *per_c = (*env)->GetDirectBufferAddress(env, per);
+
+	if (per_c == NULL || offset < 0 || length < 0 || offset + (jlong)length > (*env)->GetDirectBufferCapacity(env, per)) {
+		return NULL;
+	}
+
+	return per_to_xer_java(env, type, per_c + offset, length);
+}
+
+JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_xerToPerDirect(JNIEnv* env, jclass myClass, jint type, jstring xer, jobject per, jint offset, jint length)
+{
+	struct asn_codec_ctx_s dummy_context = { .max_stack_size = 0 }; // No stack limit
+
+	// Write the PER data in place, rather than copying it into a new java byte array
+	uint8_t *per_c = (*env)->GetDirectBufferAddress(env, per);
+
+	if (per_c == NULL || offset < 0 || length < 0 || offset + (jlong)length > (*env)->GetDirectBufferCapacity(env, per)) {
+		return -1;
+	}
+
+	jint per_c_size = -1;
+
+	// Determine which type the user wants
+	struct asn_TYPE_descriptor_s *type_descriptor = pick_type(type);
+
+	if (type_descriptor != NULL) {
+		const char *xer_c = (*env)->GetStringUTFChars(env, xer, NULL);
+		size_t xer_c_size = (*env)->GetStringUTFLength(env, xer);
+		void *intermediate = NULL;
+		int arena_began = conversion_begin();
+
+		asn_dec_rval_t dec_rval = asn_decode(&dummy_context, ATS_CANONICAL_XER, type_descriptor, &intermediate, xer_c, xer_c_size);
+
+		// If successful, check that the ids of the decoded type are correct before encoding
+		if (dec_rval.code != RC_OK) {
+			last_failure = FAILURE_DECODE | dec_rval.code;
+		} else if (!decoded_ids_valid(type, intermediate)) {
+			last_failure = FAILURE_IDS;
+		} else {
+			// If the encoding doesn't fit, this still reports how many bytes it needs
+			asn_enc_rval_t enc_rval = asn_encode_to_buffer(&dummy_context, ATS_UNALIGNED_CANONICAL_PER, type_descriptor, intermediate, per_c + offset, length);
+
+			if (enc_rval.encoded >= 0) {
+				per_c_size = enc_rval.encoded;
+				last_failure = FAILURE_NONE;
+			} else {
+				last_failure = FAILURE_ENCODE;
 			}
+		}
+
+		release_decoded(type_descriptor, intermediate);
+		conversion_end(arena_began);
+
+		(*env)->ReleaseStringUTFChars(env, xer, xer_c);
+	} else {
+		last_failure = FAILURE_TYPE;
+	}
 
-			free(intermediate);
+	return per_c_size;
+}
+
+JNIEXPORT jobjectArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_xerToPerBatch(JNIEnv* env, jclass myClass, jint type, jbyteArray xer, jintArray offsets)
+{
+	jsize count = (*env)->GetArrayLength(env, offsets) - 1;
+	jsize xer_c_size = (*env)->GetArrayLength(env, xer);
+
+	if (count < 0) {
+		return NULL;
+	}
+
+	// One result slot per item, each left null unless its item converts
+	jclass byte_array_class = (*env)->FindClass(env, "[B");
+	if (byte_array_class == NULL) {
+		return NULL;
+	}
+
+	jobjectArray pers = (*env)->NewObjectArray(env, count, byte_array_class, NULL);
+	if (pers == NULL) {
+		return NULL;
+	}
+
+	// Pin the packed input and its offsets once for the whole batch, leaving the OutOfMemoryError pending if either fails
+	jint *offsets_c = (*env)->GetIntArrayElements(env, offsets, NULL);
+	if (offsets_c == NULL) {
+		return NULL;
+	}
+
+	jbyte *xer_c = (*env)->GetByteArrayElements(env, xer, NULL);
+	if (xer_c == NULL) {
+		(*env)->ReleaseIntArrayElements(env, offsets, offsets_c, JNI_ABORT);
+		return NULL;
+	}
+
+	for (jsize i = 0; i < count; ++i) {
+		size_t item_offset;
+		size_t item_size;
+
+		if (!batch_item_bounds(offsets_c, i, xer_c_size, &item_offset, &item_size)) {
+			continue;
+		}
+
+		jbyteArray per = xer_to_per_java(env, type, xer_c + item_offset, item_size);
+
+		if ((*env)->ExceptionCheck(env)) {
+			break;
+		}
+
+		if (per != NULL) {
+			(*env)->SetObjectArrayElement(env, pers, i, per);
+			(*env)->DeleteLocalRef(env, per);
+		}
+	}
+
+	(*env)->ReleaseByteArrayElements(env, xer, xer_c, JNI_ABORT);
+	(*env)->ReleaseIntArrayElements(env, offsets, offsets_c, JNI_ABORT);
+
+	return pers;
+}
+
+JNIEXPORT jobjectArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_perToXerBatch(JNIEnv* env, jclass myClass, jint type, jbyteArray per, jintArray offsets)
+{
+	jsize count = (*env)->GetArrayLength(env, offsets) - 1;
+	jsize per_c_size = (*env)->GetArrayLength(env, per);
+
+	if (count < 0) {
+		return NULL;
+	}
+
+	// One result slot per item, each left null unless its item converts
+	jclass string_class = (*env)->FindClass(env, "java/lang/String");
+	if (string_class == NULL) {
+		return NULL;
+	}
+
+	jobjectArray xers = (*env)->NewObjectArray(env, count, string_class, NULL);
+	if (xers == NULL) {
+		return NULL;
+	}
+
+	// Pin the packed input and its offsets once for the whole batch, leaving the OutOfMemoryError pending if either fails
+	jint *offsets_c = (*env)->GetIntArrayElements(env, offsets, NULL);
+	if (offsets_c == NULL) {
+		return NULL;
+	}
+
+	jbyte *per_c = (*env)->GetByteArrayElements(env, per, NULL);
+	if (per_c == NULL) {
+		(*env)->ReleaseIntArrayElements(env, offsets, offsets_c, JNI_ABORT);
+		return NULL;
+	}
+
+	for (jsize i = 0; i < count; ++i) {
+		size_t item_offset;
+		size_t item_size;
+
+		if (!batch_item_bounds(offsets_c, i, per_c_size, &item_offset, &item_size)) {
+			continue;
+		}
+
+		jstring xer = per_to_xer_java(env, type, per_c + item_offset, item_size);
+
+		if ((*env)->ExceptionCheck(env)) {
+			break;
+		}
+
+		if (xer != NULL) {
+			(*env)->SetObjectArrayElement(env, xers, i, xer);
+			(*env)->DeleteLocalRef(env, xer);
 		}
 	}
 
 	(*env)->ReleaseByteArrayElements(env, per, per_c, JNI_ABORT);
+	(*env)->ReleaseIntArrayElements(env, offsets, offsets_c, JNI_ABORT);
 
+	return xers;
+}
 
-	return xer;
+JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_detectTypes(JNIEnv* env, jclass myClass, jbyteArray per)
+{
+	// The ids sit in the first couple of bytes, so only copy out the start of the array
+	uint8_t header_c[SEMI_HEADER_PEEK_SIZE];
+	jsize header_c_size = (*env)->GetArrayLength(env, per);
+
+	if (header_c_size > SEMI_HEADER_PEEK_SIZE) {
+		header_c_size = SEMI_HEADER_PEEK_SIZE;
+	}
+
+	(*env)->GetByteArrayRegion(env, per, 0, header_c_size, (jbyte *)header_c);
+
+	return detect_semi_types(header_c, header_c_size);
+}
+
+JNIEXPORT jlong JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_extractSemiIds(JNIEnv* env, jclass myClass, jint type, jbyteArray per)
+{
+	struct asn_codec_ctx_s dummy_context = { .max_stack_size = 0 }; // No stack limit
+
+	const semi_ids_t *expected_ids = get_expected_type_ids(type);
+	if (expected_ids == NULL) {
+		return -1;
+	}
+
+	// As with detectTypes, only the start of the array is needed
+	uint8_t header_c[SEMI_HEADER_PEEK_SIZE];
+	jsize header_c_size = (*env)->GetArrayLength(env, per);
+
+	if (header_c_size > SEMI_HEADER_PEEK_SIZE) {
+		header_c_size = SEMI_HEADER_PEEK_SIZE;
+	}
+
+	(*env)->GetByteArrayRegion(env, per, 0, header_c_size, (jbyte *)header_c);
+
+	SemiDialogID_t dialog_id;
+	SemiSequenceID_t seq_id;
+	size_t ids_end_bit_offset;
+
+	if (try_extract_semi_ids(&dummy_context, header_c, header_c_size, expected_ids->id_bit_offset, &dialog_id, &seq_id, &ids_end_bit_offset) != 0
+	    || !ids_are_expected(expected_ids, &dialog_id, &seq_id)
+	    || dialog_id < 0 || dialog_id > SEMI_ID_PACKED_MAX
+	    || seq_id < 0 || seq_id > SEMI_ID_PACKED_MAX) {
+		return -1;
+	}
+
+	// Pack everything into one value so that nothing is allocated to hand it back
+	return ((jlong)dialog_id << 48) | ((jlong)seq_id << 32) | (jlong)ids_end_bit_offset;
+}
+
+void *decode_retained(enum asn1Type type, enum asn_transfer_syntax syntax, const void *input_buffer, size_t input_size)
+{
+	struct asn_codec_ctx_s dummy_context = { .max_stack_size = 0 }; // No stack limit
+
+	struct asn_TYPE_descriptor_s *type_descriptor = pick_type(type);
+	if (type_descriptor == NULL) {
+		last_failure = FAILURE_TYPE;
+		return NULL;
+	}
+
+	// The structure outlives this call, so it is deliberately decoded outside of the arena
+	void *structure = NULL;
+	asn_dec_rval_t dec_rval = asn_decode(&dummy_context, syntax, type_descriptor, &structure, input_buffer, input_size);
+
+	if (dec_rval.code != RC_OK || !decoded_ids_valid(type, structure)) {
+		last_failure = dec_rval.code != RC_OK ? FAILURE_DECODE | dec_rval.code : FAILURE_IDS;
+		release_decoded(type_descriptor, structure);
+		return NULL;
+	}
+
+	last_failure = FAILURE_NONE;
+	return structure;
+}
+
+jlong validate_java(enum asn1Type type, enum asn_transfer_syntax syntax, const void *input_buffer, size_t input_size, jboolean check_constraints)
+{
+	struct asn_codec_ctx_s dummy_context = { .max_stack_size = 0 }; // No stack limit
+
+	struct asn_TYPE_descriptor_s *type_descriptor = pick_type(type);
+	if (type_descriptor == NULL) {
+		last_failure = FAILURE_TYPE;
+		return (jlong)FAILURE_TYPE << 32;
+	}
+
+	void *structure = NULL;
+	int arena_began = conversion_begin();
+
+	// Decode without encoding anything, uper_decode is used directly as it reports what it consumed in bits
+	asn_dec_rval_t dec_rval;
+	size_t consumed_bits;
+	if (syntax == ATS_UNALIGNED_CANONICAL_PER) {
+		dec_rval = uper_decode(&dummy_context, type_descriptor, &structure, input_buffer, input_size, 0, 0);
+		consumed_bits = dec_rval.consumed;
+	} else {
+		dec_rval = xer_decode(&dummy_context, type_descriptor, &structure, input_buffer, input_size);
+		consumed_bits = dec_rval.consumed * 8;
+	}
+
+	int failure;
+	if (dec_rval.code != RC_OK) {
+		failure = FAILURE_DECODE | dec_rval.code;
+	} else if (!decoded_ids_valid(type, structure)) {
+		failure = FAILURE_IDS;
+	} else if (check_constraints && asn_check_constraints(type_descriptor, structure, NULL, NULL) != 0) {
+		failure = FAILURE_CONSTRAINTS;
+	} else {
+		failure = FAILURE_NONE;
+	}
+
+	release_decoded(type_descriptor, structure);
+	conversion_end(arena_began);
+
+	last_failure = failure;
+
+	// Pack the result so that validating allocates nothing on the Java side
+	if (consumed_bits > UINT32_MAX) {
+		consumed_bits = UINT32_MAX;
+	}
+	return ((jlong)failure << 32) | (jlong)(uint32_t)consumed_bits;
 }
 
-JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getAdvisorySituationDataType(JNIEnv * env, jclass myClass)
+JNIEXPORT jlong JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_validatePer(JNIEnv* env, jclass myClass, jint type, jbyteArray per, jboolean check_constraints)
 {
-	return ASN1TYPE_ADVISORY_SITUATION_DATA;
+	jbyte *per_c = (*env)->GetByteArrayElements(env, per, NULL);
+	size_t per_c_size = (*env)->GetArrayLength(env, per);
+
+	jlong result = validate_java(type, ATS_UNALIGNED_CANONICAL_PER, per_c, per_c_size, check_constraints);
+
+	(*env)->ReleaseByteArrayElements(env, per, per_c, JNI_ABORT);
+
+	return result;
 }
 
+JNIEXPORT jlong JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_validateXer(JNIEnv* env, jclass myClass, jint type, jstring xer, jboolean check_constraints)
+{
+	const char *xer_c = (*env)->GetStringUTFChars(env, xer, NULL);
+	size_t xer_c_size = (*env)->GetStringUTFLength(env, xer);
 
+	jlong result = validate_java(type, ATS_CANONICAL_XER, xer_c, xer_c_size, check_constraints);
 
-JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getServiceRequestType(JNIEnv * env, jclass myClass)
+	(*env)->ReleaseStringUTFChars(env, xer, xer_c);
+
+	return result;
+}
+
+JNIEXPORT jlong JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_validateXerUtf8(JNIEnv* env, jclass myClass, jint type, jbyteArray xer, jint offset, jint length, jboolean check_constraints)
 {
-	return ASN1TYPE_SERVICE_REQUEST;
+	if (offset < 0 || length < 0 || offset + (jlong)length > (*env)->GetArrayLength(env, xer)) {
+		return (jlong)(FAILURE_DECODE | RC_FAIL) << 32;
+	}
+
+	jbyte *xer_c = (*env)->GetByteArrayElements(env, xer, NULL);
+
+	jlong result = validate_java(type, ATS_CANONICAL_XER, xer_c + offset, length, check_constraints);
+
+	(*env)->ReleaseByteArrayElements(env, xer, xer_c, JNI_ABORT);
+
+	return result;
 }
 
-JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getServiceResponseType(JNIEnv * env, jclass myClass)
+JNIEXPORT jlong JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_decodePer(JNIEnv* env, jclass myClass, jint type, jbyteArray per)
 {
-	return ASN1TYPE_SERVICE_RESPONSE;
+	jbyte *per_c = (*env)->GetByteArrayElements(env, per, NULL);
+	size_t per_c_size = (*env)->GetArrayLength(env, per);
+
+	void *structure = decode_retained(type, ATS_UNALIGNED_CANONICAL_PER, per_c, per_c_size);
+
+	(*env)->ReleaseByteArrayElements(env, per, per_c, JNI_ABORT);
+
+	return (jlong)(intptr_t)structure;
 }
 
-JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getDataRequestType(JNIEnv * env, jclass myClass)
+JNIEXPORT jlong JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_decodeXer(JNIEnv* env, jclass myClass, jint type, jstring xer)
 {
-	return ASN1TYPE_DATA_REQUEST;
+	const char *xer_c = (*env)->GetStringUTFChars(env, xer, NULL);
+	size_t xer_c_size = (*env)->GetStringUTFLength(env, xer);
+
+	void *structure = decode_retained(type, ATS_CANONICAL_XER, xer_c, xer_c_size);
+
+	(*env)->ReleaseStringUTFChars(env, xer, xer_c);
+
+	return (jlong)(intptr_t)structure;
 }
 
-JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getAdvisorySituationDataDistributionType(JNIEnv * env, jclass myClass)
+JNIEXPORT jstring JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_encodeXer(JNIEnv* env, jclass myClass, jint type, jlong handle)
 {
-	return ASN1TYPE_ADVISORY_SITUATION_DATA_DISTRIBUTION;
+	struct asn_codec_ctx_s dummy_context = { .max_stack_size = 0 }; // No stack limit
+
+	struct asn_TYPE_descriptor_s *type_descriptor = pick_type(type);
+	void *structure = (void *)(intptr_t)handle;
+	jstring xer = NULL;
+
+	if (type_descriptor != NULL && structure != NULL) {
+		// Only the encoded output is scratch memory, the structure itself was allocated outside the arena
+		int arena_began = conversion_begin();
+
+		asn_encode_to_new_buffer_result_t enc_result = asn_encode_to_new_buffer(&dummy_context, ATS_CANONICAL_XER, type_descriptor, structure);
+		if (enc_result.result.encoded != -1) {
+			xer = (*env)->NewStringUTF(env, enc_result.buffer);
+		}
+
+		release_encoded(enc_result.buffer);
+		conversion_end(arena_began);
+	}
+
+	return xer;
+}
+
+JNIEXPORT jbyteArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_encodePer(JNIEnv* env, jclass myClass, jint type, jlong handle)
+{
+	struct asn_codec_ctx_s dummy_context = { .max_stack_size = 0 }; // No stack limit
+
+	struct asn_TYPE_descriptor_s *type_descriptor = pick_type(type);
+	void *structure = (void *)(intptr_t)handle;
+	jbyteArray per = NULL;
+
+	if (type_descriptor != NULL && structure != NULL) {
+		// Only the encoded output is scratch memory, the structure itself was allocated outside the arena
+		int arena_began = conversion_begin();
+
+		asn_encode_to_new_buffer_result_t enc_result = asn_encode_to_new_buffer(&dummy_context, ATS_UNALIGNED_CANONICAL_PER, type_descriptor, structure);
+		if (enc_result.result.encoded != -1) {
+			per = (*env)->NewByteArray(env, enc_result.result.encoded);
+			if (per != NULL) {
+				(*env)->SetByteArrayRegion(env, per, 0, enc_result.result.encoded, enc_result.buffer);
+			}
+		}
+
+		release_encoded(enc_result.buffer);
+		conversion_end(arena_began);
+	}
+
+	return per;
+}
+
+JNIEXPORT void JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_freeDecoded(JNIEnv* env, jclass myClass, jint type, jlong handle)
+{
+	struct asn_TYPE_descriptor_s *type_descriptor = pick_type(type);
+
+	// No arena is active between calls, so this walks and frees the whole structure
+	if (type_descriptor != NULL) {
+		release_decoded(type_descriptor, (void *)(intptr_t)handle);
+	}
+}
+
+JNIEXPORT void JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_setArenaEnabled(JNIEnv* env, jclass myClass, jboolean enabled)
+{
+	per_xer_set_arena_enabled(enabled == JNI_TRUE);
 }
 
+JNIEXPORT jboolean JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_isArenaEnabled(JNIEnv* env, jclass myClass)
+{
+#ifdef PER_XER_ARENA_HOOKED
+	return per_xer_is_arena_enabled() ? JNI_TRUE : JNI_FALSE;
+#else
+	// Without the hooks in the generated code, the arena never sees any allocations
+	return JNI_FALSE;
+#endif
+}
 
-JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getDataAcceptanceType(JNIEnv * env, jclass myClass)
+JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_lastFailure(JNIEnv* env, jclass myClass)
 {
-	return ASN1TYPE_DATA_ACCEPTANCE;
+	return last_failure;
 }
 
-JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getDataReceiptType(JNIEnv * env, jclass myClass)
+JNIEXPORT jobjectArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getTypeTable(JNIEnv * env, jclass myClass)
 {
-	return ASN1TYPE_DATA_RECEIPT;
+	jclass string_class = (*env)->FindClass(env, "java/lang/String");
+	if (string_class == NULL) {
+		return NULL;
+	}
+
+	jobjectArray table = (*env)->NewObjectArray(env, ASN1TYPE_COUNT, string_class, NULL);
+	if (table == NULL) {
+		return NULL;
+	}
+
+	// Index every descriptor's name by its enum value, so the whole table crosses into java in one call
+	for (int type = 0; type < ASN1TYPE_COUNT; ++type) {
+		struct asn_TYPE_descriptor_s *type_descriptor = pick_type(type);
+		if (type_descriptor == NULL) {
+			continue;
+		}
+
+		jstring name = (*env)->NewStringUTF(env, type_descriptor->name);
+		if (name == NULL) {
+			return NULL;
+		}
+		(*env)->SetObjectArrayElement(env, table, type, name);
+		(*env)->DeleteLocalRef(env, name);
+	}
+
+	return table;
 }
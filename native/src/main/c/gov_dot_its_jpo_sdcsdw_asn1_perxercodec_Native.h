@@ -7,78 +7,202 @@
 #ifdef __cplusplus
 extern "C" {
 #endif
+#undef gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_FAILURE_NONE
+#define gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_FAILURE_NONE 0L
+#undef gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_FAILURE_DECODE
+#define gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_FAILURE_DECODE 256L
+#undef gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_FAILURE_IDS
+#define gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_FAILURE_IDS 512L
+#undef gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_FAILURE_ENCODE
+#define gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_FAILURE_ENCODE 768L
+#undef gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_FAILURE_TYPE
+#define gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_FAILURE_TYPE 1024L
+#undef gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_FAILURE_CONSTRAINTS
+#define gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_FAILURE_CONSTRAINTS 1280L
 /*
  * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
- * Method:    getAdvisorySituationDataType
- * Signature: ()I
+ * Method:    getTypeTable
+ * Signature: ()[Ljava/lang/String;
  */
-JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getAdvisorySituationDataType
+JNIEXPORT jobjectArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getTypeTable
   (JNIEnv *, jclass);
 
 /*
  * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
- * Method:    getServiceRequestType
- * Signature: ()I
+ * Method:    perToXer
+ * Signature: (I[B)Ljava/lang/String;
  */
-JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getServiceRequestType
-  (JNIEnv *, jclass);
+JNIEXPORT jstring JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_perToXer
+  (JNIEnv *, jclass, jint, jbyteArray);
 
 /*
  * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
- * Method:    getServiceResponseType
- * Signature: ()I
+ * Method:    xerToPer
+ * Signature: (ILjava/lang/String;)[B
  */
-JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getServiceResponseType
-  (JNIEnv *, jclass);
+JNIEXPORT jbyteArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_xerToPer
+  (JNIEnv *, jclass, jint, jstring);
 
 /*
  * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
- * Method:    getDataRequestType
- * Signature: ()I
+ * Method:    perToXerUtf8
+ * Signature: (I[B)[B
  */
-JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getDataRequestType
-  (JNIEnv *, jclass);
+JNIEXPORT jbyteArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_perToXerUtf8
+  (JNIEnv *, jclass, jint, jbyteArray);
 
 /*
  * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
- * Method:    getAdvisorySituationDataDistributionType
- * Signature: ()I
+ * Method:    xerToPerUtf8
+ * Signature: (I[BII)[B
  */
-JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getAdvisorySituationDataDistributionType
-  (JNIEnv *, jclass);
+JNIEXPORT jbyteArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_xerToPerUtf8
+  (JNIEnv *, jclass, jint, jbyteArray, jint, jint);
 
 /*
  * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
- * Method:    getDataAcceptanceType
- * Signature: ()I
+ * Method:    xerToPerUtf8Direct
+ * Signature: (ILjava/nio/ByteBuffer;II)[B
  */
-JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getDataAcceptanceType
-  (JNIEnv *, jclass);
+JNIEXPORT jbyteArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_xerToPerUtf8Direct
+  (JNIEnv *, jclass, jint, jobject, jint, jint);
 
 /*
  * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
- * Method:    getDataReceiptType
- * Signature: ()I
+ * Method:    perToXerDirect
+ * Signature: (ILjava/nio/ByteBuffer;II)Ljava/lang/String;
  */
-JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_getDataReceiptType
-  (JNIEnv *, jclass);
+JNIEXPORT jstring JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_perToXerDirect
+  (JNIEnv *, jclass, jint, jobject, jint, jint);
 
 /*
  * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
- * Method:    perToXer
- * Signature: (I[B)Ljava/lang/String;
+ * Method:    xerToPerDirect
+ * Signature: (ILjava/lang/String;Ljava/nio/ByteBuffer;II)I
  */
-JNIEXPORT jstring JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_perToXer
+JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_xerToPerDirect
+  (JNIEnv *, jclass, jint, jstring, jobject, jint, jint);
+
+/*
+ * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
+ * Method:    perToXerBatch
+ * Signature: (I[B[I)[Ljava/lang/String;
+ */
+JNIEXPORT jobjectArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_perToXerBatch
+  (JNIEnv *, jclass, jint, jbyteArray, jintArray);
+
+/*
+ * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
+ * Method:    xerToPerBatch
+ * Signature: (I[B[I)[[B
+ */
+JNIEXPORT jobjectArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_xerToPerBatch
+  (JNIEnv *, jclass, jint, jbyteArray, jintArray);
+
+/*
+ * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
+ * Method:    detectTypes
+ * Signature: ([B)I
+ */
+JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_detectTypes
+  (JNIEnv *, jclass, jbyteArray);
+
+/*
+ * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
+ * Method:    extractSemiIds
+ * Signature: (I[B)J
+ */
+JNIEXPORT jlong JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_extractSemiIds
   (JNIEnv *, jclass, jint, jbyteArray);
 
 /*
  * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
- * Method:    xerToPer
- * Signature: (ILjava/lang/String;)[B
+ * Method:    decodePer
+ * Signature: (I[B)J
  */
-JNIEXPORT jbyteArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_xerToPer
+JNIEXPORT jlong JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_decodePer
+  (JNIEnv *, jclass, jint, jbyteArray);
+
+/*
+ * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
+ * Method:    decodeXer
+ * Signature: (ILjava/lang/String;)J
+ */
+JNIEXPORT jlong JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_decodeXer
   (JNIEnv *, jclass, jint, jstring);
 
+/*
+ * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
+ * Method:    encodeXer
+ * Signature: (IJ)Ljava/lang/String;
+ */
+JNIEXPORT jstring JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_encodeXer
+  (JNIEnv *, jclass, jint, jlong);
+
+/*
+ * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
+ * Method:    encodePer
+ * Signature: (IJ)[B
+ */
+JNIEXPORT jbyteArray JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_encodePer
+  (JNIEnv *, jclass, jint, jlong);
+
+/*
+ * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
+ * Method:    freeDecoded
+ * Signature: (IJ)V
+ */
+JNIEXPORT void JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_freeDecoded
+  (JNIEnv *, jclass, jint, jlong);
+
+/*
+ * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
+ * Method:    validatePer
+ * Signature: (I[BZ)J
+ */
+JNIEXPORT jlong JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_validatePer
+  (JNIEnv *, jclass, jint, jbyteArray, jboolean);
+
+/*
+ * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
+ * Method:    validateXer
+ * Signature: (ILjava/lang/String;Z)J
+ */
+JNIEXPORT jlong JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_validateXer
+  (JNIEnv *, jclass, jint, jstring, jboolean);
+
+/*
+ * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
+ * Method:    validateXerUtf8
+ * Signature: (I[BIIZ)J
+ */
+JNIEXPORT jlong JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_validateXerUtf8
+  (JNIEnv *, jclass, jint, jbyteArray, jint, jint, jboolean);
+
+/*
+ * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
+ * Method:    setArenaEnabled
+ * Signature: (Z)V
+ */
+JNIEXPORT void JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_setArenaEnabled
+  (JNIEnv *, jclass, jboolean);
+
+/*
+ * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
+ * Method:    isArenaEnabled
+ * Signature: ()Z
+ */
+JNIEXPORT jboolean JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_isArenaEnabled
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native
+ * Method:    lastFailure
+ * Signature: ()I
+ */
+JNIEXPORT jint JNICALL Java_gov_dot_its_jpo_sdcsdw_asn1_perxercodec_Native_lastFailure
+  (JNIEnv *, jclass);
+
 #ifdef __cplusplus
 }
 #endif
@@ -0,0 +1,309 @@
+#include "per_xer_alloc.h"
+
+#include <pthread.h>
+#include <stdint.h>
+#include <stdlib.h>
+#include <string.h>
+
+// Every allocation is aligned to this, which is enough for any type the generated code stores
+#define ARENA_ALIGNMENT 16
+
+// Size of the header in front of each allocation, which records the allocation's size for realloc
+#define ARENA_HEADER_SIZE ARENA_ALIGNMENT
+
+// Size of a regular chunk, which comfortably holds a decoded message and its encoding
+#define ARENA_CHUNK_SIZE (64 * 1024)
+
+// Regular chunks kept between conversions, anything more is returned to the C library when the arena ends
+#define ARENA_MAX_RETAINED_CHUNKS 16
+
+typedef struct arena_chunk_s {
+	struct arena_chunk_s *next;
+	size_t size;
+	size_t used;
+	// Start of the last allocation, which realloc can grow in place
+	unsigned char *last;
+	unsigned char data[] __attribute__((aligned(ARENA_ALIGNMENT)));
+} arena_chunk_t;
+
+typedef struct arena_s {
+	arena_chunk_t *first;
+	arena_chunk_t *current;
+	int active;
+} arena_t;
+
+static volatile int arena_enabled = 1;
+
+static pthread_key_t arena_key;
+static pthread_once_t arena_key_once = PTHREAD_ONCE_INIT;
+
+// Cache of the thread's arena, so the hot path doesn't have to go through pthread_getspecific
+static __thread arena_t *thread_arena = NULL;
+
+static size_t align_up(size_t size)
+{
+	return (size + (ARENA_ALIGNMENT - 1)) & ~(size_t)(ARENA_ALIGNMENT - 1);
+}
+
+static void arena_destroy(void *arena_ptr)
+{
+	arena_t *arena = arena_ptr;
+	arena_chunk_t *chunk = arena->first;
+
+	while (chunk != NULL) {
+		arena_chunk_t *next = chunk->next;
+		free(chunk);
+		chunk = next;
+	}
+
+	free(arena);
+}
+
+static void arena_key_create(void)
+{
+	// Threads which exit return their arena's chunks
+	pthread_key_create(&arena_key, arena_destroy);
+}
+
+static arena_t *get_thread_arena(void)
+{
+	if (thread_arena == NULL) {
+		pthread_once(&arena_key_once, arena_key_create);
+
+		arena_t *arena = calloc(1, sizeof(arena_t));
+		if (arena == NULL) {
+			return NULL;
+		}
+
+		if (pthread_setspecific(arena_key, arena) != 0) {
+			free(arena);
+			return NULL;
+		}
+
+		thread_arena = arena;
+	}
+
+	return thread_arena;
+}
+
+static arena_chunk_t *new_chunk(size_t size)
+{
+	arena_chunk_t *chunk = malloc(sizeof(arena_chunk_t) + size);
+	if (chunk == NULL) {
+		return NULL;
+	}
+
+	chunk->next = NULL;
+	chunk->size = size;
+	chunk->used = 0;
+	chunk->last = NULL;
+	return chunk;
+}
+
+static int in_chunk(const arena_chunk_t *chunk, const void *ptr)
+{
+	const unsigned char *byte_ptr = ptr;
+	return byte_ptr >= chunk->data && byte_ptr < chunk->data + chunk->used;
+}
+
+static int in_arena(const arena_t *arena, const void *ptr)
+{
+	for (const arena_chunk_t *chunk = arena->first; chunk != NULL; chunk = chunk->next) {
+		if (in_chunk(chunk, ptr)) {
+			return 1;
+		}
+	}
+
+	return 0;
+}
+
+static size_t allocation_size(const void *ptr)
+{
+	return *(const size_t *)((const unsigned char *)ptr - ARENA_HEADER_SIZE);
+}
+
+static void *arena_alloc(arena_t *arena, size_t size)
+{
+	size_t needed = ARENA_HEADER_SIZE + align_up(size);
+	if (needed < size) {
+		// Overflowed
+		return NULL;
+	}
+
+	arena_chunk_t *chunk = arena->current;
+
+	// Chunks after the current one are left over from earlier conversions and still empty, use them before allocating more
+	while (chunk != NULL && chunk->size - chunk->used < needed) {
+		chunk = chunk->next;
+	}
+
+	if (chunk == NULL) {
+		arena_chunk_t *fresh = new_chunk(needed > ARENA_CHUNK_SIZE ? needed : ARENA_CHUNK_SIZE);
+		if (fresh == NULL) {
+			return NULL;
+		}
+
+		// Link the new chunk in right after the current one, ahead of any unused leftovers
+		if (arena->current == NULL) {
+			fresh->next = arena->first;
+			arena->first = fresh;
+		} else {
+			fresh->next = arena->current->next;
+			arena->current->next = fresh;
+		}
+		chunk = fresh;
+	}
+
+	arena->current = chunk;
+
+	unsigned char *header = chunk->data + chunk->used;
+	*(size_t *)header = size;
+	chunk->used += needed;
+	chunk->last = header + ARENA_HEADER_SIZE;
+
+	return chunk->last;
+}
+
+void *per_xer_malloc(size_t size)
+{
+	arena_t *arena = thread_arena;
+
+	if (arena != NULL && arena->active) {
+		return arena_alloc(arena, size);
+	}
+
+	return malloc(size);
+}
+
+void *per_xer_calloc(size_t nmemb, size_t size)
+{
+	arena_t *arena = thread_arena;
+
+	if (arena != NULL && arena->active) {
+		if (size != 0 && nmemb > SIZE_MAX / size) {
+			return NULL;
+		}
+
+		void *ptr = arena_alloc(arena, nmemb * size);
+		if (ptr != NULL) {
+			// Chunks are reused, so they need clearing just like fresh memory from calloc
+			memset(ptr, 0, nmemb * size);
+		}
+		return ptr;
+	}
+
+	return calloc(nmemb, size);
+}
+
+void *per_xer_realloc(void *ptr, size_t size)
+{
+	arena_t *arena = thread_arena;
+
+	if (arena == NULL || !arena->active) {
+		return realloc(ptr, size);
+	} else if (ptr == NULL) {
+		return arena_alloc(arena, size);
+	} else if (!in_arena(arena, ptr)) {
+		// Allocated before the arena began
+		return realloc(ptr, size);
+	}
+
+	size_t old_size = allocation_size(ptr);
+	arena_chunk_t *chunk = arena->current;
+
+	// Growing encode buffers is the common case, and they are usually the most recent allocation, so grow them in place
+	if (chunk->last == ptr) {
+		size_t start = (size_t)((unsigned char *)ptr - chunk->data);
+		if (size <= chunk->size - start) {
+			chunk->used = start + align_up(size);
+			*(size_t *)((unsigned char *)ptr - ARENA_HEADER_SIZE) = size;
+			return ptr;
+		}
+	}
+
+	void *new_ptr = arena_alloc(arena, size);
+	if (new_ptr != NULL) {
+		memcpy(new_ptr, ptr, old_size < size ? old_size : size);
+	}
+	return new_ptr;
+}
+
+void per_xer_free(void *ptr)
+{
+	arena_t *arena = thread_arena;
+
+	if (ptr == NULL) {
+		return;
+	}
+
+	// Memory from the arena is all released at once when the arena ends
+	if (arena != NULL && arena->active && in_arena(arena, ptr)) {
+		return;
+	}
+
+	free(ptr);
+}
+
+void per_xer_set_arena_enabled(int enabled)
+{
+	arena_enabled = enabled;
+}
+
+int per_xer_is_arena_enabled(void)
+{
+	return arena_enabled;
+}
+
+int per_xer_arena_begin(void)
+{
+	if (!arena_enabled) {
+		return 0;
+	}
+
+	arena_t *arena = get_thread_arena();
+
+	// Conversions don't nest, but if one somehow does, leave the outer one in charge of the arena
+	if (arena == NULL || arena->active) {
+		return 0;
+	}
+
+	arena->active = 1;
+	arena->current = arena->first;
+	return 1;
+}
+
+void per_xer_arena_end(void)
+{
+	arena_t *arena = thread_arena;
+
+	if (arena == NULL || !arena->active) {
+		return;
+	}
+
+	arena->active = 0;
+
+	// Keep a bounded number of regular chunks for the next conversion, and give everything else back
+	int retained = 0;
+	arena_chunk_t **link = &arena->first;
+	while (*link != NULL) {
+		arena_chunk_t *chunk = *link;
+
+		if (chunk->size == ARENA_CHUNK_SIZE && retained < ARENA_MAX_RETAINED_CHUNKS) {
+			chunk->used = 0;
+			chunk->last = NULL;
+			++retained;
+			link = &chunk->next;
+		} else {
+			*link = chunk->next;
+			free(chunk);
+		}
+	}
+
+	arena->current = arena->first;
+}
+
+int per_xer_arena_active(void)
+{
+	arena_t *arena = thread_arena;
+	return arena != NULL && arena->active;
+}
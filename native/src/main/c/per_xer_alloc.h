@@ -0,0 +1,41 @@
+#ifndef PER_XER_ALLOC_H
+#define PER_XER_ALLOC_H
+
+#include <stddef.h>
+
+/*
+ * Memory allocation for the generated ASN.1 code
+ *
+ * The generated code's CALLOC, MALLOC, REALLOC, and FREEMEM macros are pointed at these functions when it is installed.
+ * While a thread has its arena active, allocations are bumped out of that thread's arena, freeing them does nothing,
+ * and ending the arena releases everything allocated since it began in one step, keeping the chunks for the next conversion.
+ * At any other time, these behave exactly like the C library functions.
+ */
+
+void *per_xer_malloc(size_t size);
+
+void *per_xer_calloc(size_t nmemb, size_t size);
+
+void *per_xer_realloc(void *ptr, size_t size);
+
+void per_xer_free(void *ptr);
+
+/* Enable or disable arenas for conversions which have not begun yet */
+void per_xer_set_arena_enabled(int enabled);
+
+int per_xer_is_arena_enabled(void);
+
+/*
+ * Begin allocating from the calling thread's arena, if arenas are enabled
+ * Returns 1 if the arena was activated, in which case per_xer_arena_end must be called once the conversion is finished,
+ * 0 if allocations will go to the C library as usual
+ */
+int per_xer_arena_begin(void);
+
+/* Release everything allocated from the calling thread's arena, and stop allocating from it */
+void per_xer_arena_end(void);
+
+/* Check if the calling thread is currently allocating from its arena */
+int per_xer_arena_active(void);
+
+#endif